@@ -21,6 +21,7 @@ import es.usc.citius.hipster.model.node.factory.NodeExpander;
 import es.usc.citius.hipster.model.node.factory.NodeFactoryWithUpdates;
 import es.usc.citius.hipster.model.function.impl.BinaryOperation;
 import es.usc.citius.hipster.model.function.impl.ScalarOperation;
+import es.usc.citius.lab.hipster.collections.CompactClosedMap;
 
 import java.util.*;
 
@@ -30,6 +31,7 @@ public class ARAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
     protected float initialEpsilon;
     protected NodeExpander<A, S, N> expander;
     protected Factory<A, S, C, N> nodeFactory;
+    protected boolean compactClosedSet = false;
 
     public ARAStar(S start, S goal, float initialEpsilon, NodeExpander<A, S, N> expander) {
         this.start = start;
@@ -44,9 +46,24 @@ public class ARAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
         return new Iterator();
     }
 
+    public boolean isCompactClosedSet() {
+        return compactClosedSet;
+    }
+
+    /**
+     * Enables or disables the use of a {@link CompactClosedMap} to keep the closed nodes
+     * of the next iterators, which only stores the cost, the action and the parent of each
+     * node and rebuilds the nodes when they are requested.
+     *
+     * @param compactClosedSet true to use a compact closed map
+     */
+    public void setCompactClosedSet(boolean compactClosedSet) {
+        this.compactClosedSet = compactClosedSet;
+    }
+
     public class Iterator implements java.util.Iterator<N>{
         protected HashMap<S, N> open;
-        protected HashMap<S, N> closed;
+        protected Map<S, N> closed;
         protected HashMap<S, N> incons;
         protected Queue<N> openQueue;
         protected N beginNode;
@@ -56,7 +73,11 @@ public class ARAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
             //OPEN = CLOSED = INCONS = 0
             this.open = new HashMap<>();
             this.openQueue = new PriorityQueue<>();
-            this.closed = new HashMap<>();
+            if (compactClosedSet) {
+                this.closed = new CompactClosedMap<>(nodeFactory);
+            } else {
+                this.closed = new HashMap<>();
+            }
             this.incons = new HashMap<>();
             nodeFactory.setScaleFactor(initialEpsilon);
             this.stopCondition = false;
@@ -85,8 +106,7 @@ public class ARAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
                 //for each successor s' of s
                 for(N successor : expander.expand(current)) {
                     //check if visited
-                    N successorClosed = closed.get(successor.state());
-                    if (successorClosed != null && successorClosed.getCost().compareTo(successor.getCost()) <= 0) {
+                    if (closedNoWorse(successor)) {
                         //insert into INCONS
                         incons.put(successor.state(), successor);
                     }
@@ -141,6 +161,21 @@ public class ARAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
             throw new UnsupportedOperationException();
         }
 
+        /**
+         * Checks if CLOSED contains a node of the same state with a lower or equal cost.
+         *
+         * @param node node to check
+         * @return true if there is a closed node of the same state which is not worse
+         */
+        @SuppressWarnings("unchecked")
+        protected boolean closedNoWorse(N node) {
+            if (closed instanceof CompactClosedMap) {
+                return ((CompactClosedMap<A, S, N>) closed).containsNoWorse(node);
+            }
+            N closedNode = closed.get(node.state());
+            return closedNode != null && closedNode.getCost().compareTo(node.getCost()) <= 0;
+        }
+
         /**
          * @return retrieves, but not removes, the first element in the OPEN queue.
          */
@@ -168,7 +203,7 @@ public class ARAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
             return open;
         }
 
-        public HashMap<S, N> getClosed() {
+        public Map<S, N> getClosed() {
             return closed;
         }
 
@@ -17,6 +17,11 @@ package es.usc.citius.hipster.algorithm;
 
 import es.usc.citius.hipster.model.node.HeuristicNode;
 import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.lab.hipster.collections.CompactClosedMap;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+import es.usc.citius.lab.hipster.collections.IndexedQueue;
+import es.usc.citius.lab.hipster.collections.IndexedQueueFactory;
 
 import java.util.*;
 
@@ -24,10 +29,15 @@ import java.util.*;
  * <p>
  * Implementation of the A* algorithm. The A* algorithm extends the original
  * Dijkstra's algorithm by including heuristics to improve the search. By default,
- * the implementation uses a {@link java.util.PriorityQueue} for the nodes, which requires
- * {@literal O(log n)} time for insertions. The queue can be changed to use another
- * type of queue, for example a fibonacci heap as a queue, which works with constant amortized
- * time for insertions.
+ * the implementation uses an {@link es.usc.citius.lab.hipster.collections.IndexedHeap} for the
+ * open nodes, which keeps a single entry per state and updates it in place (decrease-key)
+ * when a better path to an open state is found, requiring {@literal O(log n)} time for
+ * insertions, updates and removals. Other {@link es.usc.citius.lab.hipster.collections.IndexedQueue}
+ * implementations can be used through an {@link es.usc.citius.lab.hipster.collections.IndexedQueueFactory},
+ * for example a {@link es.usc.citius.lab.hipster.collections.BucketQueue} or a
+ * {@link es.usc.citius.lab.hipster.collections.RadixHeap} for problems with small integer costs.
+ * The closed nodes can be kept in a {@link es.usc.citius.lab.hipster.collections.CompactClosedMap}
+ * (see {@link #setCompactClosedSet(boolean)}) to reduce the memory used by exhaustive searches.
  * </p>
  *
  * <a href="http://ieeexplore.ieee.org/xpls/abs_all.jsp?arnumber=4082128">Original paper</a>:
@@ -44,6 +54,8 @@ public class AStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>>
 
     protected final N initialNode;
     protected final NodeExpander<A,S,N> expander;
+    protected final IndexedQueueFactory<S,N> queueFactory;
+    protected boolean compactClosedSet = false;
 
     /**
      * Default constructor for ADStarForward. Requires the initial state, the successor function to generate
@@ -53,8 +65,21 @@ public class AStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>>
      * @param expander function to obtain (expand) a node to obtain the successor nodes.
      */
     public AStar(N initialNode, NodeExpander<A,S,N> expander) {
+        this(initialNode, expander, IndexedHeap.<S,N>factory());
+    }
+
+    /**
+     * Creates a new A* algorithm which keeps the open nodes in the queues created
+     * by the provided factory.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param queueFactory factory of the queue used to sort the open nodes.
+     */
+    public AStar(N initialNode, NodeExpander<A,S,N> expander, IndexedQueueFactory<S,N> queueFactory) {
         this.initialNode = initialNode;
         this.expander = expander;
+        this.queueFactory = queueFactory;
     }
 
     @Override
@@ -62,36 +87,48 @@ public class AStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>>
         return new Iterator();
     }
 
+    public boolean isCompactClosedSet() {
+        return compactClosedSet;
+    }
+
+    /**
+     * Enables or disables the use of a {@link CompactClosedMap} to keep the closed nodes
+     * of the next iterators, which only stores the cost, the action and the parent of each
+     * node and rebuilds the nodes when they are requested.
+     *
+     * @param compactClosedSet true to use a compact closed map
+     */
+    public void setCompactClosedSet(boolean compactClosedSet) {
+        this.compactClosedSet = compactClosedSet;
+    }
+
     /**
      * Internal iterator that implements all the logic of the A* search
      */
     public class Iterator implements java.util.Iterator<N> {
-        protected Map<S, N> open;
+        protected IndexedQueue<S, N> queue;
         protected Map<S, N> closed;
-        protected Queue<N> queue;
 
         protected Iterator() {
-            open = new HashMap<S, N>();
-            closed = new HashMap<S, N>();
-            queue = new PriorityQueue<N>();
+            if (compactClosedSet) {
+                closed = new CompactClosedMap<A, S, N>(expander.getNodeFactory());
+            } else {
+                closed = new HashMap<S, N>();
+            }
+            queue = newQueue();
             queue.add(initialNode);
-            open.put(initialNode.state(), initialNode);
         }
 
         /**
          * Returns true if open queue is not empty.
          */
         public boolean hasNext() {
-            return !open.values().isEmpty();
+            return !queue.isEmpty();
         }
 
         protected N takePromising() {
-            // Poll until a valid state is found
-            N node = queue.poll();
-            while (!open.containsKey(node.state())) {
-                node = queue.poll();
-            }
-            return node;
+            // The queue only contains the best node for each open state
+            return queue.poll();
         }
 
         /**
@@ -105,36 +142,49 @@ public class AStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>>
             // Get and remove the best node in the queue
             N current = takePromising();
             S currentState = current.state();
-            // Remove from open as well
-            open.remove(currentState);
 
             // Analyze the cost of each movement from the current node
             for(N successorNode : expander.expand(current)){
-                N successorOpen = open.get(successorNode.state());
+                N successorOpen = queue.get(successorNode.state());
                 if (successorOpen != null) {
-                    if (successorOpen.getScore().compareTo(successorNode.getScore()) <= 0) {
+                    // Nodes are compared by score (compareTo avoids boxing primitive scores)
+                    if (successorOpen.compareTo(successorNode) <= 0) {
                         // Keep analyzing the other movements, discard this movement
                         continue;
                     }
                 }
 
-                N successorClose = closed.get(successorNode.state());
-                if (successorClose != null) {
-                    // Check if this path improves the cost of a closed neighbor.
-                    if (successorClose.getScore().compareTo(successorNode.getScore()) <= 0) {
-                        continue;
-                    }
+                // Check if this path improves the cost of a closed neighbor.
+                if (closedNoWorse(successorNode)) {
+                    continue;
                 }
 
                 // In any other case, add the new successor to the open list to explore later
-                open.put(successorNode.state(), successorNode);
-                queue.add(successorNode);
+                // (replacing the previous open node of the same state, if any)
+                queue.offer(successorNode);
             }
             // Once analyzed, the current node moves to the closed list
             closed.put(currentState, current);
             return current;
         }
 
+        /**
+         * Checks if the closed map contains a node of the same state which is not worse than the
+         * provided one. Compact closed maps are checked comparing the costs, which is equivalent to
+         * comparing the scores since the heuristic of both nodes is the same.
+         *
+         * @param node node to check
+         * @return true if there is a closed node of the same state with a lower or equal score
+         */
+        @SuppressWarnings("unchecked")
+        protected boolean closedNoWorse(N node) {
+            if (closed instanceof CompactClosedMap) {
+                return ((CompactClosedMap<A, S, N>) closed).containsNoWorse(node);
+            }
+            N closedNode = closed.get(node.state());
+            return closedNode != null && closedNode.compareTo(node) <= 0;
+        }
+
         /**
          * Remove is not supported
          */
@@ -143,18 +193,28 @@ public class AStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>>
         }
 
         /**
-         * Get the internal map used by the algorithm to keep the relations between
-         * unexplored states and nodes. The map returned is the original copy. Modifications to
-         * the map can alter the normal function of the algorithm.
+         * Get a read-only view of the relations between unexplored states and nodes,
+         * backed by the internal queue of the algorithm. The open nodes can only be modified
+         * through the queue (see {@link #getQueue()}).
          *
          * @return open map with the unexplored nodes and states.
          */
         public Map<S, N> getOpen() {
-            return open;
+            return queue.asMap();
         }
 
+        /**
+         * Replace the open nodes with the nodes of the provided map. The nodes are copied
+         * into the internal queue, so later modifications to the map do not affect the search.
+         *
+         * @param open map with the unexplored nodes and states.
+         * @deprecated the open nodes are stored in the internal queue of the algorithm, use
+         * {@link #setQueue(IndexedQueue)} instead.
+         */
+        @Deprecated
         public void setOpen(Map<S, N> open) {
-            this.open = open;
+            queue.clear();
+            offerAll(open.values());
         }
 
         /**
@@ -180,24 +240,57 @@ public class AStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>>
 
         /**
          * Returns the original queue used by the algorithm to sort the unexplored
-         * nodes. The original queue is a java {@code PriorityQueue}. External modifications
-         * to the queue can cause malfunction. This method can be used for example to check
-         * the size of the queue during the search or to implement low level optimizations.
+         * nodes. The original queue is an {@link IndexedQueue} indexed by the state of the nodes.
+         * External modifications to the queue can cause malfunction. This method can be used for
+         * example to check the size of the queue during the search or to implement low level optimizations.
          *
          * @return original copy of the internal queue.
          */
-        public Queue<N> getQueue() {
+        public IndexedQueue<S, N> getQueue() {
             return queue;
         }
 
         /**
-         * Replace the original open map with the provided one. Modifications to the open map
+         * Replace the original queue with the provided one. Modifications to the queue
          * can cause malfunction. Use only for optimization purposes.
          *
-         * @param queue internal open map.
+         * @param queue internal queue, indexed by the state of the nodes.
          */
-        public void setQueue(Queue<N> queue) {
+        public void setQueue(IndexedQueue<S, N> queue) {
             this.queue = queue;
         }
+
+        /**
+         * Replace the original queue with a new indexed queue which contains the nodes of the provided one.
+         * When the provided queue contains several nodes of the same state, only the best one is kept.
+         * Later modifications to the provided queue do not affect the search.
+         *
+         * @param queue queue with the unexplored nodes.
+         * @deprecated the algorithm requires a queue indexed by the state of the nodes, use
+         * {@link #setQueue(IndexedQueue)} instead.
+         */
+        @Deprecated
+        public void setQueue(Queue<N> queue) {
+            this.queue = newQueue();
+            offerAll(queue);
+        }
+
+        private IndexedQueue<S, N> newQueue() {
+            return queueFactory.create(new Function<N, S>() {
+                @Override
+                public S apply(N node) {
+                    return node.state();
+                }
+            });
+        }
+
+        private void offerAll(Collection<N> nodes) {
+            for (N node : nodes) {
+                N open = queue.get(node.state());
+                if (open == null || node.compareTo(open) < 0) {
+                    queue.offer(node);
+                }
+            }
+        }
     }
 }
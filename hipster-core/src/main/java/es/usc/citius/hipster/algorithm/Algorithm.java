@@ -39,6 +39,7 @@ public abstract class Algorithm<A,S,N extends Node<A,S,N>> implements Iterable<N
      */
     public final class SearchResult {
         private int iterations;
+        private int reexpansions;
         private Collection<N> goalNodes;
         private long elapsed;
 
@@ -49,6 +50,11 @@ public abstract class Algorithm<A,S,N extends Node<A,S,N>> implements Iterable<N
             this.elapsed = elapsed;
         }
 
+        public SearchResult(N goalNode, int iterations, int reexpansions, long elapsed) {
+            this(goalNode, iterations, elapsed);
+            this.reexpansions = reexpansions;
+        }
+
         public SearchResult(Collection<N> goalNodes, int iterations, long elapsed) {
             this.goalNodes = goalNodes;
             this.iterations = iterations;
@@ -71,6 +77,15 @@ public abstract class Algorithm<A,S,N extends Node<A,S,N>> implements Iterable<N
             return iterations;
         }
 
+        /**
+         * Number of times a node was expanded again by the algorithms that discard
+         * parts of the search space to save memory (0 if not reported by the algorithm).
+         * @return number of re-expansions.
+         */
+        public int getReexpansions() {
+            return reexpansions;
+        }
+
         /**
          * @return goal node.
          */
@@ -98,6 +113,9 @@ public abstract class Algorithm<A,S,N extends Node<A,S,N>> implements Iterable<N
             builder.append("Total solutions: ").append(goalNodes.size()).append(ls);
             builder.append("Total time: ").append(getElapsed()).append(" ms").append(ls);
             builder.append("Total number of iterations: ").append(getIterations()).append(ls);
+            if (reexpansions > 0) {
+                builder.append("Total number of re-expansions: ").append(getReexpansions()).append(ls);
+            }
             // Take solutions
             int solution=1;
             for(N goalNode : goalNodes){
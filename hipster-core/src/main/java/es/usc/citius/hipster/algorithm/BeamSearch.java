@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Implementation of beam search, a best-first search which limits the number of nodes kept in
+ * memory, trading optimality (and completeness) for a predictable cost per query. Two strategies
+ * are supported:
+ * </p>
+ * <ul>
+ *     <li><b>Beam search</b> (default): the search proceeds layer by layer. All the nodes of the current
+ *     layer (the beam) are expanded, and only the {@code width} successors with the lowest score
+ *     form the next layer. The time and memory used are {@literal O(depth × width)}.</li>
+ *     <li><b>Bounded open list</b>: the search behaves like {@link AStar}, always expanding the open
+ *     node with the lowest score, but the open list is limited to {@code width} nodes. When the limit
+ *     is exceeded, the node with the highest score is dropped.</li>
+ * </ul>
+ * <p>
+ * In both cases the expanded states are not generated again. The nodes are sorted by
+ * their score, so the search is guided by the heuristic of the problem (if any).
+ * </p>
+ *
+ * See this <a href="http://en.wikipedia.org/wiki/Beam_search">Wikipedia article</a> for more information about beam search.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node used.
+ */
+public class BeamSearch<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends Algorithm<A,S,N> {
+
+    protected final N initialNode;
+    protected final NodeExpander<A,S,N> expander;
+    protected final int width;
+    protected final boolean boundedOpenList;
+
+    /**
+     * Creates a new layered beam search.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param width maximum number of nodes of each layer.
+     */
+    public BeamSearch(N initialNode, NodeExpander<A,S,N> expander, int width) {
+        this(initialNode, expander, width, false);
+    }
+
+    /**
+     * Creates a new beam search.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param width maximum number of nodes of each layer, or of the open list if {@code boundedOpenList} is true.
+     * @param boundedOpenList true to run a best-first search with a bounded open list instead of a layered search.
+     */
+    public BeamSearch(N initialNode, NodeExpander<A,S,N> expander, int width, boolean boundedOpenList) {
+        if (width < 1) {
+            throw new IllegalArgumentException("The width of the beam must be at least 1");
+        }
+        this.initialNode = initialNode;
+        this.expander = expander;
+        this.width = width;
+        this.boundedOpenList = boundedOpenList;
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * Node of the open list (or the next layer) with an insertion number to break ties.
+     */
+    private final class Entry implements Comparable<Entry> {
+        private final N node;
+        private final long id;
+
+        private Entry(N node, long id) {
+            this.node = node;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = node.getScore().compareTo(o.node.getScore());
+            if (c != 0) return c;
+            return (id < o.id) ? -1 : ((id == o.id) ? 0 : 1);
+        }
+    }
+
+    /**
+     * Internal iterator that implements all the logic of the beam search
+     */
+    public class Iterator implements java.util.Iterator<N> {
+        // Open nodes (the current layer for the layered search)
+        protected TreeSet<Entry> queue = new TreeSet<Entry>();
+        protected Map<S, Entry> open = new HashMap<S, Entry>();
+        // Successors of the current layer, only used by the layered search
+        protected TreeSet<Entry> nextLayer = new TreeSet<Entry>();
+        protected Map<S, Entry> nextLayerStates = new HashMap<S, Entry>();
+        protected Set<S> closed = new HashSet<S>();
+        private long nextId = 0;
+        private int dropped = 0;
+
+        protected Iterator() {
+            Entry entry = new Entry(initialNode, nextId++);
+            queue.add(entry);
+            open.put(initialNode.state(), entry);
+        }
+
+        /**
+         * Returns true if there are more nodes to expand.
+         */
+        public boolean hasNext() {
+            if (queue.isEmpty() && !boundedOpenList) {
+                // Move to the next layer
+                TreeSet<Entry> layer = queue;
+                queue = nextLayer;
+                nextLayer = layer;
+                Map<S, Entry> states = open;
+                open = nextLayerStates;
+                nextLayerStates = states;
+            }
+            return !queue.isEmpty();
+        }
+
+        /**
+         * Expands the best node of the current layer (or the best open node if the open list is bounded).
+         *
+         * @return next expanded node.
+         */
+        public N next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Entry currentEntry = queue.pollFirst();
+            N current = currentEntry.node;
+            open.remove(current.state());
+            closed.add(current.state());
+
+            if (boundedOpenList) {
+                for (N successor : expander.expand(current)) {
+                    offer(successor, queue, open);
+                }
+            } else {
+                for (N successor : expander.expand(current)) {
+                    // States of the current layer are expanded later, no need to generate them again
+                    if (open.containsKey(successor.state())) continue;
+                    offer(successor, nextLayer, nextLayerStates);
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Inserts a node in a bounded set of nodes, keeping only the best node of each state and
+         * dropping the worst node if the set exceeds the width of the beam.
+         */
+        private void offer(N node, TreeSet<Entry> nodes, Map<S, Entry> states) {
+            S state = node.state();
+            if (closed.contains(state)) return;
+            Entry previous = states.get(state);
+            if (previous != null) {
+                if (previous.node.getScore().compareTo(node.getScore()) <= 0) return;
+                nodes.remove(previous);
+            }
+            Entry entry = new Entry(node, nextId++);
+            nodes.add(entry);
+            states.put(state, entry);
+            if (nodes.size() > width) {
+                Entry worst = nodes.pollLast();
+                states.remove(worst.node.state());
+                dropped++;
+            }
+        }
+
+        /**
+         * Remove is not supported
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return number of nodes dropped because they did not fit in the beam
+         */
+        public int getDropped() {
+            return dropped;
+        }
+
+        /**
+         * @return set with the expanded states
+         */
+        public Set<S> getClosed() {
+            return closed;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public boolean isBoundedOpenList() {
+        return boundedOpenList;
+    }
+}
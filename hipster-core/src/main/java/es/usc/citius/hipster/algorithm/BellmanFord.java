@@ -18,7 +18,10 @@ package es.usc.citius.hipster.algorithm;
 import es.usc.citius.hipster.model.node.CostNode;
 import es.usc.citius.hipster.model.node.factory.NodeExpander;
 import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.hipster.util.Function;
 import es.usc.citius.lab.hipster.collections.HashQueue;
+import es.usc.citius.lab.hipster.collections.IndexedQueue;
+import es.usc.citius.lab.hipster.collections.IndexedQueueFactory;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +36,15 @@ import java.util.Queue;
  * when the queue is empty (when bellmanFordIt.hasNext() == false).
  * </p>
  *
+ * <p>
+ * By default, the states to be processed are kept in a FIFO queue. If an
+ * {@link es.usc.citius.lab.hipster.collections.IndexedQueueFactory} is provided, the nodes are processed
+ * in the order of the created queue instead (for example, a
+ * {@link es.usc.citius.lab.hipster.collections.BucketQueue} sorted by the cost of the nodes), which reduces
+ * the number of times each state is processed. Note that monotone queues like
+ * {@link es.usc.citius.lab.hipster.collections.RadixHeap} can not be used with negative costs.
+ * </p>
+ *
  * <a href="http://www.ams.org/mathscinet-getitem?mr=0102435">Original paper</a>:
  * Bellman, R. <b>"On a routing problem"</b>. <i>Quarterly of Applied Mathematics (1958) 16: 87–90</i>.
  *
@@ -47,10 +59,24 @@ public class BellmanFord<A,S,C extends Comparable<C>,N extends CostNode<A,S,C,N>
     protected N initialNode;
     protected NodeExpander<A,S,N> nodeExpander;
     protected boolean checkNegativeCycles = true;
+    protected IndexedQueueFactory<S, N> queueFactory;
 
     public BellmanFord(N initialNode, NodeExpander<A, S, N> nodeExpander) {
+        this(initialNode, nodeExpander, null);
+    }
+
+    /**
+     * Creates a new Bellman-Ford algorithm which processes the nodes in the order
+     * of the queues created by the provided factory.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param nodeExpander function to obtain (expand) a node to obtain the successor nodes.
+     * @param queueFactory factory of the queue used to sort the nodes, or null to use a FIFO queue.
+     */
+    public BellmanFord(N initialNode, NodeExpander<A, S, N> nodeExpander, IndexedQueueFactory<S, N> queueFactory) {
         this.initialNode = initialNode;
         this.nodeExpander = nodeExpander;
+        this.queueFactory = queueFactory;
     }
 
     /**
@@ -60,13 +86,22 @@ public class BellmanFord<A,S,C extends Comparable<C>,N extends CostNode<A,S,C,N>
      */
     public class Iterator implements java.util.Iterator<N> {
         protected Queue<S> queue;
+        protected IndexedQueue<S, N> priorityQueue;
         protected Map<S, N> explored;
 
         protected Iterator(){
-            this.queue = new HashQueue<S>();
             this.explored = new HashMap<S, N>();
-            this.queue.add(initialNode.state());
-            this.explored.put(initialNode.state(), initialNode);
+            if (queueFactory != null) {
+                this.priorityQueue = queueFactory.create(new Function<N, S>() {
+                    @Override
+                    public S apply(N node) {
+                        return node.state();
+                    }
+                });
+            } else {
+                this.queue = new HashQueue<S>();
+            }
+            enqueue(initialNode);
         }
 
         /**
@@ -77,7 +112,10 @@ public class BellmanFord<A,S,C extends Comparable<C>,N extends CostNode<A,S,C,N>
          */
         protected void enqueue(N node) {
             S state = node.state();
-            if (!this.queue.contains(state)) {
+            if (this.priorityQueue != null) {
+                // Replaces the previous node of the state, if any
+                this.priorityQueue.offer(node);
+            } else if (!this.queue.contains(state)) {
                 this.queue.add(state);
             }
             this.explored.put(state, node);
@@ -90,6 +128,9 @@ public class BellmanFord<A,S,C extends Comparable<C>,N extends CostNode<A,S,C,N>
          * @return node of the processing queue head
          */
         protected N dequeue() {
+            if (this.priorityQueue != null) {
+                return this.priorityQueue.poll();
+            }
             S state = this.queue.poll();
             return this.explored.get(state);
         }
@@ -97,7 +138,7 @@ public class BellmanFord<A,S,C extends Comparable<C>,N extends CostNode<A,S,C,N>
 
         @Override
         public boolean hasNext() {
-            return !queue.isEmpty();
+            return (priorityQueue != null) ? !priorityQueue.isEmpty() : !queue.isEmpty();
         }
 
         @Override
@@ -182,4 +223,12 @@ public class BellmanFord<A,S,C extends Comparable<C>,N extends CostNode<A,S,C,N>
     public void setCheckNegativeCycles(boolean checkNegativeCycles) {
         this.checkNegativeCycles = checkNegativeCycles;
     }
+
+    public IndexedQueueFactory<S, N> getQueueFactory() {
+        return queueFactory;
+    }
+
+    public void setQueueFactory(IndexedQueueFactory<S, N> queueFactory) {
+        this.queueFactory = queueFactory;
+    }
 }
@@ -0,0 +1,305 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.TransitionFunction;
+import es.usc.citius.hipster.model.function.impl.BinaryOperation;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.hipster.model.node.impl.LazyNodeExpander;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.node.impl.WeightedNodeFactory;
+import es.usc.citius.hipster.model.problem.SearchComponents;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Implementation of the bidirectional A* and bidirectional Dijkstra algorithms. Two searches
+ * are executed alternately: a forward search from the beginning state, using the successor function
+ * of the {@link es.usc.citius.hipster.model.problem.SearchComponents}, and a backward search from the
+ * goal state, using the predecessor function. At each iteration the direction with the smallest open
+ * list is expanded. Each time a state reached by one of the searches has already been reached by the
+ * other one, the cost of the path through that state is used to update the best solution found so
+ * far (mu). The search stops when no path better than mu can be found:
+ * </p>
+ * <ul>
+ *     <li>Without heuristics (bidirectional Dijkstra), when the sum of the costs of the first
+ *     nodes of both open lists is greater or equal than mu.</li>
+ *     <li>With heuristics (bidirectional A*), when the score of the first node of any of the
+ *     open lists is greater or equal than mu. Heuristics must be admissible: the forward heuristic
+ *     estimates the cost to the goal and the backward heuristic estimates the cost from the beginning.</li>
+ * </ul>
+ *
+ * <p>
+ * The predecessor function has to return, for a given state, the transitions from that state to
+ * each of its predecessors, using the action of the original transition (for graphs, the transitions
+ * from a vertex to the source vertex of each incoming edge). The cost function must evaluate these
+ * reversed transitions with the cost of the original ones, as it happens when the costs are taken
+ * from the edges of a graph (see {@link es.usc.citius.hipster.graph.GraphSearchProblem}).
+ * </p>
+ *
+ * <p>
+ * The nodes returned by the iterator are the nodes expanded by both searches: the path of the nodes of
+ * the backward search goes from the goal state to the node. Use {@link #search(es.usc.citius.hipster.util.Predicate)}
+ * or {@link Iterator#getSolution()} to obtain the solution, which is a node with the complete path from the beginning
+ * to the goal state.
+ * </p>
+ *
+ * <a href="http://www.sciencedirect.com/science/article/pii/0004370271900154">Original paper</a>:
+ * Ira Pohl. <b>"Bi-directional search"</b>. <i>Machine Intelligence 6 (1971): 127-140</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ */
+public class BidirectionalAStar<A,S,C extends Comparable<C>> extends Algorithm<A,S,WeightedNode<A,S,C>> {
+
+    protected final S begin;
+    protected final S goal;
+    protected final BinaryOperation<C> costAlgebra;
+    protected final WeightedNodeFactory<A,S,C> forwardFactory;
+    protected final WeightedNodeFactory<A,S,C> backwardFactory;
+    protected final TransitionFunction<A,S> successorFunction;
+    protected final TransitionFunction<A,S> predecessorFunction;
+    // true if none of the directions uses heuristics
+    protected final boolean uninformed;
+
+    /**
+     * Creates a new bidirectional search for the components of a problem.
+     *
+     * @param components search components with the beginning and goal states, the cost function and the
+     *                   successor and predecessor functions.
+     * @param forwardHeuristic estimation of the cost to the goal state (null for a bidirectional Dijkstra)
+     * @param backwardHeuristic estimation of the cost from the beginning state (null to run the backward search
+     *                          without heuristic)
+     */
+    public BidirectionalAStar(SearchComponents<A,S,C> components, HeuristicFunction<S,C> forwardHeuristic,
+                              HeuristicFunction<S,C> backwardHeuristic) {
+        if (components.predecessorFunction() == null) {
+            throw new IllegalArgumentException("Bidirectional search requires a predecessor function in the search components");
+        }
+        this.begin = components.getBegin();
+        this.goal = components.getGoal();
+        this.costAlgebra = components.costAlgebra();
+        this.successorFunction = components.successorFunction();
+        this.predecessorFunction = components.predecessorFunction();
+        this.forwardFactory = createFactory(components, forwardHeuristic);
+        this.backwardFactory = createFactory(components, backwardHeuristic);
+        this.uninformed = forwardHeuristic == null && backwardHeuristic == null;
+    }
+
+    private WeightedNodeFactory<A,S,C> createFactory(SearchComponents<A,S,C> components, HeuristicFunction<S,C> hf) {
+        if (hf == null) {
+            return new WeightedNodeFactory<A,S,C>(components.costFunction(), components.costAlgebra());
+        }
+        return new WeightedNodeFactory<A,S,C>(components.costFunction(), hf, components.costAlgebra());
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * Runs both searches until the optimal solution is found (or no solution exists).
+     *
+     * @param condition condition that the solution has to satisfy to be returned
+     * @return search result with the solution, or without goal nodes if there is no solution
+     */
+    @Override
+    public SearchResult search(Predicate<WeightedNode<A,S,C>> condition) {
+        int iteration = 0;
+        Iterator it = iterator();
+        long begin = System.currentTimeMillis();
+        while (it.hasNext()) {
+            iteration++;
+            it.next();
+        }
+        long end = System.currentTimeMillis();
+        WeightedNode<A,S,C> solution = it.getSolution();
+        if (solution != null && condition.apply(solution)) {
+            return new SearchResult(solution, iteration, end - begin);
+        }
+        return new SearchResult(Collections.<WeightedNode<A,S,C>>emptyList(), iteration, end - begin);
+    }
+
+    /**
+     * Open and closed structures of one of the directions of the search.
+     */
+    protected class Direction {
+        protected final IndexedHeap<S, WeightedNode<A,S,C>> open;
+        protected final Map<S, WeightedNode<A,S,C>> closed;
+        protected final NodeExpander<A,S,WeightedNode<A,S,C>> expander;
+
+        protected Direction(S initialState, TransitionFunction<A,S> tf, WeightedNodeFactory<A,S,C> factory) {
+            this.open = new IndexedHeap<S, WeightedNode<A,S,C>>(new Function<WeightedNode<A,S,C>, S>() {
+                @Override
+                public S apply(WeightedNode<A,S,C> node) {
+                    return node.state();
+                }
+            });
+            this.closed = new HashMap<S, WeightedNode<A,S,C>>();
+            this.expander = new LazyNodeExpander<A,S,WeightedNode<A,S,C>>(tf, factory);
+            this.open.add(factory.makeNode(null, Transition.<A,S>create(null, null, initialState)));
+        }
+
+        /**
+         * @return best node found by this direction for the state, or null if the state was not reached
+         */
+        protected WeightedNode<A,S,C> reached(S state) {
+            WeightedNode<A,S,C> node = open.get(state);
+            return (node != null) ? node : closed.get(state);
+        }
+    }
+
+    /**
+     * Internal iterator that implements the logic of the bidirectional search. Each call to
+     * {@code next()} expands a node of the forward or the backward search.
+     */
+    public class Iterator implements java.util.Iterator<WeightedNode<A,S,C>> {
+        protected Direction forward;
+        protected Direction backward;
+        // Cost of the best solution found so far, and the nodes of both directions where the searches met
+        protected C mu;
+        protected WeightedNode<A,S,C> meetingForward;
+        protected WeightedNode<A,S,C> meetingBackward;
+
+        protected Iterator() {
+            forward = new Direction(begin, successorFunction, forwardFactory);
+            backward = new Direction(goal, predecessorFunction, backwardFactory);
+            mu = costAlgebra.getMaxElem();
+            updateSolution(forward.open.peek(), backward.reached(begin), true);
+        }
+
+        /**
+         * Returns true while a better solution than the current one may exist.
+         */
+        @Override
+        public boolean hasNext() {
+            if (forward.open.isEmpty() || backward.open.isEmpty()) {
+                return false;
+            }
+            WeightedNode<A,S,C> forwardTop = forward.open.peek();
+            WeightedNode<A,S,C> backwardTop = backward.open.peek();
+            if (uninformed) {
+                return costAlgebra.apply(forwardTop.getCost(), backwardTop.getCost()).compareTo(mu) < 0;
+            }
+            return forwardTop.getScore().compareTo(mu) < 0 && backwardTop.getScore().compareTo(mu) < 0;
+        }
+
+        /**
+         * Expands the first node of the direction with the smallest open list.
+         *
+         * @return expanded node.
+         */
+        @Override
+        public WeightedNode<A,S,C> next() {
+            boolean isForward = forward.open.size() <= backward.open.size();
+            Direction current = isForward ? forward : backward;
+            Direction other = isForward ? backward : forward;
+
+            WeightedNode<A,S,C> node = current.open.poll();
+            current.closed.put(node.state(), node);
+
+            for (WeightedNode<A,S,C> successor : current.expander.expand(node)) {
+                S state = successor.state();
+                WeightedNode<A,S,C> successorOpen = current.open.get(state);
+                if (successorOpen != null && successorOpen.getCost().compareTo(successor.getCost()) <= 0) {
+                    continue;
+                }
+                WeightedNode<A,S,C> successorClosed = current.closed.get(state);
+                if (successorClosed != null) {
+                    if (successorClosed.getCost().compareTo(successor.getCost()) <= 0) {
+                        continue;
+                    }
+                    // Better path to a closed state (inconsistent heuristic): reopen it
+                    current.closed.remove(state);
+                }
+                current.open.offer(successor);
+                updateSolution(successor, other.reached(state), isForward);
+            }
+            return node;
+        }
+
+        /**
+         * Updates the best solution if the path through the nodes of both directions
+         * improves it.
+         */
+        protected void updateSolution(WeightedNode<A,S,C> node, WeightedNode<A,S,C> otherNode, boolean isForward) {
+            if (otherNode == null) return;
+            C cost = costAlgebra.apply(node.getCost(), otherNode.getCost());
+            if (cost.compareTo(mu) < 0) {
+                mu = cost;
+                meetingForward = isForward ? node : otherNode;
+                meetingBackward = isForward ? otherNode : node;
+            }
+        }
+
+        /**
+         * Builds the best solution found so far, joining the paths of the forward and backward searches.
+         *
+         * @return node of the goal state with the path from the beginning state, or null if both searches
+         * have not met yet.
+         */
+        public WeightedNode<A,S,C> getSolution() {
+            if (meetingForward == null) return null;
+            WeightedNode<A,S,C> node = meetingForward;
+            WeightedNode<A,S,C> backwardNode = meetingBackward;
+            // The parent of a node of the backward search is its successor in the path to the goal
+            while (backwardNode.previousNode() != null) {
+                WeightedNode<A,S,C> next = backwardNode.previousNode();
+                node = forwardFactory.makeNode(node, Transition.create(node.state(), backwardNode.action(), next.state()));
+                backwardNode = next;
+            }
+            return node;
+        }
+
+        /**
+         * @return cost of the best solution found so far (the maximum element of the cost algebra if there is no solution yet)
+         */
+        public C getBestCost() {
+            return mu;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Map<S, WeightedNode<A,S,C>> getForwardOpen() {
+            return forward.open.asMap();
+        }
+
+        public Map<S, WeightedNode<A,S,C>> getForwardClosed() {
+            return forward.closed;
+        }
+
+        public Map<S, WeightedNode<A,S,C>> getBackwardOpen() {
+            return backward.open.asMap();
+        }
+
+        public Map<S, WeightedNode<A,S,C>> getBackwardClosed() {
+            return backward.closed;
+        }
+    }
+}
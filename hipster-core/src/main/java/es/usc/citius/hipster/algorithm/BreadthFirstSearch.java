@@ -17,6 +17,7 @@ package es.usc.citius.hipster.algorithm;
 
 import es.usc.citius.hipster.model.node.Node;
 import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.lab.hipster.collections.CompactClosedMap;
 
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -29,6 +30,8 @@ import java.util.Queue;
  * first the neighbors at distance 1 (direct neighbors), then the neighbors at distance 2
  * (neighbors of the neighbors), and so on. The algorithm is complete but not optimal
  * (it is only optimal if the cost of the problem is uniform and each transition has a cost of one).
+ * The visited nodes can be kept in a {@link es.usc.citius.lab.hipster.collections.CompactClosedMap}
+ * (see {@link #setCompactClosedSet(boolean)}) to reduce the memory used by exhaustive searches.
  * </p>
  *
  * See this <a href="http://en.wikipedia.org/wiki/Breadth-first_search">Wikipedia article</a> for more information about BFS.
@@ -40,6 +43,7 @@ import java.util.Queue;
 public class BreadthFirstSearch<A,S,N extends Node<A,S,N>> extends Algorithm<A,S,N> {
     protected final N initialNode;
     protected final NodeExpander<A,S,N> expander;
+    protected boolean compactClosedSet = false;
 
     public BreadthFirstSearch(N initialNode, NodeExpander<A, S, N> expander) {
         this.initialNode = initialNode;
@@ -51,13 +55,18 @@ public class BreadthFirstSearch<A,S,N extends Node<A,S,N>> extends Algorithm<A,S
      */
     public class Iterator implements java.util.Iterator<N> {
         protected Queue<N> queue = new LinkedList<N>();
-        protected Map<S, N> visited = new HashMap<S, N>();
+        protected Map<S, N> visited;
 
         /**
          * Iterator cannot be instantiated from outside.
          * Use {@link BreadthFirstSearch#iterator()} to create a new BFS iterator.
          */
         protected Iterator(){
+            if (compactClosedSet) {
+                visited = new CompactClosedMap<A, S, N>(expander.getNodeFactory());
+            } else {
+                visited = new HashMap<S, N>();
+            }
             visited.put(initialNode.state(), initialNode);
             queue.add(initialNode);
         }
@@ -108,4 +117,19 @@ public class BreadthFirstSearch<A,S,N extends Node<A,S,N>> extends Algorithm<A,S
     public Iterator iterator() {
         return new Iterator();
     }
+
+    public boolean isCompactClosedSet() {
+        return compactClosedSet;
+    }
+
+    /**
+     * Enables or disables the use of a {@link CompactClosedMap} to keep the visited nodes
+     * of the next iterators, which only stores the action and the parent of each node and
+     * rebuilds the nodes when they are requested.
+     *
+     * @param compactClosedSet true to use a compact visited map
+     */
+    public void setCompactClosedSet(boolean compactClosedSet) {
+        this.compactClosedSet = compactClosedSet;
+    }
 }
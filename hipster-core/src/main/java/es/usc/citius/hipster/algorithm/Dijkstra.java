@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.hipster.model.node.impl.DoubleWeightedNode;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+import es.usc.citius.lab.hipster.collections.IndexedQueue;
+import es.usc.citius.lab.hipster.collections.IndexedQueueFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Implementation of the Dijkstra's algorithm. Unlike {@link AStar}, the open nodes are sorted
+ * by their cost, so the heuristic of the nodes (if the expander computes any) is ignored. Each state
+ * is settled exactly once: the open queue keeps a single node per state which is updated in place
+ * (decrease-key) when a cheaper path is found, and the successors of settled states are discarded
+ * without comparing their costs, since a settled state always has the optimal cost.
+ * </p>
+ *
+ * <p>
+ * By default, the search stops as soon as a node satisfying the goal condition is settled. If
+ * {@link #setCompleteShortestPathTree(boolean)} is enabled, the search keeps running until all the
+ * reachable states are settled and the result contains every settled node satisfying the condition.
+ * The complete shortest-path tree from the initial state can also be obtained with
+ * {@link #shortestPathTree()}.
+ * </p>
+ *
+ * <a href="http://link.springer.com/article/10.1007%2FBF01386390">Original paper</a>:
+ * Dijkstra, Edsger W. <b>"A note on two problems in connexion with graphs."</b>. <i>Numerische Mathematik 1.1 (1959): 269-271</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node used.
+ */
+public class Dijkstra<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends AStar<A,S,C,N> {
+
+    protected boolean completeShortestPathTree = false;
+
+    /**
+     * Creates a new Dijkstra algorithm which keeps the open nodes in an
+     * {@link IndexedHeap} sorted by their cost.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     */
+    public Dijkstra(N initialNode, NodeExpander<A,S,N> expander) {
+        this(initialNode, expander, Dijkstra.<A,S,C,N>costHeapFactory());
+    }
+
+    /**
+     * Creates a new Dijkstra algorithm which keeps the open nodes in the queues created
+     * by the provided factory. The queues must sort the nodes by their cost, for example using a
+     * {@link es.usc.citius.lab.hipster.collections.adapter.CostNodeLongPriorityEvaluator}.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param queueFactory factory of the queue used to sort the open nodes.
+     */
+    public Dijkstra(N initialNode, NodeExpander<A,S,N> expander, IndexedQueueFactory<S,N> queueFactory) {
+        super(initialNode, expander, queueFactory);
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * Executes the search until the condition is satisfied or there are no more nodes to explore. If
+     * the complete shortest-path tree is requested, the search does not stop at the first goal node
+     * and the result contains all the settled nodes which satisfy the condition, in the order in
+     * which they were settled.
+     *
+     * @param condition predicate with the boolean condition.
+     * @return search result.
+     */
+    @Override
+    public SearchResult search(Predicate<N> condition) {
+        if (!completeShortestPathTree) {
+            return super.search(condition);
+        }
+        int iteration = 0;
+        Iterator it = iterator();
+        long begin = System.currentTimeMillis();
+        List<N> goalNodes = new ArrayList<N>();
+        while (it.hasNext()) {
+            iteration++;
+            N currentNode = it.next();
+            if (condition.apply(currentNode)) {
+                goalNodes.add(currentNode);
+            }
+        }
+        long end = System.currentTimeMillis();
+        return new SearchResult(goalNodes, iteration, end - begin);
+    }
+
+    /**
+     * Runs the search until all the reachable states are settled and returns the map with the
+     * node of each state, which contains the optimal path from the initial state.
+     *
+     * @return map with the settled nodes of all the reachable states
+     */
+    public Map<S, N> shortestPathTree() {
+        Iterator it = iterator();
+        while (it.hasNext()) {
+            it.next();
+        }
+        return it.getClosed();
+    }
+
+    public boolean isCompleteShortestPathTree() {
+        return completeShortestPathTree;
+    }
+
+    /**
+     * Sets whether {@link #search(Predicate)} keeps running after the first goal node is found
+     * to build the complete shortest-path tree.
+     *
+     * @param completeShortestPathTree true to settle all the reachable states
+     */
+    public void setCompleteShortestPathTree(boolean completeShortestPathTree) {
+        this.completeShortestPathTree = completeShortestPathTree;
+    }
+
+    /**
+     * Returns a factory of indexed heaps which sort the nodes by their cost, ignoring their score.
+     * The costs of {@link DoubleWeightedNode}s are compared without boxing them.
+     *
+     * @return factory of indexed heaps
+     */
+    public static <A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> IndexedQueueFactory<S,N> costHeapFactory() {
+        return new IndexedQueueFactory<S, N>() {
+            @Override
+            public IndexedQueue<S, N> create(Function<? super N, ? extends S> keyFunction) {
+                return new IndexedHeap<S, N>(keyFunction, new Comparator<N>() {
+                    @Override
+                    public int compare(N o1, N o2) {
+                        return compareCosts(o1, o2);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Compares the costs of two nodes, without boxing them if both are {@link DoubleWeightedNode}s.
+     *
+     * @param o1 first node
+     * @param o2 second node
+     * @return negative, zero or positive if the cost of the first node is lower, equal or greater
+     */
+    private static <A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> int compareCosts(N o1, N o2) {
+        if (o1 instanceof DoubleWeightedNode && o2 instanceof DoubleWeightedNode) {
+            return Double.compare(((DoubleWeightedNode<?, ?>) o1).getCostAsDouble(),
+                    ((DoubleWeightedNode<?, ?>) o2).getCostAsDouble());
+        }
+        return o1.getCost().compareTo(o2.getCost());
+    }
+
+    /**
+     * Internal iterator that implements all the logic of the Dijkstra search
+     */
+    public class Iterator extends AStar<A,S,C,N>.Iterator {
+
+        protected Iterator() {
+            super();
+        }
+
+        /**
+         * Settles the open node with the lowest cost and updates the open nodes
+         * of its successors.
+         *
+         * @return next settled node.
+         */
+        @Override
+        public N next() {
+            N current = queue.poll();
+            closed.put(current.state(), current);
+
+            for (N successorNode : expander.expand(current)) {
+                S successorState = successorNode.state();
+                // Settled states already have the optimal cost
+                if (closed.containsKey(successorState)) {
+                    continue;
+                }
+                N successorOpen = queue.get(successorState);
+                if (successorOpen != null && compareCosts(successorOpen, successorNode) <= 0) {
+                    continue;
+                }
+                // Insert the node or decrease the key of the open node of the same state
+                queue.offer(successorNode);
+            }
+            return current;
+        }
+    }
+}
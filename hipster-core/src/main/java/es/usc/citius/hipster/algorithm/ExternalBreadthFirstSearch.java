@@ -0,0 +1,430 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.TransitionFunction;
+import es.usc.citius.hipster.util.StateCodec;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * <p>
+ * Exhaustive breadth-first search with delayed duplicate detection, for state spaces that do not fit in memory.
+ * Each layer of the search (the states at the same depth) is stored in a file of the working directory as a sorted
+ * list of encoded states. To generate the next layer, the states of the current one are streamed from disk and their
+ * successors are buffered in memory; when the buffer is full it is sorted, deduplicated and written to a temporary run.
+ * The runs are then merged, removing the duplicates and the states already present in the previous two layers, which
+ * are the only ones that can be regenerated in an undirected problem. The memory used by the search is bounded by
+ * {@link #setMaxStatesInMemory(int)} and the number of runs of a layer.
+ * </p>
+ *
+ * <p>
+ * The states are written with a {@link StateCodec}. The layer files are only renamed to their final name when they are
+ * complete, so a search which was interrupted (or stopped with {@link #setMaxDepth(int)}) is resumed from the last
+ * complete layer when {@link #search()} is invoked again with the same directory. The search does not keep the paths to
+ * the states, so it is intended to enumerate the state space (for example, to build pattern databases).
+ * The problem must be undirected: if a state B is a successor of A, A must be a successor of B.
+ * </p>
+ *
+ * <a href="http://www.aaai.org/Papers/AAAI/2004/AAAI04-108.pdf">Original paper</a>:
+ * Richard E. Korf. <b>"Best-First Frontier Search with Delayed Duplicate Detection"</b>.
+ * <i>AAAI 2004: 650-657</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ */
+public class ExternalBreadthFirstSearch<A,S> {
+
+    private static final String LAYER_PREFIX = "layer-";
+    private static final String LAYER_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final S initialState;
+    private final TransitionFunction<A,S> transitionFunction;
+    private final StateCodec<S> codec;
+    private final File directory;
+    private int maxStatesInMemory = 1 << 20;
+    private int maxDepth = Integer.MAX_VALUE;
+    private final List<Long> layerSizes = new ArrayList<Long>();
+    private boolean finished = false;
+
+    /**
+     * Creates a new external BFS.
+     *
+     * @param initialState state of the first layer
+     * @param transitionFunction successor function of the (undirected) problem
+     * @param codec codec used to write the states to disk
+     * @param directory working directory with the files of the layers
+     */
+    public ExternalBreadthFirstSearch(S initialState, TransitionFunction<A,S> transitionFunction, StateCodec<S> codec,
+                                      File directory) {
+        this.initialState = initialState;
+        this.transitionFunction = transitionFunction;
+        this.codec = codec;
+        this.directory = directory;
+    }
+
+    /**
+     * Unsigned lexicographical order of the encoded states.
+     */
+    private static final Comparator<byte[]> ORDER = new Comparator<byte[]>() {
+        @Override
+        public int compare(byte[] a, byte[] b) {
+            int length = Math.min(a.length, b.length);
+            for (int i = 0; i < length; i++) {
+                int c = (a[i] & 0xff) - (b[i] & 0xff);
+                if (c != 0) return c;
+            }
+            return a.length - b.length;
+        }
+    };
+
+    /**
+     * Sequential reader of a file of encoded states, with the current record available in {@link #current}.
+     */
+    private static final class RecordReader implements Closeable {
+        private final DataInputStream in;
+        private byte[] current;
+
+        private RecordReader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            advance();
+        }
+
+        private void advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return;
+            }
+            current = new byte[length];
+            in.readFully(current);
+        }
+
+        /**
+         * Advances the reader until the current record is greater or equal than the given one.
+         *
+         * @return true if the reader contains the record
+         */
+        private boolean skipTo(byte[] record) throws IOException {
+            while (current != null && ORDER.compare(current, record) < 0) {
+                advance();
+            }
+            return current != null && ORDER.compare(current, record) == 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static DataOutputStream openOutput(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    }
+
+    private static void write(DataOutputStream out, byte[] record) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    /**
+     * @param depth depth of the layer
+     * @return file of a complete layer
+     */
+    public File layerFile(int depth) {
+        return new File(directory, String.format("%s%05d%s", LAYER_PREFIX, depth, LAYER_SUFFIX));
+    }
+
+    /**
+     * Runs the search until all the states are generated or the maximum depth is reached, resuming
+     * it from the last complete layer of the working directory if any.
+     *
+     * @return number of states of each complete layer
+     * @throws IOException if the layers cannot be read or written
+     */
+    public List<Long> search() throws IOException {
+        return search(null);
+    }
+
+    /**
+     * Runs the search until all the states are generated or the maximum depth is reached, resuming
+     * it from the last complete layer of the working directory if any. The listener receives the
+     * states of each layer when they are expanded (the states of the last layer, which have no new
+     * successors, are also received).
+     *
+     * @param listener listener which receives the expanded states, or null
+     * @return number of states of each complete layer
+     * @throws IOException if the layers cannot be read or written
+     */
+    public List<Long> search(Algorithm.SearchListener<S> listener) throws IOException {
+        resume();
+        while (!finished && layerSizes.size() - 1 < maxDepth) {
+            int depth = layerSizes.size() - 1;
+            long size = expandLayer(depth, listener);
+            layerSizes.add(size);
+            finished = size == 0;
+        }
+        return Collections.unmodifiableList(layerSizes);
+    }
+
+    /**
+     * Loads the complete layers of the working directory, or creates the first one, and
+     * removes the files of unfinished layers.
+     */
+    private void resume() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the directory " + directory);
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_SUFFIX) && !file.delete()) {
+                    throw new IOException("Cannot delete the temporary file " + file);
+                }
+            }
+        }
+        if (!layerSizes.isEmpty()) {
+            return;
+        }
+        if (!layerFile(0).exists()) {
+            File temp = new File(directory, layerFile(0).getName() + TEMP_SUFFIX);
+            DataOutputStream out = openOutput(temp);
+            try {
+                write(out, codec.encode(initialState));
+            } finally {
+                out.close();
+            }
+            commit(temp, layerFile(0));
+        }
+        for (int depth = 0; layerFile(depth).exists(); depth++) {
+            long size = 0;
+            RecordReader reader = new RecordReader(layerFile(depth));
+            try {
+                for (; reader.current != null; reader.advance()) {
+                    size++;
+                }
+            } finally {
+                reader.close();
+            }
+            layerSizes.add(size);
+            finished = size == 0;
+        }
+    }
+
+    private void commit(File temp, File file) throws IOException {
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot rename " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * Generates the layer {@code depth + 1} from the layer {@code depth}.
+     *
+     * @return number of states of the new layer
+     */
+    private long expandLayer(int depth, Algorithm.SearchListener<S> listener) throws IOException {
+        // Expand the current layer writing sorted runs of successors
+        List<File> runs = new ArrayList<File>();
+        List<byte[]> buffer = new ArrayList<byte[]>();
+        RecordReader reader = new RecordReader(layerFile(depth));
+        try {
+            for (; reader.current != null; reader.advance()) {
+                S state = codec.decode(reader.current);
+                if (listener != null) {
+                    listener.handle(state);
+                }
+                for (Transition<A,S> transition : transitionFunction.transitionsFrom(state)) {
+                    buffer.add(codec.encode(transition.getState()));
+                    if (buffer.size() >= maxStatesInMemory) {
+                        runs.add(writeRun(buffer, depth + 1, runs.size()));
+                        buffer.clear();
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (!buffer.isEmpty()) {
+            runs.add(writeRun(buffer, depth + 1, runs.size()));
+            buffer.clear();
+        }
+        // Merge the runs removing the states of the previous two layers
+        File temp = new File(directory, layerFile(depth + 1).getName() + TEMP_SUFFIX);
+        long size = merge(runs, depth, temp);
+        commit(temp, layerFile(depth + 1));
+        for (File run : runs) {
+            run.delete();
+        }
+        return size;
+    }
+
+    private File writeRun(List<byte[]> buffer, int depth, int index) throws IOException {
+        Collections.sort(buffer, ORDER);
+        File run = new File(directory, String.format("run-%05d-%05d%s", depth, index, TEMP_SUFFIX));
+        DataOutputStream out = openOutput(run);
+        try {
+            byte[] last = null;
+            for (byte[] record : buffer) {
+                if (last == null || ORDER.compare(last, record) != 0) {
+                    write(out, record);
+                    last = record;
+                }
+            }
+        } finally {
+            out.close();
+        }
+        return run;
+    }
+
+    private long merge(List<File> runs, int depth, File output) throws IOException {
+        List<RecordReader> readers = new ArrayList<RecordReader>();
+        PriorityQueue<RecordReader> queue = new PriorityQueue<RecordReader>(Math.max(1, runs.size()), new Comparator<RecordReader>() {
+            @Override
+            public int compare(RecordReader a, RecordReader b) {
+                return ORDER.compare(a.current, b.current);
+            }
+        });
+        long size = 0;
+        DataOutputStream out = openOutput(output);
+        try {
+            RecordReader current = new RecordReader(layerFile(depth));
+            readers.add(current);
+            RecordReader previous = depth > 0 ? new RecordReader(layerFile(depth - 1)) : null;
+            if (previous != null) {
+                readers.add(previous);
+            }
+            for (File run : runs) {
+                RecordReader reader = new RecordReader(run);
+                readers.add(reader);
+                if (reader.current != null) {
+                    queue.add(reader);
+                }
+            }
+            byte[] last = null;
+            while (!queue.isEmpty()) {
+                RecordReader reader = queue.poll();
+                byte[] record = reader.current;
+                reader.advance();
+                if (reader.current != null) {
+                    queue.add(reader);
+                }
+                if (last != null && ORDER.compare(last, record) == 0) {
+                    continue;
+                }
+                last = record;
+                if (current.skipTo(record) || (previous != null && previous.skipTo(record))) {
+                    continue;
+                }
+                write(out, record);
+                size++;
+            }
+        } finally {
+            out.close();
+            for (RecordReader reader : readers) {
+                reader.close();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns an iterator over the states of a complete layer, read from disk.
+     *
+     * @param depth depth of the layer
+     * @return iterator over the states of the layer, in the order of their encodings
+     * @throws IOException if the layer cannot be read
+     */
+    public Iterator<S> layer(int depth) throws IOException {
+        final RecordReader reader = new RecordReader(layerFile(depth));
+        return new Iterator<S>() {
+            @Override
+            public boolean hasNext() {
+                return reader.current != null;
+            }
+
+            @Override
+            public S next() {
+                if (reader.current == null) {
+                    throw new NoSuchElementException();
+                }
+                S state = codec.decode(reader.current);
+                try {
+                    reader.advance();
+                    if (reader.current == null) {
+                        reader.close();
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return state;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @return true if all the states were generated (the last layer is empty)
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return number of states of each complete layer
+     */
+    public List<Long> getLayerSizes() {
+        return Collections.unmodifiableList(layerSizes);
+    }
+
+    public int getMaxStatesInMemory() {
+        return maxStatesInMemory;
+    }
+
+    /**
+     * Sets the number of successors buffered in memory before they are sorted and written to a run.
+     *
+     * @param maxStatesInMemory maximum number of buffered successors
+     */
+    public void setMaxStatesInMemory(int maxStatesInMemory) {
+        if (maxStatesInMemory <= 0) {
+            throw new IllegalArgumentException("The number of states in memory must be positive");
+        }
+        this.maxStatesInMemory = maxStatesInMemory;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets the depth of the last layer generated by {@link #search()}. Invoking {@link #search()}
+     * again after increasing the depth continues the search.
+     *
+     * @param maxDepth maximum depth of the generated layers
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.ScalarOperation;
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Implementation of the focal search A*<sub>&epsilon;</sub>. Like {@link AStar}, the open nodes are
+ * sorted by their score {@literal f = g + h}, but the node to expand is not the first one: it is selected
+ * from the FOCAL list, which contains the open nodes with {@literal f <= (1 + ε)·f_min}, using a
+ * secondary heuristic provided by the user (for example, an estimation of the search effort or the
+ * number of conflicts of the path). Ties in the secondary heuristic are broken by score.
+ * </p>
+ *
+ * <p>
+ * If the heuristic of the nodes is admissible, the cost of the solution is at most {@literal (1 + ε)}
+ * times the optimal cost, while the secondary heuristic can reduce the number of expansions. With
+ * {@literal ε = 0} the algorithm behaves as A*. Unlike weighted A*
+ * ({@link es.usc.citius.hipster.model.node.impl.ScaleWeightedNodeFactory}), the heuristic of the nodes
+ * is not inflated. Since the nodes are not expanded in order of score, a state can be closed with a
+ * suboptimal cost even if the heuristic is consistent: closed states reached again with a lower cost are
+ * reopened (moved back to the open list, and to FOCAL if they are within the bound), which is required
+ * to keep the suboptimality bound.
+ * </p>
+ *
+ * <a href="http://ieeexplore.ieee.org/xpls/abs_all.jsp?arnumber=4767564">Original paper</a>:
+ * Pearl, Judea, and Jin H. Kim. <b>"Studies in semi-admissible heuristics."</b>. <i>IEEE Transactions on Pattern Analysis and Machine Intelligence 4 (1982): 392-399</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node used.
+ */
+public class FocalSearch<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends Algorithm<A,S,N> {
+
+    protected final N initialNode;
+    protected final NodeExpander<A,S,N> expander;
+    protected final double epsilon;
+    protected final HeuristicFunction<S,C> focalHeuristic;
+    protected final ScalarOperation<C> scaleOperation;
+
+    /**
+     * Creates a new focal search.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param epsilon suboptimality bound, non negative.
+     * @param focalHeuristic secondary heuristic used to select the nodes of the FOCAL list.
+     * @param scaleOperation operation to scale the costs, used to compute {@literal (1 + ε)·f_min}.
+     */
+    public FocalSearch(N initialNode, NodeExpander<A,S,N> expander, double epsilon,
+                       HeuristicFunction<S,C> focalHeuristic, ScalarOperation<C> scaleOperation) {
+        if (epsilon < 0) {
+            throw new IllegalArgumentException("The suboptimality bound must be non negative");
+        }
+        this.initialNode = initialNode;
+        this.expander = expander;
+        this.epsilon = epsilon;
+        this.focalHeuristic = focalHeuristic;
+        this.scaleOperation = scaleOperation;
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * Open node, with the cached value of the secondary heuristic and an insertion
+     * number to break ties in the sorted sets.
+     */
+    private final class Entry {
+        private final N node;
+        private final C focalEstimation;
+        private final long id;
+
+        private Entry(N node, C focalEstimation, long id) {
+            this.node = node;
+            this.focalEstimation = focalEstimation;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Internal iterator that implements all the logic of the focal search
+     */
+    public class Iterator implements java.util.Iterator<N> {
+        protected Map<S, Entry> open;
+        protected Map<S, N> closed;
+        private final TreeSet<Entry> openQueue;
+        private final TreeSet<Entry> focal;
+        private C bound;
+        private long nextId = 0;
+
+        protected Iterator() {
+            open = new HashMap<S, Entry>();
+            closed = new HashMap<S, N>();
+            openQueue = new TreeSet<Entry>(new Comparator<Entry>() {
+                @Override
+                public int compare(Entry o1, Entry o2) {
+                    int c = o1.node.getScore().compareTo(o2.node.getScore());
+                    return (c != 0) ? c : compareIds(o1, o2);
+                }
+            });
+            focal = new TreeSet<Entry>(new Comparator<Entry>() {
+                @Override
+                public int compare(Entry o1, Entry o2) {
+                    int c = o1.focalEstimation.compareTo(o2.focalEstimation);
+                    if (c != 0) return c;
+                    c = o1.node.getScore().compareTo(o2.node.getScore());
+                    return (c != 0) ? c : compareIds(o1, o2);
+                }
+            });
+            bound = scaleOperation.scale(initialNode.getScore(), 1d + epsilon);
+            insert(initialNode);
+        }
+
+        private int compareIds(Entry o1, Entry o2) {
+            return (o1.id < o2.id) ? -1 : ((o1.id == o2.id) ? 0 : 1);
+        }
+
+        /**
+         * Returns true if the open list is not empty.
+         */
+        public boolean hasNext() {
+            return !open.isEmpty();
+        }
+
+        /**
+         * Expands the node of the FOCAL list with the lowest value of the secondary heuristic.
+         *
+         * @return next expanded node.
+         */
+        public N next() {
+            Entry currentEntry = focal.pollFirst();
+            openQueue.remove(currentEntry);
+            N current = currentEntry.node;
+            open.remove(current.state());
+            closed.put(current.state(), current);
+
+            for (N successor : expander.expand(current)) {
+                S state = successor.state();
+                N successorClosed = closed.get(state);
+                if (successorClosed != null) {
+                    if (successorClosed.getScore().compareTo(successor.getScore()) <= 0) {
+                        continue;
+                    }
+                    // Reopen the state, it was closed with a worse path
+                    closed.remove(state);
+                }
+                Entry successorOpen = open.get(state);
+                if (successorOpen != null) {
+                    if (successorOpen.node.getScore().compareTo(successor.getScore()) <= 0) {
+                        continue;
+                    }
+                    remove(successorOpen);
+                }
+                insert(successor);
+            }
+            updateFocal();
+            return current;
+        }
+
+        private void insert(N node) {
+            Entry entry = new Entry(node, focalHeuristic.estimate(node.state()), nextId++);
+            open.put(node.state(), entry);
+            openQueue.add(entry);
+            if (node.getScore().compareTo(bound) <= 0) {
+                focal.add(entry);
+            }
+        }
+
+        private void remove(Entry entry) {
+            open.remove(entry.node.state());
+            openQueue.remove(entry);
+            focal.remove(entry);
+        }
+
+        /**
+         * Updates the bound of the FOCAL list after a change of the minimum score
+         * of the open nodes, adding or removing the affected nodes.
+         */
+        private void updateFocal() {
+            if (openQueue.isEmpty()) return;
+            C newBound = scaleOperation.scale(openQueue.first().node.getScore(), 1d + epsilon);
+            int c = newBound.compareTo(bound);
+            if (c > 0) {
+                for (Entry entry : openQueue) {
+                    C score = entry.node.getScore();
+                    if (score.compareTo(newBound) > 0) break;
+                    if (score.compareTo(bound) > 0) focal.add(entry);
+                }
+            } else if (c < 0) {
+                // The minimum score decreased (inconsistent heuristic)
+                java.util.Iterator<Entry> it = focal.iterator();
+                while (it.hasNext()) {
+                    if (it.next().node.getScore().compareTo(newBound) > 0) it.remove();
+                }
+            }
+            bound = newBound;
+        }
+
+        /**
+         * Remove is not supported
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return map with the open nodes indexed by their state
+         */
+        public Map<S, N> getOpen() {
+            Map<S, N> nodes = new HashMap<S, N>();
+            for (Entry entry : open.values()) {
+                nodes.put(entry.node.state(), entry.node);
+            }
+            return nodes;
+        }
+
+        /**
+         * @return nodes of the FOCAL list, sorted by the secondary heuristic
+         */
+        public List<N> getFocal() {
+            List<N> nodes = new ArrayList<N>(focal.size());
+            for (Entry entry : focal) {
+                nodes.add(entry.node);
+            }
+            return nodes;
+        }
+
+        /**
+         * @return map with the closed nodes indexed by their state
+         */
+        public Map<S, N> getClosed() {
+            return closed;
+        }
+
+        /**
+         * @return current bound {@literal (1 + ε)·f_min} of the FOCAL list
+         */
+        public C getBound() {
+            return bound;
+        }
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public HeuristicFunction<S, C> getFocalHeuristic() {
+        return focalHeuristic;
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * Implementation of Fringe Search. Like {@link IDAStar}, the search explores the nodes with a score
+ * under a threshold which grows in each iteration, but instead of starting again from the root it keeps
+ * the fringe of the previous iteration in a list. The list is traversed in order: the nodes above the
+ * threshold stay in the list for the next iteration (the <i>later</i> part), and the expanded nodes are
+ * replaced by their successors, which are inserted just after them to be visited in the same
+ * iteration (the <i>now</i> part). A cache with the best node of each generated state avoids
+ * exploring the same state twice unless a cheaper path is found.
+ * </p>
+ *
+ * <p>
+ * Fringe search returns optimal solutions with admissible heuristics. Compared with A*, it does not
+ * need to keep the open list sorted; compared with IDA*, it does not re-expand the nodes of previous
+ * iterations.
+ * </p>
+ *
+ * <a href="http://webdocs.cs.ualberta.ca/~holte/Publications/fringe.pdf">Original paper</a>:
+ * Björnsson, Yngvi, Markus Enzenberger, Robert C. Holte, and Jonathan Schaeffer. <b>"Fringe Search: Beating A* at Pathfinding on Game Maps."</b>. <i>IEEE Symposium on Computational Intelligence and Games (2005): 125-132</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node used.
+ */
+public class FringeSearch<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends Algorithm<A,S,N> {
+
+    protected final N initialNode;
+    protected final NodeExpander<A,S,N> expander;
+
+    public FringeSearch(N initialNode, NodeExpander<A,S,N> expander) {
+        this.initialNode = initialNode;
+        this.expander = expander;
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * Element of the doubly linked fringe list.
+     */
+    private final class Link {
+        private final S state;
+        private Link previous;
+        private Link next;
+
+        private Link(S state) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * Internal iterator that implements all the logic of the fringe search
+     */
+    public class Iterator implements java.util.Iterator<N> {
+        // Best node found for each generated state
+        protected Map<S, N> cache = new HashMap<S, N>();
+        // Links of the states in the fringe
+        private Map<S, Link> fringe = new HashMap<S, Link>();
+        private Link head;
+        private Link cursor;
+        private C fLimit;
+        private C fMin;
+        private N next;
+        protected int iterations = 0;
+
+        protected Iterator() {
+            cache.put(initialNode.state(), initialNode);
+            head = new Link(initialNode.state());
+            fringe.put(head.state, head);
+            cursor = head;
+            fLimit = initialNode.getScore();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public N next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            N current = next;
+            next = null;
+            return current;
+        }
+
+        /**
+         * Traverses the fringe until a node under the threshold is found, and expands it.
+         *
+         * @return expanded node, or null if the fringe is empty
+         */
+        private N advance() {
+            while (head != null) {
+                if (cursor == null) {
+                    // End of the list, start a new iteration with the minimum score above the threshold
+                    fLimit = fMin;
+                    fMin = null;
+                    cursor = head;
+                    iterations++;
+                }
+                Link link = cursor;
+                N node = cache.get(link.state);
+                C score = node.getScore();
+                if (score.compareTo(fLimit) > 0) {
+                    // Later: keep the node for the next iteration
+                    if (fMin == null || score.compareTo(fMin) < 0) {
+                        fMin = score;
+                    }
+                    cursor = link.next;
+                    continue;
+                }
+                // Now: expand the node, inserting the successors after it
+                List<N> successors = new ArrayList<N>();
+                for (N successor : expander.expand(node)) {
+                    successors.add(successor);
+                }
+                for (int i = successors.size() - 1; i >= 0; i--) {
+                    N successor = successors.get(i);
+                    S state = successor.state();
+                    N cached = cache.get(state);
+                    if (cached != null && cached.getCost().compareTo(successor.getCost()) <= 0) {
+                        continue;
+                    }
+                    cache.put(state, successor);
+                    Link successorLink = fringe.remove(state);
+                    if (successorLink != null) {
+                        unlink(successorLink);
+                    }
+                    insertAfter(link, new Link(state));
+                }
+                cursor = link.next;
+                unlink(link);
+                return node;
+            }
+            return null;
+        }
+
+        private void insertAfter(Link link, Link newLink) {
+            fringe.put(newLink.state, newLink);
+            newLink.previous = link;
+            newLink.next = link.next;
+            if (link.next != null) link.next.previous = newLink;
+            link.next = newLink;
+        }
+
+        private void unlink(Link link) {
+            fringe.remove(link.state);
+            if (link.previous != null) {
+                link.previous.next = link.next;
+            } else {
+                head = link.next;
+            }
+            if (link.next != null) link.next.previous = link.previous;
+            if (cursor == link) cursor = link.next;
+        }
+
+        /**
+         * Remove is not supported
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return map with the best node found for each generated state
+         */
+        public Map<S, N> getCache() {
+            return cache;
+        }
+
+        /**
+         * @return states in the fringe, in order
+         */
+        public List<S> getFringe() {
+            List<S> states = new ArrayList<S>(fringe.size());
+            for (Link link = head; link != null; link = link.next) {
+                states.add(link.state);
+            }
+            return states;
+        }
+
+        /**
+         * @return current threshold of the search
+         */
+        public C getfLimit() {
+            return fLimit;
+        }
+
+        /**
+         * @return number of times the threshold was increased
+         */
+        public int getIterations() {
+            return iterations;
+        }
+    }
+}
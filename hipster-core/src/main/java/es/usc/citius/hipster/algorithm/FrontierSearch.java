@@ -0,0 +1,436 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.TransitionFunction;
+import es.usc.citius.hipster.model.function.impl.BinaryOperation;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.node.impl.WeightedNodeFactory;
+import es.usc.citius.hipster.model.problem.SearchComponents;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * Implementation of the divide-and-conquer frontier search (frontier A*, or a frontier Dijkstra / BFS when
+ * the components have no heuristic function). Unlike {@link AStar}, the expanded states are not kept in a
+ * closed list: only the open states are stored, and each one records the neighbors that already reached it
+ * (the "used operators"). When a state is expanded, the successors that go back to one of these neighbors are
+ * not generated again, which is enough to prevent regenerating the expanded states without storing them.
+ * </p>
+ *
+ * <p>
+ * Since the nodes of the open list do not keep the path to the beginning state, each one stores the state
+ * reached approximately at the middle of its path, and the solution is reconstructed by solving recursively
+ * the problems from the beginning to the middle state and from the middle state to the goal. The memory is
+ * bounded by the size of the frontier instead of the number of expanded states, at the price of the
+ * additional (smaller) searches needed to recover the path.
+ * </p>
+ *
+ * <p>
+ * The heuristic function of the components only estimates the cost to the goal, so it can only guide the
+ * subproblems that end at the goal. The other subproblems (for example, all the ones from the beginning state
+ * to a middle state) are solved with a uniform-cost search unless a pairwise heuristic is provided
+ * ({@link #FrontierSearch(SearchComponents, Function)}), which returns a heuristic function to any target state
+ * (like {@link es.usc.citius.hipster.graph.Landmarks#heuristicTo(Object)}). Without it, the uniform-cost searches
+ * of the reconstruction can store more states than the informed search itself in problems with a good
+ * heuristic.
+ * </p>
+ *
+ * <p>
+ * Frontier search requires an undirected problem: each transition from a state A to a state B has to be
+ * matched by a transition from B to A with the same cost (like the moves of a {@link es.usc.citius.hipster.util.examples.maze.Maze2D}
+ * or the N-Puzzle). The heuristic function has to be consistent. The nodes returned by the iterator do not keep
+ * the path ({@link es.usc.citius.hipster.model.node.Node#previousNode()} is null): use {@link #search(Predicate)}
+ * to obtain the goal node with the complete path.
+ * </p>
+ *
+ * <a href="http://dl.acm.org/citation.cfm?id=1089027">Original paper</a>:
+ * Richard E. Korf, Weixiong Zhang, Ignacio Thayer and Heath Hohwald. <b>"Frontier Search"</b>.
+ * <i>Journal of the ACM 52(5): 715-748, 2005</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ */
+public class FrontierSearch<A,S,C extends Comparable<C>> extends Algorithm<A,S,WeightedNode<A,S,C>> {
+
+    protected final S begin;
+    protected final S goal;
+    protected final TransitionFunction<A,S> successorFunction;
+    protected final BinaryOperation<C> costAlgebra;
+    protected final CostFunction<A,S,C> costFunction;
+    protected final Function<S, HeuristicFunction<S,C>> heuristicTo;
+    protected final WeightedNodeFactory<A,S,C> informedFactory;
+    protected final WeightedNodeFactory<A,S,C> uninformedFactory;
+
+    /**
+     * Creates a new frontier search for the components of a problem. If the components have a heuristic function,
+     * the search expands the states in A* order; otherwise, in order of cost (like Dijkstra).
+     *
+     * @param components search components with the beginning and goal states, the cost function, the
+     *                   successor function and the cost algebra.
+     */
+    public FrontierSearch(SearchComponents<A,S,C> components) {
+        this(components, null);
+    }
+
+    /**
+     * Creates a new frontier search which uses a pairwise heuristic to guide the searches that reconstruct
+     * the path. The heuristic functions have to be consistent.
+     *
+     * @param components search components with the beginning and goal states, the cost function, the
+     *                   successor function and the cost algebra.
+     * @param heuristicTo function which returns the heuristic function to a target state, or null to solve
+     *                    the subproblems which do not end at the goal with a uniform-cost search.
+     */
+    public FrontierSearch(SearchComponents<A,S,C> components, Function<S, HeuristicFunction<S,C>> heuristicTo) {
+        this.begin = components.getBegin();
+        this.goal = components.getGoal();
+        this.successorFunction = components.successorFunction();
+        this.costAlgebra = components.costAlgebra();
+        this.costFunction = components.costFunction();
+        this.heuristicTo = heuristicTo;
+        this.uninformedFactory = new WeightedNodeFactory<A,S,C>(costFunction, costAlgebra);
+        this.informedFactory = components.heuristicFunction() == null ? uninformedFactory
+                : new WeightedNodeFactory<A,S,C>(costFunction, components.heuristicFunction(), costAlgebra);
+    }
+
+    /**
+     * @param target last state of a subproblem
+     * @return factory of the nodes of the subproblem, with the pairwise heuristic to the target if available
+     */
+    protected WeightedNodeFactory<A,S,C> factoryTo(S target) {
+        if (heuristicTo == null) {
+            return uninformedFactory;
+        }
+        return new WeightedNodeFactory<A,S,C>(costFunction, heuristicTo.apply(target), costAlgebra);
+    }
+
+    /**
+     * State of the open list. The node does not keep the path to the beginning state (its previous node
+     * is null); instead, the entry stores the parent state and the middle state of the path with their costs.
+     */
+    protected class Entry {
+        protected WeightedNode<A,S,C> node;
+        // Neighbors that already reached this state (operators that must not be applied again)
+        protected List<S> used = new ArrayList<S>(2);
+        protected S parent;
+        protected C parentCost;
+        protected S middle;
+        protected C middleCost;
+
+        protected Entry(WeightedNode<A,S,C> node) {
+            this.node = node;
+        }
+
+        public WeightedNode<A,S,C> getNode() {
+            return node;
+        }
+
+        public S getParent() {
+            return parent;
+        }
+
+        public S getMiddle() {
+            return middle;
+        }
+    }
+
+    /**
+     * Frontier search iterator. Each call to {@code next()} expands the best state of the open list and
+     * returns its node (without the path).
+     */
+    public class Iterator implements java.util.Iterator<WeightedNode<A,S,C>> {
+        protected final IndexedHeap<S, Entry> open;
+        protected final WeightedNodeFactory<A,S,C> factory;
+        protected final S target;
+        protected final Predicate<WeightedNode<A,S,C>> condition;
+        // A state is the middle state of its path when 2 * cost + offset >= total. If total is null,
+        // the score of the node is used instead, so the middle state is the first one with cost >= estimation.
+        protected final C offset;
+        protected final C total;
+        protected Entry solution;
+        protected int expanded = 0;
+        protected int maxOpenSize = 0;
+
+        protected Iterator(S from, S target, WeightedNodeFactory<A,S,C> factory, C offset, C total) {
+            this(from, target, null, factory, offset, total);
+        }
+
+        /**
+         * @param condition condition that identifies the solution among the expanded nodes (which do not
+         *                  keep the path), or null to stop at the target state
+         */
+        protected Iterator(S from, S target, Predicate<WeightedNode<A,S,C>> condition,
+                           WeightedNodeFactory<A,S,C> factory, C offset, C total) {
+            this.target = target;
+            this.condition = condition;
+            this.factory = factory;
+            this.offset = offset;
+            this.total = total;
+            this.open = new IndexedHeap<S, Entry>(new Function<Entry, S>() {
+                @Override
+                public S apply(Entry entry) {
+                    return entry.node.state();
+                }
+            }, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry a, Entry b) {
+                    int c = a.node.getScore().compareTo(b.node.getScore());
+                    // Break ties in favor of the deepest node
+                    return c != 0 ? c : b.node.getCost().compareTo(a.node.getCost());
+                }
+            });
+            open.offer(new Entry(factory.makeNode(null, Transition.<A,S>create(null, null, from))));
+            maxOpenSize = 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !open.isEmpty();
+        }
+
+        @Override
+        public WeightedNode<A,S,C> next() {
+            if (open.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Entry current = open.poll();
+            expanded++;
+            if (solution == null && isSolution(current.node)) {
+                solution = current;
+            }
+            for (Transition<A,S> transition : successorFunction.transitionsFrom(current.node.state())) {
+                S state = transition.getState();
+                if (current.used.contains(state)) {
+                    continue;
+                }
+                WeightedNode<A,S,C> successor = factory.makeNode(current.node, transition);
+                Entry entry = open.get(state);
+                if (entry == null) {
+                    entry = new Entry(detach(successor));
+                    entry.used.add(current.node.state());
+                    updatePath(entry, current);
+                    open.offer(entry);
+                } else {
+                    if (!entry.used.contains(current.node.state())) {
+                        entry.used.add(current.node.state());
+                    }
+                    if (successor.getCost().compareTo(entry.node.getCost()) < 0) {
+                        entry.node = detach(successor);
+                        updatePath(entry, current);
+                        open.decreaseKey(entry);
+                    }
+                }
+            }
+            if (open.size() > maxOpenSize) {
+                maxOpenSize = open.size();
+            }
+            return current.node;
+        }
+
+        private boolean isSolution(WeightedNode<A,S,C> node) {
+            if (condition != null) {
+                return condition.apply(node);
+            }
+            return target != null && target.equals(node.state());
+        }
+
+        private WeightedNode<A,S,C> detach(WeightedNode<A,S,C> node) {
+            return new WeightedNode<A,S,C>(null, node.state(), node.action(), node.getCost(), node.getEstimation(), node.getScore());
+        }
+
+        private void updatePath(Entry entry, Entry parent) {
+            entry.parent = parent.node.state();
+            entry.parentCost = parent.node.getCost();
+            entry.middle = parent.middle;
+            entry.middleCost = parent.middleCost;
+            if (entry.middle == null) {
+                C cost = entry.node.getCost();
+                C bound = total != null ? total : entry.node.getScore();
+                if (costAlgebra.apply(costAlgebra.apply(cost, cost), offset).compareTo(bound) >= 0) {
+                    entry.middle = entry.node.state();
+                    entry.middleCost = cost;
+                }
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return entry of the first expanded node which satisfies the condition (or of the target state
+         * if there is no condition), or null if it has not been expanded yet
+         */
+        public Entry getSolution() {
+            return solution;
+        }
+
+        /**
+         * @return states of the frontier, without the expanded ones
+         */
+        public IndexedHeap<S, Entry> getOpen() {
+            return open;
+        }
+
+        public int getExpanded() {
+            return expanded;
+        }
+
+        /**
+         * @return maximum number of states stored during the search
+         */
+        public int getMaxOpenSize() {
+            return maxOpenSize;
+        }
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator(begin, goal, informedFactory, costAlgebra.getIdentityElem(), null);
+    }
+
+    /**
+     * Runs the frontier search until a node which satisfies the condition is expanded, and reconstructs
+     * the path to its state with divide-and-conquer. The condition is applied to the expanded nodes, which
+     * do not keep the path (only their state and costs). If the condition is null, the search stops at
+     * the goal state of the components.
+     *
+     * @param condition condition that the goal node has to satisfy to be returned
+     * @return search result with the goal node, or without goal nodes if no expanded node satisfies the condition
+     */
+    @Override
+    public SearchResult search(Predicate<WeightedNode<A,S,C>> condition) {
+        int iteration = 0;
+        Iterator it = new Iterator(this.begin, goal, condition, informedFactory, costAlgebra.getIdentityElem(), null);
+        long begin = System.currentTimeMillis();
+        while (it.hasNext() && it.getSolution() == null) {
+            iteration++;
+            it.next();
+        }
+        WeightedNode<A,S,C> solution = null;
+        if (it.getSolution() != null) {
+            Entry entry = it.getSolution();
+            List<S> path = new LinkedList<S>();
+            path.add(this.begin);
+            // The heuristic can only guide the subproblems whose last state is the goal of the components
+            boolean informed = goal != null && goal.equals(entry.node.state());
+            reconstruct(this.begin, entry, informed, costAlgebra.getIdentityElem(), entry.node.getCost(), path);
+            solution = toNode(path);
+        }
+        long end = System.currentTimeMillis();
+        if (solution != null) {
+            return new SearchResult(solution, iteration, end - begin);
+        }
+        return new SearchResult(Collections.<WeightedNode<A,S,C>>emptyList(), iteration, end - begin);
+    }
+
+    /**
+     * Appends to the path the states after {@code from} up to the state of the entry, which was found by a
+     * search from {@code from}. The subproblems search the middle (or the parent) state of the entry, and
+     * the states of the path between {@code from} and the entry state.
+     *
+     * @param from first state of the subpath, already in the path
+     * @param entry entry of the last state of the subpath
+     * @param informed true if the last state is the goal, so the heuristic can be used
+     * @param offset cost of the path before {@code from} in the problem that defines the middle states
+     * @param total cost of the path up to the entry state in the problem that defines the middle states
+     * @param path path being reconstructed
+     */
+    protected void reconstruct(S from, Entry entry, boolean informed, C offset, C total, List<S> path) {
+        S to = entry.node.state();
+        if (to.equals(from)) {
+            return;
+        }
+        if (entry.parent == null || entry.parent.equals(from)) {
+            path.add(to);
+            return;
+        }
+        S split = entry.middle;
+        C splitCost = entry.middleCost;
+        if (split == null || split.equals(to)) {
+            split = entry.parent;
+            splitCost = entry.parentCost;
+        }
+        // From the beginning of the subpath to the split state: cost of the subpath is splitCost
+        Entry left = solve(from, split, factoryTo(split), costAlgebra.getIdentityElem(), splitCost).getSolution();
+        reconstruct(from, left, false, costAlgebra.getIdentityElem(), splitCost, path);
+        // From the split state to the end of the subpath
+        C rightOffset = costAlgebra.apply(offset, splitCost);
+        Entry right = solve(split, to, informed ? informedFactory : factoryTo(to), rightOffset, total).getSolution();
+        reconstruct(split, right, informed, rightOffset, total, path);
+    }
+
+    /**
+     * Solves a subproblem of the reconstruction of the path.
+     *
+     * @param from first state of the subproblem
+     * @param to last state of the subproblem
+     * @param factory factory of the nodes of the subproblem
+     * @param offset cost of the path before {@code from} in the problem that defines the middle states
+     * @param total cost of the path up to {@code to} in the problem that defines the middle states
+     * @return iterator of the search, stopped when the last state has been expanded
+     */
+    protected Iterator solve(S from, S to, WeightedNodeFactory<A,S,C> factory, C offset, C total) {
+        Iterator it = new Iterator(from, to, factory, offset, total);
+        while (it.hasNext() && it.getSolution() == null) {
+            it.next();
+        }
+        if (it.getSolution() == null) {
+            throw new IllegalStateException("Cannot reconstruct the path from " + from + " to " + to
+                    + ", the problem is not undirected");
+        }
+        return it;
+    }
+
+    /**
+     * Creates the node of the last state of the path, using the best transition between each pair of states.
+     */
+    private WeightedNode<A,S,C> toNode(List<S> path) {
+        WeightedNode<A,S,C> node = null;
+        for (S state : path) {
+            if (node == null) {
+                node = informedFactory.makeNode(null, Transition.<A,S>create(null, null, state));
+                continue;
+            }
+            WeightedNode<A,S,C> best = null;
+            for (Transition<A,S> transition : successorFunction.transitionsFrom(node.state())) {
+                if (transition.getState().equals(state)) {
+                    WeightedNode<A,S,C> candidate = informedFactory.makeNode(node, transition);
+                    if (best == null || candidate.getCost().compareTo(best.getCost()) < 0) {
+                        best = candidate;
+                    }
+                }
+            }
+            node = best;
+        }
+        return node;
+    }
+}
@@ -0,0 +1,352 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Implementation of the Hash Distributed A* algorithm (HDA*), a parallel version of A* in which
+ * the states are distributed among a set of worker threads using a hash function. Each worker owns
+ * the states assigned to it and keeps its own open and closed structures (the same ones used by
+ * {@link AStar.Iterator}). When a worker generates a successor owned by another worker, the node
+ * is sent asynchronously to the inbox of its owner, so the workers never share their open or closed
+ * structures.
+ * </p>
+ *
+ * <p>
+ * Since the nodes are not expanded in a global best-first order, the first goal node found
+ * is not necessarily optimal. The best goal found so far (the incumbent) is shared among all
+ * the workers, which discard the nodes whose score is not lower than the cost of the incumbent.
+ * The search terminates when there are no open nodes nor messages in transit in any worker;
+ * at that moment the incumbent is optimal if the heuristic is admissible. Termination
+ * is detected with the four-counter method of Mattern: each worker counts the nodes it sends and
+ * receives without sharing the counters with the other workers, and publishes them only when it runs out
+ * of work. An idle worker collects the published counters twice and declares the termination if all the workers
+ * were idle, the counters did not change between both collections and every node sent has been received.
+ * Idle workers wait on their inbox until a new node arrives or the termination can be checked again.
+ * </p>
+ *
+ * <p>
+ * The components of the problem (the node expander, the transition and cost functions, etc.)
+ * are shared by all the workers and must be thread-safe. Iterating this algorithm
+ * ({@link #iterator()}) performs a sequential A* search; use {@link #search(Predicate)} to
+ * run the parallel search.
+ * </p>
+ *
+ * <a href="http://www.aaai.org/ocs/index.php/ICAPS/ICAPS09/paper/view/735">Original paper</a>:
+ * Kishimoto, Akihiro, Alex Fukunaga, and Adi Botea. <b>"Scalable, parallel best-first search for optimal sequential planning."</b>. <i>Proceedings of the 19th International Conference on Automated Planning and Scheduling (ICAPS 2009)</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node used.
+ */
+public class HashDistributedAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends Algorithm<A,S,N> {
+
+    protected final N initialNode;
+    protected final NodeExpander<A,S,N> expander;
+    protected final int parallelism;
+
+    /**
+     * Creates a new HDA* algorithm which uses one worker per available processor.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     */
+    public HashDistributedAStar(N initialNode, NodeExpander<A,S,N> expander) {
+        this(initialNode, expander, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new HDA* algorithm.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param parallelism number of worker threads used by the search.
+     */
+    public HashDistributedAStar(N initialNode, NodeExpander<A,S,N> expander, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("The number of workers must be at least 1");
+        this.initialNode = initialNode;
+        this.expander = expander;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns an iterator which performs a sequential A* search. The parallel search
+     * is only available through {@link #search(Predicate)}.
+     *
+     * @return sequential A* iterator.
+     */
+    @Override
+    public AStar<A,S,C,N>.Iterator iterator() {
+        return new AStar<A,S,C,N>(initialNode, expander).iterator();
+    }
+
+    /**
+     * Runs the parallel search until the space has been exhausted or no open node can
+     * improve the best node which satisfies the condition. The number of iterations
+     * of the result is the total number of nodes expanded by all the workers.
+     *
+     * @param condition goal condition.
+     * @return result with the optimal goal node, or with no goal nodes if there is no
+     * node which satisfies the condition.
+     */
+    @Override
+    public SearchResult search(Predicate<N> condition) {
+        long begin = System.currentTimeMillis();
+        Search search = new Search(condition);
+        search.run();
+        long end = System.currentTimeMillis();
+        int iterations = (int) Math.min(Integer.MAX_VALUE, search.expanded());
+        if (search.incumbent == null) {
+            return new SearchResult(Collections.<N>emptyList(), iterations, end - begin);
+        }
+        return new SearchResult(search.incumbent, iterations, end - begin);
+    }
+
+    /**
+     * @return number of worker threads used by the search.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * State shared by the workers of a single parallel search.
+     */
+    private class Search {
+        private final Predicate<N> condition;
+        private final List<Worker> workers;
+        private volatile N incumbent;
+        private volatile boolean aborted;
+        private volatile boolean terminated;
+
+        private Search(Predicate<N> condition) {
+            this.condition = condition;
+            this.workers = new ArrayList<Worker>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(new Worker(this, i));
+            }
+        }
+
+        private void run() {
+            // The initial node is accounted as sent by the first worker
+            workers.get(0).sent++;
+            send(initialNode);
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                List<Future<Void>> results = executor.invokeAll(workers);
+                for (Future<Void> result : results) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The search was interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void send(N node) {
+            workers.get(owner(node.state())).inbox.offer(node);
+        }
+
+        private boolean done() {
+            return aborted || terminated;
+        }
+
+        /**
+         * Checks if all the workers are idle and there are no nodes in transit. The published
+         * counters are collected twice: if both collections are equal, there was an instant
+         * between them in which all the workers were idle with those counters.
+         *
+         * @return true if the search has terminated.
+         */
+        private boolean detectTermination() {
+            if (terminated) return true;
+            long[] first = collect();
+            if (first == null) return false;
+            long[] second = collect();
+            if (second == null) return false;
+            if (first[0] == second[0] && first[1] == second[1] && first[0] == first[1]) {
+                terminated = true;
+            }
+            return terminated;
+        }
+
+        /**
+         * @return total number of nodes sent and received by the workers, or null if
+         * some worker is not idle.
+         */
+        private long[] collect() {
+            long sent = 0, received = 0;
+            for (Worker worker : workers) {
+                // The counters are published before the worker becomes idle
+                if (!worker.idle) return null;
+                sent += worker.publishedSent;
+                received += worker.publishedReceived;
+            }
+            return new long[]{sent, received};
+        }
+
+        private long expanded() {
+            long expanded = 0;
+            for (Worker worker : workers) {
+                expanded += worker.expanded;
+            }
+            return expanded;
+        }
+
+        private int owner(S state) {
+            int h = state.hashCode();
+            h ^= (h >>> 16);
+            return (h & 0x7fffffff) % parallelism;
+        }
+
+        /**
+         * @return true if the node cannot improve the current incumbent.
+         */
+        private boolean prunable(N node) {
+            N best = incumbent;
+            return best != null && node.getScore().compareTo(best.getCost()) >= 0;
+        }
+
+        private synchronized void improveIncumbent(N goal) {
+            if (incumbent == null || goal.getCost().compareTo(incumbent.getCost()) < 0) {
+                incumbent = goal;
+            }
+        }
+    }
+
+    /**
+     * Worker of the parallel search. Expands the nodes of the states it owns and
+     * sends the successors to their owners.
+     */
+    private class Worker implements Callable<Void> {
+        // Time an idle worker waits for new nodes before checking the termination again
+        private static final long IDLE_WAIT_MILLIS = 1;
+
+        private final Search search;
+        private final int id;
+        private final BlockingQueue<N> inbox = new LinkedBlockingQueue<N>();
+        private final IndexedHeap<S, N> queue;
+        private final Map<S, N> closed = new HashMap<S, N>();
+        // Counters only updated by the thread of the worker
+        private long sent, received, expanded;
+        // Counters visible to the other workers, published when the worker becomes idle
+        private volatile long publishedSent, publishedReceived;
+        private volatile boolean idle;
+
+        private Worker(Search search, int id) {
+            this.search = search;
+            this.id = id;
+            this.queue = new IndexedHeap<S, N>(new Function<N, S>() {
+                @Override
+                public S apply(N node) {
+                    return node.state();
+                }
+            });
+        }
+
+        @Override
+        public Void call() {
+            try {
+                while (!search.done()) {
+                    N message;
+                    while ((message = inbox.poll()) != null) {
+                        accept(message);
+                    }
+                    if (!queue.isEmpty()) {
+                        expand(queue.poll());
+                        continue;
+                    }
+                    if (!idle) {
+                        publishedSent = sent;
+                        publishedReceived = received;
+                        idle = true;
+                    }
+                    if (search.detectTermination()) return null;
+                    message = inbox.poll(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (message != null) {
+                        accept(message);
+                    }
+                }
+                return null;
+            } catch (InterruptedException e) {
+                search.aborted = true;
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The search was interrupted", e);
+            } catch (RuntimeException e) {
+                search.aborted = true;
+                throw e;
+            } catch (Error e) {
+                search.aborted = true;
+                throw e;
+            }
+        }
+
+        private void accept(N message) {
+            // The worker must not look idle while it holds a node not yet published as received
+            if (idle) idle = false;
+            received++;
+            receive(message);
+        }
+
+        private void receive(N node) {
+            if (search.prunable(node)) return;
+            S state = node.state();
+            N open = queue.get(state);
+            if (open != null && open.getScore().compareTo(node.getScore()) <= 0) return;
+            N close = closed.get(state);
+            if (close != null && close.getScore().compareTo(node.getScore()) <= 0) return;
+            // Replaces the open node of the same state, if any
+            queue.offer(node);
+        }
+
+        private void expand(N current) {
+            if (search.prunable(current)) return;
+            expanded++;
+            closed.put(current.state(), current);
+            if (search.condition.apply(current)) {
+                search.improveIncumbent(current);
+                return;
+            }
+            for (N successor : expander.expand(current)) {
+                if (search.prunable(successor)) continue;
+                if (search.owner(successor.state()) == id) {
+                    // Local successors skip the inbox
+                    receive(successor);
+                } else {
+                    sent++;
+                    search.send(successor);
+                }
+            }
+        }
+    }
+}
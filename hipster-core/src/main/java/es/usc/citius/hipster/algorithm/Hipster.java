@@ -19,6 +19,8 @@ import es.usc.citius.hipster.algorithm.localsearch.AnnealingSearch;
 import es.usc.citius.hipster.algorithm.localsearch.HillClimbing;
 import es.usc.citius.hipster.algorithm.localsearch.AnnealingSearch.AcceptanceProbability;
 import es.usc.citius.hipster.algorithm.localsearch.AnnealingSearch.SuccessorFinder;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.ScalarOperation;
 import es.usc.citius.hipster.model.node.CostNode;
 import es.usc.citius.hipster.model.node.HeuristicNode;
 import es.usc.citius.hipster.model.node.Node;
@@ -28,6 +30,9 @@ import es.usc.citius.hipster.model.node.impl.ScaleWeightedNodeFactory;
 import es.usc.citius.hipster.model.node.impl.ADStarNodeImpl;
 import es.usc.citius.hipster.model.problem.SearchComponents;
 import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import es.usc.citius.lab.hipster.collections.IndexedQueueFactory;
 
 import java.util.Collections;
 
@@ -74,11 +79,14 @@ public final class Hipster {
 	}
 
 	/**
-	 * Instantiates a Dijkstra algorithm (A* algorithm with no heuristic
-	 * function) given a problem definition.
+	 * Instantiates a A* algorithm given a problem definition and the factory
+	 * of the queue used to sort the open nodes.
 	 *
 	 * @param components
 	 *            search problem definition with the components of the algorithm
+	 * @param queueFactory
+	 *            factory of the queue used to sort the open nodes, for example
+	 *            {@code BucketQueue.factory(new HeuristicNodeLongPriorityEvaluator())}
 	 * @param <A>
 	 *            type of the actions
 	 * @param <S>
@@ -88,14 +96,375 @@ public final class Hipster {
 	 * @param <N>
 	 *            type of the nodes
 	 * @return instance of {@link es.usc.citius.hipster.algorithm.AStar} for the
-	 *         problem definition, using no heuristic.
+	 *         problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> AStar<A, S, C, N> createAStar(
+			SearchProblem<A, S, N> components, IndexedQueueFactory<S, N> queueFactory) {
+		return new AStar<A, S, C, N>(components.getInitialNode(), components.getExpander(), queueFactory);
+	}
+
+	/**
+	 * Instantiates a parallel Hash Distributed A* (HDA*) algorithm given a problem
+	 * definition, using one worker thread per available processor. The components
+	 * of the problem must be thread-safe.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.HashDistributedAStar}
+	 *         for the problem definition
 	 */
-	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> AStar<A, S, C, N> createDijkstra(
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> HashDistributedAStar<A, S, C, N> createHashDistributedAStar(
 			SearchProblem<A, S, N> components) {
-		// TODO: There is no difference with AStar. Actually if the NodeExpander
-		// uses heuristics, this "Dijkstra" impl works as the AStar. This should
-		// be changed!
-		return new AStar<A, S, C, N>(components.getInitialNode(), components.getExpander());
+		return new HashDistributedAStar<A, S, C, N>(components.getInitialNode(), components.getExpander());
+	}
+
+	/**
+	 * Instantiates a parallel Hash Distributed A* (HDA*) algorithm given a problem
+	 * definition and the number of worker threads. The components of the problem
+	 * must be thread-safe.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param parallelism
+	 *            number of worker threads
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.HashDistributedAStar}
+	 *         for the problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> HashDistributedAStar<A, S, C, N> createHashDistributedAStar(
+			SearchProblem<A, S, N> components, int parallelism) {
+		return new HashDistributedAStar<A, S, C, N>(components.getInitialNode(), components.getExpander(), parallelism);
+	}
+
+	/**
+	 * Instantiates a Simplified Memory-Bounded A* (SMA*) algorithm given a problem
+	 * definition and the maximum number of nodes kept in memory.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param maxNodes
+	 *            maximum number of nodes of the search tree kept in memory
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.SMAStar} for the
+	 *         problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> SMAStar<A, S, C, N> createSMAStar(
+			SearchProblem<A, S, N> components, int maxNodes) {
+		return new SMAStar<A, S, C, N>(components.getInitialNode(), components.getExpander(), maxNodes);
+	}
+
+	/**
+	 * Instantiates a focal search (A*<sub>&epsilon;</sub>) given a problem definition with
+	 * {@link Double} costs.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param epsilon
+	 *            suboptimality bound: the cost of the solution is at most
+	 *            {@literal (1 + epsilon)} times the optimal cost
+	 * @param focalHeuristic
+	 *            secondary heuristic used to select the node to expand among the
+	 *            nodes of the FOCAL list
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.FocalSearch} for
+	 *         the problem definition
+	 */
+	public static <A, S, N extends HeuristicNode<A, S, Double, N>> FocalSearch<A, S, Double, N> createFocalSearch(
+			SearchProblem<A, S, N> components, double epsilon, HeuristicFunction<S, Double> focalHeuristic) {
+		return createFocalSearch(components, epsilon, focalHeuristic, ScalarOperation.doubleMultiplicationOp());
+	}
+
+	/**
+	 * Instantiates a focal search (A*<sub>&epsilon;</sub>) given a problem definition.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param epsilon
+	 *            suboptimality bound: the cost of the solution is at most
+	 *            {@literal (1 + epsilon)} times the optimal cost
+	 * @param focalHeuristic
+	 *            secondary heuristic used to select the node to expand among the
+	 *            nodes of the FOCAL list
+	 * @param scaleOperation
+	 *            operation to scale the costs
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.FocalSearch} for
+	 *         the problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> FocalSearch<A, S, C, N> createFocalSearch(
+			SearchProblem<A, S, N> components, double epsilon, HeuristicFunction<S, C> focalHeuristic,
+			ScalarOperation<C> scaleOperation) {
+		return new FocalSearch<A, S, C, N>(components.getInitialNode(), components.getExpander(), epsilon,
+				focalHeuristic, scaleOperation);
+	}
+
+	/**
+	 * Instantiates a beam search given a problem definition. The search proceeds
+	 * layer by layer, keeping only the best {@code width} nodes of each layer.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param width
+	 *            maximum number of nodes of each layer
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.BeamSearch} for
+	 *         the problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> BeamSearch<A, S, C, N> createBeamSearch(
+			SearchProblem<A, S, N> components, int width) {
+		return new BeamSearch<A, S, C, N>(components.getInitialNode(), components.getExpander(), width);
+	}
+
+	/**
+	 * Instantiates a best-first search with a bounded open list given a problem
+	 * definition. When the open list exceeds the maximum size, the worst node is
+	 * dropped.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param maxOpenSize
+	 *            maximum number of nodes of the open list
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.BeamSearch} for
+	 *         the problem definition, with a bounded open list
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> BeamSearch<A, S, C, N> createBoundedBestFirstSearch(
+			SearchProblem<A, S, N> components, int maxOpenSize) {
+		return new BeamSearch<A, S, C, N>(components.getInitialNode(), components.getExpander(), maxOpenSize, true);
+	}
+
+	/**
+	 * Instantiates a Dijkstra algorithm given a problem definition. The open
+	 * nodes are sorted by their cost, so the heuristic function of the problem
+	 * (if any) is ignored.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.Dijkstra} for the
+	 *         problem definition.
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> Dijkstra<A, S, C, N> createDijkstra(
+			SearchProblem<A, S, N> components) {
+		return new Dijkstra<A, S, C, N>(components.getInitialNode(), components.getExpander());
+	}
+
+	/**
+	 * Instantiates a Dijkstra algorithm given a problem definition and the
+	 * factory of the queue used to sort the open nodes. The queues must sort
+	 * the nodes by their cost.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param queueFactory
+	 *            factory of the queue used to sort the open nodes, for example
+	 *            {@code BucketQueue.factory(new CostNodeLongPriorityEvaluator())}
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.Dijkstra} for the
+	 *         problem definition.
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> Dijkstra<A, S, C, N> createDijkstra(
+			SearchProblem<A, S, N> components, IndexedQueueFactory<S, N> queueFactory) {
+		return new Dijkstra<A, S, C, N>(components.getInitialNode(), components.getExpander(), queueFactory);
+	}
+
+	/**
+	 * Instantiates a Jump Point Search over a {@link Maze2D} with the 8-connected movement
+	 * model, from the initial to the goal location of the maze.
+	 *
+	 * @param maze
+	 *            grid to search, with the initial and goal locations
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.JumpPointSearch} for the maze
+	 */
+	public static JumpPointSearch createJumpPointSearch(Maze2D maze) {
+		return createJumpPointSearch(maze, true);
+	}
+
+	/**
+	 * Instantiates a Jump Point Search over a {@link Maze2D}, from the initial to the goal
+	 * location of the maze.
+	 *
+	 * @param maze
+	 *            grid to search, with the initial and goal locations
+	 * @param diagonal
+	 *            true for the 8-connected movement model, false for the 4-connected one
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.JumpPointSearch} for the maze
+	 */
+	public static JumpPointSearch createJumpPointSearch(Maze2D maze, boolean diagonal) {
+		return new JumpPointSearch(maze, maze.getInitialLoc(), maze.getGoalLoc(), diagonal);
+	}
+
+	/**
+	 * Instantiates a bidirectional Dijkstra algorithm given the search components.
+	 * The components must define the beginning and goal states and a predecessor
+	 * function. Search components can be obtained easily for graph-based problems using
+	 * {@link es.usc.citius.hipster.graph.GraphSearchProblem}. The heuristic function
+	 * of the components, if any, is ignored.
+	 *
+	 * @param components
+	 *            search components to be used by the algorithm
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.BidirectionalAStar}
+	 *         for the search components, using no heuristics.
+	 */
+	public static <A, S, C extends Comparable<C>> BidirectionalAStar<A, S, C> createBidirectionalDijkstra(
+			SearchComponents<A, S, C> components) {
+		return new BidirectionalAStar<A, S, C>(components, null, null);
+	}
+
+	/**
+	 * Instantiates a bidirectional A* algorithm given the search components. The forward
+	 * search uses the heuristic function of the components, and the backward search does
+	 * not use heuristics.
+	 *
+	 * @param components
+	 *            search components to be used by the algorithm
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.BidirectionalAStar}
+	 *         for the search components
+	 */
+	public static <A, S, C extends Comparable<C>> BidirectionalAStar<A, S, C> createBidirectionalAStar(
+			SearchComponents<A, S, C> components) {
+		return new BidirectionalAStar<A, S, C>(components, components.heuristicFunction(), null);
+	}
+
+	/**
+	 * Instantiates a bidirectional A* algorithm given the search components and the
+	 * heuristic function for the backward search.
+	 *
+	 * @param components
+	 *            search components to be used by the algorithm
+	 * @param backwardHeuristic
+	 *            estimation of the cost from the beginning state to each state
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.BidirectionalAStar}
+	 *         for the search components
+	 */
+	public static <A, S, C extends Comparable<C>> BidirectionalAStar<A, S, C> createBidirectionalAStar(
+			SearchComponents<A, S, C> components, HeuristicFunction<S, C> backwardHeuristic) {
+		return new BidirectionalAStar<A, S, C>(components, components.heuristicFunction(), backwardHeuristic);
+	}
+
+	/**
+	 * Instantiates a frontier search algorithm given the search components of an
+	 * undirected problem. The search uses the heuristic function of the components
+	 * if present (frontier A*), or expands the states in order of cost otherwise.
+	 *
+	 * @param components
+	 *            search components with the beginning and goal states
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.FrontierSearch}
+	 *         for the search components
+	 */
+	public static <A, S, C extends Comparable<C>> FrontierSearch<A, S, C> createFrontierSearch(
+			SearchComponents<A, S, C> components) {
+		return new FrontierSearch<A, S, C>(components);
+	}
+
+	/**
+	 * Instantiates a frontier search algorithm which uses a pairwise heuristic to
+	 * guide the searches that reconstruct the path (for example, the heuristic
+	 * functions of {@link es.usc.citius.hipster.graph.Landmarks#heuristicTo(Object)}).
+	 *
+	 * @param components
+	 *            search components with the beginning and goal states
+	 * @param heuristicTo
+	 *            function which returns a consistent heuristic function to a
+	 *            target state
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.FrontierSearch}
+	 *         for the search components
+	 */
+	public static <A, S, C extends Comparable<C>> FrontierSearch<A, S, C> createFrontierSearch(
+			SearchComponents<A, S, C> components, Function<S, HeuristicFunction<S, C>> heuristicTo) {
+		return new FrontierSearch<A, S, C>(components, heuristicTo);
 	}
 
 	/**
@@ -119,6 +488,31 @@ public final class Hipster {
 		return new BellmanFord<A, S, C, N>(components.getInitialNode(), components.getExpander());
 	}
 
+	/**
+	 * Instantiates a Bellman Ford algorithm for a problem definition which
+	 * processes the nodes in the order of the queue created by the factory.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param queueFactory
+	 *            factory of the queue used to sort the pending nodes, for example
+	 *            {@code BucketQueue.factory(new CostNodeLongPriorityEvaluator())}
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.BellmanFord} for the
+	 *         problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends CostNode<A, S, C, N>> BellmanFord<A, S, C, N> createBellmanFord(
+			SearchProblem<A, S, N> components, IndexedQueueFactory<S, N> queueFactory) {
+		return new BellmanFord<A, S, C, N>(components.getInitialNode(), components.getExpander(), queueFactory);
+	}
+
 	/**
 	 * Instantiates Breadth First Search algorithm for a problem definition.
 	 *
@@ -201,6 +595,48 @@ public final class Hipster {
 		return new IDAStar<A, S, C, N>(components.getInitialNode(), components.getExpander());
 	}
 
+	/**
+	 * Instantiates a Recursive Best-First Search algorithm given a problem definition.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.RecursiveBestFirstSearch} for
+	 *         the problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> RecursiveBestFirstSearch<A, S, C, N> createRecursiveBestFirstSearch(
+			SearchProblem<A, S, N> components) {
+		return new RecursiveBestFirstSearch<A, S, C, N>(components.getInitialNode(), components.getExpander());
+	}
+
+	/**
+	 * Instantiates a Fringe Search algorithm given a problem definition.
+	 *
+	 * @param components
+	 *            search problem definition with the components of the algorithm
+	 * @param <A>
+	 *            type of the actions
+	 * @param <S>
+	 *            type of the states
+	 * @param <C>
+	 *            type of the cost
+	 * @param <N>
+	 *            type of the nodes
+	 * @return instance of {@link es.usc.citius.hipster.algorithm.FringeSearch} for
+	 *         the problem definition
+	 */
+	public static <A, S, C extends Comparable<C>, N extends HeuristicNode<A, S, C, N>> FringeSearch<A, S, C, N> createFringeSearch(
+			SearchProblem<A, S, N> components) {
+		return new FringeSearch<A, S, C, N>(components.getInitialNode(), components.getExpander());
+	}
+
 	/**
 	 * Instantiates a Hill Climbing algorithm given a problem definition.
 	 *
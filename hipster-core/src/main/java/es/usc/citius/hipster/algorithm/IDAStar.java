@@ -20,6 +20,10 @@ package es.usc.citius.hipster.algorithm;
 
 import es.usc.citius.hipster.model.node.HeuristicNode;
 import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.hipster.util.Function;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * <p>
@@ -27,6 +31,20 @@ import es.usc.citius.hipster.model.node.factory.NodeExpander;
  * the space search and keeping a very low memory usage.
  * </p>
  *
+ * <p>
+ * Since IDA* does not keep track of the explored states, the same state can be explored many times
+ * through different paths (transpositions). Two optional enhancements reduce the number of generated nodes:
+ * <ul>
+ *     <li>A bounded transposition table ({@link #setTranspositionTableSize(int)}) that caches the best
+ *     known cost of the states across iterations. A node is pruned if its state was reached with a lower
+ *     cost, or with the same cost in the current iteration. When the table is full, the least
+ *     recently used entries are discarded.</li>
+ *     <li>Inverse action pruning ({@link #setInverseActionFunction(Function)}): the successors generated
+ *     with the inverse of the action that led to the current node are pruned, since they return to the
+ *     parent state.</li>
+ * </ul>
+ * </p>
+ *
  * <a href="http://www.sciencedirect.com/science/article/pii/0004370285900840">Original paper</a>:
  * Richard E. Korf <i><b>"Depth-first Iterative-Deepening: An Optimal Admissible Tree Search."</b></i>,
  * Artificial Intelligence, vol. 27, pp. 97-109, 1985.
@@ -42,6 +60,9 @@ import es.usc.citius.hipster.model.node.factory.NodeExpander;
  */
 public class IDAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends DepthFirstSearch<A,S,N> {
 
+    protected int transpositionTableSize = 0;
+    protected Function<A,A> inverseActionFunction;
+
     /**
      * 
      * @param initialNode
@@ -51,6 +72,19 @@ public class IDAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
         super(initialNode, expander);
     }
 
+    /**
+     * Best cost found for a state and the iteration in which it was found.
+     */
+    private final class TranspositionEntry {
+        private final C cost;
+        private final int iteration;
+
+        private TranspositionEntry(C cost, int iteration) {
+            this.cost = cost;
+            this.iteration = iteration;
+        }
+    }
+
     /**
      * IDA iterator. It expands the next state to be explored. Backtracking
      * is automatically performed so if the state reaches a dead-end the next
@@ -62,12 +96,55 @@ public class IDAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
         protected C fLimit;
         protected C minfLimit;
         protected int reinitialization = 0;
+        protected Map<S, TranspositionEntry> transpositionTable;
+        protected int pruned = 0;
 
         protected Iterator(){
             // Set initial bound
             super();
             fLimit = initialNode.getEstimation();
             minfLimit = null;
+            if (transpositionTableSize > 0) {
+                final int maxEntries = transpositionTableSize;
+                transpositionTable = new LinkedHashMap<S, TranspositionEntry>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<S, TranspositionEntry> eldest) {
+                        return size() > maxEntries;
+                    }
+                };
+                transpositionTable.put(initialNode.state(), new TranspositionEntry(initialNode.getCost(), 0));
+            }
+        }
+
+        /**
+         * Checks if a successor can be pruned, either because it undoes the action of its
+         * parent or because its state was already reached with a lower cost. Otherwise, the
+         * cost of the successor is stored in the transposition table.
+         *
+         * @param parent node being expanded
+         * @param successor successor of the node
+         * @return true if the successor should not be explored
+         */
+        protected boolean prune(N parent, N successor) {
+            if (inverseActionFunction != null && parent.action() != null
+                    && successor.action() != null
+                    && successor.action().equals(inverseActionFunction.apply(parent.action()))) {
+                pruned++;
+                return true;
+            }
+            if (transpositionTable != null) {
+                C cost = successor.getCost();
+                TranspositionEntry entry = transpositionTable.get(successor.state());
+                if (entry != null) {
+                    int c = entry.cost.compareTo(cost);
+                    if (c < 0 || (c == 0 && entry.iteration == reinitialization)) {
+                        pruned++;
+                        return true;
+                    }
+                }
+                transpositionTable.put(successor.state(), new TranspositionEntry(cost, reinitialization));
+            }
+            return false;
         }
 
         protected void updateMinFLimit(C currentFLimit){
@@ -92,6 +169,9 @@ public class IDAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
                         fLimit = minfLimit;
                         reinitialization++;
                         minfLimit = null;
+                        if (transpositionTable != null) {
+                            transpositionTable.put(initialNode.state(), new TranspositionEntry(initialNode.getCost(), reinitialization));
+                        }
                         super.getStack().addLast(new StackFrameNode(initialNode));
                         nextNode = processNextNode();
                     }
@@ -135,8 +215,10 @@ public class IDAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
             if (current.getSuccessors().hasNext()){
                 // 3 - Node has at least one neighbor
                 N successor = current.getSuccessors().next();
-                // push the node
-                super.getStack().addLast(new StackFrameNode(successor));
+                // push the node (unless it is pruned)
+                if (!prune(current.getNode(), successor)) {
+                    super.getStack().addLast(new StackFrameNode(successor));
+                }
                 return current;
 
             } else {
@@ -171,6 +253,50 @@ public class IDAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N
         public void setReinitialization(int reinitialization) {
             this.reinitialization = reinitialization;
         }
+
+        /**
+         * @return number of successors pruned by the transposition table or the inverse action function
+         */
+        public int getPruned() {
+            return pruned;
+        }
+
+        /**
+         * @return transposition table with the best cost of each state, or null if it is disabled
+         */
+        public Map<S, ?> getTranspositionTable() {
+            return transpositionTable;
+        }
+    }
+
+    public int getTranspositionTableSize() {
+        return transpositionTableSize;
+    }
+
+    /**
+     * Sets the maximum number of entries of the transposition table used by the next iterators.
+     *
+     * @param transpositionTableSize maximum number of states in the table, 0 to disable it
+     */
+    public void setTranspositionTableSize(int transpositionTableSize) {
+        if (transpositionTableSize < 0) {
+            throw new IllegalArgumentException("The size of the transposition table must be non negative");
+        }
+        this.transpositionTableSize = transpositionTableSize;
+    }
+
+    public Function<A, A> getInverseActionFunction() {
+        return inverseActionFunction;
+    }
+
+    /**
+     * Sets the function used to prune the successors generated with the inverse of the action
+     * which led to the current node (for example, moving the blank tile back in the N-Puzzle).
+     *
+     * @param inverseActionFunction function which returns the inverse of an action, or null to disable the pruning
+     */
+    public void setInverseActionFunction(Function<A, A> inverseActionFunction) {
+        this.inverseActionFunction = inverseActionFunction;
     }
 
     @Override
@@ -0,0 +1,360 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Implementation of Jump Point Search (JPS) over uniform-cost grids defined with a {@link Maze2D}.
+ * JPS is an A* search which prunes the symmetric paths of the grid: instead of generating all the free
+ * neighbors of a cell, it jumps in straight lines (and diagonals) until it finds a cell with a
+ * <i>forced neighbor</i> (a neighbor which cannot be reached optimally without going through the cell)
+ * or the goal, and only these jump points are inserted in the open queue. The solutions found are
+ * optimal and have the same cost as the solutions of {@link AStar} over the same grid.
+ * </p>
+ *
+ * <p>
+ * Two movement models are supported:
+ * <ul>
+ *     <li>8-connected: moves to the 8 neighbors of a cell, as {@link Maze2D#validLocationsFrom(Point)}. The
+ *     cost of straight moves is 1 and the cost of diagonal moves is {@literal sqrt(2)}. Diagonal moves are
+ *     allowed even if the adjacent cells are occupied, as in {@link Maze2D#validLocationsFrom(Point)}.</li>
+ *     <li>4-connected: only moves to the up, down, left and right neighbors, with cost 1.</li>
+ * </ul>
+ * The nodes returned by the iterator only contain the jump points in their path. Use
+ * {@link #expandPath(List)} to recover all the cells of a path.
+ * </p>
+ *
+ * <a href="http://www.aaai.org/ocs/index.php/AAAI/AAAI11/paper/view/3761">Original paper</a>:
+ * Harabor, Daniel, and Alban Grastien. <b>"Online Graph Pruning for Pathfinding on Grid Maps."</b>. <i>AAAI Conference on Artificial Intelligence (2011)</i>.
+ */
+public class JumpPointSearch extends Algorithm<Void, Point, WeightedNode<Void, Point, Double>> {
+    private static final double SQRT2 = Math.sqrt(2);
+
+    protected final Maze2D maze;
+    protected final Point start;
+    protected final Point goal;
+    protected final boolean diagonal;
+
+    /**
+     * Creates a new Jump Point Search. The goal is needed to stop the jumps when they reach
+     * it, and to compute the heuristic.
+     *
+     * @param maze grid to search
+     * @param start initial location
+     * @param goal goal location
+     * @param diagonal true for the 8-connected movement model, false for the 4-connected one
+     */
+    public JumpPointSearch(Maze2D maze, Point start, Point goal, boolean diagonal) {
+        this.maze = maze;
+        this.start = start;
+        this.goal = goal;
+        this.diagonal = diagonal;
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * Returns all the cells of a path of jump points, filling the straight and diagonal
+     * segments between each pair of consecutive points.
+     *
+     * @param jumpPoints path of jump points
+     * @return path with all the cells
+     */
+    public static List<Point> expandPath(List<Point> jumpPoints) {
+        List<Point> path = new ArrayList<Point>();
+        for (int i = 0; i < jumpPoints.size(); i++) {
+            Point current = jumpPoints.get(i);
+            if (i > 0) {
+                Point previous = jumpPoints.get(i - 1);
+                int dx = Integer.signum(current.x - previous.x);
+                int dy = Integer.signum(current.y - previous.y);
+                int x = previous.x + dx;
+                int y = previous.y + dy;
+                while (x != current.x || y != current.y) {
+                    path.add(new Point(x, y));
+                    x += dx;
+                    y += dy;
+                }
+            }
+            path.add(current);
+        }
+        return path;
+    }
+
+    /**
+     * Internal iterator that implements all the logic of the search
+     */
+    public class Iterator implements java.util.Iterator<WeightedNode<Void, Point, Double>> {
+        protected IndexedHeap<Point, WeightedNode<Void, Point, Double>> queue;
+        protected Map<Point, WeightedNode<Void, Point, Double>> closed;
+
+        protected Iterator() {
+            queue = new IndexedHeap<Point, WeightedNode<Void, Point, Double>>(new Function<WeightedNode<Void, Point, Double>, Point>() {
+                @Override
+                public Point apply(WeightedNode<Void, Point, Double> node) {
+                    return node.state();
+                }
+            });
+            closed = new HashMap<Point, WeightedNode<Void, Point, Double>>();
+            queue.add(createNode(null, start, 0d));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public WeightedNode<Void, Point, Double> next() {
+            WeightedNode<Void, Point, Double> current = queue.poll();
+            Point state = current.state();
+            closed.put(state, current);
+
+            for (int[] direction : directions(current)) {
+                Point jumpPoint = diagonal
+                        ? jump8(state.x, state.y, direction[0], direction[1])
+                        : jump4(state.x, state.y, direction[0], direction[1]);
+                if (jumpPoint == null || closed.containsKey(jumpPoint)) {
+                    continue;
+                }
+                double cost = current.getCost() + distance(state, jumpPoint);
+                WeightedNode<Void, Point, Double> open = queue.get(jumpPoint);
+                if (open != null && open.getCost() <= cost) {
+                    continue;
+                }
+                queue.offer(createNode(current, jumpPoint, cost));
+            }
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return queue with the open jump points
+         */
+        public IndexedHeap<Point, WeightedNode<Void, Point, Double>> getQueue() {
+            return queue;
+        }
+
+        /**
+         * @return map with the expanded jump points
+         */
+        public Map<Point, WeightedNode<Void, Point, Double>> getClosed() {
+            return closed;
+        }
+    }
+
+    private WeightedNode<Void, Point, Double> createNode(WeightedNode<Void, Point, Double> parent, Point state, double cost) {
+        double estimation = heuristic(state);
+        return new WeightedNode<Void, Point, Double>(parent, state, null, cost, estimation, cost + estimation);
+    }
+
+    private double heuristic(Point p) {
+        if (goal == null) return 0d;
+        int dx = Math.abs(goal.x - p.x);
+        int dy = Math.abs(goal.y - p.y);
+        if (diagonal) {
+            // Octile distance
+            return Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+        }
+        return dx + dy;
+    }
+
+    private double distance(Point a, Point b) {
+        int dx = Math.abs(a.x - b.x);
+        int dy = Math.abs(a.y - b.y);
+        // Jump points are always in a straight line or in a diagonal
+        return (dx == 0 || dy == 0) ? dx + dy : dx * SQRT2;
+    }
+
+    private boolean free(int x, int y) {
+        return maze.validLocation(x, y);
+    }
+
+    private boolean isGoal(int x, int y) {
+        return goal != null && goal.x == x && goal.y == y;
+    }
+
+    /**
+     * Computes the directions to explore from a node. The initial node explores all the free
+     * neighbors, and the other nodes explore the natural and forced neighbors according to the
+     * direction of the move from their parent.
+     */
+    private List<int[]> directions(WeightedNode<Void, Point, Double> node) {
+        List<int[]> directions = new ArrayList<int[]>(8);
+        int x = node.state().x;
+        int y = node.state().y;
+        if (node.previousNode() == null) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx == 0 && dy == 0) || (!diagonal && dx != 0 && dy != 0)) continue;
+                    addIfFree(directions, x, y, dx, dy);
+                }
+            }
+            return directions;
+        }
+        Point parent = node.previousNode().state();
+        int dx = Integer.signum(x - parent.x);
+        int dy = Integer.signum(y - parent.y);
+        if (diagonal) {
+            if (dx != 0 && dy != 0) {
+                addIfFree(directions, x, y, 0, dy);
+                addIfFree(directions, x, y, dx, 0);
+                addIfFree(directions, x, y, dx, dy);
+                if (!free(x - dx, y)) addIfFree(directions, x, y, -dx, dy);
+                if (!free(x, y - dy)) addIfFree(directions, x, y, dx, -dy);
+            } else if (dx != 0) {
+                addIfFree(directions, x, y, dx, 0);
+                if (!free(x, y + 1)) addIfFree(directions, x, y, dx, 1);
+                if (!free(x, y - 1)) addIfFree(directions, x, y, dx, -1);
+            } else {
+                addIfFree(directions, x, y, 0, dy);
+                if (!free(x + 1, y)) addIfFree(directions, x, y, 1, dy);
+                if (!free(x - 1, y)) addIfFree(directions, x, y, -1, dy);
+            }
+        } else {
+            if (dx != 0) {
+                addIfFree(directions, x, y, dx, 0);
+                addIfFree(directions, x, y, 0, 1);
+                addIfFree(directions, x, y, 0, -1);
+            } else {
+                addIfFree(directions, x, y, 0, dy);
+                addIfFree(directions, x, y, 1, 0);
+                addIfFree(directions, x, y, -1, 0);
+            }
+        }
+        return directions;
+    }
+
+    private void addIfFree(List<int[]> directions, int x, int y, int dx, int dy) {
+        if (free(x + dx, y + dy)) {
+            directions.add(new int[]{dx, dy});
+        }
+    }
+
+    /**
+     * Jumps from (x, y) in the direction (dx, dy) using the 8-connected movement model.
+     *
+     * @return next jump point in that direction, or null if there is none
+     */
+    private Point jump8(int x, int y, int dx, int dy) {
+        if (dx != 0 && dy != 0) {
+            while (true) {
+                x += dx;
+                y += dy;
+                if (!free(x, y)) return null;
+                if (isGoal(x, y)
+                        || (free(x - dx, y + dy) && !free(x - dx, y))
+                        || (free(x + dx, y - dy) && !free(x, y - dy))
+                        // Diagonal cells are jump points if there are jump points in their straight directions
+                        || straightJump8(x, y, dx, 0) || straightJump8(x, y, 0, dy)) {
+                    return new Point(x, y);
+                }
+            }
+        }
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!free(x, y)) return null;
+            if (isGoal(x, y) || hasForcedNeighbor8(x, y, dx, dy)) {
+                return new Point(x, y);
+            }
+        }
+    }
+
+    private boolean straightJump8(int x, int y, int dx, int dy) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!free(x, y)) return false;
+            if (isGoal(x, y) || hasForcedNeighbor8(x, y, dx, dy)) return true;
+        }
+    }
+
+    private boolean hasForcedNeighbor8(int x, int y, int dx, int dy) {
+        if (dx != 0) {
+            return (free(x + dx, y + 1) && !free(x, y + 1)) || (free(x + dx, y - 1) && !free(x, y - 1));
+        }
+        return (free(x + 1, y + dy) && !free(x + 1, y)) || (free(x - 1, y + dy) && !free(x - 1, y));
+    }
+
+    /**
+     * Jumps from (x, y) in the direction (dx, dy) using the 4-connected movement model.
+     * Vertical jumps stop at the cells which have a jump point in a horizontal direction.
+     *
+     * @return next jump point in that direction, or null if there is none
+     */
+    private Point jump4(int x, int y, int dx, int dy) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!free(x, y)) return null;
+            if (isGoal(x, y)) return new Point(x, y);
+            if (dx != 0) {
+                if (hasForcedNeighbor4(x, y, dx)) return new Point(x, y);
+            } else if ((free(x - 1, y) && !free(x - 1, y - dy))
+                    || (free(x + 1, y) && !free(x + 1, y - dy))
+                    || horizontalJump4(x, y, 1) || horizontalJump4(x, y, -1)) {
+                return new Point(x, y);
+            }
+        }
+    }
+
+    private boolean horizontalJump4(int x, int y, int dx) {
+        while (true) {
+            x += dx;
+            if (!free(x, y)) return false;
+            if (isGoal(x, y) || hasForcedNeighbor4(x, y, dx)) return true;
+        }
+    }
+
+    private boolean hasForcedNeighbor4(int x, int y, int dx) {
+        return (free(x, y - 1) && !free(x - dx, y - 1)) || (free(x, y + 1) && !free(x - dx, y + 1));
+    }
+
+    public Maze2D getMaze() {
+        return maze;
+    }
+
+    public Point getStart() {
+        return start;
+    }
+
+    public Point getGoal() {
+        return goal;
+    }
+
+    public boolean isDiagonal() {
+        return diagonal;
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+import es.usc.citius.hipster.util.Predicate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * <p>
+ * Implementation of the Recursive Best-First Search (RBFS) algorithm. RBFS finds optimal
+ * solutions with admissible heuristics using memory linear in the depth of the solution,
+ * as IDA*, but expanding the nodes in best-first order. Each node keeps a stored value F(n),
+ * initially f(n), which is backed up with the lowest F of its children when the search leaves
+ * the subtree. When a subtree is explored again, these backed up values avoid re-exploring
+ * the nodes already discarded in the previous visits.
+ * </p>
+ *
+ * <p>
+ * This implementation is iterative: the recursion is replaced by an explicit stack of frames
+ * with the children of each node in the current path, so deep searches do not overflow the
+ * call stack. Each call to {@code iterator.next()} returns the next visited node. Since RBFS
+ * visits again the subtrees that were abandoned, a node can be returned more than once; the
+ * number of re-expansions is available in {@link Iterator#getReexpansions()} and
+ * in the {@link es.usc.citius.hipster.algorithm.Algorithm.SearchResult} of {@link #search(Predicate)}.
+ * The successors that return to the state of the parent of the expanded node are not generated.
+ * </p>
+ *
+ * <a href="http://www.sciencedirect.com/science/article/pii/000437029390045D">Original paper</a>:
+ * Richard E. Korf <i><b>"Linear-space best-first search."</b></i>,
+ * Artificial Intelligence, vol. 62, pp. 41-78, 1993.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node.
+ */
+public class RecursiveBestFirstSearch<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends Algorithm<A,S,N> {
+
+    private N initialNode;
+    private NodeExpander<A,S,N> expander;
+
+    public RecursiveBestFirstSearch(N initialNode, NodeExpander<A,S,N> expander) {
+        this.initialNode = initialNode;
+        this.expander = expander;
+    }
+
+    /**
+     * Child of a node in the current path, with its stored value F (null if infinite, that is,
+     * the subtree has no more nodes) and the number of times it was visited.
+     */
+    private final class Child {
+        private final N node;
+        private C storedValue;
+        private int visits = 0;
+
+        private Child(N node, C storedValue) {
+            this.node = node;
+            this.storedValue = storedValue;
+        }
+    }
+
+    /**
+     * Node in the current path (the equivalent of a recursive call) with its children and
+     * the upper bound of the stored values that can be explored below it (null if unbounded).
+     */
+    private final class Frame {
+        private final Child current;
+        private final C bound;
+        private List<Child> children;
+
+        private Frame(Child current, C bound) {
+            this.current = current;
+            this.bound = bound;
+        }
+    }
+
+    /**
+     * RBFS iterator. The top of the stack is the last visited node; the next call to
+     * {@code next()} expands it and descends to the best child within the bound, backing up
+     * the stored values of the subtrees that exceed it.
+     */
+    public class Iterator implements java.util.Iterator<N> {
+        protected Deque<Frame> stack = new ArrayDeque<Frame>();
+        protected N next;
+        protected int expanded = 0;
+        protected int reexpansions = 0;
+
+        protected Iterator() {
+            Child root = new Child(initialNode, initialNode.getScore());
+            root.visits = 1;
+            stack.addLast(new Frame(root, null));
+            next = initialNode;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = nextVisited();
+            }
+            return next != null;
+        }
+
+        @Override
+        public N next() {
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+            N current = next;
+            next = null;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Advances the search until a new node is visited.
+         *
+         * @return next visited node, or null if the search space is exhausted
+         */
+        protected N nextVisited() {
+            while (!stack.isEmpty()) {
+                Frame top = stack.peekLast();
+                if (top.children == null) {
+                    expand(top);
+                }
+                // Select the best and the second best children
+                Child best = null, second = null;
+                for (Child child : top.children) {
+                    if (best == null || compare(child.storedValue, best.storedValue) < 0) {
+                        second = best;
+                        best = child;
+                    } else if (second == null || compare(child.storedValue, second.storedValue) < 0) {
+                        second = child;
+                    }
+                }
+                if (best == null || best.storedValue == null || compare(best.storedValue, top.bound) > 0) {
+                    // Leave the subtree and back up the value of the best child
+                    stack.removeLast();
+                    top.current.storedValue = best == null ? null : best.storedValue;
+                    top.children = null;
+                    continue;
+                }
+                // Descend to the best child, bounded by the second best alternative
+                C bound = second == null ? top.bound : min(top.bound, second.storedValue);
+                if (best.visits++ > 0) {
+                    reexpansions++;
+                }
+                stack.addLast(new Frame(best, bound));
+                return best.node;
+            }
+            return null;
+        }
+
+        /**
+         * Generates the children of the node of the frame, inheriting the stored value
+         * of the parent if it was backed up from a previous visit.
+         */
+        protected void expand(Frame frame) {
+            expanded++;
+            N node = frame.current.node;
+            S grandParentState = node.previousNode() != null ? node.previousNode().state() : null;
+            C inherited = node.getScore().compareTo(frame.current.storedValue) < 0 ? frame.current.storedValue : null;
+            frame.children = new ArrayList<Child>();
+            for (N successor : expander.expand(node)) {
+                if (grandParentState != null && grandParentState.equals(successor.state())) {
+                    continue;
+                }
+                C f = successor.getScore();
+                if (inherited != null && inherited.compareTo(f) > 0) {
+                    f = inherited;
+                }
+                frame.children.add(new Child(successor, f));
+            }
+        }
+
+        private int compare(C a, C b) {
+            // null values are infinite
+            if (a == null) return b == null ? 0 : 1;
+            if (b == null) return -1;
+            return a.compareTo(b);
+        }
+
+        private C min(C a, C b) {
+            return compare(a, b) <= 0 ? a : b;
+        }
+
+        /**
+         * @return number of expanded nodes, including the re-expansions
+         */
+        public int getExpanded() {
+            return expanded;
+        }
+
+        /**
+         * @return number of times a node was visited again after its subtree was abandoned
+         */
+        public int getReexpansions() {
+            return reexpansions;
+        }
+
+        /**
+         * @return current depth of the search (length of the path being explored)
+         */
+        public int getDepth() {
+            return stack.size();
+        }
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    @Override
+    public SearchResult search(Predicate<N> condition) {
+        int iteration = 0;
+        Iterator it = iterator();
+        long begin = System.currentTimeMillis();
+        N currentNode = null;
+        while (it.hasNext()) {
+            iteration++;
+            currentNode = it.next();
+            if (condition.apply(currentNode)) {
+                break;
+            }
+        }
+        long end = System.currentTimeMillis();
+        return new SearchResult(currentNode, iteration, it.getReexpansions(), end - begin);
+    }
+}
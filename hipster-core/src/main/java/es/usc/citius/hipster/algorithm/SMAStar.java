@@ -0,0 +1,365 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.algorithm;
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.node.factory.NodeExpander;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Implementation of the Simplified Memory-Bounded A* algorithm (SMA*). SMA* behaves like A* while the
+ * search tree fits in memory, but it never keeps more nodes than a configured budget. Successors are generated
+ * one at a time. When the budget is reached, the worst leaf of the search tree (the shallowest among the ones
+ * with the highest f) is dropped and its f-value is backed up to its parent, which is expanded again later
+ * only if it becomes the most promising node. The f-value of each node is the maximum between its own score
+ * and the f-value of its parent (pathmax), and it is updated with the f-values of its successors once all of them
+ * have been generated.
+ * </p>
+ *
+ * <p>
+ * SMA* is a tree search: it only discards the successors which repeat a state of the current path, so
+ * states reachable through different paths can be expanded several times. Forgotten successors are regenerated
+ * by expanding their parent again, so the node expander must generate the successors always in the same order.
+ * The algorithm is complete if the
+ * budget is enough to store the path to the shallowest solution, and optimal if the budget is enough to store
+ * the path to the optimal solution and the heuristic is admissible. Each call to {@code next()} returns the most
+ * promising node (lowest f, deepest first), whose next successor is generated in the following step.
+ * </p>
+ *
+ * <a href="http://dl.acm.org/citation.cfm?id=1145962">Original paper</a>:
+ * Russell, Stuart. <b>"Efficient memory-bounded search methods."</b>. <i>Proceedings of the 10th European Conference on Artificial Intelligence (ECAI 1992): 1-5</i>.
+ *
+ * @param <A> action type.
+ * @param <S> state type.
+ * @param <C> comparable cost used to compare states.
+ * @param <N> type of the heuristic search node used.
+ */
+public class SMAStar<A,S,C extends Comparable<C>,N extends HeuristicNode<A,S,C,N>> extends Algorithm<A,S,N> {
+
+    protected final N initialNode;
+    protected final NodeExpander<A,S,N> expander;
+    protected final int maxNodes;
+
+    /**
+     * Creates a new SMA* algorithm.
+     *
+     * @param initialNode the initial node (which contains the initial state of the search).
+     * @param expander function to obtain (expand) a node to obtain the successor nodes.
+     * @param maxNodes maximum number of nodes of the search tree kept in memory.
+     */
+    public SMAStar(N initialNode, NodeExpander<A,S,N> expander, int maxNodes) {
+        if (maxNodes < 1) throw new IllegalArgumentException("The node budget must be at least 1");
+        this.initialNode = initialNode;
+        this.expander = expander;
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator();
+    }
+
+    /**
+     * @return maximum number of nodes kept in memory.
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Node of the search tree kept in memory. Null f-values represent infinite costs.
+     */
+    protected class TreeNode {
+        protected final N node;
+        protected final TreeNode parent;
+        protected final int depth;
+        protected final long id;
+        // Position of the node in the sequence of successors of its parent
+        protected final int index;
+        protected C f;
+        // Minimum f-value of the forgotten successors
+        protected C forgottenF;
+        protected final List<TreeNode> children = new ArrayList<TreeNode>(4);
+        protected java.util.Iterator<N> successors;
+        protected int successorIndex;
+        protected boolean allGenerated = false;
+
+        protected TreeNode(N node, TreeNode parent, int index, long id) {
+            this.node = node;
+            this.parent = parent;
+            this.index = index;
+            this.depth = (parent == null) ? 0 : parent.depth + 1;
+            this.id = id;
+            this.f = (parent == null) ? node.getScore() : max(parent.f, node.getScore());
+        }
+
+        /**
+         * Generates the next successor which is neither in memory nor repeats a state of the path.
+         * The successors in memory are identified by their position in the sequence of successors,
+         * so the expansion of the nodes must be deterministic.
+         *
+         * @return next successor, or null if all of them have been generated.
+         */
+        protected N nextSuccessor() {
+            if (successors == null) {
+                successors = expander.expand(node).iterator();
+                successorIndex = 0;
+            }
+            while (successors.hasNext()) {
+                N successor = successors.next();
+                successorIndex++;
+                if (!inMemory(successorIndex) && !inPath(successor.state())) {
+                    return successor;
+                }
+            }
+            allGenerated = true;
+            return null;
+        }
+
+        private boolean inMemory(int index) {
+            for (TreeNode child : children) {
+                if (child.index == index) return true;
+            }
+            return false;
+        }
+
+        private boolean inPath(S state) {
+            for (TreeNode current = this; current != null; current = current.parent) {
+                if (current.node.state().equals(state)) return true;
+            }
+            return false;
+        }
+
+        public N getNode() {
+            return node;
+        }
+
+        public C getF() {
+            return f;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /**
+     * Internal iterator that implements all the logic of the SMA* search
+     */
+    public class Iterator implements java.util.Iterator<N> {
+        // Candidates to be expanded, sorted by f (lowest first) and depth (deepest first)
+        protected TreeSet<TreeNode> queue;
+        protected TreeNode current;
+        protected long generated = 0;
+        protected int nodesInMemory = 0;
+
+        protected Iterator() {
+            queue = new TreeSet<TreeNode>(new Comparator<TreeNode>() {
+                @Override
+                public int compare(TreeNode o1, TreeNode o2) {
+                    int cmp = compareF(o1.f, o2.f);
+                    if (cmp != 0) return cmp;
+                    if (o1.depth != o2.depth) return (o1.depth > o2.depth) ? -1 : 1;
+                    return (o1.id < o2.id) ? -1 : ((o1.id == o2.id) ? 0 : 1);
+                }
+            });
+            queue.add(new TreeNode(initialNode, null, 0, generated++));
+            nodesInMemory = 1;
+        }
+
+        /**
+         * Returns true if there is a candidate with a finite f-value.
+         */
+        public boolean hasNext() {
+            if (current != null) {
+                step(current);
+                current = null;
+            }
+            return !queue.isEmpty() && queue.first().f != null;
+        }
+
+        /**
+         * Returns the most promising node of the search tree. One successor of this
+         * node is generated in the next step.
+         *
+         * @return next node to be expanded.
+         */
+        public N next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            current = queue.first();
+            return current.node;
+        }
+
+        /**
+         * Generates the next successor of the node, dropping the worst leaf if the
+         * memory is full, and backs up the f-values when all the successors have
+         * been generated.
+         */
+        protected void step(TreeNode n) {
+            if (n.depth >= maxNodes - 1) {
+                // There is no memory to store the successors of this node
+                dropDeadEnd(n);
+                return;
+            }
+            if (n.allGenerated && n.forgottenF != null) {
+                // The forgotten successors are the most promising ones, generate them again
+                n.successors = null;
+                n.allGenerated = false;
+                n.forgottenF = null;
+            }
+            N successor = n.nextSuccessor();
+            if (successor != null) {
+                if (nodesInMemory >= maxNodes) {
+                    forget(worstLeaf(n));
+                }
+                TreeNode child = new TreeNode(successor, n, n.successorIndex, generated++);
+                n.children.add(child);
+                queue.add(child);
+                nodesInMemory++;
+            } else if (n.children.isEmpty() && n.forgottenF == null) {
+                dropDeadEnd(n);
+            } else {
+                if (n.forgottenF == null) {
+                    // All the successors are in memory
+                    queue.remove(n);
+                }
+                backup(n);
+            }
+        }
+
+        /**
+         * Updates the f-value of a node whose successors have been generated with the
+         * minimum f-value of its successors (including the forgotten ones), and propagates
+         * the change to its ancestors.
+         */
+        protected void backup(TreeNode n) {
+            while (n != null && n.allGenerated) {
+                C min = n.forgottenF;
+                for (TreeNode child : n.children) {
+                    if (min == null || compareF(child.f, min) < 0) min = child.f;
+                }
+                if (min == null) return;
+                min = max(n.f, min);
+                if (compareF(min, n.f) == 0) return;
+                updateF(n, min);
+                n = n.parent;
+            }
+        }
+
+        /**
+         * Finds the leaf with the highest f-value (the shallowest one in case of tie)
+         * different from the node being expanded.
+         */
+        protected TreeNode worstLeaf(TreeNode expanding) {
+            for (java.util.Iterator<TreeNode> it = queue.descendingIterator(); it.hasNext(); ) {
+                TreeNode candidate = it.next();
+                if (candidate != expanding && candidate.children.isEmpty() && candidate.parent != null) {
+                    return candidate;
+                }
+            }
+            throw new IllegalStateException("There is no leaf to release memory");
+        }
+
+        /**
+         * Removes a leaf from memory, remembering its f-value in the parent, which
+         * has to generate it again if it becomes the most promising node.
+         */
+        protected void forget(TreeNode leaf) {
+            TreeNode parent = leaf.parent;
+            queue.remove(leaf);
+            parent.children.remove(leaf);
+            nodesInMemory--;
+            parent.forgottenF = (parent.forgottenF == null) ? leaf.f : min(parent.forgottenF, leaf.f);
+            queue.add(parent);
+            backup(parent);
+        }
+
+        /**
+         * Removes a node which can not be expanded. Its infinite f-value is backed up to its parent,
+         * but the parent does not need to generate it again.
+         */
+        protected void dropDeadEnd(TreeNode n) {
+            queue.remove(n);
+            if (n.parent == null) return;
+            TreeNode parent = n.parent;
+            parent.children.remove(n);
+            nodesInMemory--;
+            if (parent.children.isEmpty() && parent.forgottenF == null) {
+                if (parent.allGenerated) {
+                    dropDeadEnd(parent);
+                    return;
+                }
+                // The parent is a leaf again
+                queue.add(parent);
+            }
+            backup(parent);
+        }
+
+        private void updateF(TreeNode n, C f) {
+            boolean queued = queue.remove(n);
+            n.f = f;
+            if (queued) queue.add(n);
+        }
+
+        /**
+         * Remove is not supported
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return number of nodes of the search tree currently kept in memory.
+         */
+        public int getNodesInMemory() {
+            return nodesInMemory;
+        }
+
+        /**
+         * @return total number of nodes generated during the search, including
+         * the regenerated ones.
+         */
+        public long getGenerated() {
+            return generated;
+        }
+
+        /**
+         * Returns the internal queue used by the algorithm to sort the candidates to be expanded.
+         * External modifications to the queue can cause malfunction.
+         *
+         * @return internal queue.
+         */
+        public TreeSet<TreeNode> getQueue() {
+            return queue;
+        }
+    }
+
+    private int compareF(C f1, C f2) {
+        if (f1 == null) return (f2 == null) ? 0 : 1;
+        if (f2 == null) return -1;
+        return f1.compareTo(f2);
+    }
+
+    private C max(C f1, C f2) {
+        return (compareF(f1, f2) >= 0) ? f1 : f2;
+    }
+
+    private C min(C f1, C f2) {
+        return (compareF(f1, f2) <= 0) ? f1 : f2;
+    }
+}
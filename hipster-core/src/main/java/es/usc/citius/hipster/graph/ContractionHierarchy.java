@@ -0,0 +1,788 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Function;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Contraction hierarchy of a static {@link HipsterGraph}, which answers point-to-point shortest path
+ * queries orders of magnitude faster than a plain Dijkstra or A* search after a preprocessing step.
+ * </p>
+ *
+ * <p>
+ * During the preprocessing the vertices are contracted one by one in order of importance. Contracting
+ * a vertex removes it from the remaining graph and adds shortcut edges between its neighbors whenever
+ * the only shortest path between them goes through the contracted vertex (this is checked with a bounded
+ * Dijkstra search, the witness search). The importance of each vertex combines the edge difference (shortcuts
+ * added minus edges removed), the number of contracted neighbors and the depth of the hierarchy below it.
+ * The ordering runs in parallel: in each round, the vertices whose importance is minimal in their 2-hop
+ * neighborhood are independent and are contracted at the same time, and the importance of their neighbors
+ * is updated in parallel.
+ * </p>
+ *
+ * <p>
+ * A query runs a bidirectional Dijkstra search which only follows edges towards more important vertices,
+ * so each direction settles a small number of vertices. The shortcuts of the resulting path are unpacked
+ * back to the original {@link GraphEdge} of the graph.
+ * </p>
+ *
+ * <pre class="prettyprint">
+ * {@code
+ *  ContractionHierarchy<String, Double> ch = ContractionHierarchy.build(graph);
+ *  double distance = ch.distance("A", "B");
+ *  List<GraphEdge<String, Double>> path = ch.shortestPath("A", "B");
+ * }
+ * </pre>
+ *
+ * <p>
+ * The hierarchy does not change if the graph is modified after the preprocessing. Edge costs must be non-negative.
+ * {@link #distance(Object, Object)} and {@link #shortestPath(Object, Object)} can be called from several threads;
+ * each thread uses its own {@link Query}, which can also be created explicitly with {@link #newQuery()}.
+ * </p>
+ *
+ * <a href="http://link.springer.com/chapter/10.1007/978-3-540-68552-4_24">Original paper</a>:
+ * Robert Geisberger, Peter Sanders, Dominik Schultes and Daniel Delling. <b>"Contraction Hierarchies: Faster
+ * and Simpler Hierarchical Routing in Road Networks"</b>. <i>WEA 2008: 319-333</i>.
+ *
+ * @param <V> type of the vertices
+ * @param <E> type of the edges
+ */
+public final class ContractionHierarchy<V, E> {
+    // Maximum number of vertices settled by each witness search
+    private static final int WITNESS_SETTLED_LIMIT = 500;
+
+    private final List<V> vertices;
+    private final Map<V, Integer> index;
+    private final int[] rank;
+    private final int shortcuts;
+    // Upward graph in compressed sparse row format: edges of the forward search (to more important vertices)
+    // and of the backward search (from more important vertices)
+    private final int[] forwardFirst;
+    private final int[] forwardHead;
+    private final double[] forwardCost;
+    private final Arc<V, E>[] forwardArcs;
+    private final int[] backwardFirst;
+    private final int[] backwardHead;
+    private final double[] backwardCost;
+    private final Arc<V, E>[] backwardArcs;
+    private final ThreadLocal<Query> queries = new ThreadLocal<Query>() {
+        @Override
+        protected Query initialValue() {
+            return newQuery();
+        }
+    };
+
+    private ContractionHierarchy(Preprocessor<V, E> preprocessor) {
+        this.vertices = preprocessor.vertices;
+        this.index = preprocessor.index;
+        this.rank = preprocessor.rank;
+        this.shortcuts = preprocessor.shortcuts;
+        int n = vertices.size();
+        this.forwardFirst = new int[n + 1];
+        this.backwardFirst = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            forwardFirst[v + 1] = forwardFirst[v] + preprocessor.out.get(v).size();
+            backwardFirst[v + 1] = backwardFirst[v] + preprocessor.in.get(v).size();
+        }
+        this.forwardHead = new int[forwardFirst[n]];
+        this.forwardCost = new double[forwardFirst[n]];
+        this.forwardArcs = newArcs(forwardFirst[n]);
+        this.backwardHead = new int[backwardFirst[n]];
+        this.backwardCost = new double[backwardFirst[n]];
+        this.backwardArcs = newArcs(backwardFirst[n]);
+        for (int v = 0; v < n; v++) {
+            int i = forwardFirst[v];
+            for (Arc<V, E> arc : preprocessor.out.get(v)) {
+                forwardHead[i] = arc.to;
+                forwardCost[i] = arc.cost;
+                forwardArcs[i++] = arc;
+            }
+            i = backwardFirst[v];
+            for (Arc<V, E> arc : preprocessor.in.get(v)) {
+                backwardHead[i] = arc.from;
+                backwardCost[i] = arc.cost;
+                backwardArcs[i++] = arc;
+            }
+        }
+    }
+
+    /**
+     * Builds the contraction hierarchy of a graph whose edge values are numbers, which are used as costs,
+     * using all the available processors.
+     *
+     * @param graph graph with numeric edges
+     * @return contraction hierarchy of the graph
+     */
+    public static <V, E extends Number> ContractionHierarchy<V, E> build(HipsterGraph<V, E> graph) {
+        return build(graph, new Function<E, Double>() {
+            @Override
+            public Double apply(E edge) {
+                return edge.doubleValue();
+            }
+        }, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds the contraction hierarchy of a graph.
+     *
+     * @param graph graph to preprocess
+     * @param costFunction function to obtain the cost of the value of each edge
+     * @param threads number of threads used to order and contract the vertices
+     * @return contraction hierarchy of the graph
+     */
+    public static <V, E> ContractionHierarchy<V, E> build(HipsterGraph<V, E> graph,
+                                                          Function<? super E, Double> costFunction, int threads) {
+        Preprocessor<V, E> preprocessor = new Preprocessor<V, E>(graph, costFunction, threads);
+        preprocessor.contract();
+        return new ContractionHierarchy<V, E>(preprocessor);
+    }
+
+    /**
+     * Creates a new query over the hierarchy. Queries reuse their internal arrays between calls, so they
+     * are not thread-safe and each thread should use its own query.
+     *
+     * @return new query
+     */
+    public Query newQuery() {
+        return new Query();
+    }
+
+    /**
+     * @param source source vertex
+     * @param target target vertex
+     * @return cost of the shortest path from the source to the target, {@link Double#POSITIVE_INFINITY}
+     * if the target is not reachable
+     */
+    public double distance(V source, V target) {
+        return queries.get().distance(source, target);
+    }
+
+    /**
+     * @param source source vertex
+     * @param target target vertex
+     * @return edges of the shortest path from the source to the target, or null if the target is not reachable
+     */
+    public List<GraphEdge<V, E>> shortestPath(V source, V target) {
+        return queries.get().shortestPath(source, target);
+    }
+
+    /**
+     * @return number of shortcuts added during the preprocessing
+     */
+    public int getShortcutCount() {
+        return shortcuts;
+    }
+
+    /**
+     * @param vertex vertex of the graph
+     * @return position of the vertex in the contraction order (higher values are more important vertices)
+     */
+    public int rankOf(V vertex) {
+        Integer v = index.get(vertex);
+        if (v == null) {
+            throw new IllegalArgumentException(vertex + " is not a vertex of the hierarchy");
+        }
+        return rank[v];
+    }
+
+    /**
+     * Bidirectional upward search over the hierarchy.
+     */
+    public final class Query {
+        private final double[] forwardDistance;
+        private final double[] backwardDistance;
+        private final int[] forwardParent;
+        private final int[] backwardParent;
+        private final IntHeap forwardOpen;
+        private final IntHeap backwardOpen;
+        private int[] touched = new int[64];
+        private int touchedCount;
+        private int meeting = -1;
+        private int settled;
+
+        private Query() {
+            int n = vertices.size();
+            forwardDistance = new double[n];
+            backwardDistance = new double[n];
+            Arrays.fill(forwardDistance, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardDistance, Double.POSITIVE_INFINITY);
+            forwardParent = new int[n];
+            backwardParent = new int[n];
+            forwardOpen = new IntHeap(n);
+            backwardOpen = new IntHeap(n);
+        }
+
+        /**
+         * @param source source vertex
+         * @param target target vertex
+         * @return cost of the shortest path from the source to the target, {@link Double#POSITIVE_INFINITY}
+         * if the target is not reachable
+         */
+        public double distance(V source, V target) {
+            Integer s = index.get(source);
+            Integer t = index.get(target);
+            if (s == null || t == null) {
+                meeting = -1;
+                return Double.POSITIVE_INFINITY;
+            }
+            return search(s, t);
+        }
+
+        /**
+         * @param source source vertex
+         * @param target target vertex
+         * @return edges of the shortest path from the source to the target (empty if both are the same vertex),
+         * or null if the target is not reachable
+         */
+        public List<GraphEdge<V, E>> shortestPath(V source, V target) {
+            if (distance(source, target) == Double.POSITIVE_INFINITY) {
+                return null;
+            }
+            List<Arc<V, E>> upward = new ArrayList<Arc<V, E>>();
+            for (int v = meeting; forwardParent[v] >= 0; v = forwardArcs[forwardParent[v]].from) {
+                upward.add(forwardArcs[forwardParent[v]]);
+            }
+            Collections.reverse(upward);
+            for (int v = meeting; backwardParent[v] >= 0; v = backwardArcs[backwardParent[v]].to) {
+                upward.add(backwardArcs[backwardParent[v]]);
+            }
+            List<GraphEdge<V, E>> path = new ArrayList<GraphEdge<V, E>>();
+            Deque<Arc<V, E>> stack = new ArrayDeque<Arc<V, E>>();
+            for (Arc<V, E> arc : upward) {
+                stack.push(arc);
+                while (!stack.isEmpty()) {
+                    Arc<V, E> current = stack.pop();
+                    if (current.edge != null) {
+                        path.add(current.edge);
+                    } else {
+                        stack.push(current.second);
+                        stack.push(current.first);
+                    }
+                }
+            }
+            return path;
+        }
+
+        /**
+         * @return number of vertices settled by both directions in the last query
+         */
+        public int getSettledCount() {
+            return settled;
+        }
+
+        private double search(int source, int target) {
+            reset();
+            touch(source);
+            touch(target);
+            forwardDistance[source] = 0d;
+            backwardDistance[target] = 0d;
+            forwardOpen.update(source, 0d);
+            backwardOpen.update(target, 0d);
+            double best = Double.POSITIVE_INFINITY;
+            while (true) {
+                double forwardKey = forwardOpen.isEmpty() ? Double.POSITIVE_INFINITY : forwardOpen.peekKey();
+                double backwardKey = backwardOpen.isEmpty() ? Double.POSITIVE_INFINITY : backwardOpen.peekKey();
+                // Each direction can stop when its smallest key is not better than the best path found
+                if (Math.min(forwardKey, backwardKey) >= best) {
+                    break;
+                }
+                boolean forward = forwardKey <= backwardKey;
+                IntHeap open = forward ? forwardOpen : backwardOpen;
+                double[] distance = forward ? forwardDistance : backwardDistance;
+                double[] opposite = forward ? backwardDistance : forwardDistance;
+                int[] parent = forward ? forwardParent : backwardParent;
+                int[] first = forward ? forwardFirst : backwardFirst;
+                int[] head = forward ? forwardHead : backwardHead;
+                double[] cost = forward ? forwardCost : backwardCost;
+                int v = open.poll();
+                settled++;
+                double d = distance[v];
+                if (d + opposite[v] < best) {
+                    best = d + opposite[v];
+                    meeting = v;
+                }
+                for (int i = first[v]; i < first[v + 1]; i++) {
+                    int w = head[i];
+                    double candidate = d + cost[i];
+                    if (candidate < distance[w]) {
+                        touch(w);
+                        distance[w] = candidate;
+                        parent[w] = i;
+                        open.update(w, candidate);
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void touch(int v) {
+            if (forwardDistance[v] == Double.POSITIVE_INFINITY && backwardDistance[v] == Double.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = v;
+                forwardParent[v] = -1;
+                backwardParent[v] = -1;
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                forwardDistance[touched[i]] = Double.POSITIVE_INFINITY;
+                backwardDistance[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            forwardOpen.clear();
+            backwardOpen.clear();
+            meeting = -1;
+            settled = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V, E> Arc<V, E>[] newArcs(int length) {
+        return (Arc<V, E>[]) new Arc<?, ?>[length];
+    }
+
+    /**
+     * Edge of the hierarchy between two vertices (indexes), which is either an edge of the original
+     * graph or a shortcut which replaces two consecutive arcs.
+     */
+    private static final class Arc<V, E> {
+        private final int from;
+        private final int to;
+        private final double cost;
+        private final GraphEdge<V, E> edge;
+        private final Arc<V, E> first;
+        private final Arc<V, E> second;
+
+        private Arc(int from, int to, double cost, GraphEdge<V, E> edge, Arc<V, E> first, Arc<V, E> second) {
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+            this.edge = edge;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    /**
+     * Binary heap of vertex indexes with decrease key.
+     */
+    private static final class IntHeap {
+        private final int[] position;
+        private int[] heap = new int[16];
+        private double[] keys = new double[16];
+        private int size;
+
+        private IntHeap(int n) {
+            position = new int[n];
+            Arrays.fill(position, -1);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private double peekKey() {
+            return keys[0];
+        }
+
+        private void update(int v, double key) {
+            int i = position[v];
+            if (i < 0) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, size * 2);
+                    keys = Arrays.copyOf(keys, size * 2);
+                }
+                i = size++;
+            }
+            // Sift up (keys only decrease)
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                move(parent, i);
+                i = parent;
+            }
+            heap[i] = v;
+            keys[i] = key;
+            position[v] = i;
+        }
+
+        private int poll() {
+            int top = heap[0];
+            position[top] = -1;
+            size--;
+            if (size > 0) {
+                int v = heap[size];
+                double key = keys[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                    if (keys[child] >= key) break;
+                    move(child, i);
+                    i = child;
+                }
+                heap[i] = v;
+                keys[i] = key;
+                position[v] = i;
+            }
+            return top;
+        }
+
+        private void move(int from, int to) {
+            heap[to] = heap[from];
+            keys[to] = keys[from];
+            position[heap[to]] = to;
+        }
+
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = -1;
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Orders and contracts the vertices. The arc lists of the vertices not contracted yet only contain
+     * arcs between vertices not contracted yet; when a vertex is contracted its arcs are removed from
+     * its neighbors, so its own lists keep exactly the arcs to more important vertices.
+     */
+    private static final class Preprocessor<V, E> {
+        private final List<V> vertices = new ArrayList<V>();
+        private final Map<V, Integer> index = new HashMap<V, Integer>();
+        private final List<List<Arc<V, E>>> out = new ArrayList<List<Arc<V, E>>>();
+        private final List<List<Arc<V, E>>> in = new ArrayList<List<Arc<V, E>>>();
+        private final int threads;
+        private int[] rank;
+        private int[] priority;
+        private int[] contractedNeighbors;
+        private int[] depth;
+        private boolean[] contracted;
+        // Vertices contracted in the current round, ignored by the witness searches
+        private boolean[] contracting;
+        private int shortcuts;
+
+        private Preprocessor(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction, int threads) {
+            this.threads = Math.max(1, threads);
+            for (V vertex : graph.vertices()) {
+                index.put(vertex, vertices.size());
+                vertices.add(vertex);
+                out.add(new ArrayList<Arc<V, E>>(4));
+                in.add(new ArrayList<Arc<V, E>>(4));
+            }
+            boolean directed = graph instanceof HipsterDirectedGraph;
+            for (V vertex : vertices) {
+                int v = index.get(vertex);
+                Iterable<GraphEdge<V, E>> edges = directed
+                        ? ((HipsterDirectedGraph<V, E>) graph).outgoingEdgesOf(vertex)
+                        : graph.edgesOf(vertex);
+                for (GraphEdge<V, E> edge : edges) {
+                    V neighbor = directed || !edge.getVertex2().equals(vertex) ? edge.getVertex2() : edge.getVertex1();
+                    Integer w = index.get(neighbor);
+                    if (w == null || w == v) continue;
+                    double cost = costFunction.apply(edge.getEdgeValue());
+                    if (cost < 0) {
+                        throw new IllegalArgumentException("Negative cost " + cost + " in edge " + edge);
+                    }
+                    // Undirected edges are visited from both vertices, adding one arc in each direction
+                    addArc(new Arc<V, E>(v, w, cost, edge, null, null));
+                }
+            }
+        }
+
+        /**
+         * Adds an arc unless there is already a cheaper or equal arc between the same vertices.
+         */
+        private boolean addArc(Arc<V, E> arc) {
+            List<Arc<V, E>> arcs = out.get(arc.from);
+            for (int i = 0; i < arcs.size(); i++) {
+                Arc<V, E> existing = arcs.get(i);
+                if (existing.to == arc.to) {
+                    if (existing.cost <= arc.cost) return false;
+                    arcs.remove(i);
+                    in.get(arc.to).remove(existing);
+                    break;
+                }
+            }
+            arcs.add(arc);
+            in.get(arc.to).add(arc);
+            return true;
+        }
+
+        private void contract() {
+            final int n = vertices.size();
+            rank = new int[n];
+            priority = new int[n];
+            contractedNeighbors = new int[n];
+            depth = new int[n];
+            contracted = new boolean[n];
+            contracting = new boolean[n];
+            int[] remaining = new int[n];
+            for (int v = 0; v < n; v++) remaining[v] = v;
+            int remainingCount = n;
+            ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+            try {
+                final Workspace[] workspaces = new Workspace[threads];
+                for (int i = 0; i < threads; i++) workspaces[i] = new Workspace(n);
+                parallel(executor, workspaces, remaining, remainingCount, new Task() {
+                    @Override
+                    public void run(int v, Workspace workspace) {
+                        priority[v] = computePriority(v, workspace);
+                    }
+                });
+                int nextRank = 0;
+                final boolean[] selected = new boolean[n];
+                boolean[] updated = new boolean[n];
+                while (remainingCount > 0) {
+                    // Select the vertices with minimal priority in their 2-hop neighborhood
+                    parallel(executor, workspaces, remaining, remainingCount, new Task() {
+                        @Override
+                        public void run(int v, Workspace workspace) {
+                            selected[v] = isLocalMinimum(v);
+                        }
+                    });
+                    int[] independent = new int[remainingCount];
+                    int independentCount = 0;
+                    int kept = 0;
+                    for (int i = 0; i < remainingCount; i++) {
+                        int v = remaining[i];
+                        if (selected[v]) {
+                            independent[independentCount++] = v;
+                            contracting[v] = true;
+                        } else {
+                            remaining[kept++] = v;
+                        }
+                    }
+                    remainingCount = kept;
+                    // Witness searches of the independent set in parallel
+                    final List<List<Arc<V, E>>> found = new ArrayList<List<Arc<V, E>>>(independentCount);
+                    final int[] slot = new int[n];
+                    for (int i = 0; i < independentCount; i++) {
+                        slot[independent[i]] = i;
+                        found.add(null);
+                    }
+                    parallel(executor, workspaces, independent, independentCount, new Task() {
+                        @Override
+                        public void run(int v, Workspace workspace) {
+                            found.set(slot[v], shortcutsOf(v, workspace));
+                        }
+                    });
+                    // Apply the contractions
+                    int[] neighbors = new int[16];
+                    int neighborCount = 0;
+                    for (int i = 0; i < independentCount; i++) {
+                        int v = independent[i];
+                        rank[v] = nextRank++;
+                        contracted[v] = true;
+                        contracting[v] = false;
+                        selected[v] = false;
+                        for (Arc<V, E> arc : out.get(v)) {
+                            in.get(arc.to).remove(arc);
+                        }
+                        for (Arc<V, E> arc : in.get(v)) {
+                            out.get(arc.from).remove(arc);
+                        }
+                        for (int pass = 0; pass < 2; pass++) {
+                            for (Arc<V, E> arc : pass == 0 ? out.get(v) : in.get(v)) {
+                                int w = pass == 0 ? arc.to : arc.from;
+                                contractedNeighbors[w]++;
+                                depth[w] = Math.max(depth[w], depth[v] + 1);
+                                if (!updated[w]) {
+                                    updated[w] = true;
+                                    if (neighborCount == neighbors.length) {
+                                        neighbors = Arrays.copyOf(neighbors, neighborCount * 2);
+                                    }
+                                    neighbors[neighborCount++] = w;
+                                }
+                            }
+                        }
+                        for (Arc<V, E> shortcut : found.get(i)) {
+                            if (addArc(shortcut)) shortcuts++;
+                        }
+                    }
+                    for (int i = 0; i < neighborCount; i++) {
+                        updated[neighbors[i]] = false;
+                    }
+                    parallel(executor, workspaces, neighbors, neighborCount, new Task() {
+                        @Override
+                        public void run(int v, Workspace workspace) {
+                            priority[v] = computePriority(v, workspace);
+                        }
+                    });
+                }
+            } finally {
+                if (executor != null) executor.shutdown();
+            }
+        }
+
+        private boolean precedes(int a, int b) {
+            return priority[a] < priority[b] || (priority[a] == priority[b] && a < b);
+        }
+
+        private boolean isLocalMinimum(int v) {
+            for (int pass = 0; pass < 2; pass++) {
+                for (Arc<V, E> arc : pass == 0 ? out.get(v) : in.get(v)) {
+                    int u = pass == 0 ? arc.to : arc.from;
+                    if (precedes(u, v)) return false;
+                    for (int second = 0; second < 2; second++) {
+                        for (Arc<V, E> next : second == 0 ? out.get(u) : in.get(u)) {
+                            int w = second == 0 ? next.to : next.from;
+                            if (w != v && precedes(w, v)) return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        private int computePriority(int v, Workspace workspace) {
+            int edgeDifference = shortcutsOf(v, workspace).size() - out.get(v).size() - in.get(v).size();
+            return 2 * edgeDifference + contractedNeighbors[v] + depth[v];
+        }
+
+        /**
+         * @return shortcuts required to contract the vertex, which are not added to the graph
+         */
+        private List<Arc<V, E>> shortcutsOf(int v, Workspace workspace) {
+            List<Arc<V, E>> result = new ArrayList<Arc<V, E>>();
+            List<Arc<V, E>> outgoing = out.get(v);
+            if (outgoing.isEmpty()) return result;
+            for (Arc<V, E> incoming : in.get(v)) {
+                int x = incoming.from;
+                double maxCost = 0d;
+                for (Arc<V, E> arc : outgoing) {
+                    if (arc.to != x) maxCost = Math.max(maxCost, incoming.cost + arc.cost);
+                }
+                witnessSearch(x, v, maxCost, workspace);
+                for (Arc<V, E> arc : outgoing) {
+                    int y = arc.to;
+                    double cost = incoming.cost + arc.cost;
+                    if (y != x && workspace.distance[y] > cost) {
+                        result.add(new Arc<V, E>(x, y, cost, null, incoming, arc));
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Bounded Dijkstra search from the source which ignores the contracted vertex and the vertices
+         * contracted in the same round. The tentative distances left in the workspace are costs of real paths.
+         */
+        private void witnessSearch(int source, int ignored, double maxCost, Workspace workspace) {
+            workspace.reset();
+            workspace.touch(source, 0d);
+            IntHeap open = workspace.open;
+            open.update(source, 0d);
+            int settled = 0;
+            while (!open.isEmpty() && open.peekKey() <= maxCost && settled++ < WITNESS_SETTLED_LIMIT) {
+                int u = open.poll();
+                double d = workspace.distance[u];
+                for (Arc<V, E> arc : out.get(u)) {
+                    int w = arc.to;
+                    if (w == ignored || contracting[w]) continue;
+                    double candidate = d + arc.cost;
+                    if (candidate < workspace.distance[w]) {
+                        workspace.touch(w, candidate);
+                        open.update(w, candidate);
+                    }
+                }
+            }
+        }
+
+        private void parallel(ExecutorService executor, final Workspace[] workspaces, final int[] items,
+                              final int count, final Task task) {
+            if (executor == null || count < 256) {
+                for (int i = 0; i < count; i++) task.run(items[i], workspaces[0]);
+                return;
+            }
+            final AtomicInteger next = new AtomicInteger();
+            final int chunk = 64;
+            List<Callable<Void>> callables = new ArrayList<Callable<Void>>(workspaces.length);
+            for (final Workspace workspace : workspaces) {
+                callables.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int start = next.getAndAdd(chunk); start < count; start = next.getAndAdd(chunk)) {
+                            for (int i = start; i < Math.min(count, start + chunk); i++) {
+                                task.run(items[i], workspace);
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+            try {
+                for (Future<Void> future : executor.invokeAll(callables)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while building the contraction hierarchy", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private interface Task {
+        void run(int vertex, Workspace workspace);
+    }
+
+    /**
+     * Arrays of the witness searches of one thread.
+     */
+    private static final class Workspace {
+        private final double[] distance;
+        private final IntHeap open;
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        private Workspace(int n) {
+            distance = new double[n];
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            open = new IntHeap(n);
+        }
+
+        private void touch(int v, double d) {
+            if (distance[v] == Double.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = v;
+            }
+            distance[v] = d;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                distance[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            open.clear();
+        }
+    }
+}
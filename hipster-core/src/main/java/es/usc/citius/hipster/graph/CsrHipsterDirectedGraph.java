@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Iterators;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Immutable {@link HipsterDirectedGraph} in compressed sparse row format. Besides the outgoing arcs of
+ * {@link CsrHipsterGraph}, it keeps a second CSR index with the incoming arcs of each vertex, which can be
+ * iterated with {@link #incomingCursor()}.
+ *
+ * @param <V> vertex type.
+ * @param <E> edge type.
+ */
+public class CsrHipsterDirectedGraph<V, E> extends CsrHipsterGraph<V, E> implements HipsterDirectedGraph<V, E> {
+    private final Adjacency incoming;
+
+    protected CsrHipsterDirectedGraph(Iterable<V> vertices, Iterable<GraphEdge<V, E>> edges,
+                                      Function<? super E, Double> costFunction) {
+        super(vertices, edges, costFunction, true);
+        int m = edgeCount();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weights = new double[m];
+        Cursor cursor = cursor();
+        for (int v = 0; v < vertexCount(); v++) {
+            for (cursor.moveTo(v); cursor.next(); ) {
+                from[cursor.edge()] = cursor.target();
+                to[cursor.edge()] = v;
+                weights[cursor.edge()] = cursor.weight();
+            }
+        }
+        this.incoming = Adjacency.build(vertexCount(), from, to, weights, false);
+    }
+
+    /**
+     * Creates a directed CSR graph with the vertices and edges of a graph whose edge values are numbers,
+     * which are used as the weights of the edges.
+     *
+     * @param graph graph to copy
+     * @return immutable copy of the graph
+     */
+    public static <V, E extends Number> CsrHipsterDirectedGraph<V, E> copyOf(HipsterDirectedGraph<V, E> graph) {
+        return copyOf(graph, CsrHipsterGraph.<E>numericCost());
+    }
+
+    /**
+     * Creates a directed CSR graph with the vertices and edges of a graph.
+     *
+     * @param graph graph to copy
+     * @param costFunction function to obtain the weight of the value of each edge
+     * @return immutable copy of the graph
+     */
+    public static <V, E> CsrHipsterDirectedGraph<V, E> copyOf(HipsterDirectedGraph<V, E> graph,
+                                                              Function<? super E, Double> costFunction) {
+        List<GraphEdge<V, E>> edges = new ArrayList<GraphEdge<V, E>>();
+        for (V vertex : graph.vertices()) {
+            for (GraphEdge<V, E> edge : graph.outgoingEdgesOf(vertex)) {
+                edges.add(edge);
+            }
+        }
+        return new CsrHipsterDirectedGraph<V, E>(graph.vertices(), edges, costFunction);
+    }
+
+    @Override
+    protected GraphEdge<V, E> buildEdge(V v1, V v2, E value) {
+        return new DirectedEdge<V, E>(v1, v2, value);
+    }
+
+    /**
+     * Creates a cursor over the incoming arcs of the vertices. The target of each arc is the source of the edge.
+     *
+     * @return new cursor, not positioned at any vertex
+     */
+    public Cursor incomingCursor() {
+        return new Cursor(incoming);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return number of incoming arcs of the vertex
+     */
+    public int inDegree(int id) {
+        return incoming.offsets[id + 1] - incoming.offsets[id];
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> outgoingEdgesOf(V vertex) {
+        return super.edgesOf(vertex);
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> incomingEdgesOf(V vertex) {
+        return edgesOf(incoming, idOf(vertex), false);
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> edgesOf(V vertex) {
+        final Iterable<GraphEdge<V, E>> out = outgoingEdgesOf(vertex);
+        // Self loops are already returned as outgoing edges
+        final Iterable<GraphEdge<V, E>> in = edgesOf(incoming, idOf(vertex), true);
+        return new Iterable<GraphEdge<V, E>>() {
+            @Override
+            public Iterator<GraphEdge<V, E>> iterator() {
+                final Iterator<GraphEdge<V, E>> first = out.iterator();
+                final Iterator<GraphEdge<V, E>> second = in.iterator();
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        if (first.hasNext()) return first.next();
+                        return second.hasNext() ? second.next() : null;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,396 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Iterators;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Immutable, memory efficient implementation of an undirected {@link HipsterGraph} in compressed sparse row (CSR)
+ * format. The vertices are interned to consecutive int ids, and the adjacency of all the vertices is stored in
+ * a few primitive arrays: the arcs of the vertex with id {@code v} are in the positions {@code offsets[v]} to
+ * {@code offsets[v+1]} of the arrays of targets, edge ids and weights. The weight of each edge is computed once
+ * when the graph is built, with a cost function or with the numeric value of the edge.
+ * </p>
+ *
+ * <p>
+ * The methods of {@link HipsterGraph} create the {@link GraphEdge} instances on demand. Algorithms which can
+ * work with int ids should use a {@link Cursor}, which iterates over the adjacency of a vertex without allocating:
+ * </p>
+ *
+ * <pre class="prettyprint">
+ * {@code
+ *  CsrHipsterGraph<String, Double> graph = CsrHipsterGraph.copyOf(hashBasedGraph);
+ *  CsrHipsterGraph.Cursor cursor = graph.cursor();
+ *  for (cursor.moveTo(graph.idOf("A")); cursor.next(); ) {
+ *      int neighbor = cursor.target();
+ *      double weight = cursor.weight();
+ *  }
+ * }
+ * </pre>
+ *
+ * Directed graphs are represented with {@link CsrHipsterDirectedGraph}.
+ *
+ * @param <V> vertex type.
+ * @param <E> edge type.
+ */
+public class CsrHipsterGraph<V, E> implements HipsterGraph<V, E> {
+    private final Object[] vertices;
+    private final Map<V, Integer> ids;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final Object[] edgeValues;
+    private final Adjacency adjacency;
+
+    protected CsrHipsterGraph(Iterable<V> vertices, Iterable<GraphEdge<V, E>> edges,
+                              Function<? super E, Double> costFunction, boolean directed) {
+        List<V> vertexList = new ArrayList<V>();
+        this.ids = new HashMap<V, Integer>();
+        for (V vertex : vertices) {
+            if (!ids.containsKey(vertex)) {
+                ids.put(vertex, vertexList.size());
+                vertexList.add(vertex);
+            }
+        }
+        this.vertices = vertexList.toArray();
+        List<GraphEdge<V, E>> edgeList = new ArrayList<GraphEdge<V, E>>();
+        for (GraphEdge<V, E> edge : edges) {
+            edgeList.add(edge);
+        }
+        int m = edgeList.size();
+        this.edgeSource = new int[m];
+        this.edgeTarget = new int[m];
+        this.edgeValues = new Object[m];
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++) {
+            GraphEdge<V, E> edge = edgeList.get(e);
+            edgeSource[e] = requireId(edge.getVertex1());
+            edgeTarget[e] = requireId(edge.getVertex2());
+            edgeValues[e] = edge.getEdgeValue();
+            weights[e] = costFunction.apply(edge.getEdgeValue());
+        }
+        this.adjacency = Adjacency.build(this.vertices.length, edgeSource, edgeTarget, weights, !directed);
+    }
+
+    /**
+     * Creates an undirected CSR graph with the vertices and edges of a graph whose edge values are numbers,
+     * which are used as the weights of the edges. If the graph is a {@link HipsterDirectedGraph} the result is
+     * a {@link CsrHipsterDirectedGraph}.
+     *
+     * @param graph graph to copy
+     * @return immutable copy of the graph
+     */
+    public static <V, E extends Number> CsrHipsterGraph<V, E> copyOf(HipsterGraph<V, E> graph) {
+        return copyOf(graph, CsrHipsterGraph.<E>numericCost());
+    }
+
+    /**
+     * Creates an undirected CSR graph with the vertices and edges of a graph. If the graph is a
+     * {@link HipsterDirectedGraph} the result is a {@link CsrHipsterDirectedGraph}.
+     *
+     * @param graph graph to copy
+     * @param costFunction function to obtain the weight of the value of each edge
+     * @return immutable copy of the graph
+     */
+    public static <V, E> CsrHipsterGraph<V, E> copyOf(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction) {
+        if (graph instanceof HipsterDirectedGraph) {
+            return CsrHipsterDirectedGraph.copyOf((HipsterDirectedGraph<V, E>) graph, costFunction);
+        }
+        // Each undirected edge is returned by both of its vertices (and the graph may create a new instance
+        // each time), so it is only copied when it is seen from its first vertex. Self loops are returned once
+        List<GraphEdge<V, E>> ordered = new ArrayList<GraphEdge<V, E>>();
+        for (V vertex : graph.vertices()) {
+            for (GraphEdge<V, E> edge : graph.edgesOf(vertex)) {
+                if (edge.getVertex1().equals(vertex)) ordered.add(edge);
+            }
+        }
+        return new CsrHipsterGraph<V, E>(graph.vertices(), ordered, costFunction, false);
+    }
+
+    /**
+     * @return cost function which uses the numeric value of the edges
+     */
+    static <E> Function<E, Double> numericCost() {
+        return new Function<E, Double>() {
+            @Override
+            public Double apply(E edge) {
+                if (!(edge instanceof Number)) {
+                    throw new IllegalArgumentException("The value " + edge + " of the edge is not a number, "
+                            + "a cost function is required");
+                }
+                return ((Number) edge).doubleValue();
+            }
+        };
+    }
+
+    private int requireId(V vertex) {
+        Integer id = ids.get(vertex);
+        if (id == null) throw new IllegalArgumentException(vertex + " is not a vertex of the graph");
+        return id;
+    }
+
+    /**
+     * @return number of vertices of the graph
+     */
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    /**
+     * @return number of edges of the graph
+     */
+    public int edgeCount() {
+        return edgeSource.length;
+    }
+
+    /**
+     * @param vertex vertex of the graph
+     * @return id of the vertex, or -1 if it is not a vertex of the graph
+     */
+    public int idOf(V vertex) {
+        Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return vertex with the id
+     */
+    @SuppressWarnings("unchecked")
+    public V vertexOf(int id) {
+        return (V) vertices[id];
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return number of arcs iterated by {@link #cursor()} for the vertex
+     */
+    public int degree(int id) {
+        return adjacency.offsets[id + 1] - adjacency.offsets[id];
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return id of the first vertex of the edge
+     */
+    public int edgeSource(int edge) {
+        return edgeSource[edge];
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return id of the second vertex of the edge
+     */
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return value of the edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edgeValue(int edge) {
+        return (E) edgeValues[edge];
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return edge of the graph
+     */
+    public GraphEdge<V, E> edge(int edge) {
+        return buildEdge(vertexOf(edgeSource[edge]), vertexOf(edgeTarget[edge]), edgeValue(edge));
+    }
+
+    protected GraphEdge<V, E> buildEdge(V v1, V v2, E value) {
+        return new UndirectedEdge<V, E>(v1, v2, value);
+    }
+
+    /**
+     * Creates a cursor over the adjacency of the vertices. In undirected graphs, the cursor iterates over
+     * all the edges of a vertex (self loops are returned once); in directed graphs, over the outgoing edges.
+     *
+     * @return new cursor, not positioned at any vertex
+     */
+    public Cursor cursor() {
+        return new Cursor(adjacency);
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> edges() {
+        return new Iterable<GraphEdge<V, E>>() {
+            @Override
+            public Iterator<GraphEdge<V, E>> iterator() {
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    private int next = 0;
+
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        return next < edgeSource.length ? edge(next++) : null;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterable<V> vertices() {
+        return Collections.unmodifiableList(Arrays.asList((V[]) vertices));
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> edgesOf(V vertex) {
+        return edgesOf(adjacency, idOf(vertex), false);
+    }
+
+    /**
+     * @param adjacency adjacency to iterate
+     * @param id id of the vertex, or -1 for no edges
+     * @param skipLoops true to skip the self loops
+     * @return edges of the arcs of the vertex in the adjacency
+     */
+    Iterable<GraphEdge<V, E>> edgesOf(final Adjacency adjacency, final int id, final boolean skipLoops) {
+        return new Iterable<GraphEdge<V, E>>() {
+            @Override
+            public Iterator<GraphEdge<V, E>> iterator() {
+                if (id < 0) return Iterators.empty();
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    private final Cursor cursor = new Cursor(adjacency).moveTo(id);
+
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        while (cursor.next()) {
+                            if (!skipLoops || cursor.target() != id) {
+                                return edge(cursor.edge());
+                            }
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Arcs of all the vertices in CSR format.
+     */
+    static final class Adjacency {
+        final int[] offsets;
+        final int[] targets;
+        final int[] edges;
+        final double[] weights;
+
+        private Adjacency(int[] offsets, int[] targets, int[] edges, double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.edges = edges;
+            this.weights = weights;
+        }
+
+        /**
+         * Builds the arcs {@code from[e] -> to[e]} (and {@code to[e] -> from[e]} if symmetric) of each edge,
+         * keeping the order of the edges in the adjacency of each vertex.
+         */
+        static Adjacency build(int n, int[] from, int[] to, double[] weights, boolean symmetric) {
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < from.length; e++) {
+                offsets[from[e] + 1]++;
+                if (symmetric && from[e] != to[e]) offsets[to[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] position = Arrays.copyOf(offsets, n);
+            int arcs = offsets[n];
+            int[] targets = new int[arcs];
+            int[] edges = new int[arcs];
+            double[] arcWeights = new double[arcs];
+            for (int e = 0; e < from.length; e++) {
+                int i = position[from[e]]++;
+                targets[i] = to[e];
+                edges[i] = e;
+                arcWeights[i] = weights[e];
+                if (symmetric && from[e] != to[e]) {
+                    i = position[to[e]]++;
+                    targets[i] = from[e];
+                    edges[i] = e;
+                    arcWeights[i] = weights[e];
+                }
+            }
+            return new Adjacency(offsets, targets, edges, arcWeights);
+        }
+    }
+
+    /**
+     * Reusable cursor over the arcs of a vertex, which exposes the ids and weights as primitives.
+     * A cursor is not thread-safe.
+     */
+    public static final class Cursor {
+        private final Adjacency adjacency;
+        private int position;
+        private int end;
+
+        Cursor(Adjacency adjacency) {
+            this.adjacency = adjacency;
+        }
+
+        /**
+         * Positions the cursor before the first arc of a vertex.
+         *
+         * @param id id of the vertex
+         * @return this cursor
+         */
+        public Cursor moveTo(int id) {
+            position = adjacency.offsets[id] - 1;
+            end = adjacency.offsets[id + 1];
+            return this;
+        }
+
+        /**
+         * Advances to the next arc.
+         *
+         * @return false if there are no more arcs
+         */
+        public boolean next() {
+            return ++position < end;
+        }
+
+        /**
+         * @return id of the vertex at the other end of the current arc
+         */
+        public int target() {
+            return adjacency.targets[position];
+        }
+
+        /**
+         * @return weight of the current arc
+         */
+        public double weight() {
+            return adjacency.weights[position];
+        }
+
+        /**
+         * @return id of the edge of the current arc
+         */
+        public int edge() {
+            return adjacency.edges[position];
+        }
+    }
+}
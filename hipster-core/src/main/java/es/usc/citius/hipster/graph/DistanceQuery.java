@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Computes shortest path distances between sets of vertices of a {@link HipsterGraph}
+ * without building a search problem for each pair:
+ * </p>
+ * <ul>
+ *     <li>{@link #oneToMany(Object, List)} runs a single Dijkstra sweep from the source and stops as
+ *     soon as all the targets are settled.</li>
+ *     <li>{@link #manyToMany(List, List)} computes the complete distance matrix. Repeated vertices are
+ *     only searched once, and on directed graphs the sweeps run backwards from the targets
+ *     (following the incoming edges) when there are fewer targets than sources.</li>
+ * </ul>
+ *
+ * <pre class="prettyprint">
+ * {@code
+ *  double[][] matrix = DistanceQuery.in(graph).manyToMany(sources, targets);
+ * }
+ * </pre>
+ *
+ * The distances of unreachable targets are {@link Double#POSITIVE_INFINITY}. Edge costs must
+ * be non-negative.
+ *
+ * @param <V> type of the vertices
+ * @param <E> type of the edges
+ */
+public final class DistanceQuery<V, E> {
+    private final HipsterGraph<V, E> graph;
+    private final Function<? super E, Double> costFunction;
+
+    private DistanceQuery(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction) {
+        this.graph = graph;
+        this.costFunction = costFunction;
+    }
+
+    /**
+     * Creates a distance query for a graph whose edge values are numbers, which are
+     * used as the cost of the edges.
+     *
+     * @param graph graph with numeric edges
+     * @return distance query for the graph
+     */
+    public static <V, E extends Number> DistanceQuery<V, E> in(HipsterGraph<V, E> graph) {
+        return new DistanceQuery<V, E>(graph, new Function<E, Double>() {
+            @Override
+            public Double apply(E edge) {
+                return edge.doubleValue();
+            }
+        });
+    }
+
+    /**
+     * Creates a distance query for a graph, using a function to obtain the cost of each edge.
+     *
+     * @param graph graph to query
+     * @param costFunction function to obtain the cost of the value of each edge
+     * @return distance query for the graph
+     */
+    public static <V, E> DistanceQuery<V, E> in(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction) {
+        return new DistanceQuery<V, E>(graph, costFunction);
+    }
+
+    /**
+     * Computes the distances from a source to a list of targets with a single search.
+     *
+     * @param source source vertex
+     * @param targets target vertices
+     * @return array with the distance to each target, in the same order as the list
+     */
+    public double[] oneToMany(V source, List<V> targets) {
+        Map<V, Double> distances = sweep(source, targets, false);
+        double[] result = new double[targets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = distanceTo(distances, targets.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the matrix of distances between a list of sources and a list of targets.
+     *
+     * @param sources source vertices
+     * @param targets target vertices
+     * @return matrix where the element {@code [i][j]} is the distance from the i-th source
+     * to the j-th target
+     */
+    public double[][] manyToMany(List<V> sources, List<V> targets) {
+        double[][] result = new double[sources.size()][targets.size()];
+        boolean backwards = graph instanceof HipsterDirectedGraph && targets.size() < sources.size();
+        if (backwards) {
+            Map<V, Map<V, Double>> sweeps = new HashMap<V, Map<V, Double>>();
+            for (int j = 0; j < targets.size(); j++) {
+                V target = targets.get(j);
+                Map<V, Double> distances = sweeps.get(target);
+                if (distances == null) {
+                    distances = sweep(target, sources, true);
+                    sweeps.put(target, distances);
+                }
+                for (int i = 0; i < sources.size(); i++) {
+                    result[i][j] = distanceTo(distances, sources.get(i));
+                }
+            }
+        } else {
+            Map<V, double[]> rows = new HashMap<V, double[]>();
+            for (int i = 0; i < sources.size(); i++) {
+                V source = sources.get(i);
+                double[] row = rows.get(source);
+                if (row == null) {
+                    row = oneToMany(source, targets);
+                    rows.put(source, row);
+                    result[i] = row;
+                } else {
+                    result[i] = row.clone();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static <V> double distanceTo(Map<V, Double> distances, V vertex) {
+        Double distance = distances.get(vertex);
+        return (distance == null) ? Double.POSITIVE_INFINITY : distance;
+    }
+
+    /**
+     * Dijkstra search from the origin which stops when all the targets are settled.
+     *
+     * @param origin origin of the search
+     * @param targets vertices to settle
+     * @param backwards true to follow the edges in reverse direction
+     * @return map with the distances of the settled vertices
+     */
+    private Map<V, Double> sweep(V origin, Collection<V> targets, boolean backwards) {
+        Set<V> pending = new HashSet<V>(targets);
+        Map<V, Double> settled = new HashMap<V, Double>();
+        IndexedHeap<V, Label<V>> open = new IndexedHeap<V, Label<V>>(new Function<Label<V>, V>() {
+            @Override
+            public V apply(Label<V> label) {
+                return label.vertex;
+            }
+        });
+        open.offer(new Label<V>(origin, 0d));
+        while (!open.isEmpty() && !pending.isEmpty()) {
+            Label<V> current = open.poll();
+            settled.put(current.vertex, current.distance);
+            pending.remove(current.vertex);
+            for (GraphEdge<V, E> edge : edgesFrom(current.vertex, backwards)) {
+                V neighbor = opposite(edge, current.vertex, backwards);
+                if (settled.containsKey(neighbor)) continue;
+                double cost = costFunction.apply(edge.getEdgeValue());
+                if (cost < 0) {
+                    throw new IllegalArgumentException("Negative cost " + cost + " in edge " + edge);
+                }
+                double distance = current.distance + cost;
+                Label<V> label = open.get(neighbor);
+                if (label == null || distance < label.distance) {
+                    open.offer(new Label<V>(neighbor, distance));
+                }
+            }
+        }
+        return settled;
+    }
+
+    private Iterable<GraphEdge<V, E>> edgesFrom(V vertex, boolean backwards) {
+        if (graph instanceof HipsterDirectedGraph) {
+            HipsterDirectedGraph<V, E> dg = (HipsterDirectedGraph<V, E>) graph;
+            return backwards ? dg.incomingEdgesOf(vertex) : dg.outgoingEdgesOf(vertex);
+        }
+        return graph.edgesOf(vertex);
+    }
+
+    private V opposite(GraphEdge<V, E> edge, V vertex, boolean backwards) {
+        if (graph instanceof HipsterDirectedGraph) {
+            return backwards ? edge.getVertex1() : edge.getVertex2();
+        }
+        return edge.getVertex1().equals(vertex) ? edge.getVertex2() : edge.getVertex1();
+    }
+
+    /**
+     * Tentative distance of a vertex in the open queue.
+     */
+    private static final class Label<V> implements Comparable<Label<V>> {
+        private final V vertex;
+        private final double distance;
+
+        private Label(V vertex, double distance) {
+            this.vertex = vertex;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Label<V> o) {
+            return Double.compare(distance, o.distance);
+        }
+    }
+}
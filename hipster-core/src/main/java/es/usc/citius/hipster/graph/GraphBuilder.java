@@ -15,8 +15,13 @@
  */
 package es.usc.citius.hipster.graph;
 
+import es.usc.citius.hipster.util.Function;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * <p>Graph builder assistant to create a Hipster graph. Usage example:</p>
@@ -125,6 +130,65 @@ public class GraphBuilder<V, E> {
         return graph;
     }
 
+    /**
+     * Creates an immutable directed graph in compressed sparse row format, using the numeric
+     * value of the edges as their weights.
+     *
+     * @return directed CSR graph
+     * @throws IllegalArgumentException if the value of an edge is not a number
+     */
+    public CsrHipsterDirectedGraph<V,E> createCsrDirectedGraph() {
+        return createCsrDirectedGraph(CsrHipsterGraph.<E>numericCost());
+    }
+
+    /**
+     * Creates an immutable directed graph in compressed sparse row format.
+     *
+     * @param costFunction function to obtain the weight of the value of each edge
+     * @return directed CSR graph
+     */
+    public CsrHipsterDirectedGraph<V,E> createCsrDirectedGraph(Function<? super E, Double> costFunction) {
+        List<GraphEdge<V,E>> edges = new ArrayList<GraphEdge<V, E>>(connections.size());
+        for (Connection c : connections) {
+            edges.add(new DirectedEdge<V, E>(c.vertex1, c.vertex2, c.edge));
+        }
+        return new CsrHipsterDirectedGraph<V, E>(connectedVertices(), edges, costFunction);
+    }
+
+    /**
+     * Creates an immutable undirected graph in compressed sparse row format, using the numeric
+     * value of the edges as their weights.
+     *
+     * @return undirected CSR graph
+     * @throws IllegalArgumentException if the value of an edge is not a number
+     */
+    public CsrHipsterGraph<V,E> createCsrUndirectedGraph() {
+        return createCsrUndirectedGraph(CsrHipsterGraph.<E>numericCost());
+    }
+
+    /**
+     * Creates an immutable undirected graph in compressed sparse row format.
+     *
+     * @param costFunction function to obtain the weight of the value of each edge
+     * @return undirected CSR graph
+     */
+    public CsrHipsterGraph<V,E> createCsrUndirectedGraph(Function<? super E, Double> costFunction) {
+        List<GraphEdge<V,E>> edges = new ArrayList<GraphEdge<V, E>>(connections.size());
+        for (Connection c : connections) {
+            edges.add(new UndirectedEdge<V, E>(c.vertex1, c.vertex2, c.edge));
+        }
+        return new CsrHipsterGraph<V, E>(connectedVertices(), edges, costFunction, false);
+    }
+
+    private Set<V> connectedVertices() {
+        Set<V> vertices = new LinkedHashSet<V>();
+        for (Connection c : connections) {
+            vertices.add(c.vertex1);
+            vertices.add(c.vertex2);
+        }
+        return vertices;
+    }
+
     /**
      * @see GraphBuilder#createDirectedGraph()
      * @return type-erased directed graph
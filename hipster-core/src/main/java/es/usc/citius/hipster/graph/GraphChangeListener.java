@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+/**
+ * Listener notified of the changes of a {@link HashBasedHipsterGraph} (see
+ * {@link HashBasedHipsterGraph#addListener(GraphChangeListener)}), for example to invalidate
+ * the information computed from the graph.
+ *
+ * @param <V> vertex type.
+ * @param <E> edge type.
+ */
+public interface GraphChangeListener<V,E> {
+
+    void vertexAdded(V vertex);
+
+    /**
+     * Invoked after the vertex is removed. The edges of the vertex are notified before
+     * with {@link #edgeRemoved(GraphEdge)}.
+     */
+    void vertexRemoved(V vertex);
+
+    void edgeAdded(GraphEdge<V,E> edge);
+
+    void edgeRemoved(GraphEdge<V,E> edge);
+}
@@ -72,6 +72,7 @@ public final class GraphSearchProblem {
                         return transitions;
                     }
                 };
+                return new CostType<E>(tf, predecessorFunction(dg));
             } else {
                 tf = new TransitionFunction<E, V>() {
                     @Override
@@ -112,6 +113,7 @@ public final class GraphSearchProblem {
                         return transitions;
                     }
                 };
+                return new CostType<E>(tf, predecessorFunction(dg));
             } else {
                 tf = new TransitionFunction<E, V>() {
                     @Override
@@ -129,11 +131,39 @@ public final class GraphSearchProblem {
             return new CostType<E>(tf);
         }
 
+        /**
+         * Builds the predecessor function of a directed graph. The transitions generated for a
+         * vertex go from the vertex to the source of each incoming edge, using the value of the edge
+         * as the action.
+         *
+         * @param dg directed graph
+         * @return transition function with the predecessors of each vertex
+         */
+        private <E> TransitionFunction<E, V> predecessorFunction(final HipsterDirectedGraph<V, E> dg) {
+            return new TransitionFunction<E, V>() {
+                @Override
+                public Iterable<Transition<E, V>> transitionsFrom(final V state) {
+                    ArrayList<Transition<E, V>> transitions = new ArrayList<Transition<E, V>>();
+                    for(GraphEdge<V, E> edge : dg.incomingEdgesOf(state)){
+                        transitions.add(Transition.create(state, edge.getEdgeValue(), edge.getVertex1()));
+                    }
+                    return transitions;
+                }
+            };
+        }
+
         public class CostType<E> {
             private TransitionFunction<E, V> tf;
+            // Transition function to the predecessors of a state (the same as tf for undirected graphs)
+            private TransitionFunction<E, V> pf;
 
             private CostType(TransitionFunction<E, V> tf) {
+                this(tf, tf);
+            }
+
+            private CostType(TransitionFunction<E, V> tf, TransitionFunction<E, V> pf) {
                 this.tf = tf;
+                this.pf = pf;
             }
 
             public HeuristicType<Double> takeCostsFromEdges() {
@@ -217,6 +247,15 @@ public final class GraphSearchProblem {
                     return new Final(hf);
                 }
 
+                /**
+                 * Search components of the problem without heuristic function, which can be used to
+                 * instantiate algorithms that need both the successors and the predecessors of the states
+                 * (like {@link es.usc.citius.hipster.algorithm.Hipster#createBidirectionalDijkstra(SearchComponents)}).
+                 */
+                public SearchComponents<E, V, C> components(){
+                    return new SearchComponents<E, V, C>(fromVertex, toVertex, cf, null, tf, pf, costAlgebra, scaleAlgebra);
+                }
+
                 public SearchProblem<E, V, WeightedNode<E, V, C>> build() {
                     return ProblemBuilder.create()
                             .initialState(fromVertex)
@@ -247,7 +286,7 @@ public final class GraphSearchProblem {
                     }
 
                     public SearchComponents<E, V, C> components(){
-                        return new SearchComponents<E, V, C>(fromVertex, toVertex, cf, hf, tf, tf, costAlgebra, scaleAlgebra);
+                        return new SearchComponents<E, V, C>(fromVertex, toVertex, cf, hf, tf, pf, costAlgebra, scaleAlgebra);
                     }
 
                     public SearchProblem<E, V, WeightedNode<E, V, C>> build() {
@@ -15,18 +15,73 @@
  */
 package es.usc.citius.hipster.graph;
 
-import es.usc.citius.hipster.util.Function;
 import es.usc.citius.hipster.util.F;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Iterators;
 
 import java.util.*;
 
 /**
- * Implementation of a HipsterDirectedGraph using a Guava Hash Table.
+ * Implementation of a HipsterDirectedGraph with two hash based adjacency indexes: the map inherited from
+ * {@link HashBasedHipsterGraph} contains the outgoing edges of each vertex, and a second map contains the incoming
+ * edges. {@link #outgoingEdgesOf(Object)} and {@link #incomingEdgesOf(Object)} return the sets of the indexes
+ * directly, so iterating over them costs O(degree) without filtering the other edges of the vertex.
  *
  * @author Pablo Rodríguez Mier <<a href="mailto:pablo.rodriguez.mier@usc.es">pablo.rodriguez.mier@usc.es</a>>
  */
 public class HashBasedHipsterDirectedGraph<V, E> extends HashBasedHipsterGraph<V, E> implements HipsterMutableGraph<V, E>, HipsterDirectedGraph<V, E> {
+    protected HashMap<V, Set<GraphEdge<V, E>>> incoming = new HashMap<V, Set<GraphEdge<V, E>>>();
+
+    @Override
+    public boolean add(V v) {
+        if (!connected.containsKey(v)) {
+            incoming.put(v, new LinkedHashSet<GraphEdge<V, E>>());
+        }
+        return super.add(v);
+    }
+
+    @Override
+    public boolean remove(V v) {
+        Set<GraphEdge<V, E>> out = connected.get(v);
+        if (out == null) return false;
+        Set<GraphEdge<V, E>> in = incoming.get(v);
+        for (GraphEdge<V, E> edge : out) {
+            incoming.get(edge.getVertex2()).remove(edge);
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.edgeRemoved(edge);
+            }
+        }
+        for (GraphEdge<V, E> edge : in) {
+            // Self loops were already removed with the outgoing edges
+            if (edge.getVertex1().equals(v)) continue;
+            connected.get(edge.getVertex1()).remove(edge);
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.edgeRemoved(edge);
+            }
+        }
+        connected.remove(v);
+        incoming.remove(v);
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.vertexRemoved(v);
+        }
+        return true;
+    }
 
+    @Override
+    public GraphEdge<V, E> connect(V v1, V v2, E value) {
+        // Check non-null arguments
+        if(v1 == null || v2 == null) throw new IllegalArgumentException("Invalid vertices. A vertex cannot be null");
+        // Ensure that the vertices are in the graph
+        if (!connected.containsKey(v1)) throw new IllegalArgumentException(v1 + " is not a vertex of the graph");
+        if (!connected.containsKey(v2)) throw new IllegalArgumentException(v2 + " is not a vertex of the graph");
+        GraphEdge<V, E> edge = buildEdge(v1, v2, value);
+        connected.get(v1).add(edge);
+        incoming.get(v2).add(edge);
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.edgeAdded(edge);
+        }
+        return edge;
+    }
 
     @Override
     public GraphEdge<V, E> buildEdge(V v1, V v2, E value) {
@@ -35,41 +90,112 @@ public class HashBasedHipsterDirectedGraph<V, E> extends HashBasedHipsterGraph<V
 
     @Override
     public Iterable<GraphEdge<V, E>> outgoingEdgesOf(final V vertex) {
-        return F.filter(edgesOf(vertex), new Function<GraphEdge<V, E>, Boolean>() {
+        Set<GraphEdge<V, E>> set = connected.get(vertex);
+        if (set == null) set = Collections.emptySet();
+        return set;
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> incomingEdgesOf(final V vertex) {
+        Set<GraphEdge<V, E>> set = incoming.get(vertex);
+        if (set == null) set = Collections.emptySet();
+        return set;
+    }
+
+    /**
+     * Returns the outgoing and the incoming edges of the vertex (self loops are returned once).
+     * @param vertex vertex to be queried
+     * @return an iterable of {@link GraphEdge}s connected to the vertex
+     */
+    @Override
+    public Iterable<GraphEdge<V, E>> edgesOf(final V vertex) {
+        final Iterable<GraphEdge<V, E>> out = outgoingEdgesOf(vertex);
+        final Iterable<GraphEdge<V, E>> in = incomingEdgesOf(vertex);
+        return new Iterable<GraphEdge<V, E>>() {
             @Override
-            public Boolean apply(GraphEdge<V, E> edge) {
-                return edge.getVertex1().equals(vertex);
+            public Iterator<GraphEdge<V, E>> iterator() {
+                final Iterator<GraphEdge<V, E>> first = out.iterator();
+                final Iterator<GraphEdge<V, E>> second = in.iterator();
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        if (first.hasNext()) return first.next();
+                        while (second.hasNext()) {
+                            GraphEdge<V, E> edge = second.next();
+                            if (!edge.getVertex1().equals(vertex)) return edge;
+                        }
+                        return null;
+                    }
+                };
             }
-        });
+        };
     }
 
     @Override
-    public Iterable<GraphEdge<V, E>> incomingEdgesOf(final V vertex) {
-        return F.filter(edgesOf(vertex), new Function<GraphEdge<V, E>, Boolean>() {
+    public Iterable<GraphEdge<V, E>> edges() {
+        // Each edge is in the outgoing set of its source vertex
+        return F.flatMap(connected.values(), new Function<Set<GraphEdge<V, E>>, Iterable<GraphEdge<V, E>>>() {
             @Override
-            public Boolean apply(GraphEdge<V, E> edge) {
-                return edge.getVertex2().equals(vertex);
+            public Iterable<GraphEdge<V, E>> apply(Set<GraphEdge<V, E>> edges) {
+                return edges;
             }
         });
     }
 
+    /**
+     * Returns the edges connected to each vertex (outgoing and incoming), like {@link HashBasedHipsterGraph}.
+     * The map is built from the outgoing and incoming indexes of the graph, so changes to it do not modify
+     * the graph (use {@link #setConnected(HashMap)} to replace the edges). Use {@link #getOutgoing()} and
+     * {@link #getIncoming()} to access the indexes directly.
+     * @return HashMap where keys are vertices and values a set with the connected edges
+     */
     @Override
-    public Iterable<GraphEdge<V, E>> edges() {
-        // TODO: [java-8-migration] use stream filter
-        return F.map(
-                F.filter(HashBasedHipsterDirectedGraph.super.vedges(),
-                        new Function<Map.Entry<V, GraphEdge<V, E>>, Boolean>() {
-                            @Override
-                            public Boolean apply(Map.Entry<V, GraphEdge<V, E>> input) {
-                                return input.getKey().equals(input.getValue().getVertex1());
-                            }
-                        }),
-                new Function<Map.Entry<V, GraphEdge<V, E>>, GraphEdge<V, E>>() {
-                    @Override
-                    public GraphEdge<V, E> apply(Map.Entry<V, GraphEdge<V, E>> input) {
-                        return input.getValue();
-                    }
-                });
+    public HashMap<V, Set<GraphEdge<V, E>>> getConnected() {
+        HashMap<V, Set<GraphEdge<V, E>>> edges = new HashMap<V, Set<GraphEdge<V, E>>>();
+        for (Map.Entry<V, Set<GraphEdge<V, E>>> entry : connected.entrySet()) {
+            Set<GraphEdge<V, E>> vertexEdges = new LinkedHashSet<GraphEdge<V, E>>(entry.getValue());
+            vertexEdges.addAll(incoming.get(entry.getKey()));
+            edges.put(entry.getKey(), vertexEdges);
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the index of the outgoing edges of each vertex.
+     * @return HashMap where keys are vertices and values a set with their outgoing edges
+     */
+    public HashMap<V, Set<GraphEdge<V, E>>> getOutgoing() {
+        return connected;
+    }
+
+    /**
+     * Returns the index of the incoming edges of each vertex.
+     * @return HashMap where keys are vertices and values a set with their incoming edges
+     */
+    public HashMap<V, Set<GraphEdge<V, E>>> getIncoming() {
+        return incoming;
+    }
+
+    /**
+     * Replaces the edges of the graph, rebuilding the outgoing and incoming indexes.
+     * @param connected HashMap where keys are vertices and values a set with the edges connected to them
+     */
+    @Override
+    public void setConnected(HashMap<V, Set<GraphEdge<V, E>>> connected) {
+        HashMap<V, Set<GraphEdge<V, E>>> out = new HashMap<V, Set<GraphEdge<V, E>>>();
+        HashMap<V, Set<GraphEdge<V, E>>> in = new HashMap<V, Set<GraphEdge<V, E>>>();
+        for (V vertex : connected.keySet()) {
+            out.put(vertex, new LinkedHashSet<GraphEdge<V, E>>());
+            in.put(vertex, new LinkedHashSet<GraphEdge<V, E>>());
+        }
+        for (Set<GraphEdge<V, E>> edges : connected.values()) {
+            for (GraphEdge<V, E> edge : edges) {
+                out.get(edge.getVertex1()).add(edge);
+                in.get(edge.getVertex2()).add(edge);
+            }
+        }
+        this.connected = out;
+        this.incoming = in;
     }
 
     public static <V, E> HashBasedHipsterDirectedGraph<V, E> create() {
@@ -27,6 +27,7 @@ import java.util.*;
  */
 public class HashBasedHipsterGraph<V,E> implements HipsterMutableGraph<V,E> {
     protected HashMap<V, Set<GraphEdge<V, E>>> connected;
+    protected List<GraphChangeListener<V, E>> listeners = new ArrayList<GraphChangeListener<V, E>>();
 
     public HashBasedHipsterGraph(){
         this.connected = new HashMap<V, Set<GraphEdge<V, E>>>();
@@ -37,6 +38,9 @@ public class HashBasedHipsterGraph<V,E> implements HipsterMutableGraph<V,E> {
         //add a new entry to the hash map if it does not exist
         if(!connected.containsKey(v)){
             connected.put(v, new LinkedHashSet<GraphEdge<V, E>>());
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.vertexAdded(v);
+            }
             return true;
         }
         return false;
@@ -69,8 +73,14 @@ public class HashBasedHipsterGraph<V,E> implements HipsterMutableGraph<V,E> {
                     it2.remove();
                 }
             }
+            for (GraphChangeListener<V, E> listener : listeners) {
+                listener.edgeRemoved(edge);
+            }
         }
         this.connected.remove(v);
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.vertexRemoved(v);
+        }
         return true;
     }
 
@@ -94,6 +104,9 @@ public class HashBasedHipsterGraph<V,E> implements HipsterMutableGraph<V,E> {
         // Associate the vertices with their edge
         connected.get(v1).add(edge);
         connected.get(v2).add(edge);
+        for (GraphChangeListener<V, E> listener : listeners) {
+            listener.edgeAdded(edge);
+        }
         return edge;
     }
 
@@ -177,6 +190,18 @@ public class HashBasedHipsterGraph<V,E> implements HipsterMutableGraph<V,E> {
         this.connected = connected;
     }
 
+    /**
+     * Registers a listener which is notified of the vertices and edges added to or removed from the graph.
+     * @param listener listener to register
+     */
+    public void addListener(GraphChangeListener<V, E> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GraphChangeListener<V, E> listener) {
+        listeners.remove(listener);
+    }
+
     public static <V,E> HashBasedHipsterGraph<V, E> create() {
         return new HashBasedHipsterGraph<V, E>();
     }
@@ -0,0 +1,567 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.StateCodec;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Landmark distances for the ALT heuristic (A*, Landmarks and Triangle inequality), which provides admissible
+ * and consistent heuristics for any {@link HipsterGraph} when no domain heuristic exists. A small set of vertices
+ * (landmarks) is selected, and the shortest path distances between each landmark and every vertex are computed
+ * and stored in primitive arrays. The distance between two vertices v and t is then bounded with the triangle
+ * inequality: {@code d(v,t) >= d(L,t) - d(L,v)} and {@code d(v,t) >= d(v,L) - d(t,L)} for each landmark L.
+ * </p>
+ *
+ * <pre class="prettyprint">
+ * {@code
+ *  Landmarks<String> landmarks = Landmarks.compute(graph, 8, Landmarks.Selection.AVOID);
+ *  SearchProblem p = GraphSearchProblem.startingFrom("A").in(graph).takeCostsFromEdges()
+ *                       .useHeuristicFunction(landmarks.heuristicTo("B")).build();
+ * }
+ * </pre>
+ *
+ * <p>
+ * The landmarks are selected with one of the strategies of {@link Selection}. The distances of the landmarks are
+ * computed with Dijkstra searches which run in parallel (the farthest and avoid selections need the distances of
+ * the previous landmarks to select the next one, so only the backward searches of directed graphs run in parallel
+ * in these cases). The landmarks can be saved to a binary file with {@link #save(File, StateCodec)} and loaded
+ * with {@link #load(File, StateCodec)}. Edge costs must be non-negative.
+ * </p>
+ *
+ * <a href="http://dl.acm.org/citation.cfm?id=1070455">Original paper</a>:
+ * Andrew V. Goldberg and Chris Harrelson. <b>"Computing the shortest path: A* search meets graph theory"</b>.
+ * <i>SODA 2005: 156-165</i>.
+ *
+ * @param <V> type of the vertices
+ */
+public final class Landmarks<V> {
+    private static final int MAGIC = 0x484c4d4b;
+    // Fixed seed, so the selection of the landmarks is reproducible
+    private static final long SEED = 0x5eed;
+
+    /**
+     * Strategies to select the landmarks.
+     */
+    public enum Selection {
+        /**
+         * Random vertices.
+         */
+        RANDOM,
+        /**
+         * Each landmark is the vertex farthest from the landmarks already selected (the first one
+         * is the vertex farthest from a random vertex).
+         */
+        FARTHEST,
+        /**
+         * Each landmark is selected in the region of the graph whose distances from a random root
+         * are worst estimated by the landmarks already selected, following the subtree of the shortest
+         * path tree of the root with the largest estimation error and without landmarks.
+         */
+        AVOID
+    }
+
+    private final List<V> vertices;
+    private final Map<V, Integer> index;
+    private final int[] landmarks;
+    // Distances from each landmark to each vertex, and from each vertex to each landmark (directed graphs)
+    private final double[][] from;
+    private final double[][] to;
+
+    private Landmarks(List<V> vertices, Map<V, Integer> index, int[] landmarks, double[][] from, double[][] to) {
+        this.vertices = vertices;
+        this.index = index;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Selects and computes the landmarks of a graph whose edge values are numbers, which are used as costs.
+     *
+     * @param graph graph with numeric edges
+     * @param count number of landmarks
+     * @param selection strategy to select the landmarks
+     * @return landmarks of the graph
+     */
+    public static <V, E extends Number> Landmarks<V> compute(HipsterGraph<V, E> graph, int count, Selection selection) {
+        return compute(graph, new Function<E, Double>() {
+            @Override
+            public Double apply(E edge) {
+                return edge.doubleValue();
+            }
+        }, count, selection, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Selects and computes the landmarks of a graph.
+     *
+     * @param graph graph to preprocess
+     * @param costFunction function to obtain the cost of the value of each edge
+     * @param count number of landmarks
+     * @param selection strategy to select the landmarks
+     * @param threads number of threads used to run the Dijkstra searches
+     * @return landmarks of the graph
+     */
+    public static <V, E> Landmarks<V> compute(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction,
+                                              int count, Selection selection, int threads) {
+        return new Preprocessor<V, E>(graph, costFunction, threads).run(count, selection, null);
+    }
+
+    /**
+     * Computes the distances of a given set of landmarks.
+     *
+     * @param graph graph to preprocess
+     * @param costFunction function to obtain the cost of the value of each edge
+     * @param landmarks vertices used as landmarks
+     * @param threads number of threads used to run the Dijkstra searches
+     * @return landmarks of the graph
+     */
+    public static <V, E> Landmarks<V> compute(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction,
+                                              List<V> landmarks, int threads) {
+        return new Preprocessor<V, E>(graph, costFunction, threads).run(landmarks.size(), null, landmarks);
+    }
+
+    /**
+     * Creates the ALT heuristic which estimates the distance from each vertex to the goal. Vertices not
+     * present in the graph when the landmarks were computed are estimated with 0.
+     *
+     * @param goal goal vertex
+     * @return admissible and consistent heuristic function
+     */
+    public HeuristicFunction<V, Double> heuristicTo(V goal) {
+        Integer g = index.get(goal);
+        final int n = landmarks.length;
+        final double[] fromGoal = new double[n];
+        final double[] toGoal = new double[n];
+        for (int l = 0; l < n; l++) {
+            fromGoal[l] = g == null ? Double.POSITIVE_INFINITY : from[l][g];
+            toGoal[l] = g == null ? Double.POSITIVE_INFINITY : to[l][g];
+        }
+        return new HeuristicFunction<V, Double>() {
+            @Override
+            public Double estimate(V state) {
+                return lowerBound(state, fromGoal, toGoal);
+            }
+        };
+    }
+
+    /**
+     * Lower bound of the distance between two vertices (0 if any of them is unknown).
+     *
+     * @param source source vertex
+     * @param target target vertex
+     * @return lower bound of the distance
+     */
+    public double lowerBound(V source, V target) {
+        Integer t = index.get(target);
+        if (t == null) return 0d;
+        double[] fromTarget = new double[landmarks.length];
+        double[] toTarget = new double[landmarks.length];
+        for (int l = 0; l < landmarks.length; l++) {
+            fromTarget[l] = from[l][t];
+            toTarget[l] = to[l][t];
+        }
+        return lowerBound(source, fromTarget, toTarget);
+    }
+
+    private double lowerBound(V state, double[] fromTarget, double[] toTarget) {
+        Integer v = index.get(state);
+        if (v == null) return 0d;
+        double bound = 0d;
+        for (int l = 0; l < landmarks.length; l++) {
+            // d(v,t) >= d(L,t) - d(L,v)
+            double a = fromTarget[l] - from[l][v];
+            // d(v,t) >= d(v,L) - d(t,L)
+            double b = to[l][v] - toTarget[l];
+            // Terms with unreachable vertices (infinite or NaN) give no information
+            if (a > bound && a != Double.POSITIVE_INFINITY) bound = a;
+            if (b > bound && b != Double.POSITIVE_INFINITY) bound = b;
+        }
+        return bound;
+    }
+
+    /**
+     * @return selected landmarks
+     */
+    public List<V> getLandmarks() {
+        List<V> list = new ArrayList<V>(landmarks.length);
+        for (int l : landmarks) {
+            list.add(vertices.get(l));
+        }
+        return list;
+    }
+
+    /**
+     * @param landmark position of the landmark in {@link #getLandmarks()}
+     * @param vertex vertex of the graph
+     * @return distance from the landmark to the vertex
+     */
+    public double distanceFrom(int landmark, V vertex) {
+        Integer v = index.get(vertex);
+        return v == null ? Double.POSITIVE_INFINITY : from[landmark][v];
+    }
+
+    /**
+     * @param landmark position of the landmark in {@link #getLandmarks()}
+     * @param vertex vertex of the graph
+     * @return distance from the vertex to the landmark
+     */
+    public double distanceTo(int landmark, V vertex) {
+        Integer v = index.get(vertex);
+        return v == null ? Double.POSITIVE_INFINITY : to[landmark][v];
+    }
+
+    /**
+     * Writes the vertices, the landmarks and their distances to a file.
+     *
+     * @param file destination file
+     * @param codec codec used to write the vertices
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file, StateCodec<V> codec) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            boolean directed = from != to;
+            out.writeInt(MAGIC);
+            out.writeBoolean(directed);
+            out.writeInt(vertices.size());
+            out.writeInt(landmarks.length);
+            for (V vertex : vertices) {
+                byte[] data = codec.encode(vertex);
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            for (int l : landmarks) {
+                out.writeInt(l);
+            }
+            for (double[] distances : from) {
+                for (double d : distances) out.writeDouble(d);
+            }
+            if (directed) {
+                for (double[] distances : to) {
+                    for (double d : distances) out.writeDouble(d);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads landmarks written with {@link #save(File, StateCodec)}.
+     *
+     * @param file file with the landmarks
+     * @param codec codec used to read the vertices
+     * @return landmarks stored in the file
+     * @throws IOException if the file cannot be read or does not contain landmarks
+     */
+    public static <V> Landmarks<V> load(File file, StateCodec<V> codec) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " does not contain landmarks");
+            }
+            boolean directed = in.readBoolean();
+            int n = in.readInt();
+            int count = in.readInt();
+            List<V> vertices = new ArrayList<V>(n);
+            Map<V, Integer> index = new HashMap<V, Integer>(2 * n);
+            for (int i = 0; i < n; i++) {
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                V vertex = codec.decode(data);
+                vertices.add(vertex);
+                index.put(vertex, i);
+            }
+            int[] landmarks = new int[count];
+            for (int l = 0; l < count; l++) {
+                landmarks[l] = in.readInt();
+            }
+            double[][] from = readDistances(in, count, n);
+            double[][] to = directed ? readDistances(in, count, n) : from;
+            return new Landmarks<V>(vertices, index, landmarks, from, to);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static double[][] readDistances(DataInputStream in, int count, int n) throws IOException {
+        double[][] distances = new double[count][n];
+        for (int l = 0; l < count; l++) {
+            for (int i = 0; i < n; i++) {
+                distances[l][i] = in.readDouble();
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Selects the landmarks and computes their distances with Dijkstra searches over the
+     * vertices of the graph, indexed with consecutive integers.
+     */
+    private static final class Preprocessor<V, E> {
+        private final HipsterGraph<V, E> graph;
+        private final Function<? super E, Double> costFunction;
+        private final int threads;
+        private final boolean directed;
+        private final List<V> vertices = new ArrayList<V>();
+        private final Map<V, Integer> index = new HashMap<V, Integer>();
+
+        private Preprocessor(HipsterGraph<V, E> graph, Function<? super E, Double> costFunction, int threads) {
+            this.graph = graph;
+            this.costFunction = costFunction;
+            this.threads = Math.max(1, threads);
+            this.directed = graph instanceof HipsterDirectedGraph;
+            for (V vertex : graph.vertices()) {
+                index.put(vertex, vertices.size());
+                vertices.add(vertex);
+            }
+        }
+
+        private Landmarks<V> run(int count, Selection selection, List<V> given) {
+            int n = vertices.size();
+            count = Math.min(count, n);
+            int[] selected = new int[count];
+            double[][] from = new double[count][];
+            Random random = new Random(SEED);
+            if (given != null || selection == Selection.RANDOM) {
+                if (given != null) {
+                    for (int l = 0; l < count; l++) {
+                        Integer v = index.get(given.get(l));
+                        if (v == null) throw new IllegalArgumentException(given.get(l) + " is not a vertex of the graph");
+                        selected[l] = v;
+                    }
+                } else {
+                    List<Integer> all = new ArrayList<Integer>(n);
+                    for (int i = 0; i < n; i++) all.add(i);
+                    Collections.shuffle(all, random);
+                    for (int l = 0; l < count; l++) selected[l] = all.get(l);
+                }
+                from = parallelSweeps(selected, false);
+            } else {
+                for (int l = 0; l < count; l++) {
+                    selected[l] = selection == Selection.FARTHEST
+                            ? farthest(selected, from, l, random.nextInt(n))
+                            : avoid(selected, from, l, random.nextInt(n));
+                    from[l] = sweep(selected[l], false, null, null);
+                }
+            }
+            double[][] to = directed ? parallelSweeps(selected, true) : from;
+            return new Landmarks<V>(vertices, index, selected, from, to);
+        }
+
+        /**
+         * @return vertex whose minimum distance to the selected landmarks (or to the root for the first
+         * landmark) is maximum, considering only reachable vertices
+         */
+        private int farthest(int[] selected, double[][] from, int count, int root) {
+            double[][] distances = count == 0 ? new double[][]{sweep(root, false, null, null)} : Arrays.copyOf(from, count);
+            int best = root;
+            double bestDistance = -1;
+            for (int v = 0; v < vertices.size(); v++) {
+                double min = Double.POSITIVE_INFINITY;
+                for (double[] d : distances) {
+                    min = Math.min(min, d[v]);
+                }
+                if (min != Double.POSITIVE_INFINITY && min > bestDistance) {
+                    bestDistance = min;
+                    best = v;
+                }
+            }
+            return best;
+        }
+
+        private int avoid(int[] selected, double[][] from, int count, int root) {
+            int n = vertices.size();
+            int[] parent = new int[n];
+            int[] order = new int[n + 1];
+            double[] distance = sweep(root, false, parent, order);
+            int settled = order[n];
+            // Weight: error of the lower bound of the distance from the root to each vertex
+            double[] size = new double[n];
+            boolean[] covered = new boolean[n];
+            for (int l = 0; l < count; l++) {
+                covered[selected[l]] = true;
+            }
+            for (int k = 0; k < settled; k++) {
+                int v = order[k];
+                double bound = 0d;
+                for (int l = 0; l < count; l++) {
+                    double a = from[l][v] - from[l][root];
+                    if (a > bound && a != Double.POSITIVE_INFINITY) bound = a;
+                }
+                size[v] = distance[v] - bound;
+            }
+            // Accumulate the weights of the subtrees, ignoring the ones which contain a landmark
+            for (int k = settled - 1; k > 0; k--) {
+                int v = order[k];
+                if (covered[v]) size[v] = 0d;
+                int p = parent[v];
+                if (covered[v]) covered[p] = true;
+                size[p] += size[v];
+            }
+            // Descend from the root following the heaviest subtree
+            List<List<Integer>> children = new ArrayList<List<Integer>>(n);
+            for (int i = 0; i < n; i++) children.add(null);
+            for (int k = 1; k < settled; k++) {
+                int v = order[k];
+                List<Integer> list = children.get(parent[v]);
+                if (list == null) {
+                    list = new ArrayList<Integer>(2);
+                    children.set(parent[v], list);
+                }
+                list.add(v);
+            }
+            int current = root;
+            while (children.get(current) != null) {
+                int next = -1;
+                for (int child : children.get(current)) {
+                    if (next < 0 || size[child] > size[next]) next = child;
+                }
+                if (size[next] <= 0d) break;
+                current = next;
+            }
+            for (int l = 0; l < count; l++) {
+                if (selected[l] == current) {
+                    // No uncovered region found from this root, fall back to the farthest vertex
+                    return farthest(selected, from, count, root);
+                }
+            }
+            return current;
+        }
+
+        private double[][] parallelSweeps(final int[] sources, final boolean backwards) {
+            double[][] result = new double[sources.length][];
+            if (threads == 1 || sources.length <= 1) {
+                for (int l = 0; l < sources.length; l++) {
+                    result[l] = sweep(sources[l], backwards, null, null);
+                }
+                return result;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sources.length));
+            try {
+                List<Future<double[]>> futures = new ArrayList<Future<double[]>>();
+                for (final int source : sources) {
+                    futures.add(executor.submit(new Callable<double[]>() {
+                        @Override
+                        public double[] call() {
+                            return sweep(source, backwards, null, null);
+                        }
+                    }));
+                }
+                for (int l = 0; l < sources.length; l++) {
+                    result[l] = futures.get(l).get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing the landmarks", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+            return result;
+        }
+
+        /**
+         * Dijkstra search from the source over all the graph.
+         *
+         * @param source index of the source vertex
+         * @param backwards true to follow the edges in reverse direction
+         * @param parent if not null, filled with the parent of each vertex in the shortest path tree
+         * @param order if not null, filled with the settled vertices in order; the last position contains
+         *              the number of settled vertices
+         * @return distances from the source (to the source if backwards) to each vertex
+         */
+        private double[] sweep(int source, boolean backwards, int[] parent, int[] order) {
+            int n = vertices.size();
+            double[] distance = new double[n];
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            boolean[] settled = new boolean[n];
+            PriorityQueue<Label> open = new PriorityQueue<Label>();
+            distance[source] = 0d;
+            if (parent != null) parent[source] = -1;
+            open.add(new Label(source, 0d));
+            int count = 0;
+            while (!open.isEmpty()) {
+                Label current = open.poll();
+                int v = current.vertex;
+                if (settled[v]) continue;
+                settled[v] = true;
+                if (order != null) order[count] = v;
+                count++;
+                V vertex = vertices.get(v);
+                for (GraphEdge<V, E> edge : edgesFrom(vertex, backwards)) {
+                    Integer u = index.get(opposite(edge, vertex, backwards));
+                    if (u == null || settled[u]) continue;
+                    double cost = costFunction.apply(edge.getEdgeValue());
+                    if (cost < 0) {
+                        throw new IllegalArgumentException("Negative cost " + cost + " in edge " + edge);
+                    }
+                    double d = current.distance + cost;
+                    if (d < distance[u]) {
+                        distance[u] = d;
+                        if (parent != null) parent[u] = v;
+                        open.add(new Label(u, d));
+                    }
+                }
+            }
+            if (order != null) order[n] = count;
+            return distance;
+        }
+
+        private Iterable<GraphEdge<V, E>> edgesFrom(V vertex, boolean backwards) {
+            if (directed) {
+                HipsterDirectedGraph<V, E> dg = (HipsterDirectedGraph<V, E>) graph;
+                return backwards ? dg.incomingEdgesOf(vertex) : dg.outgoingEdgesOf(vertex);
+            }
+            return graph.edgesOf(vertex);
+        }
+
+        private V opposite(GraphEdge<V, E> edge, V vertex, boolean backwards) {
+            if (directed) {
+                return backwards ? edge.getVertex1() : edge.getVertex2();
+            }
+            return edge.getVertex1().equals(vertex) ? edge.getVertex2() : edge.getVertex1();
+        }
+    }
+
+    /**
+     * Tentative distance of a vertex in the open queue of the Dijkstra searches.
+     */
+    private static final class Label implements Comparable<Label> {
+        private final int vertex;
+        private final double distance;
+
+        private Label(int vertex, double distance) {
+            this.vertex = vertex;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Label o) {
+            return Double.compare(distance, o.distance);
+        }
+    }
+}
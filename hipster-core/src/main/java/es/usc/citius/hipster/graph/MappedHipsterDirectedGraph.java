@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Iterators;
+import es.usc.citius.hipster.util.StateCodec;
+
+import java.util.Iterator;
+
+/**
+ * Read-only {@link HipsterDirectedGraph} backed by a memory mapped graph file. Besides the outgoing arcs of
+ * {@link MappedHipsterGraph}, the file contains a second CSR index with the incoming arcs of each vertex, which
+ * can be iterated with {@link #incomingCursor()}. Instances are created with
+ * {@link MappedHipsterGraph#open(java.io.File, StateCodec, StateCodec)}.
+ *
+ * @param <V> vertex type.
+ * @param <E> edge type.
+ */
+public class MappedHipsterDirectedGraph<V, E> extends MappedHipsterGraph<V, E> implements HipsterDirectedGraph<V, E> {
+    private final Adjacency incoming;
+
+    MappedHipsterDirectedGraph(Header header, StateCodec<V> vertexCodec, StateCodec<? extends E> edgeCodec) {
+        super(header, vertexCodec, edgeCodec);
+        this.incoming = Adjacency.incoming(header);
+    }
+
+    @Override
+    protected GraphEdge<V, E> buildEdge(V v1, V v2, E value) {
+        return new DirectedEdge<V, E>(v1, v2, value);
+    }
+
+    /**
+     * Creates a cursor over the incoming arcs of the vertices. The target of each arc is the source of the edge.
+     *
+     * @return new cursor, not positioned at any vertex
+     */
+    public Cursor incomingCursor() {
+        return new Cursor(incoming);
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return number of incoming arcs of the vertex
+     */
+    public int inDegree(int id) {
+        return incoming.degree(id);
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> outgoingEdgesOf(V vertex) {
+        return super.edgesOf(vertex);
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> incomingEdgesOf(V vertex) {
+        return edgesOf(incoming, idOf(vertex), false);
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> edgesOf(V vertex) {
+        int id = idOf(vertex);
+        final Iterable<GraphEdge<V, E>> out = edgesOf(outgoing(), id, false);
+        // Self loops are already returned as outgoing edges
+        final Iterable<GraphEdge<V, E>> in = edgesOf(incoming, id, true);
+        return new Iterable<GraphEdge<V, E>>() {
+            @Override
+            public Iterator<GraphEdge<V, E>> iterator() {
+                final Iterator<GraphEdge<V, E>> first = out.iterator();
+                final Iterator<GraphEdge<V, E>> second = in.iterator();
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        if (first.hasNext()) return first.next();
+                        return second.hasNext() ? second.next() : null;
+                    }
+                };
+            }
+        };
+    }
+}
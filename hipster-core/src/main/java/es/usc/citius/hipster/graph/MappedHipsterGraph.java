@@ -0,0 +1,660 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Iterators;
+import es.usc.citius.hipster.util.StateCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * <p>
+ * Read-only undirected {@link HipsterGraph} backed by a binary file which is memory mapped with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)}. The file is written once from a {@link CsrHipsterGraph}
+ * with {@link #write(CsrHipsterGraph, File, StateCodec, StateCodec)} and contains the same CSR arrays, so opening
+ * it only maps the sections of the file: nothing is loaded into the heap, the graph is available immediately and
+ * several processes which open the same file share the pages of the operating system cache.
+ * </p>
+ *
+ * <p>
+ * The file starts with a header (magic number, version, flags, sizes and the position and length of each section)
+ * followed by the sections, aligned to 8 bytes: the vertex dictionary (offsets and data of the encoded vertices
+ * and an open addressing hash table from encoded vertices to ids), the outgoing and incoming CSR arrays (offsets,
+ * targets, edge ids and weights), the endpoints and weights of the edges and, optionally, the encoded edge values.
+ * All the numbers are big-endian.
+ * </p>
+ *
+ * <pre class="prettyprint">
+ * {@code
+ *  MappedHipsterGraph.write(CsrHipsterGraph.copyOf(graph), file, vertexCodec, edgeCodec);
+ *  // In any other JVM
+ *  MappedHipsterGraph<String, Double> mapped = MappedHipsterGraph.open(file, vertexCodec, edgeCodec);
+ * }
+ * </pre>
+ *
+ * Each section must be smaller than 2GB. If the graph is directed, {@code open} returns a
+ * {@link MappedHipsterDirectedGraph}. The graph can be used from several threads; the {@link Cursor}s cannot.
+ *
+ * @param <V> vertex type.
+ * @param <E> edge type.
+ */
+public class MappedHipsterGraph<V, E> implements HipsterGraph<V, E> {
+    private static final int MAGIC = 0x48475246;
+    private static final int VERSION = 1;
+    private static final int DIRECTED = 1;
+    private static final int EDGE_VALUES = 2;
+
+    private static final int VERTEX_OFFSETS = 0;
+    private static final int VERTEX_DATA = 1;
+    private static final int VERTEX_TABLE = 2;
+    private static final int OUT_OFFSETS = 3;
+    private static final int OUT_TARGETS = 4;
+    private static final int OUT_EDGES = 5;
+    private static final int OUT_WEIGHTS = 6;
+    private static final int IN_OFFSETS = 7;
+    private static final int IN_TARGETS = 8;
+    private static final int IN_EDGES = 9;
+    private static final int IN_WEIGHTS = 10;
+    private static final int EDGE_SOURCE = 11;
+    private static final int EDGE_TARGET = 12;
+    private static final int EDGE_WEIGHTS = 13;
+    private static final int VALUE_OFFSETS = 14;
+    private static final int VALUE_DATA = 15;
+    private static final int SECTIONS = 16;
+    private static final int HEADER_SIZE = 8 * 4 + SECTIONS * 16;
+
+    private final StateCodec<V> vertexCodec;
+    private final StateCodec<? extends E> edgeCodec;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final IntBuffer vertexOffsets;
+    private final ByteBuffer vertexData;
+    private final IntBuffer vertexTable;
+    private final IntBuffer edgeSource;
+    private final IntBuffer edgeTarget;
+    private final DoubleBuffer edgeWeights;
+    private final IntBuffer valueOffsets;
+    private final ByteBuffer valueData;
+    private final Adjacency outgoing;
+
+    MappedHipsterGraph(Header header, StateCodec<V> vertexCodec, StateCodec<? extends E> edgeCodec) {
+        this.vertexCodec = vertexCodec;
+        this.edgeCodec = edgeCodec;
+        this.vertexCount = header.vertexCount;
+        this.edgeCount = header.edgeCount;
+        this.vertexOffsets = header.sections[VERTEX_OFFSETS].asIntBuffer();
+        this.vertexData = header.sections[VERTEX_DATA];
+        this.vertexTable = header.sections[VERTEX_TABLE].asIntBuffer();
+        this.edgeSource = header.sections[EDGE_SOURCE].asIntBuffer();
+        this.edgeTarget = header.sections[EDGE_TARGET].asIntBuffer();
+        this.edgeWeights = header.sections[EDGE_WEIGHTS].asDoubleBuffer();
+        this.valueOffsets = header.sections[VALUE_OFFSETS].asIntBuffer();
+        this.valueData = header.sections[VALUE_DATA];
+        this.outgoing = new Adjacency(header.sections, OUT_OFFSETS);
+    }
+
+    /**
+     * Writes a graph to a file. The file is written to a temporary file which is renamed when complete.
+     *
+     * @param graph graph to write
+     * @param file destination file
+     * @param vertexCodec codec to encode the vertices
+     * @param edgeCodec codec to encode the values of the edges, or null to store only the weights
+     * @throws IOException if the file cannot be written
+     */
+    public static <V, E> void write(CsrHipsterGraph<V, E> graph, File file, StateCodec<V> vertexCodec,
+                                    StateCodec<? super E> edgeCodec) throws IOException {
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        boolean directed = graph instanceof CsrHipsterDirectedGraph;
+        byte[][] vertices = new byte[n][];
+        long vertexBytes = 0;
+        for (int v = 0; v < n; v++) {
+            vertices[v] = vertexCodec.encode(graph.vertexOf(v));
+            vertexBytes += vertices[v].length;
+        }
+        int tableSize = tableSize(n);
+        int[] table = new int[tableSize];
+        for (int v = 0; v < n; v++) {
+            int slot = hash(vertices[v]) & (tableSize - 1);
+            while (table[slot] != 0) slot = (slot + 1) & (tableSize - 1);
+            table[slot] = v + 1;
+        }
+        byte[][] values = null;
+        long valueBytes = 0;
+        if (edgeCodec != null) {
+            values = new byte[m][];
+            for (int e = 0; e < m; e++) {
+                values[e] = edgeCodec.encode(graph.edgeValue(e));
+                valueBytes += values[e].length;
+            }
+        }
+        int arcs = 0;
+        for (int v = 0; v < n; v++) arcs += graph.degree(v);
+        int inArcs = directed ? m : 0;
+        long[] lengths = new long[SECTIONS];
+        lengths[VERTEX_OFFSETS] = 4L * (n + 1);
+        lengths[VERTEX_DATA] = vertexBytes;
+        lengths[VERTEX_TABLE] = 4L * tableSize;
+        lengths[OUT_OFFSETS] = 4L * (n + 1);
+        lengths[OUT_TARGETS] = 4L * arcs;
+        lengths[OUT_EDGES] = 4L * arcs;
+        lengths[OUT_WEIGHTS] = 8L * arcs;
+        lengths[IN_OFFSETS] = directed ? 4L * (n + 1) : 0;
+        lengths[IN_TARGETS] = 4L * inArcs;
+        lengths[IN_EDGES] = 4L * inArcs;
+        lengths[IN_WEIGHTS] = 8L * inArcs;
+        lengths[EDGE_SOURCE] = 4L * m;
+        lengths[EDGE_TARGET] = 4L * m;
+        lengths[EDGE_WEIGHTS] = 8L * m;
+        lengths[VALUE_OFFSETS] = values != null ? 4L * (m + 1) : 0;
+        lengths[VALUE_DATA] = valueBytes;
+        long[] positions = new long[SECTIONS];
+        long position = HEADER_SIZE;
+        for (int s = 0; s < SECTIONS; s++) {
+            if (lengths[s] > Integer.MAX_VALUE) {
+                throw new IOException("The graph is too large: section " + s + " exceeds 2GB");
+            }
+            positions[s] = position;
+            position = align(position + lengths[s]);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16));
+        DataOutputStream out = new DataOutputStream(counter);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt((directed ? DIRECTED : 0) | (values != null ? EDGE_VALUES : 0));
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeInt(arcs);
+            out.writeInt(tableSize);
+            out.writeInt(0);
+            for (int s = 0; s < SECTIONS; s++) {
+                out.writeLong(positions[s]);
+                out.writeLong(lengths[s]);
+            }
+            // Vertex dictionary
+            pad(out, counter, positions[VERTEX_OFFSETS]);
+            writeOffsets(out, vertices);
+            pad(out, counter, positions[VERTEX_DATA]);
+            for (byte[] vertex : vertices) out.write(vertex);
+            pad(out, counter, positions[VERTEX_TABLE]);
+            for (int slot : table) out.writeInt(slot);
+            // Adjacency
+            pad(out, counter, positions[OUT_OFFSETS]);
+            writeAdjacency(out, counter, positions, OUT_OFFSETS, graph, graph.cursor());
+            if (directed) {
+                writeAdjacency(out, counter, positions, IN_OFFSETS, graph,
+                        ((CsrHipsterDirectedGraph<V, E>) graph).incomingCursor());
+            }
+            // Edges
+            pad(out, counter, positions[EDGE_SOURCE]);
+            for (int e = 0; e < m; e++) out.writeInt(graph.edgeSource(e));
+            pad(out, counter, positions[EDGE_TARGET]);
+            for (int e = 0; e < m; e++) out.writeInt(graph.edgeTarget(e));
+            pad(out, counter, positions[EDGE_WEIGHTS]);
+            CsrHipsterGraph.Cursor cursor = graph.cursor();
+            double[] weights = new double[m];
+            for (int v = 0; v < n; v++) {
+                for (cursor.moveTo(v); cursor.next(); ) weights[cursor.edge()] = cursor.weight();
+            }
+            for (double weight : weights) out.writeDouble(weight);
+            if (values != null) {
+                pad(out, counter, positions[VALUE_OFFSETS]);
+                writeOffsets(out, values);
+                pad(out, counter, positions[VALUE_DATA]);
+                for (byte[] value : values) out.write(value);
+            }
+            pad(out, counter, position);
+        } finally {
+            out.close();
+        }
+        if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+    }
+
+    private static <V, E> void writeAdjacency(DataOutputStream out, CountingOutputStream counter, long[] positions,
+                                              int first, CsrHipsterGraph<V, E> graph, CsrHipsterGraph.Cursor cursor)
+            throws IOException {
+        int n = graph.vertexCount();
+        pad(out, counter, positions[first]);
+        int offset = 0;
+        out.writeInt(0);
+        for (int v = 0; v < n; v++) {
+            for (cursor.moveTo(v); cursor.next(); ) offset++;
+            out.writeInt(offset);
+        }
+        pad(out, counter, positions[first + 1]);
+        for (int v = 0; v < n; v++) {
+            for (cursor.moveTo(v); cursor.next(); ) out.writeInt(cursor.target());
+        }
+        pad(out, counter, positions[first + 2]);
+        for (int v = 0; v < n; v++) {
+            for (cursor.moveTo(v); cursor.next(); ) out.writeInt(cursor.edge());
+        }
+        pad(out, counter, positions[first + 3]);
+        for (int v = 0; v < n; v++) {
+            for (cursor.moveTo(v); cursor.next(); ) out.writeDouble(cursor.weight());
+        }
+    }
+
+    private static void writeOffsets(DataOutputStream out, byte[][] data) throws IOException {
+        int offset = 0;
+        out.writeInt(0);
+        for (byte[] bytes : data) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+    }
+
+    private static void pad(DataOutputStream out, CountingOutputStream counter, long position) throws IOException {
+        while (counter.count < position) out.writeByte(0);
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static int tableSize(int n) {
+        int size = 2;
+        while (size < 2L * n) size <<= 1;
+        return size;
+    }
+
+    /**
+     * FNV-1a hash of the encoded vertex, which does not depend on the hash code of the vertices.
+     */
+    private static int hash(byte[] data) {
+        int hash = 0x811c9dc5;
+        for (byte b : data) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Opens a graph file written with edge values.
+     *
+     * @param file graph file
+     * @param vertexCodec codec to decode the vertices, the same used to write the file
+     * @param edgeCodec codec to decode the values of the edges
+     * @return graph view over the file ({@link MappedHipsterDirectedGraph} if the graph is directed)
+     * @throws IOException if the file cannot be read, is not a graph file or does not contain edge values
+     */
+    public static <V, E> MappedHipsterGraph<V, E> open(File file, StateCodec<V> vertexCodec,
+                                                       StateCodec<? extends E> edgeCodec) throws IOException {
+        Header header = Header.read(file);
+        if ((header.flags & EDGE_VALUES) == 0) {
+            throw new IOException(file + " does not contain edge values");
+        }
+        return header.create(vertexCodec, edgeCodec);
+    }
+
+    /**
+     * Opens a graph file, using the weights as the values of the edges.
+     *
+     * @param file graph file
+     * @param vertexCodec codec to decode the vertices, the same used to write the file
+     * @return graph view over the file ({@link MappedHipsterDirectedGraph} if the graph is directed)
+     * @throws IOException if the file cannot be read or is not a graph file
+     */
+    public static <V> MappedHipsterGraph<V, Double> open(File file, StateCodec<V> vertexCodec) throws IOException {
+        return Header.read(file).create(vertexCodec, null);
+    }
+
+    /**
+     * @return number of vertices of the graph
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return number of edges of the graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Looks up a vertex in the hash table of the file.
+     *
+     * @param vertex vertex of the graph
+     * @return id of the vertex, or -1 if it is not a vertex of the graph
+     */
+    public int idOf(V vertex) {
+        byte[] data = vertexCodec.encode(vertex);
+        int mask = vertexTable.capacity() - 1;
+        for (int slot = hash(data) & mask; ; slot = (slot + 1) & mask) {
+            int id = vertexTable.get(slot) - 1;
+            if (id < 0) return -1;
+            if (Arrays.equals(data, bytes(vertexData, vertexOffsets, id))) return id;
+        }
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return vertex with the id
+     */
+    public V vertexOf(int id) {
+        return vertexCodec.decode(bytes(vertexData, vertexOffsets, id));
+    }
+
+    private static byte[] bytes(ByteBuffer data, IntBuffer offsets, int index) {
+        int start = offsets.get(index);
+        byte[] bytes = new byte[offsets.get(index + 1) - start];
+        ByteBuffer view = data.duplicate();
+        view.position(start);
+        view.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param id id of a vertex
+     * @return number of arcs iterated by {@link #cursor()} for the vertex
+     */
+    public int degree(int id) {
+        return outgoing.degree(id);
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return id of the first vertex of the edge
+     */
+    public int edgeSource(int edge) {
+        return edgeSource.get(edge);
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return id of the second vertex of the edge
+     */
+    public int edgeTarget(int edge) {
+        return edgeTarget.get(edge);
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return weight of the edge
+     */
+    public double edgeWeight(int edge) {
+        return edgeWeights.get(edge);
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return value of the edge (its weight if the graph was opened without an edge codec)
+     */
+    @SuppressWarnings("unchecked")
+    public E edgeValue(int edge) {
+        if (edgeCodec == null) return (E) Double.valueOf(edgeWeights.get(edge));
+        return edgeCodec.decode(bytes(valueData, valueOffsets, edge));
+    }
+
+    /**
+     * @param edge id of an edge, as returned by {@link Cursor#edge()}
+     * @return edge of the graph
+     */
+    public GraphEdge<V, E> edge(int edge) {
+        return buildEdge(vertexOf(edgeSource(edge)), vertexOf(edgeTarget(edge)), edgeValue(edge));
+    }
+
+    protected GraphEdge<V, E> buildEdge(V v1, V v2, E value) {
+        return new UndirectedEdge<V, E>(v1, v2, value);
+    }
+
+    /**
+     * Creates a cursor over the adjacency of the vertices. In undirected graphs, the cursor iterates over
+     * all the edges of a vertex (self loops are returned once); in directed graphs, over the outgoing edges.
+     *
+     * @return new cursor, not positioned at any vertex
+     */
+    public Cursor cursor() {
+        return new Cursor(outgoing);
+    }
+
+    Adjacency outgoing() {
+        return outgoing;
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> edges() {
+        return new Iterable<GraphEdge<V, E>>() {
+            @Override
+            public Iterator<GraphEdge<V, E>> iterator() {
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    private int next = 0;
+
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        return next < edgeCount ? edge(next++) : null;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<V> vertices() {
+        return new Iterable<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterators.AbstractIterator<V>() {
+                    private int next = 0;
+
+                    @Override
+                    protected V computeNext() {
+                        return next < vertexCount ? vertexOf(next++) : null;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<GraphEdge<V, E>> edgesOf(V vertex) {
+        return edgesOf(outgoing, idOf(vertex), false);
+    }
+
+    Iterable<GraphEdge<V, E>> edgesOf(final Adjacency adjacency, final int id, final boolean skipLoops) {
+        return new Iterable<GraphEdge<V, E>>() {
+            @Override
+            public Iterator<GraphEdge<V, E>> iterator() {
+                if (id < 0) return Iterators.empty();
+                return new Iterators.AbstractIterator<GraphEdge<V, E>>() {
+                    private final Cursor cursor = new Cursor(adjacency).moveTo(id);
+
+                    @Override
+                    protected GraphEdge<V, E> computeNext() {
+                        while (cursor.next()) {
+                            if (!skipLoops || cursor.target() != id) {
+                                return edge(cursor.edge());
+                            }
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Header of a graph file, with the mapped sections.
+     */
+    static final class Header {
+        private int flags;
+        private int vertexCount;
+        private int edgeCount;
+        private ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+
+        static Header read(File file) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException(file + " is not a graph file");
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException(file + " is not a graph file");
+                }
+                int version = buffer.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported version " + version + " of the graph file " + file);
+                }
+                Header header = new Header();
+                header.flags = buffer.getInt();
+                header.vertexCount = buffer.getInt();
+                header.edgeCount = buffer.getInt();
+                buffer.getInt();
+                buffer.getInt();
+                buffer.getInt();
+                for (int s = 0; s < SECTIONS; s++) {
+                    long position = buffer.getLong();
+                    long length = buffer.getLong();
+                    if (position + length > channel.size()) {
+                        throw new IOException("Truncated graph file " + file);
+                    }
+                    // The mapping remains valid after the channel is closed
+                    header.sections[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                }
+                return header;
+            } finally {
+                raf.close();
+            }
+        }
+
+        <V, E> MappedHipsterGraph<V, E> create(StateCodec<V> vertexCodec, StateCodec<? extends E> edgeCodec) {
+            if ((flags & DIRECTED) != 0) {
+                return new MappedHipsterDirectedGraph<V, E>(this, vertexCodec, edgeCodec);
+            }
+            return new MappedHipsterGraph<V, E>(this, vertexCodec, edgeCodec);
+        }
+    }
+
+    /**
+     * Mapped CSR arrays of the outgoing or incoming arcs.
+     */
+    static final class Adjacency {
+        private final IntBuffer offsets;
+        private final IntBuffer targets;
+        private final IntBuffer edges;
+        private final DoubleBuffer weights;
+
+        Adjacency(ByteBuffer[] sections, int first) {
+            this.offsets = sections[first].asIntBuffer();
+            this.targets = sections[first + 1].asIntBuffer();
+            this.edges = sections[first + 2].asIntBuffer();
+            this.weights = sections[first + 3].asDoubleBuffer();
+        }
+
+        static Adjacency incoming(Header header) {
+            return new Adjacency(header.sections, IN_OFFSETS);
+        }
+
+        int degree(int id) {
+            return offsets.get(id + 1) - offsets.get(id);
+        }
+    }
+
+    /**
+     * Reusable cursor over the arcs of a vertex, which reads the ids and weights directly from the
+     * mapped file. A cursor is not thread-safe.
+     */
+    public static final class Cursor {
+        private final Adjacency adjacency;
+        private int position;
+        private int end;
+
+        Cursor(Adjacency adjacency) {
+            this.adjacency = adjacency;
+        }
+
+        /**
+         * Positions the cursor before the first arc of a vertex.
+         *
+         * @param id id of the vertex
+         * @return this cursor
+         */
+        public Cursor moveTo(int id) {
+            position = adjacency.offsets.get(id) - 1;
+            end = adjacency.offsets.get(id + 1);
+            return this;
+        }
+
+        /**
+         * Advances to the next arc.
+         *
+         * @return false if there are no more arcs
+         */
+        public boolean next() {
+            return ++position < end;
+        }
+
+        /**
+         * @return id of the vertex at the other end of the current arc
+         */
+        public int target() {
+            return adjacency.targets.get(position);
+        }
+
+        /**
+         * @return weight of the current arc
+         */
+        public double weight() {
+            return adjacency.weights.get(position);
+        }
+
+        /**
+         * @return id of the edge of the current arc
+         */
+        public int edge() {
+            return adjacency.edges.get(position);
+        }
+    }
+
+    /**
+     * Output stream which counts the written bytes, used to align the sections.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
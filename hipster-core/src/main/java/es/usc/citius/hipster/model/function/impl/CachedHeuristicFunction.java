@@ -0,0 +1,332 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.function.impl;
+
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Decorator of a {@link HeuristicFunction} which memoizes the estimations of the most recent states, for
+ * expensive heuristics (geodesic distances, learned models...) that are evaluated again each time a state is
+ * regenerated by the node factory. The cache holds at most {@code capacity} states and evicts the entries
+ * with the selected {@link Eviction} policy. The number of hits, misses and evictions is recorded.
+ * </p>
+ *
+ * <p>
+ * The cache is thread-safe and can be shared by concurrent searches: the entries are split in segments
+ * by the hash of the states, and each segment is locked independently. The estimations are computed outside
+ * the locks, so the decorated heuristic may be invoked more than once for the same state by different threads,
+ * and it must be thread-safe too. Null estimations are not cached.
+ * </p>
+ *
+ * <pre class="prettyprint">
+ * {@code
+ *   ProblemBuilder.create()
+ *      ...
+ *      .useHeuristicFunction(hf, 100000, CachedHeuristicFunction.Eviction.CLOCK)
+ *      .build();
+ * }
+ * </pre>
+ *
+ * @param <S> type of the states
+ * @param <C> type of the estimations
+ */
+public class CachedHeuristicFunction<S, C> implements HeuristicFunction<S, C> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * Policy used to select the entries evicted when the cache is full.
+     */
+    public enum Eviction {
+        /**
+         * Evicts the least recently used state.
+         */
+        LRU,
+        /**
+         * Approximation of LRU (second chance): the entries are evicted in circular order, skipping (once)
+         * the ones accessed since the last pass. Cheaper than LRU since the hits do not reorder the entries.
+         */
+        CLOCK
+    }
+
+    private final HeuristicFunction<S, C> heuristic;
+    private final Eviction eviction;
+    private final int capacity;
+    private final Segment<S, C>[] segments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache for a heuristic function.
+     *
+     * @param heuristic heuristic function to decorate
+     * @param capacity maximum number of cached estimations
+     * @param eviction policy used to evict the estimations when the cache is full
+     */
+    public CachedHeuristicFunction(HeuristicFunction<S, C> heuristic, int capacity, Eviction eviction) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the cache must be positive");
+        }
+        this.heuristic = heuristic;
+        this.eviction = eviction;
+        this.capacity = capacity;
+        int n = Math.min(MAX_SEGMENTS, Integer.highestOneBit(capacity));
+        @SuppressWarnings("unchecked")
+        Segment<S, C>[] segments = (Segment<S, C>[]) new Segment<?, ?>[n];
+        this.segments = segments;
+        for (int i = 0; i < n; i++) {
+            // Distribute the capacity between the segments
+            int segmentCapacity = capacity / n + (i < capacity % n ? 1 : 0);
+            segments[i] = eviction == Eviction.LRU ? new LruSegment<S, C>(segmentCapacity) : new ClockSegment<S, C>(segmentCapacity);
+        }
+    }
+
+    /**
+     * Creates a LRU cache for a heuristic function.
+     *
+     * @param heuristic heuristic function to decorate
+     * @param capacity maximum number of cached estimations
+     */
+    public CachedHeuristicFunction(HeuristicFunction<S, C> heuristic, int capacity) {
+        this(heuristic, capacity, Eviction.LRU);
+    }
+
+    @Override
+    public C estimate(S state) {
+        Segment<S, C> segment = segmentFor(state);
+        C estimation;
+        synchronized (segment) {
+            estimation = segment.get(state);
+        }
+        if (estimation != null) {
+            hits.incrementAndGet();
+            return estimation;
+        }
+        misses.incrementAndGet();
+        estimation = heuristic.estimate(state);
+        if (estimation != null) {
+            boolean evicted;
+            synchronized (segment) {
+                evicted = segment.put(state, estimation);
+            }
+            if (evicted) {
+                evictions.incrementAndGet();
+            }
+        }
+        return estimation;
+    }
+
+    private Segment<S, C> segmentFor(S state) {
+        int h = state.hashCode();
+        // Spread the bits of the hash, as HashMap does
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Removes all the cached estimations (the counters are not reset).
+     */
+    public void clear() {
+        for (Segment<S, C> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return number of cached estimations
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<S, C> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return ratio of estimations returned from the cache, or 0 if the heuristic was never invoked
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0d : (double) h / total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Eviction getEviction() {
+        return eviction;
+    }
+
+    public HeuristicFunction<S, C> getHeuristicFunction() {
+        return heuristic;
+    }
+
+    /**
+     * Part of the cache guarded by its own lock.
+     */
+    private static abstract class Segment<S, C> {
+        protected final int capacity;
+
+        protected Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        abstract C get(S state);
+
+        /**
+         * @return true if an entry was evicted to store the new one
+         */
+        abstract boolean put(S state, C estimation);
+
+        abstract void clear();
+
+        abstract int size();
+    }
+
+    private static final class LruSegment<S, C> extends Segment<S, C> {
+        private final LinkedHashMap<S, C> entries;
+
+        private LruSegment(int capacity) {
+            super(capacity);
+            this.entries = new LinkedHashMap<S, C>(16, 0.75f, true);
+        }
+
+        @Override
+        C get(S state) {
+            return entries.get(state);
+        }
+
+        @Override
+        boolean put(S state, C estimation) {
+            boolean evict = !entries.containsKey(state) && entries.size() >= capacity;
+            if (evict) {
+                Iterator<S> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            entries.put(state, estimation);
+            return evict;
+        }
+
+        @Override
+        void clear() {
+            entries.clear();
+        }
+
+        @Override
+        int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class ClockSegment<S, C> extends Segment<S, C> {
+        private final Map<S, Integer> slots = new HashMap<S, Integer>();
+        private final Object[] states;
+        private final Object[] estimations;
+        private final boolean[] referenced;
+        private int size = 0;
+        private int hand = 0;
+
+        private ClockSegment(int capacity) {
+            super(capacity);
+            this.states = new Object[capacity];
+            this.estimations = new Object[capacity];
+            this.referenced = new boolean[capacity];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        C get(S state) {
+            Integer slot = slots.get(state);
+            if (slot == null) {
+                return null;
+            }
+            referenced[slot] = true;
+            return (C) estimations[slot];
+        }
+
+        @Override
+        boolean put(S state, C estimation) {
+            Integer existing = slots.get(state);
+            if (existing != null) {
+                estimations[existing] = estimation;
+                return false;
+            }
+            int slot;
+            boolean evict = size == capacity;
+            if (evict) {
+                // Give a second chance to the referenced entries
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = (hand + 1) % capacity;
+                }
+                slot = hand;
+                hand = (hand + 1) % capacity;
+                slots.remove(states[slot]);
+            } else {
+                slot = size++;
+            }
+            states[slot] = state;
+            estimations[slot] = estimation;
+            referenced[slot] = false;
+            slots.put(state, slot);
+            return evict;
+        }
+
+        @Override
+        void clear() {
+            slots.clear();
+            Arrays.fill(states, null);
+            Arrays.fill(estimations, null);
+            Arrays.fill(referenced, false);
+            size = 0;
+            hand = 0;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+    }
+}
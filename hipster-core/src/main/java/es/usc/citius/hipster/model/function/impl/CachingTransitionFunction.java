@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.function.impl;
+
+import es.usc.citius.hipster.graph.GraphChangeListener;
+import es.usc.citius.hipster.graph.GraphEdge;
+import es.usc.citius.hipster.graph.HashBasedHipsterGraph;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.TransitionFunction;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Decorator of a {@link TransitionFunction} which caches the transitions of the most recently expanded states,
+ * so repeated queries over the same problem do not evaluate the (possibly expensive) transition function again.
+ * The transitions of each state are stored in an array. The cache is bounded both by the number of states and
+ * by the total number of stored transitions (which bounds the memory used), evicting the least recently used
+ * states when any of the limits is exceeded. The number of hits, misses and evictions is recorded.
+ * </p>
+ *
+ * <p>
+ * The cached transitions are not updated when the underlying problem changes: use {@link #invalidate(Object)}
+ * or {@link #invalidateAll()}, or {@link #invalidateOnChanges(HashBasedHipsterGraph)} to invalidate automatically
+ * the vertices affected by the changes of a mutable graph. The cache is thread-safe: the transitions are computed
+ * outside the lock, and they are not cached if any state was invalidated during the computation.
+ * </p>
+ *
+ * @param <A> type of the actions
+ * @param <S> type of the states
+ */
+public class CachingTransitionFunction<A, S> implements TransitionFunction<A, S> {
+    private final TransitionFunction<A, S> transitionFunction;
+    private final int maxStates;
+    private final long maxTransitions;
+    private final LinkedHashMap<S, Transition<A, S>[]> cache = new LinkedHashMap<S, Transition<A, S>[]>(16, 0.75f, true);
+    private long cachedTransitions = 0;
+    // Number of invalidations, used to discard the transitions computed while an invalidation happened
+    private long generation = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param transitionFunction transition function to decorate
+     * @param maxStates maximum number of states whose transitions are cached
+     * @param maxTransitions maximum number of transitions stored in the cache
+     */
+    public CachingTransitionFunction(TransitionFunction<A, S> transitionFunction, int maxStates, long maxTransitions) {
+        if (maxStates <= 0 || maxTransitions <= 0) {
+            throw new IllegalArgumentException("The limits of the cache must be positive");
+        }
+        this.transitionFunction = transitionFunction;
+        this.maxStates = maxStates;
+        this.maxTransitions = maxTransitions;
+    }
+
+    /**
+     * @param transitionFunction transition function to decorate
+     * @param maxStates maximum number of states whose transitions are cached
+     */
+    public CachingTransitionFunction(TransitionFunction<A, S> transitionFunction, int maxStates) {
+        this(transitionFunction, maxStates, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Iterable<Transition<A, S>> transitionsFrom(S state) {
+        Transition<A, S>[] transitions;
+        long computedGeneration;
+        synchronized (this) {
+            transitions = cache.get(state);
+            computedGeneration = generation;
+        }
+        if (transitions != null) {
+            hits.incrementAndGet();
+            return Collections.unmodifiableList(Arrays.asList(transitions));
+        }
+        misses.incrementAndGet();
+        List<Transition<A, S>> list = new ArrayList<Transition<A, S>>();
+        for (Transition<A, S> transition : transitionFunction.transitionsFrom(state)) {
+            list.add(transition);
+        }
+        @SuppressWarnings("unchecked")
+        Transition<A, S>[] computed = (Transition<A, S>[]) list.toArray(new Transition<?, ?>[list.size()]);
+        transitions = computed;
+        if (transitions.length <= maxTransitions) {
+            synchronized (this) {
+                // The transitions may be stale if the state was invalidated while they were computed
+                if (generation != computedGeneration) {
+                    return Collections.unmodifiableList(Arrays.asList(transitions));
+                }
+                Transition<A, S>[] previous = cache.put(state, transitions);
+                if (previous != null) {
+                    cachedTransitions -= previous.length;
+                }
+                cachedTransitions += transitions.length;
+                evict();
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(transitions));
+    }
+
+    /**
+     * Removes the least recently used states until the cache is within its limits.
+     */
+    private void evict() {
+        Iterator<Map.Entry<S, Transition<A, S>[]>> it = cache.entrySet().iterator();
+        while ((cache.size() > maxStates || cachedTransitions > maxTransitions) && it.hasNext()) {
+            cachedTransitions -= it.next().getValue().length;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes the cached transitions of a state.
+     *
+     * @param state state whose transitions changed
+     */
+    public synchronized void invalidate(S state) {
+        generation++;
+        Transition<A, S>[] transitions = cache.remove(state);
+        if (transitions != null) {
+            cachedTransitions -= transitions.length;
+        }
+    }
+
+    /**
+     * Removes all the cached transitions (the counters are not reset).
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.clear();
+        cachedTransitions = 0;
+    }
+
+    /**
+     * Registers a listener in the graph which invalidates the transitions of the vertices of the
+     * edges added or removed. The states of the problem must be the vertices of the graph.
+     *
+     * @param graph graph used by the decorated transition function
+     * @param <E> type of the edges
+     * @return listener registered in the graph, which can be removed with
+     * {@link HashBasedHipsterGraph#removeListener(GraphChangeListener)}
+     */
+    public <E> GraphChangeListener<S, E> invalidateOnChanges(HashBasedHipsterGraph<S, E> graph) {
+        GraphChangeListener<S, E> listener = new GraphChangeListener<S, E>() {
+            @Override
+            public void vertexAdded(S vertex) {
+                invalidate(vertex);
+            }
+
+            @Override
+            public void vertexRemoved(S vertex) {
+                invalidate(vertex);
+            }
+
+            @Override
+            public void edgeAdded(GraphEdge<S, E> edge) {
+                invalidate(edge.getVertex1());
+                invalidate(edge.getVertex2());
+            }
+
+            @Override
+            public void edgeRemoved(GraphEdge<S, E> edge) {
+                invalidate(edge.getVertex1());
+                invalidate(edge.getVertex2());
+            }
+        };
+        graph.addListener(listener);
+        return listener;
+    }
+
+    /**
+     * @return number of states whose transitions are cached
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return number of transitions stored in the cache
+     */
+    public synchronized long getCachedTransitions() {
+        return cachedTransitions;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return ratio of queries answered from the cache, or 0 if the function was never invoked
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0d : (double) h / total;
+    }
+
+    public TransitionFunction<A, S> getTransitionFunction() {
+        return transitionFunction;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.function.impl;
+
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+
+/**
+ * Implementation of a {@link es.usc.citius.hipster.model.function.CostFunction} for {@code Double}
+ * costs which computes the cost of the transitions as a primitive {@code double}. Node factories
+ * that operate with primitive costs, like {@link es.usc.citius.hipster.model.node.impl.DoubleWeightedNodeFactory},
+ * call {@link #evaluateAsDouble(es.usc.citius.hipster.model.Transition)} directly to avoid boxing
+ * the cost of each transition.
+ *
+ * @param <A> type of the actions
+ * @param <S> type of the states
+ */
+public abstract class DoubleCostFunction<A, S> implements CostFunction<A, S, Double> {
+
+    @Override
+    public Double evaluate(Transition<A, S> transition) {
+        return evaluateAsDouble(transition);
+    }
+
+    /**
+     * Evaluates the cost of a transition.
+     *
+     * @param transition transition to evaluate
+     * @return cost of the transition
+     */
+    public abstract double evaluateAsDouble(Transition<A, S> transition);
+
+    /**
+     * Adapts a {@link CostFunction} with {@code Double} costs to a {@link DoubleCostFunction}.
+     * If the function is already a {@link DoubleCostFunction}, it is returned unchanged.
+     *
+     * @param cf cost function to adapt
+     * @param <A> type of the actions
+     * @param <S> type of the states
+     * @return {@link DoubleCostFunction} that evaluates the transitions with {@literal cf}
+     */
+    public static <A, S> DoubleCostFunction<A, S> of(final CostFunction<A, S, Double> cf) {
+        if (cf instanceof DoubleCostFunction) {
+            return (DoubleCostFunction<A, S>) cf;
+        }
+        return new DoubleCostFunction<A, S>() {
+            @Override
+            public double evaluateAsDouble(Transition<A, S> transition) {
+                return cf.evaluate(transition);
+            }
+        };
+    }
+}
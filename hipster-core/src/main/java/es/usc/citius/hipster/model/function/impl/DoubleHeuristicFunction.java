@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.function.impl;
+
+
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+
+/**
+ * Implementation of a {@link es.usc.citius.hipster.model.function.HeuristicFunction} for {@code Double}
+ * costs which computes the estimation as a primitive {@code double}. Node factories
+ * that operate with primitive costs, like {@link es.usc.citius.hipster.model.node.impl.DoubleWeightedNodeFactory},
+ * call {@link #estimateAsDouble(Object)} directly to avoid boxing the estimation of each state.
+ *
+ * @param <S> type of the states
+ */
+public abstract class DoubleHeuristicFunction<S> implements HeuristicFunction<S, Double> {
+
+    @Override
+    public Double estimate(S state) {
+        return estimateAsDouble(state);
+    }
+
+    /**
+     * Estimates the distance to the goal from a state.
+     *
+     * @param state current state
+     * @return estimated cost to the goal
+     */
+    public abstract double estimateAsDouble(S state);
+
+    /**
+     * Adapts a {@link HeuristicFunction} with {@code Double} costs to a {@link DoubleHeuristicFunction}.
+     * If the function is already a {@link DoubleHeuristicFunction}, it is returned unchanged.
+     *
+     * @param hf heuristic function to adapt
+     * @param <S> type of the states
+     * @return {@link DoubleHeuristicFunction} that estimates the cost with {@literal hf}
+     */
+    public static <S> DoubleHeuristicFunction<S> of(final HeuristicFunction<S, Double> hf) {
+        if (hf instanceof DoubleHeuristicFunction) {
+            return (DoubleHeuristicFunction<S>) hf;
+        }
+        return new DoubleHeuristicFunction<S>() {
+            @Override
+            public double estimateAsDouble(S state) {
+                return hf.estimate(state);
+            }
+        };
+    }
+}
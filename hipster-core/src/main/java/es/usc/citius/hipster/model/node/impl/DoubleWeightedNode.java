@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.node.impl;
+
+
+/**
+ * Specialization of {@link WeightedNode} for {@code Double} costs which stores the cost (g),
+ * the estimation (h) and the score (f) as primitive {@code double} values. Nodes are compared
+ * using the primitive score, and the boxed values are only created when they are requested
+ * through {@link #getCost()}, {@link #getEstimation()} or {@link #getScore()}.
+ *
+ * @param <A> type of the actions
+ * @param <S> type of the states
+ *
+ * @see DoubleWeightedNodeFactory
+ */
+public class DoubleWeightedNode<A,S> extends WeightedNode<A,S,Double> {
+
+    protected double g;
+    protected double h;
+    protected double f;
+
+    /**
+     * Basic constructor for instantiating a new weighted node with primitive costs.
+     *
+     * @param previousNode parent node
+     * @param state state of the node to be created
+     * @param action action connecting the parent node and the current one
+     * @param g cost of the new node
+     * @param h estimated cost between the current node and the goal
+     * @param f score of the new node
+     */
+    public DoubleWeightedNode(WeightedNode<A, S, Double> previousNode, S state, A action, double g, double h, double f) {
+        super(previousNode, state, action, null, null, null);
+        this.g = g;
+        this.h = h;
+        this.f = f;
+    }
+
+    @Override
+    public Double getScore() {
+        return f;
+    }
+
+    @Override
+    public Double getEstimation() {
+        return h;
+    }
+
+    @Override
+    public Double getCost() {
+        return g;
+    }
+
+    /**
+     * @return cost (g) of the node, without boxing
+     */
+    public double getCostAsDouble() {
+        return g;
+    }
+
+    /**
+     * @return estimation (h) of the node, without boxing
+     */
+    public double getEstimationAsDouble() {
+        return h;
+    }
+
+    /**
+     * @return score (f) of the node, without boxing
+     */
+    public double getScoreAsDouble() {
+        return f;
+    }
+
+    @Override
+    public int compareTo(WeightedNode<A, S, Double> o) {
+        if (o instanceof DoubleWeightedNode) {
+            return Double.compare(f, ((DoubleWeightedNode<A, S>) o).f);
+        }
+        return Double.compare(f, o.getScore());
+    }
+
+    @Override
+    public String toString() {
+        return "WeightedNode{" +
+                "state=" + this.state() +
+                ", cost=" + g +
+                ", estimation=" + h +
+                ", score=" + f +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.node.impl;
+
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.DoubleCostFunction;
+import es.usc.citius.hipster.model.function.impl.DoubleHeuristicFunction;
+import es.usc.citius.hipster.model.node.factory.NodeFactory;
+
+/**
+ * Implementation of {@link NodeFactory} for problems with {@code Double} costs, which
+ * generates nodes of type {@link DoubleWeightedNode}. The cost, estimation and score of the
+ * new nodes are computed with primitive {@code double} arithmetic (g = g(parent) + cost(transition),
+ * f = g + h), so that no boxed values are allocated when the cost and heuristic functions
+ * are {@link DoubleCostFunction} and {@link DoubleHeuristicFunction} instances.
+ *
+ * @param <A> type of the actions
+ * @param <S> type of the states
+ */
+public class DoubleWeightedNodeFactory<A,S> implements NodeFactory<A,S, WeightedNode<A,S,Double>> {
+
+    protected DoubleCostFunction<A,S> costFunction;
+    protected DoubleHeuristicFunction<S> heuristicFunction;
+
+    /**
+     * Instantiates a node factory using a cost function and a heuristic function.
+     *
+     * @param costFunction cost function
+     * @param heuristicFunction heuristic function
+     */
+    public DoubleWeightedNodeFactory(CostFunction<A, S, Double> costFunction, HeuristicFunction<S, Double> heuristicFunction) {
+        this.costFunction = DoubleCostFunction.of(costFunction);
+        this.heuristicFunction = (heuristicFunction == null) ? null : DoubleHeuristicFunction.of(heuristicFunction);
+    }
+
+    /**
+     * Instantiates a node factory using a cost function. The estimation of
+     * the nodes is always 0.
+     *
+     * @param costFunction cost function
+     */
+    public DoubleWeightedNodeFactory(CostFunction<A, S, Double> costFunction) {
+        this(costFunction, null);
+    }
+
+    @Override
+    public WeightedNode<A, S, Double> makeNode(WeightedNode<A, S, Double> fromNode, Transition<A, S> transition) {
+        double g, h;
+
+        if (fromNode == null){
+            g = 0d;
+        } else {
+            double parentCost = (fromNode instanceof DoubleWeightedNode)
+                    ? ((DoubleWeightedNode<A, S>) fromNode).g
+                    : fromNode.getCost();
+            g = parentCost + costFunction.evaluateAsDouble(transition);
+        }
+        h = (heuristicFunction == null) ? 0d : heuristicFunction.estimateAsDouble(transition.getState());
+
+        return new DoubleWeightedNode<A,S>(fromNode, transition.getState(), transition.getAction(), g, h, g + h);
+    }
+
+    public DoubleCostFunction<A, S> getCostFunction() {
+        return costFunction;
+    }
+
+    public DoubleHeuristicFunction<S> getHeuristicFunction() {
+        return heuristicFunction;
+    }
+}
@@ -71,9 +71,13 @@ public class WeightedNode<A,S,C extends Comparable<C>>
         return cost;
     }
 
+    /**
+     * Compares the nodes by score. The score of the other node is obtained with {@link #getScore()},
+     * so nodes which do not keep the boxed score (like {@link DoubleWeightedNode}) can be compared too.
+     */
     @Override
     public int compareTo(WeightedNode<A, S, C> o) {
-        return score.compareTo(o.score);
+        return getScore().compareTo(o.getScore());
     }
 
     @Override
@@ -193,13 +193,17 @@ public final class ProblemBuilder {
                 }
 
                 /**
-                 * Define a cost function. This immediately defines an InformedSearchProblem
+                 * Define a cost function. This immediately defines an InformedSearchProblem.
+                 * The nodes of the problem are instances of {@link DoubleWeightedNode}, which
+                 * accumulate the costs with primitive doubles.
                  * @param cf
                  *
                  */
                 public Informed<Double> useCostFunction(CostFunction<A, S, Double> cf){
                     // Create default components
-                    return new Informed<Double>(cf, BinaryOperation.doubleAdditionOp());
+                    Informed<Double> informed = new Informed<Double>(cf, BinaryOperation.doubleAdditionOp());
+                    informed.primitiveDoubles = true;
+                    return informed;
                 }
 
                 public <C extends Comparable<C>> Informed<C> useGenericCostFunction(CostFunction<A,S,C> cf, BinaryOperation<C> costAlgebra){
@@ -212,21 +216,41 @@ public final class ProblemBuilder {
                 public final class Informed<C extends Comparable<C>> {
                     protected CostFunction<A,S,C> cf;
                     protected BinaryOperation<C> costAlgebra;
+                    // Double costs defined with useCostFunction are accumulated as primitive doubles
+                    private boolean primitiveDoubles = false;
 
                     public Informed(CostFunction<A, S, C> cf, BinaryOperation<C> costAlgebra) {
                         this.cf = cf;
                         this.costAlgebra = costAlgebra;
                     }
 
+                    /**
+                     * Creates the node factory of the problem: a {@link DoubleWeightedNodeFactory} for
+                     * problems defined with {@link Uninformed#useCostFunction(CostFunction)} or a
+                     * {@link WeightedNodeFactory} for generic costs.
+                     *
+                     * @param hf heuristic function, or null if the problem does not use heuristics
+                     */
+                    @SuppressWarnings("unchecked")
+                    private NodeFactory<A, S, WeightedNode<A, S, C>> createNodeFactory(HeuristicFunction<S, C> hf){
+                        if (primitiveDoubles) {
+                            NodeFactory<A, S, ?> factory = new DoubleWeightedNodeFactory<A, S>(
+                                    (CostFunction<A, S, Double>) cf, (HeuristicFunction<S, Double>) hf);
+                            return (NodeFactory<A, S, WeightedNode<A, S, C>>) factory;
+                        }
+                        if (hf == null) {
+                            hf = new HeuristicFunction<S, C>() {
+                                @Override
+                                public C estimate(S state) {
+                                    return costAlgebra.getIdentityElem();
+                                }
+                            };
+                        }
+                        return new WeightedNodeFactory<A,S,C>(cf, hf, costAlgebra);
+                    }
+
                     public SearchProblem<A, S, WeightedNode<A, S, C>> build(){
-                        WeightedNodeFactory<A,S,C> factory = new WeightedNodeFactory<A,S,C>(
-                                cf,
-                                new HeuristicFunction<S, C>() {
-                                    @Override
-                                    public C estimate(S state) {
-                                        return costAlgebra.getIdentityElem();
-                                    }
-                                }, costAlgebra);
+                        NodeFactory<A, S, WeightedNode<A, S, C>> factory = createNodeFactory(null);
                         // Create a Lazy Node Expander by default
                         NodeExpander<A,S, WeightedNode<A,S,C>> expander = new LazyNodeExpander<>(tf, factory);
                         WeightedNode<A,S,C> initialNode = factory.makeNode(null, Transition.<A,S>create(null, null, initialState));
@@ -244,6 +268,22 @@ public final class ProblemBuilder {
                         return new Heuristic(hf);
                     }
 
+                    /**
+                     * Uses a heuristic function whose estimations are memoized in a LRU
+                     * {@link CachedHeuristicFunction} with the given capacity.
+                     */
+                    public Heuristic useHeuristicFunction(HeuristicFunction<S, C> hf, int cacheSize){
+                        return useHeuristicFunction(hf, cacheSize, CachedHeuristicFunction.Eviction.LRU);
+                    }
+
+                    /**
+                     * Uses a heuristic function whose estimations are memoized in a
+                     * {@link CachedHeuristicFunction} with the given capacity and eviction policy.
+                     */
+                    public Heuristic useHeuristicFunction(HeuristicFunction<S, C> hf, int cacheSize, CachedHeuristicFunction.Eviction eviction){
+                        return new Heuristic(new CachedHeuristicFunction<S, C>(hf, cacheSize, eviction));
+                    }
+
                     /**
                      * Defines the heuristic function to be used.
                      */
@@ -255,8 +295,7 @@ public final class ProblemBuilder {
                         }
 
                         public SearchProblem<A, S, WeightedNode<A, S, C>> build(){
-                            WeightedNodeFactory<A, S, C> factory = new WeightedNodeFactory<A,S,C>(
-                                    cf, hf, costAlgebra);
+                            NodeFactory<A, S, WeightedNode<A, S, C>> factory = createNodeFactory(hf);
                             LazyNodeExpander<A, S, WeightedNode<A, S, C>> nodeExpander = new LazyNodeExpander<A, S, WeightedNode<A, S, C>>(tf, factory);
                             WeightedNode<A,S,C> initialNode = factory.makeNode(null, Transition.<A,S>create(null, null, initialState));
                             if(finalState != null) {
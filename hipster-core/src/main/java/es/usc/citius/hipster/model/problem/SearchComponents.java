@@ -22,8 +22,9 @@ import es.usc.citius.hipster.model.function.impl.BinaryOperation;
 import es.usc.citius.hipster.model.function.impl.ScalarOperation;
 
 /**
- * This class should be used to instantiate an ADStar algorithm through the {@code Hipster.createADStar} method.
- * This may change in future versions.
+ * This class should be used to instantiate algorithms that need the predecessors of the states, like
+ * AD* ({@code Hipster.createADStar}) or the bidirectional searches ({@code Hipster.createBidirectionalDijkstra}
+ * and {@code Hipster.createBidirectionalAStar}). This may change in future versions.
  *
  * @author Adrián González Sieira <adrian.gonzalez@usc.es>
  */
@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.util;
+
+/**
+ * Converts the states of a problem to a compact binary representation and back, so they can be
+ * written to disk (see {@link es.usc.citius.hipster.algorithm.ExternalBreadthFirstSearch}).
+ * Two states must be equal if and only if their encodings are equal.
+ *
+ * @param <S> type of the states
+ */
+public interface StateCodec<S> {
+
+    public byte[] encode(S state);
+
+    public S decode(byte[] data);
+
+}
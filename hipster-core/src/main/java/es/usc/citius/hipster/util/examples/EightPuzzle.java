@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.util.examples;
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.ActionFunction;
+import es.usc.citius.hipster.model.function.ActionStateTransitionFunction;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Definition of the actions, transitions, costs and heuristics of the 8-puzzle. The states
+ * are lists with the tiles of the board in row-major order, where 0 is the blank tile, and the
+ * actions are the offsets of the blank tile in that list (-3 up, 3 down, -1 left and 1 right).
+ * All the moves have unit cost.
+ * </p>
+ */
+public class EightPuzzle {
+
+    /**
+     * Goal state, with the blank tile in the top-left corner.
+     */
+    public static final List<Integer> GOAL = Collections.unmodifiableList(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8));
+
+    private static final int SIZE = 3;
+
+    private EightPuzzle() {
+    }
+
+    /**
+     * @return function with the moves of the blank tile which are valid in each state.
+     */
+    public static ActionFunction<Integer, List<Integer>> actionFunction() {
+        return new ActionFunction<Integer, List<Integer>>() {
+            @Override
+            public Iterable<Integer> actionsFor(List<Integer> state) {
+                return actions(state);
+            }
+        };
+    }
+
+    /**
+     * @return function which moves the blank tile of a state.
+     */
+    public static ActionStateTransitionFunction<Integer, List<Integer>> transitionFunction() {
+        return new ActionStateTransitionFunction<Integer, List<Integer>>() {
+            @Override
+            public List<Integer> apply(Integer action, List<Integer> state) {
+                return move(action, state);
+            }
+        };
+    }
+
+    /**
+     * @return function with the successors of each state, in the same order as the actions
+     * of {@link #actionFunction()}.
+     */
+    public static StateTransitionFunction<List<Integer>> successorFunction() {
+        return new StateTransitionFunction<List<Integer>>() {
+            @Override
+            public Iterable<List<Integer>> successorsOf(List<Integer> state) {
+                List<List<Integer>> successors = new ArrayList<List<Integer>>(4);
+                for (Integer action : actions(state)) {
+                    successors.add(move(action, state));
+                }
+                return successors;
+            }
+        };
+    }
+
+    /**
+     * @param <A> action type.
+     * @return cost function which assigns a cost of 1 to every move.
+     */
+    public static <A> CostFunction<A, List<Integer>, Double> unitCostFunction() {
+        return new CostFunction<A, List<Integer>, Double>() {
+            @Override
+            public Double evaluate(Transition<A, List<Integer>> transition) {
+                return 1d;
+            }
+        };
+    }
+
+    /**
+     * @return Manhattan distance of the tiles to their position in {@link #GOAL}.
+     */
+    public static HeuristicFunction<List<Integer>, Double> heuristicFunction() {
+        return new HeuristicFunction<List<Integer>, Double>() {
+            @Override
+            public Double estimate(List<Integer> state) {
+                int distance = 0;
+                for (int i = 0; i < state.size(); i++) {
+                    int tile = state.get(i);
+                    if (tile != 0) {
+                        distance += Math.abs(i / SIZE - tile / SIZE) + Math.abs(i % SIZE - tile % SIZE);
+                    }
+                }
+                return (double) distance;
+            }
+        };
+    }
+
+    /**
+     * Creates the search problem to reach {@link #GOAL} with explicit actions, unit costs
+     * and the Manhattan distance heuristic.
+     *
+     * @param initial initial board.
+     * @return 8-puzzle search problem.
+     */
+    public static SearchProblem<Integer, List<Integer>, WeightedNode<Integer, List<Integer>, Double>> problem(
+            List<Integer> initial) {
+        return problem(initial, transitionFunction());
+    }
+
+    /**
+     * Creates the search problem to reach {@link #GOAL} using a custom transition function.
+     *
+     * @param initial initial board.
+     * @param transitionFunction function which applies the moves to the boards.
+     * @return 8-puzzle search problem.
+     */
+    public static SearchProblem<Integer, List<Integer>, WeightedNode<Integer, List<Integer>, Double>> problem(
+            List<Integer> initial, ActionStateTransitionFunction<Integer, List<Integer>> transitionFunction) {
+        return ProblemBuilder.create()
+                .initialState(initial)
+                .defineProblemWithExplicitActions()
+                .useActionFunction(actionFunction())
+                .useTransitionFunction(transitionFunction)
+                .useCostFunction(EightPuzzle.<Integer>unitCostFunction())
+                .useHeuristicFunction(heuristicFunction())
+                .build();
+    }
+
+    private static List<Integer> actions(List<Integer> state) {
+        int blank = state.indexOf(0);
+        List<Integer> actions = new ArrayList<Integer>(4);
+        if (blank >= SIZE) actions.add(-SIZE);
+        if (blank < SIZE * (SIZE - 1)) actions.add(SIZE);
+        if (blank % SIZE > 0) actions.add(-1);
+        if (blank % SIZE < SIZE - 1) actions.add(1);
+        return actions;
+    }
+
+    private static List<Integer> move(int action, List<Integer> state) {
+        List<Integer> successor = new ArrayList<Integer>(state);
+        int blank = state.indexOf(0);
+        Collections.swap(successor, blank, blank + action);
+        return successor;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.util.examples;
+
+import es.usc.citius.hipster.graph.HashBasedHipsterDirectedGraph;
+import es.usc.citius.hipster.graph.HipsterMutableGraph;
+
+import java.util.Random;
+
+/**
+ * Random graphs with integer vertices and edges weighted with integer costs, used to
+ * validate the algorithms against each other.
+ */
+public class RandomGraphs {
+
+    private static final int MAX_COST = 30;
+
+    private RandomGraphs() {
+    }
+
+    /**
+     * Adds the vertices {@code 0..vertices-1} to a graph and connects random pairs of different
+     * vertices with costs in {@code [0, 30)}. Duplicated pairs are connected again, so the graph
+     * may contain parallel edges, and the vertices are not necessarily connected.
+     *
+     * @param graph graph to fill.
+     * @param random source of randomness.
+     * @param vertices number of vertices.
+     * @param edges number of random pairs to connect.
+     * @param <G> type of the graph.
+     * @return the same graph.
+     */
+    public static <G extends HipsterMutableGraph<Integer, Double>> G fill(G graph, Random random, int vertices, int edges) {
+        for (int i = 0; i < vertices; i++) {
+            graph.add(i);
+        }
+        for (int i = 0; i < edges; i++) {
+            int source = random.nextInt(vertices);
+            int target = random.nextInt(vertices);
+            if (source != target) {
+                graph.connect(source, target, (double) random.nextInt(MAX_COST));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Creates a random directed graph (see {@link #fill(HipsterMutableGraph, Random, int, int)}).
+     *
+     * @param random source of randomness.
+     * @param vertices number of vertices.
+     * @param edges number of random pairs to connect.
+     * @return new directed graph.
+     */
+    public static HashBasedHipsterDirectedGraph<Integer, Double> directed(Random random, int vertices, int edges) {
+        return fill(HashBasedHipsterDirectedGraph.<Integer, Double>create(), random, vertices, edges);
+    }
+}
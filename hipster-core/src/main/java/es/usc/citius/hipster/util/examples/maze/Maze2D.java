@@ -364,6 +364,16 @@ public class Maze2D {
         }
     }
 
+    /**
+     * Calculates whether a location is inside the maze and empty, without creating a {@link Point}.
+     * @param x column of the location.
+     * @param y row of the location.
+     * @return true if the location is in the maze and it is free. False otherwise.
+     */
+    public boolean validLocation(int x, int y) {
+        return y >= 0 && y < maze.length && x >= 0 && x < maze[y].length && FREE_TILES.contains(maze[y][x]);
+    }
+
     /**
      * Check if the provided point is in the maze bounds or outside.
      * @param loc point to be tested.
@@ -478,4 +488,26 @@ public class Maze2D {
         maze[size][size] = Symbol.GOAL.value();
         return new Maze2D(maze);
     }
+
+    /**
+     * Generate a random squared maze of the indicated size, with the start at the top-left
+     * corner and the goal at the bottom-right corner. The rest of the tiles are occupied
+     * with the given probability, so the goal is not necessarily reachable.
+     *
+     * @param random source of randomness.
+     * @param size maze size.
+     * @param density probability of each tile to be occupied, between 0 and 1.
+     * @return random maze.
+     */
+    public static Maze2D random(Random random, int size, double density) {
+        char[][] maze = new char[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                maze[row][column] = random.nextDouble() < density ? Symbol.OCCUPIED.value() : Symbol.EMPTY.value();
+            }
+        }
+        maze[0][0] = Symbol.START.value();
+        maze[size - 1][size - 1] = Symbol.GOAL.value();
+        return new Maze2D(maze);
+    }
 }
@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections;
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.lab.hipster.collections.adapter.LongPriorityEvaluator;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Implementation of an {@link IndexedQueue} backed by a monotone bucket queue (Dial's algorithm).
+ * The integer priority of each element, obtained with a {@link LongPriorityEvaluator}, is used as the index
+ * of the bucket where the element is stored, so insertions, updates and removals run in {@literal O(1)}
+ * and the extraction of the minimum only has to scan the empty buckets between the previous minimum
+ * and the next one. If the priorities are extracted in non-decreasing order (as happens with the scores of
+ * Dijkstra or A* with a consistent heuristic) and the difference between the lowest and highest priority in the
+ * queue is bounded by a small constant (for example, the maximum edge cost), all the operations run in
+ * {@literal O(1)} amortized time.
+ * </p>
+ *
+ * <p>
+ * The queue allocates one bucket per integer priority in the range of the elements it holds, so it is
+ * intended for problems with small integer costs. Elements with a priority lower than the last extracted
+ * one are supported, but the scan for the minimum starts again from their bucket. Elements with the same
+ * priority are extracted in LIFO order.
+ * </p>
+ *
+ * <a href="http://dl.acm.org/citation.cfm?id=363610">Original paper</a>:
+ * Dial, Robert B. <b>"Algorithm 360: Shortest-path forest with topological ordering."</b>. <i>Communications of the ACM 12.11 (1969): 632-633</i>.
+ *
+ * @param <K> type of the keys
+ * @param <E> type of the elements held in this collection
+ */
+public class BucketQueue<K, E> extends IndexedQueue<K, E> {
+    // Maximum number of buckets of the queue
+    private static final int MAX_BUCKETS = Integer.MAX_VALUE - 8;
+
+    private final LongPriorityEvaluator<? super E> evaluator;
+    private final Map<K, Handle<K, E>> handles;
+    private ArrayList<Handle<K, E>>[] buckets;
+    // Priority of the first bucket
+    private long base;
+    // All the buckets below the cursor are empty
+    private int cursor;
+    // All the buckets from the limit are empty
+    private int limit;
+
+    /**
+     * Handle associated to each key of the queue. It keeps the current element
+     * for the key, its priority and its position in the bucket.
+     */
+    private static final class Handle<K, E> {
+        private final K key;
+        private E element;
+        private long priority;
+        private int position;
+
+        private Handle(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Creates a new bucket queue.
+     *
+     * @param keyFunction function to obtain the key of each element
+     * @param evaluator evaluator to obtain the integer priority of each element
+     */
+    public BucketQueue(Function<? super E, ? extends K> keyFunction, LongPriorityEvaluator<? super E> evaluator) {
+        super(keyFunction);
+        this.evaluator = evaluator;
+        this.handles = new HashMap<K, Handle<K, E>>();
+        @SuppressWarnings("unchecked")
+        ArrayList<Handle<K, E>>[] buckets = (ArrayList<Handle<K, E>>[]) new ArrayList<?>[16];
+        this.buckets = buckets;
+    }
+
+    /**
+     * Returns a factory of bucket queues.
+     *
+     * @param evaluator evaluator to obtain the integer priority of each element
+     * @param <K> type of the keys
+     * @param <E> type of the elements
+     * @return factory of bucket queues
+     */
+    public static <K, E> IndexedQueueFactory<K, E> factory(final LongPriorityEvaluator<? super E> evaluator) {
+        return new IndexedQueueFactory<K, E>() {
+            @Override
+            public IndexedQueue<K, E> create(Function<? super E, ? extends K> keyFunction) {
+                return new BucketQueue<K, E>(keyFunction, evaluator);
+            }
+        };
+    }
+
+    /**
+     * Inserts the element in the queue. If there is already an element with the same key,
+     * it is replaced by the new one and moved to the bucket of its priority.
+     *
+     * @param e element to insert
+     * @return true
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        long priority = evaluator.getPriority(e);
+        K key = keyFunction.apply(e);
+        Handle<K, E> handle = handles.get(key);
+        if (handle == null) {
+            handle = new Handle<K, E>(key);
+            handles.put(key, handle);
+        } else {
+            removeFromBucket(handle);
+        }
+        handle.element = e;
+        handle.priority = priority;
+        addToBucket(handle);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (handles.isEmpty()) return null;
+        ArrayList<Handle<K, E>> bucket = firstBucket();
+        Handle<K, E> handle = bucket.remove(bucket.size() - 1);
+        handles.remove(handle.key);
+        return handle.element;
+    }
+
+    @Override
+    public E peek() {
+        if (handles.isEmpty()) return null;
+        ArrayList<Handle<K, E>> bucket = firstBucket();
+        return bucket.get(bucket.size() - 1).element;
+    }
+
+    @Override
+    public E get(Object key) {
+        Handle<K, E> handle = handles.get(key);
+        return (handle == null) ? null : handle.element;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return handles.containsKey(key);
+    }
+
+    @Override
+    public E removeKey(Object key) {
+        Handle<K, E> handle = handles.remove(key);
+        if (handle == null) return null;
+        removeFromBucket(handle);
+        return handle.element;
+    }
+
+    @Override
+    public int size() {
+        return handles.size();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = cursor; i < limit; i++) {
+            if (buckets[i] != null) buckets[i].clear();
+        }
+        handles.clear();
+        cursor = 0;
+        limit = 0;
+    }
+
+    /**
+     * Returns an iterator over the elements of the queue, in no particular order.
+     * Removal is not supported.
+     *
+     * @return iterator over the elements of the queue
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<Handle<K, E>> it = handles.values().iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return it.next().element;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Moves the cursor to the first non-empty bucket and returns it.
+     */
+    private ArrayList<Handle<K, E>> firstBucket() {
+        while (buckets[cursor] == null || buckets[cursor].isEmpty()) {
+            cursor++;
+        }
+        return buckets[cursor];
+    }
+
+    private void addToBucket(Handle<K, E> handle) {
+        if (handles.size() == 1) {
+            // All the buckets are empty, the range of priorities can start again
+            cursor = 0;
+            limit = 0;
+            base = handle.priority;
+        } else if (handle.priority < base) {
+            shiftUp(base - handle.priority);
+        }
+        long offset = handle.priority - base;
+        if (offset >= buckets.length) {
+            // Reclaim the empty buckets below the cursor before growing
+            shiftDown();
+            offset = handle.priority - base;
+            if (offset >= MAX_BUCKETS) {
+                throw new IllegalArgumentException("The range of priorities of the bucket queue is too large");
+            }
+            if (offset >= buckets.length) {
+                buckets = Arrays.copyOf(buckets, (int) Math.min(MAX_BUCKETS, Math.max(offset + 1, 2L * buckets.length)));
+            }
+        }
+        int index = (int) offset;
+        ArrayList<Handle<K, E>> bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new ArrayList<Handle<K, E>>(4);
+            buckets[index] = bucket;
+        }
+        handle.position = bucket.size();
+        bucket.add(handle);
+        if (index < cursor) cursor = index;
+        if (index >= limit) limit = index + 1;
+    }
+
+    private void removeFromBucket(Handle<K, E> handle) {
+        ArrayList<Handle<K, E>> bucket = buckets[(int) (handle.priority - base)];
+        Handle<K, E> last = bucket.remove(bucket.size() - 1);
+        if (last != handle) {
+            bucket.set(handle.position, last);
+            last.position = handle.position;
+        }
+    }
+
+    /**
+     * Moves the buckets to lower the priority of the first bucket.
+     */
+    private void shiftUp(long distance) {
+        if (limit + distance >= MAX_BUCKETS) {
+            throw new IllegalArgumentException("The range of priorities of the bucket queue is too large");
+        }
+        int shift = (int) distance;
+        if (limit + shift > buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(limit + shift, 2 * buckets.length));
+        }
+        System.arraycopy(buckets, 0, buckets, shift, limit);
+        Arrays.fill(buckets, 0, shift, null);
+        base -= shift;
+        cursor += shift;
+        limit += shift;
+    }
+
+    /**
+     * Moves the buckets from the cursor to the beginning of the array.
+     */
+    private void shiftDown() {
+        if (cursor == 0) return;
+        int length = limit - cursor;
+        // Keep the allocated buckets to reuse them
+        ArrayList<Handle<K, E>>[] reclaimed = Arrays.copyOf(buckets, cursor);
+        System.arraycopy(buckets, cursor, buckets, 0, length);
+        System.arraycopy(reclaimed, 0, buckets, length, Math.min(cursor, buckets.length - length));
+        base += cursor;
+        limit = length;
+        cursor = 0;
+    }
+}
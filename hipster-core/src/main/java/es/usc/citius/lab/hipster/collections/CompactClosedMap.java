@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections;
+
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.node.CostNode;
+import es.usc.citius.hipster.model.node.Node;
+import es.usc.citius.hipster.model.node.factory.NodeFactory;
+import es.usc.citius.hipster.model.node.impl.DoubleWeightedNode;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Compact {@link Map} from states to search nodes, intended to be used as the closed (or visited) set of the
+ * search algorithms. Instead of keeping the node objects, the map only stores for each state the best cost as
+ * a primitive double, the action which reached the state and a reference to the entry of the parent. This
+ * releases the boxed costs, estimations and scores of the settled nodes, which usually represent more than
+ * half of the retained memory in exhaustive searches.
+ * </p>
+ *
+ * <p>
+ * The nodes are rebuilt lazily with the {@link NodeFactory} of the problem when they are requested with
+ * {@link #get(Object)} or through the views of the map, applying the stored actions from the initial state. This
+ * requires walking the path to the state, so the algorithms should use {@link #getCost(Object)} to compare costs
+ * and only retrieve nodes to obtain the solutions. The costs of the nodes must be {@link java.lang.Number}s.
+ * Nodes without cost (for example, the ones used by uninformed algorithms like
+ * {@link es.usc.citius.hipster.algorithm.BreadthFirstSearch}) are also supported.
+ * </p>
+ *
+ * <p>
+ * {@link #put(Object, Node)} does not rebuild the previous node of the state, so it always returns null.
+ * </p>
+ *
+ * @param <A> type of the actions
+ * @param <S> type of the states
+ * @param <N> type of the nodes
+ */
+public class CompactClosedMap<A, S, N extends Node<A, S, N>> extends AbstractMap<S, N> {
+    private final NodeFactory<A, S, N> factory;
+    private final Map<S, Entry<A, S>> entries = new HashMap<S, Entry<A, S>>();
+    private Set<Map.Entry<S, N>> entrySet;
+
+    /**
+     * Information stored for each state: the best cost, the action and the entry of the parent.
+     */
+    private static final class Entry<A, S> {
+        private final S state;
+        private final A action;
+        private final Entry<A, S> parent;
+        private final double cost;
+
+        private Entry(S state, A action, Entry<A, S> parent, double cost) {
+            this.state = state;
+            this.action = action;
+            this.parent = parent;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * @param factory node factory used to rebuild the nodes from the initial state
+     */
+    public CompactClosedMap(NodeFactory<A, S, N> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Stores the cost, the action and the parent of the node. The node itself is not retained.
+     *
+     * @param state state of the node
+     * @param node node to store
+     * @return null
+     */
+    @Override
+    public N put(S state, N node) {
+        entries.put(state, entryOf(node));
+        return null;
+    }
+
+    /**
+     * Rebuilds the node stored for a state.
+     *
+     * @param state state of the node
+     * @return node, or null if the state is not in the map
+     */
+    @Override
+    public N get(Object state) {
+        Entry<A, S> entry = entries.get(state);
+        return (entry == null) ? null : rebuild(entry);
+    }
+
+    /**
+     * Retrieves the cost of the node stored for a state without rebuilding it.
+     *
+     * @param state state of the node
+     * @return cost of the node, {@link Double#POSITIVE_INFINITY} if the state is not in the map
+     * or {@link Double#NaN} if the nodes do not have costs
+     */
+    public double getCost(Object state) {
+        Entry<A, S> entry = entries.get(state);
+        return (entry == null) ? Double.POSITIVE_INFINITY : entry.cost;
+    }
+
+    /**
+     * Checks if the state of a node is stored with a cost lower or equal to the cost of the
+     * node, without rebuilding the stored node.
+     *
+     * @param node node to compare
+     * @return true if the stored node of the same state is not worse than the provided one
+     */
+    public boolean containsNoWorse(N node) {
+        return getCost(node.state()) <= costOf(node);
+    }
+
+    @Override
+    public boolean containsKey(Object state) {
+        return entries.containsKey(state);
+    }
+
+    @Override
+    public N remove(Object state) {
+        Entry<A, S> entry = entries.remove(state);
+        return (entry == null) ? null : rebuild(entry);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public Set<S> keySet() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Returns a read-only view of the entries of the map. The nodes are rebuilt when the
+     * values of the entries are requested.
+     *
+     * @return view of the entries of the map
+     */
+    @Override
+    public Set<Map.Entry<S, N>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<S, N>>() {
+                @Override
+                public java.util.Iterator<Map.Entry<S, N>> iterator() {
+                    final java.util.Iterator<Entry<A, S>> it = entries.values().iterator();
+                    return new java.util.Iterator<Map.Entry<S, N>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<S, N> next() {
+                            final Entry<A, S> entry = it.next();
+                            return new AbstractMap.SimpleImmutableEntry<S, N>(entry.state, rebuild(entry));
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Obtains the entry which represents a node. The entry stored for the state of the parent is
+     * reused if it represents the same path (same cost), otherwise a detached entry is created.
+     */
+    private Entry<A, S> entryOf(N node) {
+        double cost = costOf(node);
+        N previous = node.previousNode();
+        Entry<A, S> parent = null;
+        if (previous != null) {
+            parent = entries.get(previous.state());
+            if (parent == null || Double.compare(parent.cost, costOf(previous)) != 0) {
+                parent = entryOf(previous);
+            }
+        }
+        return new Entry<A, S>(node.state(), node.action(), parent, cost);
+    }
+
+    private double costOf(N node) {
+        if (node instanceof DoubleWeightedNode) {
+            return ((DoubleWeightedNode) node).getCostAsDouble();
+        }
+        if (node instanceof CostNode) {
+            Object cost = ((CostNode) node).getCost();
+            if (cost instanceof Number) {
+                return ((Number) cost).doubleValue();
+            }
+            throw new ClassCastException("The cost of the node is not a Number. CompactClosedMap can only store " +
+                    "nodes with numeric costs.");
+        }
+        return Double.NaN;
+    }
+
+    private N rebuild(Entry<A, S> entry) {
+        Deque<Entry<A, S>> path = new ArrayDeque<Entry<A, S>>();
+        for (Entry<A, S> current = entry; current != null; current = current.parent) {
+            path.push(current);
+        }
+        N node = null;
+        for (Entry<A, S> current : path) {
+            S from = (node == null) ? null : node.state();
+            node = factory.makeNode(node, Transition.create(from, current.action, current.state));
+        }
+        return node;
+    }
+}
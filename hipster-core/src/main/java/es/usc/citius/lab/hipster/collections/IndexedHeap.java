@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections;
+
+import es.usc.citius.hipster.util.Function;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Implementation of an {@link IndexedQueue} backed by an indexed d-ary heap. Each element is
+ * associated to a key (for example, the state of a search node) obtained with a key function, and
+ * the heap keeps at most one element per key. Every key has a handle which tracks the position of
+ * its element in the heap, so that the element associated to a key can be retrieved, replaced
+ * ({@link #decreaseKey(Object)}) or removed in {@literal O(log n)} time without leaving stale
+ * copies in the queue.
+ * </p>
+ *
+ * <p>
+ * {@link #offer(Object)} inserts the element if its key is not present, or replaces the
+ * element associated to the key otherwise, restoring the heap order in both cases. The
+ * queue therefore only holds live entries.
+ * </p>
+ *
+ * @param <K> type of the keys
+ * @param <E> type of the elements held in this collection
+ */
+public class IndexedHeap<K, E> extends IndexedQueue<K, E> {
+    /** Default arity of the heap. A 4-ary heap has a lower height and better locality than a binary one. */
+    public static final int DEFAULT_ARITY = 4;
+
+    private final Comparator<? super E> comparator;
+    private final int arity;
+    private final Map<K, Handle<K, E>> handles;
+    private Handle<K, E>[] heap;
+    private int size;
+
+    /**
+     * Handle associated to each key of the heap. It keeps the current element
+     * for the key and its position in the heap array.
+     */
+    private static final class Handle<K, E> {
+        private final K key;
+        private E element;
+        private int index;
+
+        private Handle(K key, E element, int index) {
+            this.key = key;
+            this.element = element;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Creates a new heap with the default arity that orders the elements
+     * using their natural ordering.
+     *
+     * @param keyFunction function to obtain the key of each element
+     */
+    public IndexedHeap(Function<? super E, ? extends K> keyFunction) {
+        this(keyFunction, null, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates a new heap with the default arity.
+     *
+     * @param keyFunction function to obtain the key of each element
+     * @param comparator comparator to sort the elements, or null to use their natural ordering
+     */
+    public IndexedHeap(Function<? super E, ? extends K> keyFunction, Comparator<? super E> comparator) {
+        this(keyFunction, comparator, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates a new heap.
+     *
+     * @param keyFunction function to obtain the key of each element
+     * @param comparator comparator to sort the elements, or null to use their natural ordering
+     * @param arity number of children of each node of the heap (2 for a binary heap)
+     */
+    public IndexedHeap(Function<? super E, ? extends K> keyFunction, Comparator<? super E> comparator, int arity) {
+        super(keyFunction);
+        if (arity < 2) throw new IllegalArgumentException("The arity of the heap must be at least 2");
+        this.comparator = comparator;
+        this.arity = arity;
+        this.handles = new HashMap<K, Handle<K, E>>();
+        @SuppressWarnings("unchecked")
+        Handle<K, E>[] heap = (Handle<K, E>[]) new Handle<?, ?>[16];
+        this.heap = heap;
+        this.size = 0;
+    }
+
+    /**
+     * Inserts the element in the heap. If there is already an element with the same key,
+     * it is replaced by the new one and its position in the heap is updated.
+     *
+     * @param e element to insert
+     * @return true
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        K key = keyFunction.apply(e);
+        Handle<K, E> handle = handles.get(key);
+        if (handle == null) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size << 1);
+            }
+            handle = new Handle<K, E>(key, e, size);
+            handles.put(key, handle);
+            heap[size++] = handle;
+            siftUp(handle.index);
+        } else {
+            E previous = handle.element;
+            handle.element = e;
+            if (compare(e, previous) < 0) {
+                siftUp(handle.index);
+            } else {
+                siftDown(handle.index);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the element associated to the key of {@literal e} with a new element
+     * with a lower (or equal) priority.
+     *
+     * @param e new element for the key
+     * @throws NoSuchElementException if the key of the element is not in the heap
+     * @throws IllegalArgumentException if the new element is greater than the current one
+     */
+    public void decreaseKey(E e) {
+        Handle<K, E> handle = handles.get(keyFunction.apply(e));
+        if (handle == null) {
+            throw new NoSuchElementException("There is no element in the heap with the key of " + e);
+        }
+        if (compare(e, handle.element) > 0) {
+            throw new IllegalArgumentException("The new element is greater than the current one");
+        }
+        handle.element = e;
+        siftUp(handle.index);
+    }
+
+    @Override
+    public E poll() {
+        if (size == 0) return null;
+        Handle<K, E> first = heap[0];
+        removeAt(0);
+        handles.remove(first.key);
+        return first.element;
+    }
+
+    @Override
+    public E peek() {
+        return (size == 0) ? null : heap[0].element;
+    }
+
+    @Override
+    public E get(Object key) {
+        Handle<K, E> handle = handles.get(key);
+        return (handle == null) ? null : handle.element;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return handles.containsKey(key);
+    }
+
+    @Override
+    public E removeKey(Object key) {
+        Handle<K, E> handle = handles.remove(key);
+        if (handle == null) return null;
+        removeAt(handle.index);
+        return handle.element;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        handles.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns an iterator over the elements of the heap, in no particular order.
+     * Removal is not supported.
+     *
+     * @return iterator over the elements of the heap
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int current = 0;
+
+            @Override
+            public boolean hasNext() {
+                return current < size;
+            }
+
+            @Override
+            public E next() {
+                if (current >= size) throw new NoSuchElementException();
+                return heap[current++].element;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns a factory of indexed heaps with the default arity which order the
+     * elements using their natural ordering.
+     *
+     * @param <K> type of the keys
+     * @param <E> type of the elements
+     * @return factory of indexed heaps
+     */
+    public static <K, E> IndexedQueueFactory<K, E> factory() {
+        return factory(DEFAULT_ARITY);
+    }
+
+    /**
+     * Returns a factory of indexed heaps which order the elements using their natural ordering.
+     *
+     * @param arity number of children of each node of the heaps
+     * @param <K> type of the keys
+     * @param <E> type of the elements
+     * @return factory of indexed heaps
+     */
+    public static <K, E> IndexedQueueFactory<K, E> factory(final int arity) {
+        return new IndexedQueueFactory<K, E>() {
+            @Override
+            public IndexedQueue<K, E> create(Function<? super E, ? extends K> keyFunction) {
+                return new IndexedHeap<K, E>(keyFunction, null, arity);
+            }
+        };
+    }
+
+    /**
+     * @return arity of the heap
+     */
+    public int getArity() {
+        return arity;
+    }
+
+    private void removeAt(int index) {
+        size--;
+        Handle<K, E> last = heap[size];
+        heap[size] = null;
+        if (index != size) {
+            E removed = heap[index].element;
+            heap[index] = last;
+            last.index = index;
+            if (compare(last.element, removed) < 0) {
+                siftUp(index);
+            } else {
+                siftDown(index);
+            }
+        }
+    }
+
+    private void siftUp(int index) {
+        Handle<K, E> handle = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            Handle<K, E> parentHandle = heap[parent];
+            if (compare(handle.element, parentHandle.element) >= 0) break;
+            heap[index] = parentHandle;
+            parentHandle.index = index;
+            index = parent;
+        }
+        heap[index] = handle;
+        handle.index = index;
+    }
+
+    private void siftDown(int index) {
+        Handle<K, E> handle = heap[index];
+        while (true) {
+            int firstChild = index * arity + 1;
+            if (firstChild >= size) break;
+            int lastChild = Math.min(firstChild + arity, size);
+            int minChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (compare(heap[child].element, heap[minChild].element) < 0) {
+                    minChild = child;
+                }
+            }
+            if (compare(heap[minChild].element, handle.element) >= 0) break;
+            heap[index] = heap[minChild];
+            heap[index].index = index;
+            index = minChild;
+        }
+        heap[index] = handle;
+        handle.index = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E e1, E e2) {
+        if (comparator != null) {
+            return comparator.compare(e1, e2);
+        }
+        return ((Comparable<? super E>) e1).compareTo(e2);
+    }
+}
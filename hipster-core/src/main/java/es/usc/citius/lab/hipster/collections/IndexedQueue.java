@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections;
+
+import es.usc.citius.hipster.util.Function;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Base class for the {@link java.util.Queue} implementations which keep at most one element per key.
+ * The key of each element (for example, the state of a search node) is obtained with a key function.
+ * {@link #offer(Object)} inserts the element if its key is not present, or replaces the element
+ * associated to the key otherwise, so the queue only holds live entries and the element of a key
+ * can be retrieved or removed without scanning the queue.
+ * </p>
+ *
+ * <p>
+ * The algorithms which keep their open nodes in an indexed queue (like {@link es.usc.citius.hipster.algorithm.AStar})
+ * obtain it through an {@link IndexedQueueFactory}, so the concrete implementation can be replaced by one
+ * better suited to the costs of the problem.
+ * </p>
+ *
+ * @see IndexedHeap
+ * @see BucketQueue
+ * @see RadixHeap
+ *
+ * @param <K> type of the keys
+ * @param <E> type of the elements held in this collection
+ */
+public abstract class IndexedQueue<K, E> extends AbstractQueue<E> {
+    protected final Function<? super E, ? extends K> keyFunction;
+    private Map<K, E> mapView;
+
+    /**
+     * @param keyFunction function to obtain the key of each element
+     */
+    protected IndexedQueue(Function<? super E, ? extends K> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Retrieves the element associated to a key.
+     *
+     * @param key key of the element
+     * @return element associated to the key, or null if the key is not in the queue
+     */
+    public abstract E get(Object key);
+
+    /**
+     * Removes the element associated to a key.
+     *
+     * @param key key of the element to remove
+     * @return removed element, or null if the key is not in the queue
+     */
+    public abstract E removeKey(Object key);
+
+    /**
+     * @param key key to check
+     * @return true if there is an element associated to the key
+     */
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) return false;
+        try {
+            @SuppressWarnings("unchecked")
+            E element = get(keyFunction.apply((E) o));
+            return element != null && element.equals(o);
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a read-only {@link Map} view of this queue, where the keys are the keys of
+     * the elements and the values are the elements currently associated to them.
+     *
+     * @return map view of the queue
+     */
+    public Map<K, E> asMap() {
+        if (mapView == null) {
+            mapView = new AbstractMap<K, E>() {
+                @Override
+                public E get(Object key) {
+                    return IndexedQueue.this.get(key);
+                }
+
+                @Override
+                public boolean containsKey(Object key) {
+                    return IndexedQueue.this.containsKey(key);
+                }
+
+                @Override
+                public int size() {
+                    return IndexedQueue.this.size();
+                }
+
+                @Override
+                public Set<Entry<K, E>> entrySet() {
+                    return new AbstractSet<Entry<K, E>>() {
+                        @Override
+                        public Iterator<Entry<K, E>> iterator() {
+                            final Iterator<E> it = IndexedQueue.this.iterator();
+                            return new Iterator<Entry<K, E>>() {
+                                @Override
+                                public boolean hasNext() {
+                                    return it.hasNext();
+                                }
+
+                                @Override
+                                public Entry<K, E> next() {
+                                    E element = it.next();
+                                    return new AbstractMap.SimpleImmutableEntry<K, E>(keyFunction.apply(element), element);
+                                }
+
+                                @Override
+                                public void remove() {
+                                    throw new UnsupportedOperationException();
+                                }
+                            };
+                        }
+
+                        @Override
+                        public int size() {
+                            return IndexedQueue.this.size();
+                        }
+                    };
+                }
+            };
+        }
+        return mapView;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections;
+
+import es.usc.citius.hipster.util.Function;
+
+/**
+ * Creates the {@link IndexedQueue} used by an algorithm to keep its open nodes. The
+ * implementations in this package provide static methods to obtain their factories,
+ * for example {@link IndexedHeap#factory()} or {@link BucketQueue#factory(es.usc.citius.lab.hipster.collections.adapter.LongPriorityEvaluator)}.
+ *
+ * @param <K> type of the keys
+ * @param <E> type of the elements
+ */
+public interface IndexedQueueFactory<K, E> {
+
+    /**
+     * Creates a new empty queue.
+     *
+     * @param keyFunction function to obtain the key of each element
+     * @return new indexed queue
+     */
+    IndexedQueue<K, E> create(Function<? super E, ? extends K> keyFunction);
+
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections;
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.lab.hipster.collections.adapter.LongPriorityEvaluator;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Implementation of an {@link IndexedQueue} backed by a radix heap. Radix heaps are monotone priority
+ * queues for integer priorities, obtained with a {@link LongPriorityEvaluator}: while the heap is not empty,
+ * the priority of the inserted elements can not be lower than the priority of the last extracted element. This is the
+ * case of Dijkstra or A* with a consistent heuristic when all the costs are non-negative.
+ * </p>
+ *
+ * <p>
+ * Each element is stored in the bucket given by the highest bit in which its priority differs from the
+ * last extracted priority, so there are only 65 buckets regardless of the range of the priorities. Insertions,
+ * updates and removals run in {@literal O(1)}. When the first bucket is empty, the extraction of the minimum
+ * redistributes the elements of the first non-empty bucket into lower buckets; since each element can only
+ * move down, the extraction runs in {@literal O(log C)} amortized time, where C is the difference
+ * between the lowest and highest priority in the queue. Unlike {@link BucketQueue}, the memory used
+ * does not depend on the range of the priorities.
+ * </p>
+ *
+ * <a href="http://dl.acm.org/citation.cfm?id=77615">Original paper</a>:
+ * Ahuja, Ravindra K., Kurt Mehlhorn, James Orlin, and Robert E. Tarjan. <b>"Faster algorithms for the shortest path problem."</b>. <i>Journal of the ACM 37.2 (1990): 213-223</i>.
+ *
+ * @param <K> type of the keys
+ * @param <E> type of the elements held in this collection
+ */
+public class RadixHeap<K, E> extends IndexedQueue<K, E> {
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final LongPriorityEvaluator<? super E> evaluator;
+    private final Map<K, Handle<K, E>> handles;
+    private final ArrayList<Handle<K, E>>[] buckets;
+    // Priority of the last extracted element (lower bound of the priorities in the heap)
+    private long last = Long.MIN_VALUE;
+
+    /**
+     * Handle associated to each key of the heap. It keeps the current element
+     * for the key, its priority and its position in the buckets.
+     */
+    private static final class Handle<K, E> {
+        private final K key;
+        private E element;
+        private long priority;
+        private int bucket;
+        private int position;
+
+        private Handle(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Creates a new radix heap.
+     *
+     * @param keyFunction function to obtain the key of each element
+     * @param evaluator evaluator to obtain the integer priority of each element
+     */
+    public RadixHeap(Function<? super E, ? extends K> keyFunction, LongPriorityEvaluator<? super E> evaluator) {
+        super(keyFunction);
+        this.evaluator = evaluator;
+        this.handles = new HashMap<K, Handle<K, E>>();
+        @SuppressWarnings("unchecked")
+        ArrayList<Handle<K, E>>[] buckets = (ArrayList<Handle<K, E>>[]) new ArrayList<?>[BUCKETS];
+        this.buckets = buckets;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new ArrayList<Handle<K, E>>();
+        }
+    }
+
+    /**
+     * Returns a factory of radix heaps.
+     *
+     * @param evaluator evaluator to obtain the integer priority of each element
+     * @param <K> type of the keys
+     * @param <E> type of the elements
+     * @return factory of radix heaps
+     */
+    public static <K, E> IndexedQueueFactory<K, E> factory(final LongPriorityEvaluator<? super E> evaluator) {
+        return new IndexedQueueFactory<K, E>() {
+            @Override
+            public IndexedQueue<K, E> create(Function<? super E, ? extends K> keyFunction) {
+                return new RadixHeap<K, E>(keyFunction, evaluator);
+            }
+        };
+    }
+
+    /**
+     * Inserts the element in the heap. If there is already an element with the same key,
+     * it is replaced by the new one and moved to the bucket of its priority.
+     *
+     * @param e element to insert
+     * @return true
+     * @throws IllegalArgumentException if the heap is not empty and the priority of the element
+     * is lower than the priority of the last extracted element
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        long priority = evaluator.getPriority(e);
+        K key = keyFunction.apply(e);
+        Handle<K, E> handle = handles.get(key);
+        if (handles.isEmpty() || (handles.size() == 1 && handle != null)) {
+            // Without elements in the heap, the monotonicity starts again
+            last = Long.MIN_VALUE;
+        } else if (priority < last) {
+            throw new IllegalArgumentException("The priority " + priority + " is lower than the last extracted priority "
+                    + last + ". Radix heaps can only be used with monotone priorities.");
+        }
+        if (handle == null) {
+            handle = new Handle<K, E>(key);
+            handles.put(key, handle);
+        } else {
+            removeFromBucket(handle);
+        }
+        handle.element = e;
+        handle.priority = priority;
+        addToBucket(handle);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (handles.isEmpty()) return null;
+        ArrayList<Handle<K, E>> bucket = firstBucket();
+        Handle<K, E> handle = bucket.remove(bucket.size() - 1);
+        handles.remove(handle.key);
+        return handle.element;
+    }
+
+    @Override
+    public E peek() {
+        if (handles.isEmpty()) return null;
+        ArrayList<Handle<K, E>> bucket = firstBucket();
+        return bucket.get(bucket.size() - 1).element;
+    }
+
+    @Override
+    public E get(Object key) {
+        Handle<K, E> handle = handles.get(key);
+        return (handle == null) ? null : handle.element;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return handles.containsKey(key);
+    }
+
+    @Override
+    public E removeKey(Object key) {
+        Handle<K, E> handle = handles.remove(key);
+        if (handle == null) return null;
+        removeFromBucket(handle);
+        return handle.element;
+    }
+
+    @Override
+    public int size() {
+        return handles.size();
+    }
+
+    @Override
+    public void clear() {
+        for (ArrayList<Handle<K, E>> bucket : buckets) {
+            bucket.clear();
+        }
+        handles.clear();
+    }
+
+    /**
+     * Returns an iterator over the elements of the heap, in no particular order.
+     * Removal is not supported.
+     *
+     * @return iterator over the elements of the heap
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<Handle<K, E>> it = handles.values().iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return it.next().element;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns the first bucket, which contains the elements with the minimum priority. If it is
+     * empty, the elements of the first non-empty bucket are redistributed using their minimum
+     * priority as the new last extracted priority.
+     */
+    private ArrayList<Handle<K, E>> firstBucket() {
+        if (!buckets[0].isEmpty()) return buckets[0];
+        int index = 1;
+        while (buckets[index].isEmpty()) {
+            index++;
+        }
+        ArrayList<Handle<K, E>> bucket = buckets[index];
+        long min = Long.MAX_VALUE;
+        for (Handle<K, E> handle : bucket) {
+            if (handle.priority < min) min = handle.priority;
+        }
+        last = min;
+        for (Handle<K, E> handle : bucket) {
+            addToBucket(handle);
+        }
+        bucket.clear();
+        return buckets[0];
+    }
+
+    private int bucketOf(long priority) {
+        return (priority == last) ? 0 : Long.SIZE - Long.numberOfLeadingZeros(priority ^ last);
+    }
+
+    private void addToBucket(Handle<K, E> handle) {
+        handle.bucket = bucketOf(handle.priority);
+        ArrayList<Handle<K, E>> bucket = buckets[handle.bucket];
+        handle.position = bucket.size();
+        bucket.add(handle);
+    }
+
+    private void removeFromBucket(Handle<K, E> handle) {
+        ArrayList<Handle<K, E>> bucket = buckets[handle.bucket];
+        Handle<K, E> lastHandle = bucket.remove(bucket.size() - 1);
+        if (lastHandle != handle) {
+            bucket.set(handle.position, lastHandle);
+            lastHandle.position = handle.position;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections.adapter;
+
+
+import es.usc.citius.hipster.model.node.CostNode;
+
+/**
+ * Calculates the integer priority (long) of a {@link CostNode} from its cost,
+ * which must be a {@link java.lang.Number} with an integral value (for example,
+ * an {@code Integer} or a {@code Double} without decimals). This evaluator can be used
+ * by algorithms sorted by the cost of the nodes, like {@link es.usc.citius.hipster.algorithm.BellmanFord}.
+ *
+ * @param <A> type of the actions ({@code Void} if actions are not explicit).
+ * @param <S> type of the states
+ * @param <C> type of the cost
+ * @param <N> type of the nodes
+ */
+public class CostNodeLongPriorityEvaluator<A, S, C extends Comparable<C>, N extends CostNode<A,S,C,N>> implements LongPriorityEvaluator<N> {
+    @Override
+    public long getPriority(N n) {
+        return toLong(n.getCost());
+    }
+
+    /**
+     * Converts an integral cost to long.
+     *
+     * @param cost cost to convert
+     * @return long value of the cost
+     * @throws ClassCastException if the cost is not a {@link java.lang.Number}
+     * @throws IllegalArgumentException if the cost has decimals
+     */
+    protected static long toLong(Object cost) {
+        if (cost instanceof Long || cost instanceof Integer || cost instanceof Short || cost instanceof Byte) {
+            return ((Number) cost).longValue();
+        }
+        if (cost instanceof Number) {
+            double value = ((Number) cost).doubleValue();
+            long integral = (long) value;
+            if (integral != value) {
+                throw new IllegalArgumentException("The cost " + cost + " is not an integer value. Integer priority " +
+                        "queues can only be used with integer costs.");
+            }
+            return integral;
+        }
+        throw new ClassCastException("Automatic cast to long of the node cost failed. The cost is not a Number. Please " +
+                "use a different LongPriorityEvaluator to evaluate properly the custom type used by the node.");
+    }
+}
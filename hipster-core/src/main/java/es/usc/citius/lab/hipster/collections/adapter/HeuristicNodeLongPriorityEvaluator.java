@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections.adapter;
+
+
+import es.usc.citius.hipster.model.node.HeuristicNode;
+
+/**
+ * Calculates the integer priority (long) of a {@link HeuristicNode} from its score,
+ * which must be a {@link java.lang.Number} with an integral value. This evaluator can be
+ * used by {@link es.usc.citius.hipster.algorithm.AStar} and Dijkstra.
+ *
+ * @param <A> type of the actions ({@code Void} if actions are not explicit).
+ * @param <S> type of the states
+ * @param <C> type of the cost
+ * @param <N> type of the nodes
+ */
+public class HeuristicNodeLongPriorityEvaluator<A, S, C extends Comparable<C>, N extends HeuristicNode<A,S,C,N>> extends CostNodeLongPriorityEvaluator<A,S,C,N> {
+    @Override
+    public long getPriority(N n) {
+        return toLong(n.getScore());
+    }
+}
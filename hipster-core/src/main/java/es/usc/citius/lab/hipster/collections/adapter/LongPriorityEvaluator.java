@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collections.adapter;
+
+/**
+ * Evaluator to calculate the integer priority (long) of a concrete element. This is
+ * used by the monotone integer priority queues ({@link es.usc.citius.lab.hipster.collections.BucketQueue},
+ * {@link es.usc.citius.lab.hipster.collections.RadixHeap}) which index the elements by their
+ * priority instead of comparing them.
+ *
+ * @param <N> type of the nodes
+ */
+public interface LongPriorityEvaluator<N> {
+
+    /**
+     * Retrieve the priority of the node.
+     *
+     * @param n node
+     * @return priority as long value
+     */
+    long getPriority(N n);
+
+}
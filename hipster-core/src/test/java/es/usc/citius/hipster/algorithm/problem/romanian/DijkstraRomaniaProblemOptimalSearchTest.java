@@ -45,7 +45,7 @@ public class DijkstraRomaniaProblemOptimalSearchTest extends RomaniaProblemOptim
                 .takeCostsFromEdges()
                 .build();
         //create Dijkstra algorithm
-        return Hipster.createAStar(p);
+        return Hipster.createDijkstra(p);
     }
 
     @Override
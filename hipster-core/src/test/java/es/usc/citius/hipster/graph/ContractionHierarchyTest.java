@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.examples.RandomGraphs;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ContractionHierarchyTest {
+
+    private static final Function<Double, Double> IDENTITY = new Function<Double, Double>() {
+        @Override
+        public Double apply(Double edge) {
+            return edge;
+        }
+    };
+
+    private static HashBasedHipsterGraph<Integer, Double> grid(int size) {
+        HashBasedHipsterGraph<Integer, Double> g = HashBasedHipsterGraph.create();
+        for (int i = 0; i < size * size; i++) {
+            g.add(i);
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int v = row * size + column;
+                if (column + 1 < size) g.connect(v, v + 1, 1d);
+                if (row + 1 < size) g.connect(v, v + size, 1d);
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Checks that the path is a sequence of edges of the graph from the source to the target
+     * with the expected cost.
+     */
+    private static <V> void assertPath(V source, V target, double expected, List<GraphEdge<V, Double>> path,
+                                       boolean directed) {
+        V current = source;
+        double cost = 0d;
+        for (GraphEdge<V, Double> edge : path) {
+            if (edge.getVertex1().equals(current)) {
+                current = edge.getVertex2();
+            } else {
+                assertFalse(directed);
+                assertEquals(current, edge.getVertex2());
+                current = edge.getVertex1();
+            }
+            cost += edge.getEdgeValue();
+        }
+        assertEquals(target, current);
+        assertEquals(expected, cost, 1e-9);
+    }
+
+    private static void assertSameDistances(HipsterGraph<Integer, Double> g, ContractionHierarchy<Integer, Double> ch,
+                                            int vertices, boolean directed) {
+        List<Integer> all = new ArrayList<Integer>();
+        for (int i = 0; i < vertices; i++) all.add(i);
+        List<Integer> sources = all.subList(0, 15);
+        double[][] expected = DistanceQuery.in(g).manyToMany(sources, all);
+        for (int s = 0; s < sources.size(); s++) {
+            for (int t = 0; t < vertices; t++) {
+                assertEquals(expected[s][t], ch.distance(s, t), 1e-9);
+                List<GraphEdge<Integer, Double>> path = ch.shortestPath(s, t);
+                if (expected[s][t] == Double.POSITIVE_INFINITY) {
+                    assertNull(path);
+                } else {
+                    assertPath(s, t, expected[s][t], path, directed);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void romania() {
+        ContractionHierarchy<RomanianProblem.City, Double> ch = ContractionHierarchy.build(RomanianProblem.graph());
+        assertEquals(418d, ch.distance(RomanianProblem.City.Arad, RomanianProblem.City.Bucharest), 0d);
+        List<GraphEdge<RomanianProblem.City, Double>> path =
+                ch.shortestPath(RomanianProblem.City.Arad, RomanianProblem.City.Bucharest);
+        assertEquals(4, path.size());
+        assertPath(RomanianProblem.City.Arad, RomanianProblem.City.Bucharest, 418d, path, false);
+        assertTrue(ch.shortestPath(RomanianProblem.City.Arad, RomanianProblem.City.Arad).isEmpty());
+    }
+
+    @Test
+    public void randomDirectedGraphs() {
+        Random random = new Random(3);
+        for (int test = 0; test < 4; test++) {
+            HashBasedHipsterDirectedGraph<Integer, Double> g =
+                    RandomGraphs.fill(HashBasedHipsterDirectedGraph.<Integer, Double>create(), random, 200, 600);
+            assertSameDistances(g, ContractionHierarchy.build(g, IDENTITY, 1 + test % 3), 200, true);
+        }
+    }
+
+    @Test
+    public void randomUndirectedGraphs() {
+        Random random = new Random(8);
+        for (int test = 0; test < 4; test++) {
+            HashBasedHipsterGraph<Integer, Double> g =
+                    RandomGraphs.fill(HashBasedHipsterGraph.<Integer, Double>create(), random, 200, 600);
+            assertSameDistances(g, ContractionHierarchy.build(g, IDENTITY, 1 + test % 3), 200, false);
+        }
+    }
+
+    @Test
+    public void querySettlesFewVertices() {
+        HashBasedHipsterGraph<Integer, Double> g = grid(30);
+        ContractionHierarchy<Integer, Double> ch = ContractionHierarchy.build(g, IDENTITY, 4);
+        assertSameDistances(g, ch, 900, false);
+        ContractionHierarchy<Integer, Double>.Query query = ch.newQuery();
+        assertEquals(58d, query.distance(0, 899), 0d);
+        assertTrue(query.getSettledCount() < 300);
+    }
+
+    @Test
+    public void unknownVertices() {
+        HipsterGraph<String, Double> g = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(2d)
+                .createDirectedGraph();
+        ContractionHierarchy<String, Double> ch = ContractionHierarchy.build(g);
+        assertEquals(Double.POSITIVE_INFINITY, ch.distance("A", "Z"), 0d);
+        assertNull(ch.shortestPath("B", "A"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeCosts() {
+        HipsterGraph<String, Double> g = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(-2d)
+                .createDirectedGraph();
+        ContractionHierarchy.build(g);
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.util.examples.RandomGraphs;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CsrHipsterGraphTest {
+
+    private static <T> List<T> list(Iterable<T> iterable) {
+        List<T> list = new ArrayList<T>();
+        for (T element : iterable) {
+            list.add(element);
+        }
+        return list;
+    }
+
+    private static <T> Map<T, Integer> multiset(Iterable<T> iterable) {
+        Map<T, Integer> counts = new HashMap<T, Integer>();
+        for (T element : iterable) {
+            Integer count = counts.get(element);
+            counts.put(element, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    @Test
+    public void copyOfUndirectedGraph() {
+        HipsterGraph<RomanianProblem.City, Double> original = RomanianProblem.graph();
+        CsrHipsterGraph<RomanianProblem.City, Double> g = CsrHipsterGraph.copyOf(original);
+        assertFalse(g instanceof HipsterDirectedGraph);
+        assertEquals(new HashSet<RomanianProblem.City>(list(original.vertices())),
+                new HashSet<RomanianProblem.City>(list(g.vertices())));
+        assertEquals(RomanianProblem.City.values().length, g.vertexCount());
+        assertEquals(23, g.edgeCount());
+        assertEquals(23, list(g.edges()).size());
+        for (RomanianProblem.City city : RomanianProblem.City.values()) {
+            assertEquals(multiset(original.edgesOf(city)), multiset(g.edgesOf(city)));
+            assertEquals(list(g.edgesOf(city)).size(), g.degree(g.idOf(city)));
+        }
+        assertEquals(418d, Hipster.createAStar(GraphSearchProblem.startingFrom(RomanianProblem.City.Arad).in(g)
+                .takeCostsFromEdges().build()).search(RomanianProblem.City.Bucharest).getGoalNode().getCost(), 0d);
+    }
+
+    @Test
+    public void copyOfCsrGraph() {
+        CsrHipsterGraph<String, Double> path = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(1d)
+                .connect("B").to("C").withEdge(2d)
+                .connect("C").to("C").withEdge(3d)
+                .createCsrUndirectedGraph();
+        CsrHipsterGraph<String, Double> copy = CsrHipsterGraph.copyOf(path);
+        assertEquals(3, copy.edgeCount());
+        assertEquals(2, copy.degree(copy.idOf("B")));
+        assertEquals(2, copy.degree(copy.idOf("C")));
+        for (String vertex : Arrays.asList("A", "B", "C")) {
+            assertEquals(multiset(path.edgesOf(vertex)), multiset(copy.edgesOf(vertex)));
+        }
+        CsrHipsterGraph<RomanianProblem.City, Double> romania = CsrHipsterGraph.copyOf(RomanianProblem.graph());
+        assertEquals(23, CsrHipsterGraph.copyOf(CsrHipsterGraph.copyOf(romania)).edgeCount());
+    }
+
+    @Test
+    public void copyOfDirectedGraph() {
+        HashBasedHipsterDirectedGraph<Integer, Double> original = RandomGraphs.directed(new Random(11), 300, 900);
+        CsrHipsterGraph<Integer, Double> copy = CsrHipsterGraph.copyOf(original);
+        assertTrue(copy instanceof CsrHipsterDirectedGraph);
+        CsrHipsterDirectedGraph<Integer, Double> g = CsrHipsterDirectedGraph.copyOf(original);
+        assertEquals(multiset(original.edges()), multiset(g.edges()));
+        for (int v = 0; v < 300; v++) {
+            assertEquals(multiset(original.outgoingEdgesOf(v)), multiset(g.outgoingEdgesOf(v)));
+            assertEquals(multiset(original.incomingEdgesOf(v)), multiset(g.incomingEdgesOf(v)));
+            assertEquals(multiset(original.edgesOf(v)), multiset(g.edgesOf(v)));
+            assertEquals(list(g.incomingEdgesOf(v)).size(), g.inDegree(g.idOf(v)));
+        }
+        List<Integer> all = list(original.vertices());
+        List<Integer> sources = all.subList(0, 10);
+        assertTrue(Arrays.deepEquals(DistanceQuery.in(original).manyToMany(sources, all),
+                DistanceQuery.in(g).manyToMany(sources, all)));
+    }
+
+    @Test
+    public void cursors() {
+        CsrHipsterDirectedGraph<String, Integer> g = GraphBuilder.<String, Integer>create()
+                .connect("A").to("B").withEdge(4)
+                .connect("A").to("C").withEdge(2)
+                .connect("C").to("C").withEdge(1)
+                .connect("B").to("C").withEdge(5)
+                .createCsrDirectedGraph();
+        assertEquals(3, g.vertexCount());
+        assertEquals(-1, g.idOf("Z"));
+        CsrHipsterGraph.Cursor cursor = g.cursor().moveTo(g.idOf("A"));
+        assertTrue(cursor.next());
+        assertEquals("B", g.vertexOf(cursor.target()));
+        assertEquals(4d, cursor.weight(), 0d);
+        assertEquals(Integer.valueOf(4), g.edgeValue(cursor.edge()));
+        assertEquals(g.idOf("A"), g.edgeSource(cursor.edge()));
+        assertTrue(cursor.next());
+        assertEquals("C", g.vertexOf(cursor.target()));
+        assertFalse(cursor.next());
+        double weights = 0;
+        Set<String> sources = new HashSet<String>();
+        for (CsrHipsterGraph.Cursor in = g.incomingCursor().moveTo(g.idOf("C")); in.next(); ) {
+            sources.add(g.vertexOf(in.target()));
+            weights += in.weight();
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("A", "B", "C")), sources);
+        assertEquals(8d, weights, 0d);
+        // The self loop is returned once
+        assertEquals(3, list(g.edgesOf("C")).size());
+        assertTrue(list(g.edgesOf("Z")).isEmpty());
+    }
+
+    @Test
+    public void undirectedSelfLoopsAndCostFunction() {
+        CsrHipsterGraph<String, String> g = GraphBuilder.<String, String>create()
+                .connect("A").to("B").withEdge("ab")
+                .connect("B").to("B").withEdge("loop")
+                .createCsrUndirectedGraph(new es.usc.citius.hipster.util.Function<String, Double>() {
+                    @Override
+                    public Double apply(String edge) {
+                        return (double) edge.length();
+                    }
+                });
+        assertEquals(2, g.degree(g.idOf("B")));
+        CsrHipsterGraph.Cursor cursor = g.cursor().moveTo(g.idOf("B"));
+        double weights = 0;
+        while (cursor.next()) weights += cursor.weight();
+        assertEquals(6d, weights, 0d);
+        assertEquals(multiset(Arrays.<GraphEdge<String, String>>asList(new UndirectedEdge<String, String>("A", "B", "ab"),
+                new UndirectedEdge<String, String>("B", "B", "loop"))), multiset(g.edgesOf("B")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonNumericEdgesRequireCostFunction() {
+        GraphBuilder.<String, String>create()
+                .connect("A").to("B").withEdge("ab")
+                .createCsrUndirectedGraph();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.util.examples.RandomGraphs;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistanceQueryTest {
+
+    private static <V> double[] expectedDistances(HipsterGraph<V, Double> g, V source, List<V> targets) {
+        Map<V, WeightedNode<Double, V, Double>> tree = Hipster.createDijkstra(
+                GraphSearchProblem.startingFrom(source).in(g).takeCostsFromEdges().build()).shortestPathTree();
+        double[] distances = new double[targets.size()];
+        for (int i = 0; i < distances.length; i++) {
+            WeightedNode<Double, V, Double> node = tree.get(targets.get(i));
+            distances[i] = (node == null) ? Double.POSITIVE_INFINITY : node.getCost();
+        }
+        return distances;
+    }
+
+    @Test
+    public void oneToManyRomania() {
+        List<RomanianProblem.City> targets = Arrays.asList(RomanianProblem.City.Bucharest,
+                RomanianProblem.City.Arad, RomanianProblem.City.Eforie, RomanianProblem.City.Bucharest);
+        double[] distances = DistanceQuery.in(RomanianProblem.graph()).oneToMany(RomanianProblem.City.Arad, targets);
+        assertEquals(418d, distances[0], 0d);
+        assertEquals(0d, distances[1], 0d);
+        assertEquals(expectedDistances(RomanianProblem.graph(), RomanianProblem.City.Arad, targets)[2], distances[2], 0d);
+        assertEquals(418d, distances[3], 0d);
+    }
+
+    @Test
+    public void unreachableTargets() {
+        HipsterDirectedGraph<String, Double> g = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(2d)
+                .connect("C").to("A").withEdge(1d)
+                .createDirectedGraph();
+        double[][] matrix = DistanceQuery.in(g).manyToMany(Arrays.asList("A", "B", "C"), Arrays.asList("A", "C"));
+        assertEquals(0d, matrix[0][0], 0d);
+        assertEquals(Double.POSITIVE_INFINITY, matrix[0][1], 0d);
+        assertEquals(Double.POSITIVE_INFINITY, matrix[1][0], 0d);
+        assertEquals(1d, matrix[2][0], 0d);
+        assertEquals(0d, matrix[2][1], 0d);
+    }
+
+    @Test
+    public void manyToManyRandomGraphs() {
+        Random random = new Random(31);
+        for (int test = 0; test < 10; test++) {
+            HashBasedHipsterDirectedGraph<Integer, Double> g = RandomGraphs.directed(random, 200, 600);
+            List<Integer> sources = new ArrayList<Integer>();
+            List<Integer> targets = new ArrayList<Integer>();
+            // Alternate the direction of the sweeps with the number of sources and targets
+            int nSources = (test % 2 == 0) ? 3 : 12;
+            for (int i = 0; i < nSources; i++) sources.add(random.nextInt(200));
+            for (int i = 0; i < 15 - nSources; i++) targets.add(random.nextInt(200));
+            double[][] matrix = DistanceQuery.in(g).manyToMany(sources, targets);
+            assertEquals(sources.size(), matrix.length);
+            for (int i = 0; i < sources.size(); i++) {
+                double[] expected = expectedDistances(g, sources.get(i), targets);
+                for (int j = 0; j < targets.size(); j++) {
+                    assertEquals(expected[j], matrix[i][j], 0d);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeCosts() {
+        HipsterDirectedGraph<String, Double> g = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(-2d)
+                .createDirectedGraph();
+        DistanceQuery.in(g).oneToMany("A", Arrays.asList("B"));
+    }
+}
@@ -19,6 +19,9 @@ import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -66,4 +69,70 @@ public class HashBasedHipsterDirectedGraphTest {
         Set edges = Sets.newHashSet(graph.edges());
         assertEquals(size*(size-1)/2, edges.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEdgesOf() throws Exception {
+        for(int i=0; i<size; i++) {
+            Set edges = Sets.newHashSet(graph.edgesOf("v"+i));
+            assertEquals(size-1, edges.size());
+        }
+    }
+
+    @Test
+    public void testRemoveVertex() throws Exception {
+        HashBasedHipsterDirectedGraph<String, Double> g = createStarGraph(size);
+        g.connect("v3", "v3", 1d);
+        final List<GraphEdge<String, Double>> removed = new ArrayList<GraphEdge<String, Double>>();
+        g.addListener(new GraphChangeListener<String, Double>() {
+            @Override
+            public void vertexAdded(String vertex) {}
+
+            @Override
+            public void vertexRemoved(String vertex) {}
+
+            @Override
+            public void edgeAdded(GraphEdge<String, Double> edge) {}
+
+            @Override
+            public void edgeRemoved(GraphEdge<String, Double> edge) {
+                removed.add(edge);
+            }
+        });
+        assertEquals(size, Sets.newHashSet(g.edgesOf("v3")).size());
+        assertTrue(g.remove("v3"));
+        assertEquals(size, removed.size());
+        assertEquals((size-1)*(size-2)/2, Sets.newHashSet(g.edges()).size());
+        for(int i=0; i<size; i++) {
+            if (i == 3) continue;
+            for (GraphEdge<String, Double> edge : g.edgesOf("v"+i)) {
+                assertFalse(edge.getVertex1().equals("v3") || edge.getVertex2().equals("v3"));
+            }
+        }
+        assertFalse(g.incomingEdgesOf("v3").iterator().hasNext());
+        assertEquals(size-5, Sets.newHashSet(g.outgoingEdgesOf("v4")).size());
+        assertEquals(3, Sets.newHashSet(g.incomingEdgesOf("v4")).size());
+    }
+
+    @Test
+    public void testConnected() throws Exception {
+        HashBasedHipsterDirectedGraph<String, Double> g = createStarGraph(size);
+        g.connect("v3", "v3", 1d);
+        // Each vertex is mapped to all its edges, not only to the outgoing ones
+        HashMap<String, Set<GraphEdge<String, Double>>> connected = g.getConnected();
+        assertEquals(size, connected.size());
+        for(int i=0; i<size; i++) {
+            assertEquals(Sets.newHashSet(g.edgesOf("v"+i)), connected.get("v"+i));
+        }
+        assertEquals(size, connected.get("v3").size());
+        assertEquals(size-3, g.getOutgoing().get("v3").size());
+        assertEquals(4, g.getIncoming().get("v3").size());
+        // The edges can be restored from the connected edges of each vertex
+        HashBasedHipsterDirectedGraph<String, Double> copy = HashBasedHipsterDirectedGraph.create();
+        copy.setConnected(connected);
+        assertEquals(Sets.newHashSet(g.edges()), Sets.newHashSet(copy.edges()));
+        for(int i=0; i<size; i++) {
+            assertEquals(Sets.newHashSet(g.outgoingEdgesOf("v"+i)), Sets.newHashSet(copy.outgoingEdgesOf("v"+i)));
+            assertEquals(Sets.newHashSet(g.incomingEdgesOf("v"+i)), Sets.newHashSet(copy.incomingEdgesOf("v"+i)));
+        }
+    }
+}
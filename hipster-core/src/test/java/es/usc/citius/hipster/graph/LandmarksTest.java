@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.StateCodec;
+import es.usc.citius.hipster.util.examples.RandomGraphs;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LandmarksTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Function<Double, Double> IDENTITY = new Function<Double, Double>() {
+        @Override
+        public Double apply(Double edge) {
+            return edge;
+        }
+    };
+
+    private static final StateCodec<Integer> INTEGER_CODEC = new StateCodec<Integer>() {
+        @Override
+        public byte[] encode(Integer state) {
+            return ByteBuffer.allocate(4).putInt(state).array();
+        }
+
+        @Override
+        public Integer decode(byte[] data) {
+            return ByteBuffer.wrap(data).getInt();
+        }
+    };
+
+    private static HashBasedHipsterGraph<Integer, Double> grid(int size) {
+        HashBasedHipsterGraph<Integer, Double> g = HashBasedHipsterGraph.create();
+        for (int i = 0; i < size * size; i++) {
+            g.add(i);
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int v = row * size + column;
+                if (column + 1 < size) g.connect(v, v + 1, 1d);
+                if (row + 1 < size) g.connect(v, v + size, 1d);
+            }
+        }
+        return g;
+    }
+
+    private static void assertAdmissible(HipsterGraph<Integer, Double> g, Landmarks<Integer> landmarks, int vertices) {
+        List<Integer> all = new ArrayList<Integer>();
+        for (int i = 0; i < vertices; i++) all.add(i);
+        List<Integer> targets = all.subList(0, 20);
+        double[][] distances = DistanceQuery.in(g).manyToMany(all, targets);
+        for (int t = 0; t < targets.size(); t++) {
+            HeuristicFunction<Integer, Double> h = landmarks.heuristicTo(targets.get(t));
+            for (int v = 0; v < vertices; v++) {
+                assertTrue(h.estimate(v) <= distances[v][t] + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void admissibleInRandomGraphs() {
+        Random random = new Random(17);
+        for (Landmarks.Selection selection : Landmarks.Selection.values()) {
+            HashBasedHipsterDirectedGraph<Integer, Double> directed =
+                    RandomGraphs.fill(HashBasedHipsterDirectedGraph.<Integer, Double>create(), random, 150, 450);
+            assertAdmissible(directed, Landmarks.compute(directed, IDENTITY, 6, selection, 3), 150);
+            HashBasedHipsterGraph<Integer, Double> undirected =
+                    RandomGraphs.fill(HashBasedHipsterGraph.<Integer, Double>create(), random, 150, 450);
+            assertAdmissible(undirected, Landmarks.compute(undirected, 6, selection), 150);
+        }
+    }
+
+    @Test
+    public void exactAtLandmarks() {
+        HipsterGraph<RomanianProblem.City, Double> g = RomanianProblem.graph();
+        Landmarks<RomanianProblem.City> landmarks = Landmarks.compute(g, IDENTITY,
+                Arrays.asList(RomanianProblem.City.Bucharest), 1);
+        assertEquals(418d, landmarks.heuristicTo(RomanianProblem.City.Bucharest)
+                .estimate(RomanianProblem.City.Arad), 0d);
+        assertEquals(418d, landmarks.lowerBound(RomanianProblem.City.Bucharest, RomanianProblem.City.Arad), 0d);
+    }
+
+    @Test
+    public void fewerIterationsThanDijkstra() {
+        HashBasedHipsterGraph<Integer, Double> g = grid(40);
+        for (Landmarks.Selection selection : Landmarks.Selection.values()) {
+            Landmarks<Integer> landmarks = Landmarks.compute(g, 4, selection);
+            assertEquals(4, landmarks.getLandmarks().size());
+            int goal = 40 * 40 - 1 - 20;
+            SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> uninformed =
+                    GraphSearchProblem.startingFrom(20).in(g).takeCostsFromEdges().build();
+            SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> informed =
+                    GraphSearchProblem.startingFrom(20).in(g).takeCostsFromEdges()
+                            .useHeuristicFunction(landmarks.heuristicTo(goal)).build();
+            Algorithm<Double, Integer, WeightedNode<Double, Integer, Double>>.SearchResult dijkstra =
+                    Hipster.createDijkstra(uninformed).search(goal);
+            Algorithm<Double, Integer, WeightedNode<Double, Integer, Double>>.SearchResult alt =
+                    Hipster.createAStar(informed).search(goal);
+            assertEquals(dijkstra.getGoalNode().getCost(), alt.getGoalNode().getCost());
+            assertTrue(alt.getIterations() < dijkstra.getIterations());
+        }
+    }
+
+    @Test
+    public void saveAndLoad() throws Exception {
+        HashBasedHipsterDirectedGraph<Integer, Double> g =
+                RandomGraphs.fill(HashBasedHipsterDirectedGraph.<Integer, Double>create(), new Random(5), 100, 300);
+        Landmarks<Integer> landmarks = Landmarks.compute(g, IDENTITY, 4, Landmarks.Selection.AVOID, 2);
+        File file = folder.newFile("landmarks.bin");
+        landmarks.save(file, INTEGER_CODEC);
+        Landmarks<Integer> loaded = Landmarks.load(file, INTEGER_CODEC);
+        assertEquals(landmarks.getLandmarks(), loaded.getLandmarks());
+        for (int l = 0; l < 4; l++) {
+            for (int v = 0; v < 100; v++) {
+                assertEquals(landmarks.distanceFrom(l, v), loaded.distanceFrom(l, v), 0d);
+                assertEquals(landmarks.distanceTo(l, v), loaded.distanceTo(l, v), 0d);
+            }
+        }
+        HeuristicFunction<Integer, Double> h = loaded.heuristicTo(7);
+        HeuristicFunction<Integer, Double> expected = landmarks.heuristicTo(7);
+        for (int v = 0; v < 100; v++) {
+            assertEquals(expected.estimate(v), h.estimate(v));
+        }
+    }
+}
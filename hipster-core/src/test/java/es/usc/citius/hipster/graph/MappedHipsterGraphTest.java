@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.graph;
+
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.util.StateCodec;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MappedHipsterGraphTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final StateCodec<RomanianProblem.City> CITY_CODEC = new StateCodec<RomanianProblem.City>() {
+        @Override
+        public byte[] encode(RomanianProblem.City state) {
+            return state.name().getBytes(UTF8);
+        }
+
+        @Override
+        public RomanianProblem.City decode(byte[] data) {
+            return RomanianProblem.City.valueOf(new String(data, UTF8));
+        }
+    };
+
+    private static final StateCodec<Double> DOUBLE_CODEC = new StateCodec<Double>() {
+        @Override
+        public byte[] encode(Double state) {
+            return ByteBuffer.allocate(8).putDouble(state).array();
+        }
+
+        @Override
+        public Double decode(byte[] data) {
+            return ByteBuffer.wrap(data).getDouble();
+        }
+    };
+
+    private static final StateCodec<Integer> INTEGER_CODEC = new StateCodec<Integer>() {
+        @Override
+        public byte[] encode(Integer state) {
+            return ByteBuffer.allocate(4).putInt(state).array();
+        }
+
+        @Override
+        public Integer decode(byte[] data) {
+            return ByteBuffer.wrap(data).getInt();
+        }
+    };
+
+    private static <T> Map<T, Integer> multiset(Iterable<T> iterable) {
+        Map<T, Integer> counts = new HashMap<T, Integer>();
+        for (T element : iterable) {
+            Integer count = counts.get(element);
+            counts.put(element, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    @Test
+    public void undirectedGraphWithEdgeValues() throws IOException {
+        HipsterGraph<RomanianProblem.City, Double> original = RomanianProblem.graph();
+        File file = folder.newFile("romania.graph");
+        MappedHipsterGraph.write(CsrHipsterGraph.copyOf(original), file, CITY_CODEC, DOUBLE_CODEC);
+        MappedHipsterGraph<RomanianProblem.City, Double> g = MappedHipsterGraph.open(file, CITY_CODEC, DOUBLE_CODEC);
+        assertFalse(g instanceof HipsterDirectedGraph);
+        assertEquals(RomanianProblem.City.values().length, g.vertexCount());
+        assertEquals(23, g.edgeCount());
+        assertEquals(multiset(original.vertices()), multiset(g.vertices()));
+        for (RomanianProblem.City city : RomanianProblem.City.values()) {
+            assertEquals(city, g.vertexOf(g.idOf(city)));
+            assertEquals(multiset(original.edgesOf(city)), multiset(g.edgesOf(city)));
+        }
+        assertEquals(418d, Hipster.createAStar(GraphSearchProblem.startingFrom(RomanianProblem.City.Arad).in(g)
+                .takeCostsFromEdges().build()).search(RomanianProblem.City.Bucharest).getGoalNode().getCost(), 0d);
+    }
+
+    @Test
+    public void directedGraphWithWeights() throws IOException {
+        Random random = new Random(13);
+        HashBasedHipsterDirectedGraph<Integer, Double> original = HashBasedHipsterDirectedGraph.create();
+        for (int i = 0; i < 500; i++) {
+            original.add(i);
+        }
+        for (int i = 0; i < 1500; i++) {
+            original.connect(random.nextInt(500), random.nextInt(500), (double) random.nextInt(30));
+        }
+        CsrHipsterDirectedGraph<Integer, Double> csr = CsrHipsterDirectedGraph.copyOf(original);
+        File file = folder.newFile("random.graph");
+        MappedHipsterGraph.write(csr, file, INTEGER_CODEC, null);
+        MappedHipsterGraph<Integer, Double> opened = MappedHipsterGraph.open(file, INTEGER_CODEC);
+        assertTrue(opened instanceof MappedHipsterDirectedGraph);
+        MappedHipsterDirectedGraph<Integer, Double> g = (MappedHipsterDirectedGraph<Integer, Double>) opened;
+        assertEquals(-1, g.idOf(1000));
+        for (int v = 0; v < 500; v++) {
+            int id = g.idOf(v);
+            assertEquals(csr.idOf(v), id);
+            assertEquals(csr.degree(id), g.degree(id));
+            assertEquals(csr.inDegree(id), g.inDegree(id));
+            assertEquals(multiset(original.outgoingEdgesOf(v)), multiset(g.outgoingEdgesOf(v)));
+            assertEquals(multiset(original.incomingEdgesOf(v)), multiset(g.incomingEdgesOf(v)));
+            assertEquals(multiset(original.edgesOf(v)), multiset(g.edgesOf(v)));
+            CsrHipsterGraph.Cursor expected = csr.incomingCursor().moveTo(id);
+            MappedHipsterGraph.Cursor cursor = g.incomingCursor().moveTo(id);
+            while (expected.next()) {
+                assertTrue(cursor.next());
+                assertEquals(expected.target(), cursor.target());
+                assertEquals(expected.edge(), cursor.edge());
+                assertEquals(expected.weight(), cursor.weight(), 0d);
+            }
+            assertFalse(cursor.next());
+        }
+        List<Integer> all = new ArrayList<Integer>();
+        for (int i = 0; i < 500; i++) all.add(i);
+        assertTrue(Arrays.deepEquals(DistanceQuery.in(original).manyToMany(all.subList(0, 10), all),
+                DistanceQuery.in(g).manyToMany(all.subList(0, 10), all)));
+    }
+
+    @Test
+    public void copyOfMappedGraph() throws IOException {
+        HipsterGraph<RomanianProblem.City, Double> original = RomanianProblem.graph();
+        File file = folder.newFile("copy.graph");
+        MappedHipsterGraph.write(CsrHipsterGraph.copyOf(original), file, CITY_CODEC, DOUBLE_CODEC);
+        CsrHipsterGraph<RomanianProblem.City, Double> copy =
+                CsrHipsterGraph.copyOf(MappedHipsterGraph.open(file, CITY_CODEC, DOUBLE_CODEC));
+        assertEquals(23, copy.edgeCount());
+        for (RomanianProblem.City city : RomanianProblem.City.values()) {
+            assertEquals(multiset(original.edgesOf(city)), multiset(copy.edgesOf(city)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void missingEdgeValues() throws IOException {
+        File file = folder.newFile("weights.graph");
+        MappedHipsterGraph.write(CsrHipsterGraph.copyOf(RomanianProblem.graph()), file, CITY_CODEC, null);
+        MappedHipsterGraph.open(file, CITY_CODEC, DOUBLE_CODEC);
+    }
+
+    @Test(expected = IOException.class)
+    public void notAGraphFile() throws IOException {
+        File file = folder.newFile("other.bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[1024]);
+        out.close();
+        MappedHipsterGraph.open(file, CITY_CODEC);
+    }
+}
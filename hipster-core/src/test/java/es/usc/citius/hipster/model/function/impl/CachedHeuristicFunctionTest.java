@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.function.impl;
+
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import es.usc.citius.hipster.util.examples.maze.Mazes;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachedHeuristicFunctionTest {
+
+    /**
+     * Heuristic which counts its invocations and returns the double of the state.
+     */
+    private static class CountingHeuristic implements HeuristicFunction<Integer, Double> {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Double estimate(Integer state) {
+            calls.incrementAndGet();
+            return 2d * state;
+        }
+    }
+
+    private static void evictionOrder(CachedHeuristicFunction.Eviction eviction) {
+        CountingHeuristic hf = new CountingHeuristic();
+        // 16 segments with two entries each. 0, 16 and 32 are stored in the same segment
+        CachedHeuristicFunction<Integer, Double> cache = new CachedHeuristicFunction<Integer, Double>(hf, 32, eviction);
+        assertEquals(0d, cache.estimate(0), 0d);
+        assertEquals(32d, cache.estimate(16), 0d);
+        assertEquals(0d, cache.estimate(0), 0d);
+        assertEquals(1, cache.getHits());
+        assertEquals(64d, cache.estimate(32), 0d);
+        assertEquals(1, cache.getEvictions());
+        // 16 was evicted, 0 was accessed recently
+        assertEquals(0d, cache.estimate(0), 0d);
+        assertEquals(2, cache.getHits());
+        assertEquals(32d, cache.estimate(16), 0d);
+        assertEquals(4, cache.getMisses());
+        assertEquals(4, hf.calls.get());
+    }
+
+    @Test
+    public void lruEviction() {
+        evictionOrder(CachedHeuristicFunction.Eviction.LRU);
+    }
+
+    @Test
+    public void clockEviction() {
+        evictionOrder(CachedHeuristicFunction.Eviction.CLOCK);
+    }
+
+    @Test
+    public void boundedSize() {
+        for (CachedHeuristicFunction.Eviction eviction : CachedHeuristicFunction.Eviction.values()) {
+            CachedHeuristicFunction<Integer, Double> cache =
+                    new CachedHeuristicFunction<Integer, Double>(new CountingHeuristic(), 100, eviction);
+            Random random = new Random(1);
+            for (int i = 0; i < 10000; i++) {
+                int state = random.nextInt(500);
+                assertEquals(2d * state, cache.estimate(state), 0d);
+                assertTrue(cache.size() <= 100);
+            }
+            assertEquals(10000, cache.getHits() + cache.getMisses());
+            assertEquals(cache.getMisses() - cache.size(), cache.getEvictions());
+            cache.clear();
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void concurrentSearches() throws Exception {
+        final CountingHeuristic hf = new CountingHeuristic();
+        final CachedHeuristicFunction<Integer, Double> cache =
+                new CachedHeuristicFunction<Integer, Double>(hf, 64, CachedHeuristicFunction.Eviction.CLOCK);
+        final AtomicInteger errors = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20000; i++) {
+                        int state = random.nextInt(200);
+                        if (cache.estimate(state) != 2d * state) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        assertEquals(0, errors.get());
+        assertEquals(8 * 20000, cache.getHits() + cache.getMisses());
+        assertEquals(hf.calls.get(), cache.getMisses());
+        assertTrue(cache.size() <= 64);
+    }
+
+    @Test
+    public void problemBuilderWithCache() {
+        final Maze2D maze = Mazes.TestMaze.MAZE2.getMaze();
+        final AtomicInteger calls = new AtomicInteger();
+        HeuristicFunction<Point, Double> hf = new HeuristicFunction<Point, Double>() {
+            @Override
+            public Double estimate(Point state) {
+                calls.incrementAndGet();
+                return state.distance(maze.getGoalLoc());
+            }
+        };
+        SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> p = ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return maze.validLocationsFrom(state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return transition.getFromState().distance(transition.getState());
+                    }
+                })
+                .useHeuristicFunction(hf, 1000)
+                .build();
+        double cost = Hipster.createAStar(p).search(maze.getGoalLoc()).getGoalNode().getCost();
+        assertEquals(Mazes.TestMaze.MAZE2.getMinimalPathCost(), cost, 1e-9);
+        int uncached = calls.get();
+        // A second search only takes estimations from the cache
+        Hipster.createAStar(p).search(maze.getGoalLoc());
+        assertEquals(uncached, calls.get());
+    }
+}
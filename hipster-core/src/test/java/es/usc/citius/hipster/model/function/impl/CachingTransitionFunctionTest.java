@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.function.impl;
+
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphEdge;
+import es.usc.citius.hipster.graph.HashBasedHipsterGraph;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingTransitionFunctionTest {
+
+    /**
+     * Transitions to the neighbors of a vertex of the graph, counting the invocations.
+     */
+    private static StateTransitionFunction<Integer> neighbors(final HashBasedHipsterGraph<Integer, Double> graph,
+                                                              final AtomicInteger calls) {
+        return new StateTransitionFunction<Integer>() {
+            @Override
+            public Iterable<Integer> successorsOf(Integer state) {
+                calls.incrementAndGet();
+                List<Integer> successors = new ArrayList<Integer>();
+                for (GraphEdge<Integer, Double> edge : graph.edgesOf(state)) {
+                    successors.add(edge.getVertex1().equals(state) ? edge.getVertex2() : edge.getVertex1());
+                }
+                return successors;
+            }
+        };
+    }
+
+    /**
+     * Path 0 - 1 - 2 - ... - (n - 1) with unit costs.
+     */
+    private static HashBasedHipsterGraph<Integer, Double> line(int n) {
+        HashBasedHipsterGraph<Integer, Double> graph = HashBasedHipsterGraph.create();
+        for (int i = 0; i < n; i++) {
+            graph.add(i);
+        }
+        for (int i = 1; i < n; i++) {
+            graph.connect(i - 1, i, 1d);
+        }
+        return graph;
+    }
+
+    private static double cost(CachingTransitionFunction<Void, Integer> tf, int goal) {
+        SearchProblem<Void, Integer, WeightedNode<Void, Integer, Double>> p = ProblemBuilder.create()
+                .initialState(0)
+                .defineProblemWithoutActions()
+                .useTransitionFunction(tf)
+                .useCostFunction(new CostFunction<Void, Integer, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Integer> transition) {
+                        return 1d;
+                    }
+                })
+                .build();
+        return Hipster.createDijkstra(p).search(goal).getGoalNode().getCost();
+    }
+
+    @Test
+    public void repeatedQueriesUseTheCache() {
+        AtomicInteger calls = new AtomicInteger();
+        HashBasedHipsterGraph<Integer, Double> graph = line(50);
+        CachingTransitionFunction<Void, Integer> tf =
+                new CachingTransitionFunction<Void, Integer>(neighbors(graph, calls), 1000);
+        assertEquals(49d, cost(tf, 49), 0d);
+        int uncached = calls.get();
+        assertEquals(0d, tf.getHitRatio(), 0d);
+        assertEquals(49d, cost(tf, 49), 0d);
+        assertEquals(30d, cost(tf, 30), 0d);
+        assertEquals(uncached, calls.get());
+        assertTrue(tf.getHitRatio() > 0.5);
+        assertEquals(tf.getMisses(), calls.get());
+    }
+
+    @Test
+    public void invalidatedWhenTheGraphChanges() {
+        AtomicInteger calls = new AtomicInteger();
+        HashBasedHipsterGraph<Integer, Double> graph = line(50);
+        CachingTransitionFunction<Void, Integer> tf =
+                new CachingTransitionFunction<Void, Integer>(neighbors(graph, calls), 1000);
+        tf.invalidateOnChanges(graph);
+        assertEquals(49d, cost(tf, 49), 0d);
+        int cached = tf.size();
+        // Shortcut from 0 to 40: only the transitions of both vertices are invalidated
+        graph.connect(0, 40, 1d);
+        assertEquals(cached - 2, tf.size());
+        assertEquals(10d, cost(tf, 49), 0d);
+        // Removing the vertex invalidates its neighbors
+        graph.remove(40);
+        assertFalse(tf.getCachedTransitions() == 0);
+        assertEquals(cached - 4, tf.size());
+        assertEquals(39d, cost(tf, 39), 0d);
+    }
+
+    @Test
+    public void invalidatedWhileComputingTheTransitions() {
+        final AtomicInteger calls = new AtomicInteger();
+        final HashBasedHipsterGraph<Integer, Double> graph = line(3);
+        final StateTransitionFunction<Integer> neighbors = neighbors(graph, calls);
+        CachingTransitionFunction<Void, Integer> tf = new CachingTransitionFunction<Void, Integer>(
+                new StateTransitionFunction<Integer>() {
+                    @Override
+                    public Iterable<Integer> successorsOf(Integer state) {
+                        Iterable<Integer> successors = neighbors.successorsOf(state);
+                        // The graph changes after the successors have been read
+                        if (calls.get() == 1) {
+                            graph.connect(0, 2, 1d);
+                        }
+                        return successors;
+                    }
+                }, 10);
+        tf.invalidateOnChanges(graph);
+        assertEquals(1, count(tf.transitionsFrom(0)));
+        // The stale transitions are not cached
+        assertEquals(0, tf.size());
+        assertEquals(2, count(tf.transitionsFrom(0)));
+        assertEquals(1, tf.size());
+        assertEquals(2, count(tf.transitionsFrom(0)));
+        assertEquals(2, calls.get());
+    }
+
+    private static int count(Iterable<?> iterable) {
+        int count = 0;
+        for (Object ignored : iterable) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void boundedByStatesAndTransitions() {
+        AtomicInteger calls = new AtomicInteger();
+        HashBasedHipsterGraph<Integer, Double> graph = line(100);
+        CachingTransitionFunction<Void, Integer> byStates =
+                new CachingTransitionFunction<Void, Integer>(neighbors(graph, calls), 10);
+        assertEquals(99d, cost(byStates, 99), 0d);
+        assertEquals(10, byStates.size());
+        assertTrue(byStates.getEvictions() > 0);
+
+        CachingTransitionFunction<Void, Integer> byTransitions =
+                new CachingTransitionFunction<Void, Integer>(neighbors(graph, calls), 1000, 15);
+        assertEquals(99d, cost(byTransitions, 99), 0d);
+        assertTrue(byTransitions.getCachedTransitions() <= 15);
+        // The goal has one transition and the inner vertices two: 1 + 7 * 2
+        assertEquals(8, byTransitions.size());
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.model.node.impl;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.impl.DoubleCostFunction;
+import es.usc.citius.hipster.model.function.impl.DoubleHeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.factory.NodeFactory;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DoubleWeightedNodeFactoryTest {
+
+    // From each number n, it is possible to move to n+1 (cost 1) or to 2n (cost 2)
+    private final StateTransitionFunction<Integer> tf = new StateTransitionFunction<Integer>() {
+        @Override
+        public Iterable<Integer> successorsOf(Integer state) {
+            return Arrays.asList(state + 1, state * 2);
+        }
+    };
+
+    private final CostFunction<Void, Integer, Double> cf = new CostFunction<Void, Integer, Double>() {
+        @Override
+        public Double evaluate(Transition<Void, Integer> transition) {
+            return (transition.getState() == transition.getFromState() + 1) ? 1d : 2d;
+        }
+    };
+
+    @Test
+    public void makeNodeAccumulatesPrimitiveCosts() {
+        DoubleWeightedNodeFactory<Void, Integer> factory = new DoubleWeightedNodeFactory<Void, Integer>(
+                DoubleCostFunction.of(cf), new DoubleHeuristicFunction<Integer>() {
+                    @Override
+                    public double estimateAsDouble(Integer state) {
+                        return state;
+                    }
+                });
+        WeightedNode<Void, Integer, Double> root = factory.makeNode(null, Transition.<Void, Integer>create(null, null, 1));
+        WeightedNode<Void, Integer, Double> child = factory.makeNode(root, Transition.<Void, Integer>create(1, null, 2));
+        WeightedNode<Void, Integer, Double> grandchild = factory.makeNode(child, Transition.<Void, Integer>create(2, null, 4));
+        assertTrue(grandchild instanceof DoubleWeightedNode);
+        assertEquals(3d, grandchild.getCost(), 0d);
+        assertEquals(4d, grandchild.getEstimation(), 0d);
+        assertEquals(7d, grandchild.getScore(), 0d);
+        assertTrue(root.compareTo(grandchild) < 0);
+    }
+
+    @Test
+    public void problemBuilderUsesPrimitiveNodes() {
+        SearchProblem<Void, Integer, WeightedNode<Void, Integer, Double>> p = ProblemBuilder.create()
+                .initialState(1)
+                .defineProblemWithoutActions()
+                .useTransitionFunction(tf)
+                .useCostFunction(cf)
+                .build();
+        assertTrue(p.getInitialNode() instanceof DoubleWeightedNode);
+        Algorithm<Void, Integer, WeightedNode<Void, Integer, Double>>.SearchResult result =
+                Hipster.createAStar(p).search(12);
+        // 1 -> 2 -> 3 -> 6 -> 12
+        assertEquals(6d, result.getGoalNode().getCost(), 0d);
+        assertEquals(Arrays.asList(1, 2, 3, 6, 12), result.getOptimalPaths().get(0));
+    }
+
+    /**
+     * Node which counts the calls to the getters which box the primitive values.
+     */
+    private static final class CountingNode extends DoubleWeightedNode<Void, Integer> {
+        private final AtomicInteger boxed;
+
+        private CountingNode(WeightedNode<Void, Integer, Double> previousNode, Integer state, double g, double h,
+                             AtomicInteger boxed) {
+            super(previousNode, state, null, g, h, g + h);
+            this.boxed = boxed;
+        }
+
+        @Override
+        public Double getScore() {
+            boxed.incrementAndGet();
+            return super.getScore();
+        }
+
+        @Override
+        public Double getEstimation() {
+            boxed.incrementAndGet();
+            return super.getEstimation();
+        }
+
+        @Override
+        public Double getCost() {
+            boxed.incrementAndGet();
+            return super.getCost();
+        }
+    }
+
+    /**
+     * Problem whose nodes count the calls to the getters which box the primitive values.
+     */
+    private SearchProblem<Void, Integer, WeightedNode<Void, Integer, Double>> countingProblem(final AtomicInteger boxed) {
+        final DoubleWeightedNodeFactory<Void, Integer> factory = new DoubleWeightedNodeFactory<Void, Integer>(cf);
+        NodeFactory<Void, Integer, WeightedNode<Void, Integer, Double>> counting =
+                new NodeFactory<Void, Integer, WeightedNode<Void, Integer, Double>>() {
+            @Override
+            public WeightedNode<Void, Integer, Double> makeNode(WeightedNode<Void, Integer, Double> fromNode,
+                                                               Transition<Void, Integer> transition) {
+                DoubleWeightedNode<Void, Integer> node =
+                        (DoubleWeightedNode<Void, Integer>) factory.makeNode(fromNode, transition);
+                return new CountingNode(fromNode, node.state(), node.getCostAsDouble(), 0d, boxed);
+            }
+        };
+        WeightedNode<Void, Integer, Double> initial =
+                counting.makeNode(null, Transition.<Void, Integer>create(null, null, 1));
+        return new SearchProblem<Void, Integer, WeightedNode<Void, Integer, Double>>(initial,
+                new LazyNodeExpander<Void, Integer, WeightedNode<Void, Integer, Double>>(tf, counting));
+    }
+
+    @Test
+    public void aStarDoesNotBoxCosts() {
+        AtomicInteger boxed = new AtomicInteger();
+        WeightedNode<Void, Integer, Double> goal = Hipster.createAStar(countingProblem(boxed)).search(500).getGoalNode();
+        assertEquals(500, (int) goal.state());
+        // Neither the queue, the open/closed checks nor the node factory use the boxed getters
+        assertEquals(0, boxed.get());
+    }
+
+    @Test
+    public void dijkstraDoesNotBoxCosts() {
+        AtomicInteger boxed = new AtomicInteger();
+        WeightedNode<Void, Integer, Double> goal = Hipster.createDijkstra(countingProblem(boxed)).search(500).getGoalNode();
+        assertEquals(500, (int) goal.state());
+        // The cost heap compares the primitive costs
+        assertEquals(0, boxed.get());
+    }
+
+    @Test
+    public void compareWithPlainWeightedNodes() {
+        WeightedNode<Void, Integer, Double> plain = new WeightedNode<Void, Integer, Double>(null, 1, null, 1d, 1d, 2d);
+        DoubleWeightedNode<Void, Integer> primitive = new DoubleWeightedNode<Void, Integer>(null, 2, null, 1d, 2d, 3d);
+        assertTrue(plain.compareTo(primitive) < 0);
+        assertTrue(primitive.compareTo(plain) > 0);
+    }
+}
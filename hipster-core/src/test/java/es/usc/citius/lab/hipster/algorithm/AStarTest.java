@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.AStar;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem.City;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.assertEquals;
+
+public class AStarTest {
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedOpenSetters() {
+        SearchProblem<Double, City, WeightedNode<Double, City, Double>> p = GraphSearchProblem
+                .startingFrom(City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .build();
+        AStar<Double, City, Double, WeightedNode<Double, City, Double>>.Iterator it = Hipster.createAStar(p).iterator();
+        it.next();
+        it.next();
+        Map<City, WeightedNode<Double, City, Double>> open = new HashMap<City, WeightedNode<Double, City, Double>>(it.getOpen());
+        // The nodes of a plain queue are copied into a new indexed queue
+        it.setQueue(new PriorityQueue<WeightedNode<Double, City, Double>>(open.values()));
+        assertEquals(open, it.getOpen());
+        it.setOpen(open);
+        assertEquals(open, it.getOpen());
+        WeightedNode<Double, City, Double> node;
+        do {
+            node = it.next();
+        } while (node.state() != City.Bucharest);
+        assertEquals(418d, node.getCost(), 0d);
+    }
+}
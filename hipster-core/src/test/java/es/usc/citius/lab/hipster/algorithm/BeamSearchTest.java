@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.BeamSearch;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BeamSearchTest {
+
+    private static SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> romania() {
+        return GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .build();
+    }
+
+    private static SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> mazeProblem(final Maze2D maze) {
+        return ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return maze.validLocationsFrom(state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return transition.getFromState().distance(transition.getState());
+                    }
+                })
+                .useHeuristicFunction(new HeuristicFunction<Point, Double>() {
+                    @Override
+                    public Double estimate(Point state) {
+                        return state.distance(maze.getGoalLoc());
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void wideBoundedOpenListIsAStar() {
+        WeightedNode<Double, RomanianProblem.City, Double> node = Hipster.createBoundedBestFirstSearch(romania(), 100)
+                .search(RomanianProblem.City.Bucharest).getGoalNode();
+        assertEquals(RomanianProblem.City.Bucharest, node.state());
+        assertEquals(418d, node.getCost(), 0d);
+    }
+
+    @Test
+    public void wideBeamFindsTheGoal() {
+        WeightedNode<Double, RomanianProblem.City, Double> node = Hipster.createBeamSearch(romania(), 100)
+                .search(RomanianProblem.City.Bucharest).getGoalNode();
+        assertEquals(RomanianProblem.City.Bucharest, node.state());
+        assertTrue(node.getCost() >= 418d);
+    }
+
+    @Test
+    public void expansionsAreBoundedByDepthAndWidth() {
+        Random random = new Random(3);
+        int width = 4;
+        for (int test = 0; test < 10; test++) {
+            Maze2D maze = Maze2D.random(random, 50, 0.2);
+            Point goal = maze.getGoalLoc();
+            Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result =
+                    Hipster.createBeamSearch(mazeProblem(maze), width).search(goal);
+            WeightedNode<Void, Point, Double> node = result.getGoalNode();
+            if (node.state().equals(goal)) {
+                // The goal is expanded in the layer of its depth
+                assertTrue(result.getIterations() <= 1 + width * (node.pathSize() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void boundedOpenListDropsNodes() {
+        Maze2D maze = Maze2D.random(new Random(7), 50, 0.2);
+        BeamSearch<Void, Point, Double, WeightedNode<Void, Point, Double>>.Iterator it =
+                Hipster.createBoundedBestFirstSearch(mazeProblem(maze), 3).iterator();
+        int expanded = 0;
+        while (it.hasNext()) {
+            expanded++;
+            if (it.next().state().equals(maze.getGoalLoc())) break;
+        }
+        assertTrue(expanded > 0);
+        assertTrue(it.getDropped() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWidth() {
+        Hipster.createBeamSearch(romania(), 0);
+    }
+}
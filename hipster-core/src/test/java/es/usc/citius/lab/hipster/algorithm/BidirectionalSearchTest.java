@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.BidirectionalAStar;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphBuilder;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HashBasedHipsterDirectedGraph;
+import es.usc.citius.hipster.graph.HipsterDirectedGraph;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchComponents;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BidirectionalSearchTest {
+
+    private static final List<RomanianProblem.City> OPTIMAL_PATH = Arrays.asList(
+            RomanianProblem.City.Arad,
+            RomanianProblem.City.Sibiu,
+            RomanianProblem.City.Rimnicu_Vilcea,
+            RomanianProblem.City.Pitesti,
+            RomanianProblem.City.Bucharest);
+
+    @Test
+    public void bidirectionalDijkstraRomania() {
+        SearchComponents<Double, RomanianProblem.City, Double> components = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .goalAt(RomanianProblem.City.Bucharest)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .components();
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createBidirectionalDijkstra(components).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+        assertEquals(OPTIMAL_PATH, result.getOptimalPaths().get(0));
+    }
+
+    @Test
+    public void bidirectionalAStarRomania() {
+        SearchComponents<Double, RomanianProblem.City, Double> components = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .goalAt(RomanianProblem.City.Bucharest)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .components();
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createBidirectionalAStar(components).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+        assertEquals(OPTIMAL_PATH, result.getOptimalPaths().get(0));
+    }
+
+    @Test
+    public void directedGraphUsesIncomingEdges() {
+        // The shortest path from A to D is only valid following the direction of the edges
+        HipsterDirectedGraph<String, Double> g = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(1d)
+                .connect("B").to("C").withEdge(1d)
+                .connect("C").to("D").withEdge(1d)
+                .connect("D").to("A").withEdge(1d)
+                .connect("A").to("D").withEdge(5d)
+                .createDirectedGraph();
+        SearchComponents<Double, String, Double> components = GraphSearchProblem
+                .startingFrom("A").goalAt("D").in(g).takeCostsFromEdges().components();
+        Algorithm<Double, String, WeightedNode<Double, String, Double>>.SearchResult result =
+                Hipster.createBidirectionalDijkstra(components).search("D");
+        assertEquals(3d, result.getGoalNode().getCost(), 0d);
+        assertEquals(Arrays.asList("A", "B", "C", "D"), result.getOptimalPaths().get(0));
+        assertEquals(Arrays.asList(1d, 1d, 1d), Algorithm.recoverActionPath(result.getGoalNode()));
+    }
+
+    @Test
+    public void unreachableGoal() {
+        HipsterDirectedGraph<String, Double> g = GraphBuilder.<String, Double>create()
+                .connect("A").to("B").withEdge(1d)
+                .connect("C").to("B").withEdge(1d)
+                .createDirectedGraph();
+        SearchComponents<Double, String, Double> components = GraphSearchProblem
+                .startingFrom("A").goalAt("C").in(g).takeCostsFromEdges().components();
+        assertTrue(Hipster.createBidirectionalDijkstra(components).search("C").getGoalNodes().isEmpty());
+    }
+
+    @Test
+    public void sameCostsThanDijkstraInRandomDirectedGraphs() {
+        Random random = new Random(7);
+        for (int test = 0; test < 20; test++) {
+            HashBasedHipsterDirectedGraph<Integer, Double> g = HashBasedHipsterDirectedGraph.create();
+            int vertices = 60;
+            for (int i = 0; i < vertices; i++) {
+                g.add(i);
+            }
+            for (int i = 0; i < vertices * 3; i++) {
+                g.connect(random.nextInt(vertices), random.nextInt(vertices), (double) random.nextInt(20));
+            }
+            int goal = random.nextInt(vertices);
+
+            BidirectionalAStar<Double, Integer, Double>.Iterator it = Hipster.createBidirectionalDijkstra(
+                    GraphSearchProblem.startingFrom(0).goalAt(goal).in(g).takeCostsFromEdges().components()).iterator();
+            while (it.hasNext()) {
+                it.next();
+            }
+            WeightedNode<Double, Integer, Double> solution = it.getSolution();
+
+            WeightedNode<Double, Integer, Double> expected = null;
+            for (WeightedNode<Double, Integer, Double> node :
+                    Hipster.createDijkstra(GraphSearchProblem.startingFrom(0).in(g).takeCostsFromEdges().build())) {
+                if (node.state().equals(goal)) {
+                    expected = node;
+                    break;
+                }
+            }
+
+            if (expected == null) {
+                assertEquals(null, solution);
+            } else {
+                assertEquals(expected.getCost(), solution.getCost(), 0d);
+                // The cost of the solution is the sum of the edges of the path
+                double cost = 0d;
+                for (Double edge : Algorithm.recoverActionPath(solution)) {
+                    cost += edge;
+                }
+                assertEquals(expected.getCost(), cost, 0d);
+                assertEquals(goal, (int) solution.state());
+            }
+        }
+    }
+}
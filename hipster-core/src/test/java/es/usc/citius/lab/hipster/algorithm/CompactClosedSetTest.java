@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.ARAStar;
+import es.usc.citius.hipster.algorithm.AStar;
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.BreadthFirstSearch;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.function.impl.ScalarOperation;
+import es.usc.citius.hipster.model.node.impl.UnweightedNode;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.lab.hipster.collections.CompactClosedMap;
+import es.usc.citius.hipster.util.examples.RandomGraphs;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the algorithms find the same solutions using a {@link CompactClosedMap}.
+ */
+public class CompactClosedSetTest {
+
+    @Test
+    public void aStarExhaustiveSearch() {
+        Random random = new Random(17);
+        for (int test = 0; test < 10; test++) {
+            SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                    GraphSearchProblem.startingFrom(0).in(RandomGraphs.directed(random, 300, 1200)).takeCostsFromEdges().build();
+            AStar<Double, Integer, Double, WeightedNode<Double, Integer, Double>> reference = Hipster.createAStar(p);
+            AStar<Double, Integer, Double, WeightedNode<Double, Integer, Double>> compact = Hipster.createAStar(p);
+            compact.setCompactClosedSet(true);
+            AStar<Double, Integer, Double, WeightedNode<Double, Integer, Double>>.Iterator it1 = reference.iterator();
+            AStar<Double, Integer, Double, WeightedNode<Double, Integer, Double>>.Iterator it2 = compact.iterator();
+            while (it1.hasNext()) it1.next();
+            while (it2.hasNext()) it2.next();
+            assertTrue(it2.getClosed() instanceof CompactClosedMap);
+            Map<Integer, WeightedNode<Double, Integer, Double>> expected = it1.getClosed();
+            Map<Integer, WeightedNode<Double, Integer, Double>> closed = it2.getClosed();
+            assertEquals(expected.size(), closed.size());
+            for (Map.Entry<Integer, WeightedNode<Double, Integer, Double>> entry : expected.entrySet()) {
+                WeightedNode<Double, Integer, Double> node = closed.get(entry.getKey());
+                assertEquals(entry.getValue().getCost(), node.getCost());
+            }
+        }
+    }
+
+    private static WeightedNode<Double, RomanianProblem.City, Double> araStarRomania(float epsilon, boolean compactClosedSet) {
+        SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> p = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .goalAt(RomanianProblem.City.Bucharest)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .useAnytime(epsilon, ScalarOperation.doubleMultiplicationOp())
+                .build();
+        ARAStar<Double, RomanianProblem.City, Double, WeightedNode<Double, RomanianProblem.City, Double>> algorithm = Hipster.createARAStar(p);
+        algorithm.setCompactClosedSet(compactClosedSet);
+        WeightedNode<Double, RomanianProblem.City, Double> node = null;
+        for (WeightedNode<Double, RomanianProblem.City, Double> current : algorithm) {
+            node = current;
+        }
+        return node;
+    }
+
+    @Test
+    public void araStarRomania() {
+        assertEquals(418d, araStarRomania(1f, true).getCost(), 0d);
+        for (float epsilon = 1f; epsilon <= 3f; epsilon += 0.5f) {
+            WeightedNode<Double, RomanianProblem.City, Double> expected = araStarRomania(epsilon, false);
+            WeightedNode<Double, RomanianProblem.City, Double> node = araStarRomania(epsilon, true);
+            assertEquals(expected.state(), node.state());
+            assertEquals(expected.getCost(), node.getCost());
+        }
+    }
+
+    @Test
+    public void breadthFirstSearch() {
+        Random random = new Random(23);
+        SearchProblem<Double, Integer, UnweightedNode<Double, Integer>> p =
+                GraphSearchProblem.startingFrom(0).in(RandomGraphs.directed(random, 300, 1200)).build();
+        BreadthFirstSearch<Double, Integer, UnweightedNode<Double, Integer>> reference = Hipster.createBreadthFirstSearch(p);
+        BreadthFirstSearch<Double, Integer, UnweightedNode<Double, Integer>> compact = Hipster.createBreadthFirstSearch(p);
+        compact.setCompactClosedSet(true);
+        for (int goal = 1; goal < 300; goal += 7) {
+            Algorithm<Double, Integer, UnweightedNode<Double, Integer>>.SearchResult expected = reference.search(goal);
+            Algorithm<Double, Integer, UnweightedNode<Double, Integer>>.SearchResult result = compact.search(goal);
+            assertEquals(expected.getOptimalPaths(), result.getOptimalPaths());
+        }
+    }
+}
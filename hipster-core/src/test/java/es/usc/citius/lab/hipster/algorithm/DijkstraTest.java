@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.AStar;
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Dijkstra;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.hipster.util.examples.RandomGraphs;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DijkstraTest {
+
+    @Test
+    public void heuristicIsIgnored() {
+        // Inadmissible heuristic: A* finds a suboptimal path with it, Dijkstra ignores it
+        SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> p = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(new HeuristicFunction<RomanianProblem.City, Double>() {
+                    @Override
+                    public Double estimate(RomanianProblem.City state) {
+                        return 10 * RomanianProblem.heuristicFunction().estimate(state);
+                    }
+                })
+                .build();
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createDijkstra(p).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+        assertTrue(Hipster.createAStar(p).search(RomanianProblem.City.Bucharest).getGoalNode().getCost() > 418d);
+    }
+
+    @Test
+    public void statesAreSettledOnce() {
+        SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                GraphSearchProblem.startingFrom(0).in(RandomGraphs.directed(new Random(3), 500, 2000)).takeCostsFromEdges().build();
+        Set<Integer> settled = new HashSet<Integer>();
+        double last = 0d;
+        for (WeightedNode<Double, Integer, Double> node : Hipster.createDijkstra(p)) {
+            assertTrue(settled.add(node.state()));
+            assertTrue(node.getCost() >= last);
+            last = node.getCost();
+        }
+    }
+
+    @Test
+    public void shortestPathTree() {
+        Random random = new Random(11);
+        for (int test = 0; test < 10; test++) {
+            SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                    GraphSearchProblem.startingFrom(0).in(RandomGraphs.directed(random, 300, 1200)).takeCostsFromEdges().build();
+            Map<Integer, WeightedNode<Double, Integer, Double>> tree = Hipster.createDijkstra(p).shortestPathTree();
+            AStar<Double, Integer, Double, WeightedNode<Double, Integer, Double>>.Iterator it = Hipster.createAStar(p).iterator();
+            while (it.hasNext()) {
+                it.next();
+            }
+            Map<Integer, WeightedNode<Double, Integer, Double>> expected = it.getClosed();
+            assertEquals(expected.keySet(), tree.keySet());
+            for (Map.Entry<Integer, WeightedNode<Double, Integer, Double>> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().getCost(), tree.get(entry.getKey()).getCost());
+            }
+        }
+    }
+
+    @Test
+    public void completeShortestPathTreeSearch() {
+        SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                GraphSearchProblem.startingFrom(0).in(RandomGraphs.directed(new Random(5), 200, 800)).takeCostsFromEdges().build();
+        Dijkstra<Double, Integer, Double, WeightedNode<Double, Integer, Double>> dijkstra = Hipster.createDijkstra(p);
+        Map<Integer, WeightedNode<Double, Integer, Double>> tree = dijkstra.shortestPathTree();
+        Predicate<WeightedNode<Double, Integer, Double>> even = new Predicate<WeightedNode<Double, Integer, Double>>() {
+            @Override
+            public boolean apply(WeightedNode<Double, Integer, Double> node) {
+                return node.state() % 2 == 0;
+            }
+        };
+        assertEquals(1, dijkstra.search(even).getGoalNodes().size());
+
+        dijkstra.setCompleteShortestPathTree(true);
+        Algorithm<Double, Integer, WeightedNode<Double, Integer, Double>>.SearchResult result = dijkstra.search(even);
+        assertEquals(tree.size(), result.getIterations());
+        int evenStates = 0;
+        for (Integer state : tree.keySet()) {
+            if (state % 2 == 0) evenStates++;
+        }
+        assertEquals(evenStates, result.getGoalNodes().size());
+        for (WeightedNode<Double, Integer, Double> node : result.getGoalNodes()) {
+            assertEquals(tree.get(node.state()).getCost(), node.getCost());
+        }
+    }
+}
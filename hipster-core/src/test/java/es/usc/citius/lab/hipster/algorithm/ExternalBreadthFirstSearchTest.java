@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.ExternalBreadthFirstSearch;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.util.StateCodec;
+import es.usc.citius.hipster.util.examples.EightPuzzle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ExternalBreadthFirstSearchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<Integer> GOAL = EightPuzzle.GOAL;
+
+    private static final StateTransitionFunction<List<Integer>> MOVES = EightPuzzle.successorFunction();
+
+    private static final StateCodec<List<Integer>> CODEC = new StateCodec<List<Integer>>() {
+        @Override
+        public byte[] encode(List<Integer> state) {
+            byte[] data = new byte[state.size()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = state.get(i).byteValue();
+            }
+            return data;
+        }
+
+        @Override
+        public List<Integer> decode(byte[] data) {
+            List<Integer> state = new ArrayList<Integer>(data.length);
+            for (byte b : data) {
+                state.add((int) b);
+            }
+            return state;
+        }
+    };
+
+    /**
+     * Number of states of each layer computed with an in-memory breadth-first search.
+     */
+    private static List<Long> inMemoryLayers() {
+        List<Long> sizes = new ArrayList<Long>();
+        Set<List<Integer>> visited = new HashSet<List<Integer>>();
+        List<List<Integer>> layer = Collections.singletonList(GOAL);
+        visited.add(GOAL);
+        while (!layer.isEmpty()) {
+            sizes.add((long) layer.size());
+            List<List<Integer>> next = new ArrayList<List<Integer>>();
+            for (List<Integer> state : layer) {
+                for (List<Integer> successor : MOVES.successorsOf(state)) {
+                    if (visited.add(successor)) {
+                        next.add(successor);
+                    }
+                }
+            }
+            layer = next;
+        }
+        sizes.add(0L);
+        return sizes;
+    }
+
+    @Test
+    public void completeEightPuzzleSpace() throws Exception {
+        ExternalBreadthFirstSearch<Void, List<Integer>> bfs =
+                new ExternalBreadthFirstSearch<Void, List<Integer>>(GOAL, MOVES, CODEC, folder.newFolder());
+        // Force several runs per layer
+        bfs.setMaxStatesInMemory(5000);
+        final long[] expanded = new long[1];
+        List<Long> sizes = bfs.search(new Algorithm.SearchListener<List<Integer>>() {
+            @Override
+            public void handle(List<Integer> state) {
+                expanded[0]++;
+            }
+        });
+        assertTrue(bfs.isFinished());
+        assertEquals(inMemoryLayers(), sizes);
+        // 9!/2 reachable states, the farthest ones at 31 moves
+        assertEquals(181440L, expanded[0]);
+        assertEquals(33, sizes.size());
+        Iterator<List<Integer>> last = bfs.layer(31);
+        Set<List<Integer>> farthest = new HashSet<List<Integer>>();
+        while (last.hasNext()) {
+            farthest.add(last.next());
+        }
+        assertEquals(2, farthest.size());
+    }
+
+    @Test
+    public void resumeFromLastCompleteLayer() throws Exception {
+        File directory = folder.newFolder();
+        ExternalBreadthFirstSearch<Void, List<Integer>> bfs =
+                new ExternalBreadthFirstSearch<Void, List<Integer>>(GOAL, MOVES, CODEC, directory);
+        bfs.setMaxDepth(12);
+        assertEquals(13, bfs.search().size());
+        assertFalse(bfs.isFinished());
+        // Simulate an interrupted layer
+        assertTrue(new File(directory, "layer-00013.bin.tmp").createNewFile());
+
+        ExternalBreadthFirstSearch<Void, List<Integer>> resumed =
+                new ExternalBreadthFirstSearch<Void, List<Integer>>(GOAL, MOVES, CODEC, directory);
+        final long[] expanded = new long[1];
+        List<Long> sizes = resumed.search(new Algorithm.SearchListener<List<Integer>>() {
+            @Override
+            public void handle(List<Integer> state) {
+                expanded[0]++;
+            }
+        });
+        assertEquals(inMemoryLayers(), sizes);
+        // Only the layers after the last complete one are expanded again
+        long before = 0;
+        for (int i = 0; i < 12; i++) {
+            before += sizes.get(i);
+        }
+        assertEquals(181440L - before, expanded[0]);
+        assertFalse(new File(directory, "layer-00013.bin.tmp").exists());
+        assertTrue(resumed.layerFile(13).exists());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphBuilder;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HipsterDirectedGraph;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FocalSearchTest {
+
+    private static HeuristicFunction<Point, Double> distanceTo(final Point goal) {
+        return new HeuristicFunction<Point, Double>() {
+            @Override
+            public Double estimate(Point state) {
+                return state.distance(goal);
+            }
+        };
+    }
+
+    private static SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> mazeProblem(final Maze2D maze) {
+        return ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return maze.validLocationsFrom(state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return transition.getFromState().distance(transition.getState());
+                    }
+                })
+                .useHeuristicFunction(distanceTo(maze.getGoalLoc()))
+                .build();
+    }
+
+    @Test
+    public void noSuboptimalityIsAStar() {
+        SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> p = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .build();
+        HeuristicFunction<RomanianProblem.City, Double> zero = new HeuristicFunction<RomanianProblem.City, Double>() {
+            @Override
+            public Double estimate(RomanianProblem.City state) {
+                return 0d;
+            }
+        };
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createFocalSearch(p, 0d, zero).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+    }
+
+    @Test
+    public void reopensStatesClosedWithWorsePaths() {
+        // The secondary heuristic leads to the expensive edges (S-X, X-X2, X2-X3) while the cheap
+        // detours (through A, B and D) reach the same states later: without reopening the closed
+        // states the solution costs 40, beyond the bound 2 * 8
+        HipsterDirectedGraph<String, Double> g =
+                GraphBuilder.<String, Double>create()
+                        .connect("S").to("X").withEdge(10d)
+                        .connect("S").to("A").withEdge(5d)
+                        .connect("A").to("X").withEdge(1d)
+                        .connect("X").to("B").withEdge(0d)
+                        .connect("X").to("X2").withEdge(10d)
+                        .connect("B").to("X2").withEdge(1d)
+                        .connect("X2").to("D").withEdge(0d)
+                        .connect("X2").to("X3").withEdge(20d)
+                        .connect("D").to("X3").withEdge(1d)
+                        .connect("X3").to("G").withEdge(0d)
+                        .createDirectedGraph();
+        SearchProblem<Double, String, WeightedNode<Double, String, Double>> p =
+                GraphSearchProblem.startingFrom("S").in(g).takeCostsFromEdges().build();
+        HeuristicFunction<String, Double> trap = new HeuristicFunction<String, Double>() {
+            @Override
+            public Double estimate(String state) {
+                return state.startsWith("X") || state.equals("G") ? 0d : 1d;
+            }
+        };
+        double optimal = Hipster.createAStar(p).search("G").getGoalNode().getCost();
+        assertEquals(8d, optimal, 0d);
+        WeightedNode<Double, String, Double> node = Hipster.createFocalSearch(p, 1d, trap).search("G").getGoalNode();
+        assertEquals("G", node.state());
+        assertTrue(node.getCost() <= 2 * optimal);
+    }
+
+    @Test
+    public void boundedSuboptimality() {
+        Random random = new Random(5);
+        double[] epsilons = {0.1d, 0.5d, 1d};
+        for (int test = 0; test < 20; test++) {
+            Maze2D maze = Maze2D.random(random, 40, 0.2);
+            Point goal = maze.getGoalLoc();
+            SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> p = mazeProblem(maze);
+            WeightedNode<Void, Point, Double> optimal = Hipster.createAStar(p).search(goal).getGoalNode();
+            if (!optimal.state().equals(goal)) continue;
+            for (double epsilon : epsilons) {
+                WeightedNode<Void, Point, Double> node =
+                        Hipster.createFocalSearch(p, epsilon, distanceTo(goal)).search(goal).getGoalNode();
+                assertEquals(goal, node.state());
+                assertTrue(node.getCost() <= (1 + epsilon) * optimal.getCost() + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void fewerExpansionsThanAStar() {
+        Random random = new Random(9);
+        int aStarIterations = 0;
+        int focalIterations = 0;
+        for (int test = 0; test < 10; test++) {
+            Maze2D maze = Maze2D.random(random, 60, 0.2);
+            Point goal = maze.getGoalLoc();
+            SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> p = mazeProblem(maze);
+            aStarIterations += Hipster.createAStar(p).search(goal).getIterations();
+            focalIterations += Hipster.createFocalSearch(p, 0.5d, distanceTo(goal)).search(goal).getIterations();
+        }
+        assertTrue(focalIterations < aStarIterations);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.FringeSearch;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HashBasedHipsterDirectedGraph;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FringeSearchTest {
+
+    private static SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> mazeProblem(final Maze2D maze) {
+        return ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return maze.validLocationsFrom(state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return transition.getFromState().distance(transition.getState());
+                    }
+                })
+                .useHeuristicFunction(new HeuristicFunction<Point, Double>() {
+                    @Override
+                    public Double estimate(Point state) {
+                        return state.distance(maze.getGoalLoc());
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void romania() {
+        SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> p = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .build();
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createFringeSearch(p).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+    }
+
+    @Test
+    public void sameCostsThanAStarInMazes() {
+        Random random = new Random(21);
+        for (int test = 0; test < 20; test++) {
+            Maze2D maze = Maze2D.random(random, 40, 0.3);
+            Point goal = maze.getGoalLoc();
+            SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> p = mazeProblem(maze);
+            WeightedNode<Void, Point, Double> expected = Hipster.createAStar(p).search(goal).getGoalNode();
+            WeightedNode<Void, Point, Double> node = Hipster.createFringeSearch(p).search(goal).getGoalNode();
+            if (expected.state().equals(goal)) {
+                assertEquals(goal, node.state());
+                assertEquals(expected.getCost(), node.getCost(), 1e-9);
+            } else {
+                assertFalse(node.state().equals(goal));
+            }
+        }
+    }
+
+    @Test
+    public void exhaustiveSearchVisitsAllStates() {
+        Random random = new Random(4);
+        HashBasedHipsterDirectedGraph<Integer, Double> g = HashBasedHipsterDirectedGraph.create();
+        for (int i = 0; i < 200; i++) {
+            g.add(i);
+        }
+        for (int i = 0; i < 800; i++) {
+            g.connect(random.nextInt(200), random.nextInt(200), (double) random.nextInt(20));
+        }
+        SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                GraphSearchProblem.startingFrom(0).in(g).takeCostsFromEdges().build();
+        FringeSearch<Double, Integer, Double, WeightedNode<Double, Integer, Double>>.Iterator it =
+                Hipster.createFringeSearch(p).iterator();
+        Set<Integer> expanded = new HashSet<Integer>();
+        while (it.hasNext()) {
+            expanded.add(it.next().state());
+        }
+        assertTrue(it.getFringe().isEmpty());
+        // Without heuristic, the cache contains the optimal cost of each state
+        java.util.Map<Integer, WeightedNode<Double, Integer, Double>> tree = Hipster.createDijkstra(p).shortestPathTree();
+        assertEquals(tree.keySet(), expanded);
+        for (Integer state : tree.keySet()) {
+            assertEquals(tree.get(state).getCost(), it.getCache().get(state).getCost());
+        }
+    }
+}
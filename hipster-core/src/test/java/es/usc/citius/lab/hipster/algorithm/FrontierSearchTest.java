@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.AStar;
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.FrontierSearch;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.BinaryOperation;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.node.impl.WeightedNodeFactory;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchComponents;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.Predicate;
+import es.usc.citius.hipster.util.examples.EightPuzzle;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FrontierSearchTest {
+
+    private static StateTransitionFunction<Point> mazeTransitions(final Maze2D maze) {
+        return new StateTransitionFunction<Point>() {
+            @Override
+            public Iterable<Point> successorsOf(Point state) {
+                return maze.validLocationsFrom(state);
+            }
+        };
+    }
+
+    private static final CostFunction<Void, Point, Double> EUCLIDEAN_COST = new CostFunction<Void, Point, Double>() {
+        @Override
+        public Double evaluate(Transition<Void, Point> transition) {
+            return transition.getFromState().distance(transition.getState());
+        }
+    };
+
+    private static HeuristicFunction<Point, Double> euclideanHeuristic(final Maze2D maze) {
+        return new HeuristicFunction<Point, Double>() {
+            @Override
+            public Double estimate(Point state) {
+                return state.distance(maze.getGoalLoc());
+            }
+        };
+    }
+
+    private static <S> void assertValidPath(List<S> path, S begin, S goal) {
+        assertEquals(begin, path.get(0));
+        assertEquals(goal, path.get(path.size() - 1));
+    }
+
+    @Test
+    public void romaniaOptimalPath() {
+        SearchComponents<Double, RomanianProblem.City, Double> components = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .goalAt(RomanianProblem.City.Bucharest)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .components();
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createFrontierSearch(components).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+        assertEquals(Arrays.asList(RomanianProblem.City.Arad, RomanianProblem.City.Sibiu, RomanianProblem.City.Rimnicu_Vilcea,
+                RomanianProblem.City.Pitesti, RomanianProblem.City.Bucharest), result.getOptimalPaths().get(0));
+    }
+
+    @Test
+    public void searchOtherGoalsThanComponents() {
+        SearchComponents<Double, RomanianProblem.City, Double> components = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .goalAt(RomanianProblem.City.Bucharest)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .components();
+        FrontierSearch<Double, RomanianProblem.City, Double> frontier = Hipster.createFrontierSearch(components);
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                frontier.search(RomanianProblem.City.Fagaras);
+        assertEquals(239d, result.getGoalNode().getCost(), 0d);
+        assertEquals(Arrays.asList(RomanianProblem.City.Arad, RomanianProblem.City.Sibiu, RomanianProblem.City.Fagaras),
+                result.getOptimalPaths().get(0));
+        result = frontier.search(new Predicate<WeightedNode<Double, RomanianProblem.City, Double>>() {
+            @Override
+            public boolean apply(WeightedNode<Double, RomanianProblem.City, Double> node) {
+                return node.state() == RomanianProblem.City.Pitesti;
+            }
+        });
+        assertEquals(317d, result.getGoalNode().getCost(), 0d);
+        assertValidPath(result.getOptimalPaths().get(0), RomanianProblem.City.Arad, RomanianProblem.City.Pitesti);
+    }
+
+    @Test
+    public void predicateWithoutGoalInInfiniteSpace() {
+        StateTransitionFunction<Integer> line = new StateTransitionFunction<Integer>() {
+            @Override
+            public Iterable<Integer> successorsOf(Integer state) {
+                return Arrays.asList(state - 1, state + 1);
+            }
+        };
+        CostFunction<Void, Integer, Double> unit = new CostFunction<Void, Integer, Double>() {
+            @Override
+            public Double evaluate(Transition<Void, Integer> transition) {
+                return 1d;
+            }
+        };
+        Algorithm<Void, Integer, WeightedNode<Void, Integer, Double>>.SearchResult result =
+                Hipster.createFrontierSearch(new SearchComponents<Void, Integer, Double>(0, null, unit, null, line,
+                        BinaryOperation.doubleAdditionOp())).search(25);
+        assertEquals(25d, result.getGoalNode().getCost(), 0d);
+        assertEquals(26, result.getOptimalPaths().get(0).size());
+        assertValidPath(result.getOptimalPaths().get(0), 0, 25);
+    }
+
+    @Test
+    public void mazeSameCostThanAStarWithSmallerMemory() {
+        Random random = new Random(5);
+        for (int test = 0; test < 20; test++) {
+            Maze2D maze = Maze2D.random(random, 50, 0.3);
+            Point goal = maze.getGoalLoc();
+            AStar<Void, Point, Double, WeightedNode<Void, Point, Double>>.Iterator astar = Hipster.createAStar(
+                    ProblemBuilder.create()
+                            .initialState(maze.getInitialLoc())
+                            .defineProblemWithoutActions()
+                            .useTransitionFunction(mazeTransitions(maze))
+                            .useCostFunction(EUCLIDEAN_COST)
+                            .useHeuristicFunction(euclideanHeuristic(maze))
+                            .build()).iterator();
+            WeightedNode<Void, Point, Double> expected = null;
+            while (astar.hasNext()) {
+                WeightedNode<Void, Point, Double> node = astar.next();
+                if (node.state().equals(goal)) {
+                    expected = node;
+                    break;
+                }
+            }
+            FrontierSearch<Void, Point, Double> frontier = Hipster.createFrontierSearch(
+                    new SearchComponents<Void, Point, Double>(maze.getInitialLoc(), goal, EUCLIDEAN_COST,
+                            euclideanHeuristic(maze), mazeTransitions(maze), BinaryOperation.doubleAdditionOp()));
+            Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result = frontier.search(goal);
+            if (expected == null) {
+                assertTrue(result.getGoalNodes().isEmpty());
+                continue;
+            }
+            WeightedNode<Void, Point, Double> node = result.getGoalNode();
+            assertEquals(expected.getCost(), node.getCost(), 1e-9);
+            List<Point> path = result.getOptimalPaths().get(0);
+            assertValidPath(path, maze.getInitialLoc(), goal);
+            for (int i = 1; i < path.size(); i++) {
+                assertTrue(maze.validLocationsFrom(path.get(i - 1)).contains(path.get(i)));
+            }
+            // The frontier is smaller than the states stored by A*
+            FrontierSearch<Void, Point, Double>.Iterator it = frontier.iterator();
+            while (it.hasNext() && it.getSolution() == null) {
+                it.next();
+            }
+            assertTrue(it.getMaxOpenSize() < astar.getOpen().size() + astar.getClosed().size());
+        }
+    }
+
+    private static final Function<Point, HeuristicFunction<Point, Double>> EUCLIDEAN_HEURISTIC_TO =
+            new Function<Point, HeuristicFunction<Point, Double>>() {
+                @Override
+                public HeuristicFunction<Point, Double> apply(final Point target) {
+                    return new HeuristicFunction<Point, Double>() {
+                        @Override
+                        public Double estimate(Point state) {
+                            return state.distance(target);
+                        }
+                    };
+                }
+            };
+
+    /**
+     * Frontier search which records the peak size of the open lists of the searches that reconstruct the path.
+     */
+    private static FrontierSearch<Void, Point, Double> recordingReconstruction(
+            SearchComponents<Void, Point, Double> components,
+            Function<Point, HeuristicFunction<Point, Double>> heuristicTo, final AtomicInteger peak) {
+        return new FrontierSearch<Void, Point, Double>(components, heuristicTo) {
+            @Override
+            protected Iterator solve(Point from, Point to, WeightedNodeFactory<Void, Point, Double> factory,
+                                     Double offset, Double total) {
+                Iterator it = super.solve(from, to, factory, offset, total);
+                peak.set(Math.max(peak.get(), it.getMaxOpenSize()));
+                return it;
+            }
+        };
+    }
+
+    @Test
+    public void pairwiseHeuristicBoundsTheReconstruction() {
+        Random random = new Random(5);
+        int solved = 0;
+        int guidedPeaks = 0;
+        int uniformCostPeaks = 0;
+        for (int test = 0; test < 20; test++) {
+            Maze2D maze = Maze2D.random(random, 50, 0.1);
+            Point goal = maze.getGoalLoc();
+            SearchComponents<Void, Point, Double> components = new SearchComponents<Void, Point, Double>(
+                    maze.getInitialLoc(), goal, EUCLIDEAN_COST, euclideanHeuristic(maze), mazeTransitions(maze),
+                    BinaryOperation.doubleAdditionOp());
+            AtomicInteger guided = new AtomicInteger();
+            FrontierSearch<Void, Point, Double> frontier =
+                    recordingReconstruction(components, EUCLIDEAN_HEURISTIC_TO, guided);
+            FrontierSearch<Void, Point, Double>.Iterator it = frontier.iterator();
+            while (it.hasNext() && it.getSolution() == null) {
+                it.next();
+            }
+            if (it.getSolution() == null) continue;
+            solved++;
+            Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result = frontier.search(goal);
+            AtomicInteger uniformCost = new AtomicInteger();
+            double expected = recordingReconstruction(components, null, uniformCost)
+                    .search(goal).getGoalNode().getCost();
+            assertEquals(expected, result.getGoalNode().getCost(), 1e-9);
+            List<Point> path = result.getOptimalPaths().get(0);
+            assertValidPath(path, maze.getInitialLoc(), goal);
+            for (int i = 1; i < path.size(); i++) {
+                assertTrue(maze.validLocationsFrom(path.get(i - 1)).contains(path.get(i)));
+            }
+            // The reconstruction does not store more states than the main search
+            assertTrue(guided.get() <= it.getMaxOpenSize());
+            guidedPeaks += guided.get();
+            uniformCostPeaks += uniformCost.get();
+        }
+        assertTrue(solved > 0);
+        assertTrue(guidedPeaks < uniformCostPeaks);
+    }
+
+    @Test
+    public void uninformedPuzzle() {
+        // Frontier breadth-first search in the 8-puzzle (unit costs, no heuristic)
+        StateTransitionFunction<List<Integer>> moves = EightPuzzle.successorFunction();
+        CostFunction<Void, List<Integer>, Double> unit = EightPuzzle.unitCostFunction();
+        List<Integer> initial = Arrays.asList(1, 2, 5, 3, 4, 0, 6, 7, 8);
+        double expected = Hipster.createDijkstra(ProblemBuilder.create()
+                .initialState(initial)
+                .defineProblemWithoutActions()
+                .useTransitionFunction(moves)
+                .useCostFunction(unit)
+                .build()).search(EightPuzzle.GOAL).getGoalNode().getCost();
+        Algorithm<Void, List<Integer>, WeightedNode<Void, List<Integer>, Double>>.SearchResult result =
+                Hipster.createFrontierSearch(new SearchComponents<Void, List<Integer>, Double>(initial, EightPuzzle.GOAL, unit,
+                        null, moves, BinaryOperation.doubleAdditionOp())).search(EightPuzzle.GOAL);
+        assertEquals(expected, result.getGoalNode().getCost(), 0d);
+        List<List<Integer>> path = result.getOptimalPaths().get(0);
+        assertValidPath(path, initial, EightPuzzle.GOAL);
+        assertEquals((int) expected + 1, path.size());
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HashBasedHipsterDirectedGraph;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashDistributedAStarTest {
+
+    @Test
+    public void romaniaOptimalPath() {
+        SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> p = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .build();
+        for (int workers = 1; workers <= 4; workers++) {
+            Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                    Hipster.createHashDistributedAStar(p, workers).search(RomanianProblem.City.Bucharest);
+            assertEquals(418d, result.getGoalNode().getCost(), 0d);
+            assertEquals(Arrays.asList(RomanianProblem.City.Arad, RomanianProblem.City.Sibiu,
+                    RomanianProblem.City.Rimnicu_Vilcea, RomanianProblem.City.Pitesti, RomanianProblem.City.Bucharest),
+                    result.getOptimalPaths().get(0));
+        }
+    }
+
+    @Test
+    public void sameCostsThanAStarInRandomGraphs() {
+        Random random = new Random(11);
+        for (int test = 0; test < 20; test++) {
+            HashBasedHipsterDirectedGraph<Integer, Double> g = HashBasedHipsterDirectedGraph.create();
+            int vertices = 200;
+            for (int i = 0; i < vertices; i++) {
+                g.add(i);
+            }
+            for (int i = 0; i < vertices * 4; i++) {
+                g.connect(random.nextInt(vertices), random.nextInt(vertices), (double) random.nextInt(50));
+            }
+            int goal = random.nextInt(vertices);
+            SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                    GraphSearchProblem.startingFrom(0).in(g).takeCostsFromEdges().build();
+
+            WeightedNode<Double, Integer, Double> expected = Hipster.createAStar(p).search(goal).getGoalNode();
+            Algorithm<Double, Integer, WeightedNode<Double, Integer, Double>>.SearchResult result =
+                    Hipster.createHashDistributedAStar(p, 1 + test % 4).search(goal);
+
+            if (!expected.state().equals(goal)) {
+                assertTrue(result.getGoalNodes().isEmpty());
+            } else {
+                assertEquals(expected.getCost(), result.getGoalNode().getCost(), 0d);
+                double cost = 0d;
+                for (Double edge : Algorithm.recoverActionPath(result.getGoalNode())) {
+                    cost += edge;
+                }
+                assertEquals(expected.getCost(), cost, 0d);
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void workerExceptionsArePropagated() {
+        SearchProblem<Void, Integer, WeightedNode<Void, Integer, Double>> p = ProblemBuilder.create()
+                .initialState(0)
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Integer>() {
+                    @Override
+                    public Iterable<Integer> successorsOf(Integer state) {
+                        if (state > 100) throw new IllegalStateException("Unexpected state " + state);
+                        return Arrays.asList(state + 1, state + 2);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Integer, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Integer> transition) {
+                        return 1d;
+                    }
+                })
+                .build();
+        Hipster.createHashDistributedAStar(p, 3).search(-1);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.algorithm.IDAStar;
+import es.usc.citius.hipster.model.function.ActionStateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.hipster.util.examples.EightPuzzle;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the transposition table and the inverse action pruning of {@link IDAStar}
+ * with the 8-puzzle.
+ */
+public class IDAStarTest {
+
+    /**
+     * 8-puzzle which stores the number of generated states in the first position of the counter.
+     */
+    private static SearchProblem<Integer, List<Integer>, WeightedNode<Integer, List<Integer>, Double>> puzzle(
+            List<Integer> initial, final int[] counter) {
+        final ActionStateTransitionFunction<Integer, List<Integer>> moves = EightPuzzle.transitionFunction();
+        return EightPuzzle.problem(initial, new ActionStateTransitionFunction<Integer, List<Integer>>() {
+            @Override
+            public List<Integer> apply(Integer action, List<Integer> state) {
+                counter[0]++;
+                return moves.apply(action, state);
+            }
+        });
+    }
+
+    private static final Function<Integer, Integer> INVERSE = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer action) {
+            return -action;
+        }
+    };
+
+    private static double solve(List<Integer> initial, int tableSize, boolean inverse, int[] counter) {
+        IDAStar<Integer, List<Integer>, Double, WeightedNode<Integer, List<Integer>, Double>> ida =
+                Hipster.createIDAStar(puzzle(initial, counter));
+        ida.setTranspositionTableSize(tableSize);
+        if (inverse) ida.setInverseActionFunction(INVERSE);
+        WeightedNode<Integer, List<Integer>, Double> node = ida.search(EightPuzzle.GOAL).getGoalNode();
+        assertEquals(EightPuzzle.GOAL, node.state());
+        return node.getCost();
+    }
+
+    @Test
+    public void fewerGenerationsWithPruning() {
+        List<List<Integer>> instances = Arrays.asList(
+                Arrays.asList(8, 6, 7, 2, 5, 4, 3, 0, 1),
+                Arrays.asList(6, 4, 7, 8, 5, 0, 3, 2, 1));
+        for (List<Integer> initial : instances) {
+            int[] plain = new int[1];
+            int[] inverse = new int[1];
+            int[] table = new int[1];
+            int[] both = new int[1];
+            double expected = Hipster.createAStar(puzzle(initial, new int[1])).search(EightPuzzle.GOAL).getGoalNode().getCost();
+            assertEquals(expected, solve(initial, 0, false, plain), 0d);
+            assertEquals(expected, solve(initial, 0, true, inverse), 0d);
+            assertEquals(expected, solve(initial, 100000, false, table), 0d);
+            assertEquals(expected, solve(initial, 100000, true, both), 0d);
+            assertTrue(inverse[0] < plain[0]);
+            assertTrue(table[0] < plain[0]);
+            // An order of magnitude less generated nodes
+            assertTrue(both[0] * 10 < plain[0]);
+        }
+    }
+
+    @Test
+    public void smallTranspositionTable() {
+        List<Integer> initial = Arrays.asList(8, 6, 7, 2, 5, 4, 3, 0, 1);
+        int[] counter = new int[1];
+        double expected = Hipster.createAStar(puzzle(initial, new int[1])).search(EightPuzzle.GOAL).getGoalNode().getCost();
+        assertEquals(expected, solve(initial, 64, true, counter), 0d);
+    }
+}
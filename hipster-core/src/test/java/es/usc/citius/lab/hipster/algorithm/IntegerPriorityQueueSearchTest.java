@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.graph.GraphBuilder;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HipsterDirectedGraph;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import es.usc.citius.lab.hipster.collections.BucketQueue;
+import es.usc.citius.lab.hipster.collections.RadixHeap;
+import es.usc.citius.lab.hipster.collections.adapter.CostNodeLongPriorityEvaluator;
+import es.usc.citius.lab.hipster.collections.adapter.HeuristicNodeLongPriorityEvaluator;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the integer priority queues ({@link BucketQueue}, {@link RadixHeap}) find
+ * the same solutions than the default queues.
+ */
+public class IntegerPriorityQueueSearchTest {
+
+    private static SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> mazeProblem(final Maze2D maze) {
+        return ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return maze.validLocationsFrom(state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return 1d;
+                    }
+                })
+                .useHeuristicFunction(new HeuristicFunction<Point, Double>() {
+                    @Override
+                    public Double estimate(Point state) {
+                        // Chebyshev distance, consistent for 8-connected moves with unit cost
+                        Point goal = maze.getGoalLoc();
+                        return (double) Math.max(Math.abs(state.x - goal.x), Math.abs(state.y - goal.y));
+                    }
+                })
+                .build();
+    }
+
+    private static Double cost(Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result, Point goal) {
+        WeightedNode<Void, Point, Double> node = result.getGoalNode();
+        return node.state().equals(goal) ? node.getCost() : null;
+    }
+
+    @Test
+    public void mazeAStar() {
+        Random random = new Random(3);
+        for (int test = 0; test < 20; test++) {
+            Maze2D maze = Maze2D.random(random, 40, 0.3);
+            SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> p = mazeProblem(maze);
+            Point goal = maze.getGoalLoc();
+            Double expected = cost(Hipster.createAStar(p).search(goal), goal);
+            assertEquals(expected, cost(Hipster.createAStar(p, BucketQueue.<Point, WeightedNode<Void, Point, Double>>factory(
+                    new HeuristicNodeLongPriorityEvaluator<Void, Point, Double, WeightedNode<Void, Point, Double>>())).search(goal), goal));
+            assertEquals(expected, cost(Hipster.createAStar(p, RadixHeap.<Point, WeightedNode<Void, Point, Double>>factory(
+                    new HeuristicNodeLongPriorityEvaluator<Void, Point, Double, WeightedNode<Void, Point, Double>>())).search(goal), goal));
+        }
+    }
+
+    @Test
+    public void bellmanFordWithNegativeCosts() {
+        HipsterDirectedGraph<String, Integer> g =
+                GraphBuilder.<String, Integer>create()
+                        .connect("s").to("A").withEdge(5)
+                        .connect("s").to("C").withEdge(-2)
+                        .connect("A").to("B").withEdge(1)
+                        .connect("B").to("C").withEdge(2)
+                        .connect("B").to("t").withEdge(3)
+                        .connect("B").to("D").withEdge(7)
+                        .connect("C").to("A").withEdge(2)
+                        .connect("D").to("C").withEdge(3)
+                        .connect("D").to("t").withEdge(10)
+                        .createDirectedGraph();
+        SearchProblem<Integer, String, WeightedNode<Integer, String, Double>> p =
+                GraphSearchProblem.startingFrom("s").in(g).takeCostsFromEdges().build();
+        Algorithm<Integer, String, WeightedNode<Integer, String, Double>>.SearchResult result =
+                Hipster.createBellmanFord(p, BucketQueue.<String, WeightedNode<Integer, String, Double>>factory(
+                        new CostNodeLongPriorityEvaluator<Integer, String, Double, WeightedNode<Integer, String, Double>>()))
+                        .search("t");
+        assertEquals(Arrays.asList("s", "C", "A", "B", "t"), result.getOptimalPaths().get(0));
+        assertEquals(4, result.getGoalNode().getCost().intValue());
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.algorithm.JumpPointSearch;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link JumpPointSearch} finds paths with the same cost as Dijkstra
+ * over the full grid.
+ */
+public class JumpPointSearchTest {
+
+    private static SearchProblem<Void, Point, WeightedNode<Void, Point, Double>> mazeProblem(final Maze2D maze, final boolean diagonal) {
+        return ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return diagonal ? maze.validLocationsFrom(state) : neighbors4(maze, state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return transition.getFromState().distance(transition.getState());
+                    }
+                })
+                .build();
+    }
+
+    private static Collection<Point> neighbors4(Maze2D maze, Point p) {
+        List<Point> neighbors = new ArrayList<Point>();
+        int[][] moves = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        for (int[] move : moves) {
+            if (maze.validLocation(p.x + move[0], p.y + move[1])) {
+                neighbors.add(new Point(p.x + move[0], p.y + move[1]));
+            }
+        }
+        return neighbors;
+    }
+
+    private static Double cost(Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result, Point goal) {
+        WeightedNode<Void, Point, Double> node = result.getGoalNode();
+        return node.state().equals(goal) ? node.getCost() : null;
+    }
+
+    private static void checkPath(Maze2D maze, List<Point> jumpPoints, boolean diagonal) {
+        List<Point> path = JumpPointSearch.expandPath(jumpPoints);
+        assertEquals(maze.getInitialLoc(), path.get(0));
+        assertEquals(maze.getGoalLoc(), path.get(path.size() - 1));
+        for (int i = 1; i < path.size(); i++) {
+            Point previous = path.get(i - 1);
+            Point current = path.get(i);
+            assertTrue(maze.validLocation(current));
+            int dx = Math.abs(current.x - previous.x);
+            int dy = Math.abs(current.y - previous.y);
+            assertTrue(diagonal ? Math.max(dx, dy) == 1 : dx + dy == 1);
+        }
+    }
+
+    private static void compareWithDijkstra(boolean diagonal) {
+        Random random = new Random(diagonal ? 13 : 29);
+        int solved = 0;
+        for (int test = 0; test < 40; test++) {
+            Maze2D maze = Maze2D.random(random, 40, (2 + test % 3) / 10d);
+            Point goal = maze.getGoalLoc();
+            Double expected = cost(Hipster.createDijkstra(mazeProblem(maze, diagonal)).search(goal), goal);
+            Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result =
+                    Hipster.createJumpPointSearch(maze, diagonal).search(goal);
+            Double actual = cost(result, goal);
+            if (expected == null) {
+                assertNull(actual);
+            } else {
+                assertNotNull(actual);
+                assertEquals(expected, actual, 1e-9);
+                checkPath(maze, result.getOptimalPaths().get(0), diagonal);
+                solved++;
+            }
+        }
+        assertTrue(solved > 0);
+    }
+
+    @Test
+    public void sameCostsThanDijkstra8Connected() {
+        compareWithDijkstra(true);
+    }
+
+    @Test
+    public void sameCostsThanDijkstra4Connected() {
+        compareWithDijkstra(false);
+    }
+
+    @Test
+    public void emptyGridExpandsFewNodes() {
+        Maze2D maze = Maze2D.random(new Random(1), 60, 0);
+        Point goal = maze.getGoalLoc();
+        Algorithm<Void, Point, WeightedNode<Void, Point, Double>>.SearchResult result =
+                Hipster.createJumpPointSearch(maze).search(goal);
+        assertEquals(59 * Math.sqrt(2), result.getGoalNode().getCost(), 1e-9);
+        // The start jumps directly to the goal along the diagonal
+        assertEquals(2, result.getGoalNode().pathSize());
+        assertTrue(result.getIterations() < 10);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.algorithm.RecursiveBestFirstSearch;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.EightPuzzle;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecursiveBestFirstSearchTest {
+
+    @Test
+    public void romaniaOptimalPath() {
+        SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> p =
+                GraphSearchProblem
+                        .startingFrom(RomanianProblem.City.Arad)
+                        .in(RomanianProblem.graph())
+                        .takeCostsFromEdges()
+                        .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                        .build();
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createRecursiveBestFirstSearch(p).search(RomanianProblem.City.Bucharest);
+        assertEquals(418d, result.getGoalNode().getCost(), 0d);
+        assertEquals(Arrays.asList(RomanianProblem.City.Arad, RomanianProblem.City.Sibiu, RomanianProblem.City.Rimnicu_Vilcea,
+                RomanianProblem.City.Pitesti, RomanianProblem.City.Bucharest), result.getOptimalPaths().get(0));
+    }
+
+    @Test
+    public void puzzleOptimalCostAndReexpansions() {
+        List<List<Integer>> instances = Arrays.asList(
+                Arrays.asList(8, 6, 7, 2, 5, 4, 3, 0, 1),
+                Arrays.asList(6, 4, 7, 8, 5, 0, 3, 2, 1),
+                Arrays.asList(1, 2, 5, 3, 4, 0, 6, 7, 8));
+        for (List<Integer> initial : instances) {
+            double expected = Hipster.createAStar(EightPuzzle.problem(initial)).search(EightPuzzle.GOAL).getGoalNode().getCost();
+            RecursiveBestFirstSearch<Integer, List<Integer>, Double, WeightedNode<Integer, List<Integer>, Double>> rbfs =
+                    Hipster.createRecursiveBestFirstSearch(EightPuzzle.problem(initial));
+            Algorithm<Integer, List<Integer>, WeightedNode<Integer, List<Integer>, Double>>.SearchResult result =
+                    rbfs.search(EightPuzzle.GOAL);
+            assertEquals(EightPuzzle.GOAL, result.getGoalNode().state());
+            assertEquals(expected, result.getGoalNode().getCost(), 0d);
+            assertTrue(result.getReexpansions() < result.getIterations());
+        }
+        // Hard instance where the abandoned subtrees are explored again
+        List<Integer> initial = instances.get(0);
+        assertTrue(Hipster.createRecursiveBestFirstSearch(EightPuzzle.problem(initial)).search(EightPuzzle.GOAL).getReexpansions() > 0);
+    }
+
+    @Test
+    public void deepSolutionWithoutStackOverflow() {
+        final int depth = 200000;
+        SearchProblem<Void, Integer, WeightedNode<Void, Integer, Double>> p = ProblemBuilder.create()
+                .initialState(0)
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Integer>() {
+                    @Override
+                    public Iterable<Integer> successorsOf(Integer state) {
+                        return Arrays.asList(state + 1, state - 1);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Integer, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Integer> transition) {
+                        return 1d;
+                    }
+                })
+                .useHeuristicFunction(new HeuristicFunction<Integer, Double>() {
+                    @Override
+                    public Double estimate(Integer state) {
+                        return (double) Math.abs(depth - state);
+                    }
+                })
+                .build();
+        RecursiveBestFirstSearch<Void, Integer, Double, WeightedNode<Void, Integer, Double>>.Iterator it =
+                Hipster.createRecursiveBestFirstSearch(p).iterator();
+        WeightedNode<Void, Integer, Double> node = null;
+        while (it.hasNext()) {
+            node = it.next();
+            if (node.state() == depth) break;
+        }
+        assertEquals(depth, node.getCost(), 0d);
+        assertEquals(depth + 1, it.getDepth());
+        assertEquals(0, it.getReexpansions());
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.algorithm;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.algorithm.SMAStar;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HashBasedHipsterDirectedGraph;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SMAStarTest {
+
+    private static final SearchProblem<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>> ROMANIA =
+            GraphSearchProblem
+                    .startingFrom(RomanianProblem.City.Arad)
+                    .in(RomanianProblem.graph())
+                    .takeCostsFromEdges()
+                    .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                    .build();
+
+    @Test
+    public void romaniaOptimalPathWithinBudget() {
+        for (int budget = 5; budget <= 30; budget++) {
+            Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                    Hipster.createSMAStar(ROMANIA, budget).search(RomanianProblem.City.Bucharest);
+            assertEquals(418d, result.getGoalNode().getCost(), 0d);
+            assertEquals(Arrays.asList(RomanianProblem.City.Arad, RomanianProblem.City.Sibiu,
+                    RomanianProblem.City.Rimnicu_Vilcea, RomanianProblem.City.Pitesti, RomanianProblem.City.Bucharest),
+                    result.getOptimalPaths().get(0));
+        }
+    }
+
+    @Test
+    public void romaniaWithoutMemoryForTheOptimalSolution() {
+        // The optimal path has 5 states, so with a budget of 4 nodes the best
+        // solution that fits in memory is Arad - Sibiu - Fagaras - Bucharest
+        Algorithm<Double, RomanianProblem.City, WeightedNode<Double, RomanianProblem.City, Double>>.SearchResult result =
+                Hipster.createSMAStar(ROMANIA, 4).search(RomanianProblem.City.Bucharest);
+        assertEquals(450d, result.getGoalNode().getCost(), 0d);
+        // With 3 nodes there is no solution
+        result = Hipster.createSMAStar(ROMANIA, 3).search(RomanianProblem.City.Bucharest);
+        assertTrue(!result.getGoalNode().state().equals(RomanianProblem.City.Bucharest));
+    }
+
+    @Test
+    public void nodeBudgetIsNeverExceeded() {
+        int budget = 6;
+        SMAStar<Double, RomanianProblem.City, Double, WeightedNode<Double, RomanianProblem.City, Double>>.Iterator it =
+                Hipster.createSMAStar(ROMANIA, budget).iterator();
+        int iterations = 0;
+        while (it.hasNext() && iterations++ < 10000) {
+            it.next();
+            assertTrue(it.getNodesInMemory() <= budget);
+        }
+        assertTrue(it.getGenerated() > budget);
+    }
+
+    @Test
+    public void sameCostsThanAStarInRandomGraphs() {
+        Random random = new Random(5);
+        for (int test = 0; test < 30; test++) {
+            HashBasedHipsterDirectedGraph<Integer, Double> g = HashBasedHipsterDirectedGraph.create();
+            int vertices = 30;
+            for (int i = 0; i < vertices; i++) {
+                g.add(i);
+            }
+            for (int i = 0; i < vertices * 3; i++) {
+                g.connect(random.nextInt(vertices), random.nextInt(vertices), 1d + random.nextInt(10));
+            }
+            int goal = 1 + random.nextInt(vertices - 1);
+            SearchProblem<Double, Integer, WeightedNode<Double, Integer, Double>> p =
+                    GraphSearchProblem.startingFrom(0).in(g).takeCostsFromEdges().build();
+            WeightedNode<Double, Integer, Double> expected = Hipster.createAStar(p).search(goal).getGoalNode();
+            if (!expected.state().equals(goal)) continue;
+            int pathSize = expected.pathSize();
+            for (int budget = pathSize; budget <= pathSize + 10; budget += 5) {
+                WeightedNode<Double, Integer, Double> node = Hipster.createSMAStar(p, budget).search(goal).getGoalNode();
+                assertEquals(goal, (int) node.state());
+                assertEquals(expected.getCost(), node.getCost(), 0d);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collection;
+
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.lab.hipster.collections.BucketQueue;
+import es.usc.citius.lab.hipster.collections.adapter.LongPriorityEvaluator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+public class BucketQueueTest {
+
+    /**
+     * Elements of the queue: the key is the first letter of the string and
+     * the priority is the number that follows it.
+     */
+    private static BucketQueue<Character, String> newQueue() {
+        return new BucketQueue<Character, String>(new Function<String, Character>() {
+            @Override
+            public Character apply(String input) {
+                return input.charAt(0);
+            }
+        }, new LongPriorityEvaluator<String>() {
+            @Override
+            public long getPriority(String s) {
+                return Long.valueOf(s.substring(1));
+            }
+        });
+    }
+
+    @Test
+    public void testPollOrder() throws Exception {
+        BucketQueue<Character, String> queue = newQueue();
+        queue.offer("a5");
+        queue.offer("b3");
+        queue.offer("c9");
+        queue.offer("d1");
+        assertEquals(4, queue.size());
+        assertEquals("d1", queue.peek());
+        assertEquals("d1", queue.poll());
+        assertEquals("b3", queue.poll());
+        assertEquals("a5", queue.poll());
+        assertEquals("c9", queue.poll());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testOfferReplacesElementWithSameKey() throws Exception {
+        BucketQueue<Character, String> queue = newQueue();
+        queue.offer("a5");
+        queue.offer("b3");
+        queue.offer("a1");
+        assertEquals(2, queue.size());
+        assertEquals("a1", queue.get('a'));
+        assertEquals("a1", queue.poll());
+        queue.offer("c4");
+        queue.offer("b7");
+        assertEquals("c4", queue.poll());
+        assertEquals("b7", queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRemoveKey() throws Exception {
+        BucketQueue<Character, String> queue = newQueue();
+        queue.offer("a5");
+        queue.offer("b3");
+        queue.offer("c9");
+        queue.offer("d1");
+        assertEquals("b3", queue.removeKey('b'));
+        assertNull(queue.removeKey('b'));
+        assertFalse(queue.containsKey('b'));
+        assertFalse(queue.contains("b3"));
+        assertTrue(queue.contains("c9"));
+        assertEquals(3, queue.size());
+        assertEquals("d1", queue.poll());
+        assertEquals("a5", queue.poll());
+        assertEquals("c9", queue.poll());
+    }
+
+    @Test
+    public void testMapView() throws Exception {
+        BucketQueue<Character, String> queue = newQueue();
+        queue.offer("a5");
+        queue.offer("b3");
+        assertEquals(2, queue.asMap().size());
+        assertEquals("b3", queue.asMap().get('b'));
+        queue.poll();
+        assertFalse(queue.asMap().containsKey('b'));
+        assertEquals(1, queue.asMap().size());
+    }
+
+    @Test
+    public void testLowerPriorityThanLastExtracted() throws Exception {
+        BucketQueue<Character, String> queue = newQueue();
+        queue.offer("a5");
+        queue.offer("b9");
+        assertEquals("a5", queue.poll());
+        queue.offer("c2");
+        queue.offer("d7");
+        assertEquals("c2", queue.poll());
+        assertEquals("d7", queue.poll());
+        assertEquals("b9", queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testLargeRange() throws Exception {
+        BucketQueue<Character, String> queue = newQueue();
+        queue.offer("a100000");
+        queue.offer("b3");
+        queue.offer("c50000");
+        assertEquals("b3", queue.poll());
+        assertEquals("c50000", queue.poll());
+        assertEquals("a100000", queue.poll());
+    }
+
+    @Test
+    public void testRandomMonotoneUpdates() throws Exception {
+        Random random = new Random(42);
+        for (int test = 0; test < 20; test++) {
+            BucketQueue<Character, String> queue = newQueue();
+            int[] best = new int[26];
+            java.util.Arrays.fill(best, Integer.MAX_VALUE);
+            List<Integer> polled = new ArrayList<Integer>();
+            List<Integer> expected = new ArrayList<Integer>();
+            int last = 0;
+            for (int i = 0; i < 500; i++) {
+                if (random.nextInt(4) == 0 && !queue.isEmpty()) {
+                    String min = queue.poll();
+                    last = Integer.valueOf(min.substring(1));
+                    polled.add(last);
+                    best[min.charAt(0) - 'a'] = Integer.MAX_VALUE;
+                    continue;
+                }
+                int key = random.nextInt(26);
+                int priority = last + random.nextInt(20);
+                if (priority < best[key]) {
+                    best[key] = priority;
+                    queue.offer(String.valueOf((char) ('a' + key)) + priority);
+                }
+            }
+            while (!queue.isEmpty()) {
+                polled.add(Integer.valueOf(queue.poll().substring(1)));
+            }
+            // Polled priorities are not decreasing
+            expected.addAll(polled);
+            Collections.sort(expected);
+            assertEquals(expected, polled);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collection;
+
+import es.usc.citius.hipster.graph.GraphBuilder;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.graph.HipsterDirectedGraph;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.lab.hipster.collections.CompactClosedMap;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CompactClosedMapTest {
+
+    private static final HipsterDirectedGraph<String, Double> GRAPH = GraphBuilder.<String, Double>create()
+            .connect("A").to("B").withEdge(1d)
+            .connect("A").to("C").withEdge(5d)
+            .connect("B").to("C").withEdge(1d)
+            .connect("C").to("D").withEdge(2d)
+            .createDirectedGraph();
+
+    private static final SearchProblem<Double, String, WeightedNode<Double, String, Double>> PROBLEM =
+            GraphSearchProblem.startingFrom("A").in(GRAPH).takeCostsFromEdges().build();
+
+    private static WeightedNode<Double, String, Double> successor(WeightedNode<Double, String, Double> node, String state) {
+        for (WeightedNode<Double, String, Double> successor : PROBLEM.getExpander().expand(node)) {
+            if (successor.state().equals(state)) return successor;
+        }
+        throw new IllegalArgumentException(state);
+    }
+
+    @Test
+    public void testRebuildNodes() {
+        CompactClosedMap<Double, String, WeightedNode<Double, String, Double>> closed =
+                new CompactClosedMap<Double, String, WeightedNode<Double, String, Double>>(PROBLEM.getExpander().getNodeFactory());
+        WeightedNode<Double, String, Double> a = PROBLEM.getInitialNode();
+        WeightedNode<Double, String, Double> b = successor(a, "B");
+        WeightedNode<Double, String, Double> c = successor(b, "C");
+        closed.put("A", a);
+        closed.put("B", b);
+        closed.put("C", c);
+        assertEquals(3, closed.size());
+        assertTrue(closed.containsKey("C"));
+        assertFalse(closed.containsKey("D"));
+        assertNull(closed.get("D"));
+        WeightedNode<Double, String, Double> rebuilt = closed.get("C");
+        assertEquals(2d, rebuilt.getCost(), 0d);
+        assertEquals(Arrays.asList("A", "B", "C"), Arrays.asList(rebuilt.path().get(0).state(),
+                rebuilt.path().get(1).state(), rebuilt.path().get(2).state()));
+        assertEquals(Arrays.asList(1d, 1d), Arrays.asList(rebuilt.path().get(1).action(), rebuilt.path().get(2).action()));
+        assertEquals(2d, closed.getCost("C"), 0d);
+        assertEquals(Double.POSITIVE_INFINITY, closed.getCost("D"), 0d);
+    }
+
+    @Test
+    public void testContainsNoWorse() {
+        CompactClosedMap<Double, String, WeightedNode<Double, String, Double>> closed =
+                new CompactClosedMap<Double, String, WeightedNode<Double, String, Double>>(PROBLEM.getExpander().getNodeFactory());
+        WeightedNode<Double, String, Double> a = PROBLEM.getInitialNode();
+        WeightedNode<Double, String, Double> b = successor(a, "B");
+        WeightedNode<Double, String, Double> direct = successor(a, "C");
+        WeightedNode<Double, String, Double> throughB = successor(b, "C");
+        closed.put("A", a);
+        closed.put("C", direct);
+        assertTrue(closed.containsNoWorse(direct));
+        assertFalse(closed.containsNoWorse(throughB));
+        assertFalse(closed.containsNoWorse(successor(direct, "D")));
+        // The parent of the new node is not in the map, the path is kept anyway
+        closed.put("C", throughB);
+        assertTrue(closed.containsNoWorse(throughB));
+        assertEquals(2d, closed.get("C").getCost(), 0d);
+        assertEquals("B", closed.get("C").previousNode().state());
+    }
+
+    @Test
+    public void testEntriesAreRebuilt() {
+        CompactClosedMap<Double, String, WeightedNode<Double, String, Double>> closed =
+                new CompactClosedMap<Double, String, WeightedNode<Double, String, Double>>(PROBLEM.getExpander().getNodeFactory());
+        WeightedNode<Double, String, Double> a = PROBLEM.getInitialNode();
+        WeightedNode<Double, String, Double> b = successor(a, "B");
+        closed.put("A", a);
+        closed.put("B", b);
+        Map<String, Double> costs = new HashMap<String, Double>();
+        for (Map.Entry<String, WeightedNode<Double, String, Double>> entry : closed.entrySet()) {
+            costs.put(entry.getKey(), entry.getValue().getCost());
+        }
+        Map<String, Double> expected = new HashMap<String, Double>();
+        expected.put("A", 0d);
+        expected.put("B", 1d);
+        assertEquals(expected, costs);
+        assertEquals(1d, closed.remove("B").getCost(), 0d);
+        assertEquals(1, closed.size());
+        closed.clear();
+        assertTrue(closed.isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.collection;
+
+
+import es.usc.citius.hipster.util.Function;
+import es.usc.citius.lab.hipster.collections.IndexedHeap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+public class IndexedHeapTest {
+
+    /**
+     * Elements of the heap: the key is the first letter of the string and
+     * the priority is the number that follows it.
+     */
+    private static IndexedHeap<Character, String> newHeap(int arity) {
+        return new IndexedHeap<Character, String>(new Function<String, Character>() {
+            @Override
+            public Character apply(String input) {
+                return input.charAt(0);
+            }
+        }, new java.util.Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return Integer.valueOf(o1.substring(1)).compareTo(Integer.valueOf(o2.substring(1)));
+            }
+        }, arity);
+    }
+
+    @Test
+    public void testPollOrder() throws Exception {
+        IndexedHeap<Character, String> heap = newHeap(2);
+        heap.offer("a5");
+        heap.offer("b3");
+        heap.offer("c9");
+        heap.offer("d1");
+        assertEquals(4, heap.size());
+        assertEquals("d1", heap.peek());
+        assertEquals("d1", heap.poll());
+        assertEquals("b3", heap.poll());
+        assertEquals("a5", heap.poll());
+        assertEquals("c9", heap.poll());
+        assertTrue(heap.isEmpty());
+        assertNull(heap.poll());
+    }
+
+    @Test
+    public void testOfferReplacesElementWithSameKey() throws Exception {
+        IndexedHeap<Character, String> heap = newHeap(4);
+        heap.offer("a5");
+        heap.offer("b3");
+        heap.offer("a1");
+        assertEquals(2, heap.size());
+        assertEquals("a1", heap.get('a'));
+        assertEquals("a1", heap.poll());
+        // Increasing the priority of an element moves it down
+        heap.offer("c4");
+        heap.offer("b7");
+        assertEquals("c4", heap.poll());
+        assertEquals("b7", heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() throws Exception {
+        IndexedHeap<Character, String> heap = newHeap(2);
+        heap.offer("a5");
+        heap.offer("b3");
+        heap.offer("c9");
+        heap.decreaseKey("c2");
+        assertEquals("c2", heap.peek());
+        assertEquals(3, heap.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecreaseKeyWithGreaterElement() throws Exception {
+        IndexedHeap<Character, String> heap = newHeap(2);
+        heap.offer("a5");
+        heap.decreaseKey("a6");
+    }
+
+    @Test
+    public void testRemoveKey() throws Exception {
+        IndexedHeap<Character, String> heap = newHeap(2);
+        heap.offer("a5");
+        heap.offer("b3");
+        heap.offer("c9");
+        heap.offer("d1");
+        assertEquals("b3", heap.removeKey('b'));
+        assertNull(heap.removeKey('b'));
+        assertFalse(heap.containsKey('b'));
+        assertEquals(3, heap.size());
+        assertEquals("d1", heap.poll());
+        assertEquals("a5", heap.poll());
+        assertEquals("c9", heap.poll());
+    }
+
+    @Test
+    public void testMapView() throws Exception {
+        IndexedHeap<Character, String> heap = newHeap(2);
+        heap.offer("a5");
+        heap.offer("b3");
+        assertEquals(2, heap.asMap().size());
+        assertEquals("b3", heap.asMap().get('b'));
+        heap.poll();
+        assertFalse(heap.asMap().containsKey('b'));
+        assertEquals(1, heap.asMap().size());
+    }
+
+    @Test
+    public void testRandomUpdates() throws Exception {
+        Random random = new Random(42);
+        for (int arity = 2; arity <= 5; arity++) {
+            IndexedHeap<Character, String> heap = newHeap(arity);
+            int[] best = new int[26];
+            java.util.Arrays.fill(best, Integer.MAX_VALUE);
+            for (int i = 0; i < 500; i++) {
+                int key = random.nextInt(26);
+                int priority = random.nextInt(1000);
+                if (priority < best[key]) {
+                    best[key] = priority;
+                    heap.offer(String.valueOf((char) ('a' + key)) + priority);
+                }
+            }
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int priority : best) {
+                if (priority != Integer.MAX_VALUE) expected.add(priority);
+            }
+            Collections.sort(expected);
+            List<Integer> polled = new ArrayList<Integer>();
+            while (!heap.isEmpty()) {
+                polled.add(Integer.valueOf(heap.poll().substring(1)));
+            }
+            assertEquals(expected, polled);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.examples;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.examples.problem.PatternDatabase;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.ActionFunction;
+import es.usc.citius.hipster.model.function.ActionStateTransitionFunction;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.node.impl.WeightedNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static es.usc.citius.hipster.examples.problem.NPuzzle.Puzzle;
+import static es.usc.citius.hipster.examples.problem.NPuzzle.PuzzleMove;
+
+/**
+ * Example of the 15-Puzzle solved with A* using an additive 5-5-5 {@link PatternDatabase}.
+ * The first execution builds the pattern database and saves it to a file (the first argument, or
+ * {@code fifteen-puzzle.pdb} in the temporary directory); the next ones only map the file in memory.
+ * The same instance is solved with the Manhattan distance to compare the number of iterations.
+ */
+public class FifteenPuzzlePatternDatabaseExample {
+
+    public static void main(String[] args) throws IOException {
+        final Puzzle goal = new Puzzle(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15});
+        final Puzzle initial = new Puzzle(new int[]{9, 13, 0, 8, 4, 1, 14, 15, 11, 12, 2, 3, 7, 6, 5, 10});
+
+        File file = new File(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"), "fifteen-puzzle.pdb");
+        long begin = System.currentTimeMillis();
+        PatternDatabase pdb;
+        if (file.exists()) {
+            pdb = PatternDatabase.load(file);
+            System.out.println("Pattern database loaded from " + file + " in " + (System.currentTimeMillis() - begin) + " ms");
+        } else {
+            pdb = PatternDatabase.build(goal, new int[]{1, 2, 3, 5, 6}, new int[]{4, 7, 8, 11, 12}, new int[]{9, 10, 13, 14, 15});
+            pdb.save(file);
+            System.out.println("Pattern database built and saved to " + file + " in " + (System.currentTimeMillis() - begin) + " ms");
+        }
+
+        HeuristicFunction<Puzzle, Double> manhattan = new HeuristicFunction<Puzzle, Double>() {
+            @Override
+            public Double estimate(Puzzle state) {
+                int distance = 0;
+                int[][] board = state.getMatrixBoard();
+                for (int x = 0; x < board.length; x++) {
+                    for (int y = 0; y < board.length; y++) {
+                        int tile = board[x][y];
+                        if (tile != 0) {
+                            Point target = goal.getTile(tile);
+                            distance += Math.abs(x - target.x) + Math.abs(y - target.y);
+                        }
+                    }
+                }
+                return (double) distance;
+            }
+        };
+
+        Algorithm.SearchResult result = Hipster.createAStar(problem(initial, pdb)).search(goal);
+        System.out.println("Pattern database: " + result.getIterations() + " iterations, " + result.getElapsed() + " ms, cost "
+                + ((WeightedNode) result.getGoalNode()).getCost());
+        result = Hipster.createAStar(problem(initial, manhattan)).search(goal);
+        System.out.println("Manhattan distance: " + result.getIterations() + " iterations, " + result.getElapsed() + " ms, cost "
+                + ((WeightedNode) result.getGoalNode()).getCost());
+    }
+
+    private static SearchProblem<PuzzleMove, Puzzle, WeightedNode<PuzzleMove, Puzzle, Double>> problem(
+            Puzzle initial, HeuristicFunction<Puzzle, Double> heuristic) {
+        return ProblemBuilder.create()
+                .initialState(initial)
+                .defineProblemWithExplicitActions()
+                .useActionFunction(new ActionFunction<PuzzleMove, Puzzle>() {
+                    @Override
+                    public Iterable<PuzzleMove> actionsFor(Puzzle state) {
+                        List<PuzzleMove> moves = new ArrayList<PuzzleMove>(4);
+                        Point gap = state.getTile(0);
+                        int size = state.getMatrixBoard().length;
+                        if (gap.x > 0) moves.add(PuzzleMove.UP);
+                        if (gap.x < size - 1) moves.add(PuzzleMove.DOWN);
+                        if (gap.y < size - 1) moves.add(PuzzleMove.RIGHT);
+                        if (gap.y > 0) moves.add(PuzzleMove.LEFT);
+                        return moves;
+                    }
+                })
+                .useTransitionFunction(new ActionStateTransitionFunction<PuzzleMove, Puzzle>() {
+                    @Override
+                    public Puzzle apply(PuzzleMove action, Puzzle state) {
+                        Point gap = state.getTile(0);
+                        int[][] board = state.copyBoard();
+                        int x = gap.x, y = gap.y;
+                        switch (action) {
+                            case UP: x--; break;
+                            case DOWN: x++; break;
+                            case LEFT: y--; break;
+                            case RIGHT: y++; break;
+                        }
+                        board[gap.x][gap.y] = board[x][y];
+                        board[x][y] = 0;
+                        return new Puzzle(board);
+                    }
+                })
+                .useCostFunction(new CostFunction<PuzzleMove, Puzzle, Double>() {
+                    @Override
+                    public Double evaluate(Transition<PuzzleMove, Puzzle> transition) {
+                        return 1d;
+                    }
+                })
+                .useHeuristicFunction(heuristic)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.examples;
+
+import es.usc.citius.hipster.algorithm.Algorithm;
+import es.usc.citius.hipster.algorithm.Hipster;
+import es.usc.citius.hipster.algorithm.IDAStar;
+import es.usc.citius.hipster.graph.GraphSearchProblem;
+import es.usc.citius.hipster.model.Transition;
+import es.usc.citius.hipster.model.function.CostFunction;
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+import es.usc.citius.hipster.model.function.impl.StateTransitionFunction;
+import es.usc.citius.hipster.model.node.HeuristicNode;
+import es.usc.citius.hipster.model.problem.ProblemBuilder;
+import es.usc.citius.hipster.model.problem.SearchProblem;
+import es.usc.citius.hipster.util.examples.EightPuzzle;
+import es.usc.citius.hipster.util.examples.RomanianProblem;
+import es.usc.citius.hipster.util.examples.maze.Maze2D;
+import es.usc.citius.hipster.util.examples.maze.Mazes;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Side-by-side benchmark of Fringe Search, A* and IDA* on the problems that ship with Hipster:
+ * the Romania problem, {@link Maze2D} grids (the example mazes and random grids) and the 8-puzzle.
+ * For each problem and algorithm it prints the cost of the solution, the number of iterations
+ * (expanded nodes) and the average time of a search.
+ *
+ * IDA* is run with a transposition table in the grids, since without it the number of
+ * transpositions makes it impractical in maps with many different path costs.
+ */
+public class FringeSearchBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        System.out.println(String.format("%-22s %-8s %12s %12s %12s", "Problem", "Algorithm", "Cost", "Iterations", "Time (ms)"));
+
+        SearchProblem p = GraphSearchProblem
+                .startingFrom(RomanianProblem.City.Arad)
+                .in(RomanianProblem.graph())
+                .takeCostsFromEdges()
+                .useHeuristicFunction(RomanianProblem.heuristicFunction())
+                .build();
+        compare("Romania", p, RomanianProblem.City.Bucharest, false);
+
+        for (Mazes.TestMaze example : Mazes.TestMaze.values()) {
+            Maze2D maze = example.getMaze();
+            compare("Maze " + example.name(), mazeProblem(maze), maze.getGoalLoc(), true);
+        }
+        Random random = new Random(1);
+        for (int size : new int[]{32, 64}) {
+            Maze2D maze = Maze2D.random(random, size, 0.2);
+            compare("Random maze " + size + "x" + size, mazeProblem(maze), maze.getGoalLoc(), true);
+        }
+
+        List<List<Integer>> instances = Arrays.asList(
+                Arrays.asList(8, 6, 7, 2, 5, 4, 3, 0, 1),
+                Arrays.asList(6, 4, 7, 8, 5, 0, 3, 2, 1));
+        for (int i = 0; i < instances.size(); i++) {
+            compare("8-puzzle #" + (i + 1), EightPuzzle.problem(instances.get(i)), EightPuzzle.GOAL, false);
+        }
+    }
+
+    private static void compare(String name, SearchProblem p, Object goal, boolean transpositionTable) {
+        run(name, "Fringe", Hipster.createFringeSearch(p), goal);
+        run(name, "A*", Hipster.createAStar(p), goal);
+        IDAStar ida = Hipster.createIDAStar(p);
+        if (transpositionTable) {
+            ida.setTranspositionTableSize(1 << 20);
+        }
+        run(name, "IDA*", ida, goal);
+    }
+
+    private static void run(String name, String algorithmName, Algorithm algorithm, Object goal) {
+        Algorithm.SearchResult result = null;
+        for (int i = 0; i < WARMUP; i++) {
+            result = algorithm.search(goal);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            result = algorithm.search(goal);
+        }
+        double time = (System.nanoTime() - begin) / (RUNS * 1e6);
+        HeuristicNode node = (HeuristicNode) result.getGoalNode();
+        System.out.println(String.format("%-22s %-8s %12.3f %12d %12.3f", name, algorithmName,
+                ((Number) node.getCost()).doubleValue(), result.getIterations(), time));
+    }
+
+    private static SearchProblem mazeProblem(final Maze2D maze) {
+        return ProblemBuilder.create()
+                .initialState(maze.getInitialLoc())
+                .defineProblemWithoutActions()
+                .useTransitionFunction(new StateTransitionFunction<Point>() {
+                    @Override
+                    public Iterable<Point> successorsOf(Point state) {
+                        return maze.validLocationsFrom(state);
+                    }
+                })
+                .useCostFunction(new CostFunction<Void, Point, Double>() {
+                    @Override
+                    public Double evaluate(Transition<Void, Point> transition) {
+                        return transition.getFromState().distance(transition.getState());
+                    }
+                })
+                .useHeuristicFunction(new HeuristicFunction<Point, Double>() {
+                    @Override
+                    public Double estimate(Point state) {
+                        return state.distance(maze.getGoalLoc());
+                    }
+                })
+                .build();
+    }
+}
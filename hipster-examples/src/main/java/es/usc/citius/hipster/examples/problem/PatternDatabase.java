@@ -0,0 +1,365 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.hipster.examples.problem;
+
+import es.usc.citius.hipster.model.function.HeuristicFunction;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import static es.usc.citius.hipster.examples.problem.NPuzzle.Puzzle;
+
+/**
+ * <p>
+ * Additive disjoint pattern database heuristic for the N-Puzzle. The tiles are split in disjoint groups
+ * (patterns), and for each pattern a table stores the minimum number of moves of the tiles of the pattern needed
+ * to place them in their goal positions, for every combination of positions of these tiles. Since only the
+ * moves of the tiles of each pattern are counted, the values of the different patterns can be added
+ * and the heuristic is still admissible (and at least as informed as the Manhattan distance).
+ * </p>
+ *
+ * <p>
+ * The tables are built with a retrograde breadth-first search from the goal, where the moves of the blank
+ * to a square which is not occupied by a tile of the pattern have no cost. Each table is a byte array indexed
+ * by the rank of the positions of the tiles of the pattern (a perfect hash of the partial permutation), so each
+ * lookup only requires computing the rank. The tables can be saved to a file with {@link #save(File)}
+ * and loaded with {@link #load(File)}, which maps the file in memory instead of reading it.
+ * </p>
+ *
+ * <a href="http://www.sciencedirect.com/science/article/pii/S0004370201000923">Original paper</a>:
+ * Richard E. Korf and Ariel Felner. <b>"Disjoint pattern database heuristics"</b>.
+ * <i>Artificial Intelligence 134(1-2): 9-22, 2002</i>.
+ */
+public class PatternDatabase implements HeuristicFunction<Puzzle, Double> {
+    private static final int MAGIC = 0x48504442;
+    private static final int UNKNOWN = 0xff;
+
+    // Number of squares of the board and size of each side
+    private final int squares;
+    private final int size;
+    private final int[][] patterns;
+    private final ByteBuffer[] tables;
+
+    private PatternDatabase(int squares, int[][] patterns, ByteBuffer[] tables) {
+        this.squares = squares;
+        this.size = (int) Math.sqrt(squares);
+        this.patterns = patterns;
+        this.tables = tables;
+    }
+
+    /**
+     * Builds the tables of the patterns for the given goal state.
+     *
+     * @param goal goal state of the puzzle
+     * @param patterns disjoint groups of tiles (the blank, 0, cannot be part of a pattern)
+     * @return pattern database for the goal state
+     */
+    public static PatternDatabase build(Puzzle goal, int[]... patterns) {
+        int[][] board = goal.getMatrixBoard();
+        int squares = board.length * board.length;
+        int[] goalPositions = positions(board);
+        boolean[] used = new boolean[squares];
+        ByteBuffer[] tables = new ByteBuffer[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            for (int tile : patterns[i]) {
+                if (tile <= 0 || tile >= squares || used[tile]) {
+                    throw new IllegalArgumentException("The patterns must be disjoint groups of tiles, without the blank");
+                }
+                used[tile] = true;
+            }
+            tables[i] = ByteBuffer.wrap(buildTable(board.length, goalPositions, patterns[i]));
+        }
+        return new PatternDatabase(squares, patterns.clone(), tables);
+    }
+
+    /**
+     * @return position of each tile in the plain board
+     */
+    private static int[] positions(int[][] board) {
+        int[] positions = new int[board.length * board.length];
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board.length; y++) {
+                positions[board[x][y]] = x * board.length + y;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * @return number of partial permutations of {@code tiles} positions over the squares of the board
+     */
+    private static int tableSize(int squares, int tiles) {
+        long entries = 1;
+        for (int i = 0; i < tiles; i++) {
+            entries *= squares - i;
+        }
+        if (entries > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The pattern is too large: " + entries + " entries");
+        }
+        return (int) entries;
+    }
+
+    /**
+     * Perfect hash of the positions of the tiles of a pattern: each position is replaced by the number of free
+     * squares before it, and these digits are combined in a mixed radix (squares, squares - 1, ...).
+     */
+    private static int rank(int squares, int[] positions, int tiles) {
+        int rank = 0;
+        int occupied = 0;
+        for (int i = 0; i < tiles; i++) {
+            int position = positions[i];
+            int digit = position - Integer.bitCount(occupied & ((1 << position) - 1));
+            rank = rank * (squares - i) + digit;
+            occupied |= 1 << position;
+        }
+        return rank;
+    }
+
+    private static void unrank(int squares, int rank, int[] positions, int tiles) {
+        int[] digits = new int[tiles];
+        for (int i = tiles - 1; i >= 0; i--) {
+            digits[i] = rank % (squares - i);
+            rank /= squares - i;
+        }
+        int occupied = 0;
+        for (int i = 0; i < tiles; i++) {
+            // Position of the digits[i]-th free square
+            int position = -1;
+            for (int free = digits[i]; free >= 0; ) {
+                position++;
+                if ((occupied & (1 << position)) == 0) free--;
+            }
+            positions[i] = position;
+            occupied |= 1 << position;
+        }
+    }
+
+    /**
+     * Growable queue of integers.
+     */
+    private static final class IntQueue {
+        private int[] elements = new int[1024];
+        private int head = 0;
+        private int tail = 0;
+
+        private void add(int e) {
+            if (tail == elements.length) {
+                if (head > elements.length / 2) {
+                    System.arraycopy(elements, head, elements, 0, tail - head);
+                } else {
+                    elements = Arrays.copyOf(elements, elements.length * 2);
+                    System.arraycopy(elements, head, elements, 0, tail - head);
+                }
+                tail -= head;
+                head = 0;
+            }
+            elements[tail++] = e;
+        }
+
+        private int poll() {
+            return elements[head++];
+        }
+
+        private boolean isEmpty() {
+            return head == tail;
+        }
+    }
+
+    /**
+     * Retrograde 0-1 breadth-first search over the positions of the tiles of the pattern and the blank.
+     * Moving a tile of the pattern costs 1, and moving any other tile costs 0. The table stores, for each
+     * rank, the minimum cost over all the positions of the blank.
+     */
+    private static byte[] buildTable(int side, int[] goalPositions, int[] pattern) {
+        int squares = side * side;
+        int tiles = pattern.length;
+        int entries = tableSize(squares, tiles);
+        if ((long) entries * squares > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The pattern is too large: " + entries + " entries");
+        }
+        byte[] table = new byte[entries];
+        Arrays.fill(table, (byte) UNKNOWN);
+        // Visited (rank, blank) states
+        long[] visited = new long[(int) (((long) entries * squares + 63) / 64)];
+        int[] positions = new int[tiles];
+        for (int i = 0; i < tiles; i++) {
+            positions[i] = goalPositions[pattern[i]];
+        }
+        IntQueue current = new IntQueue();
+        IntQueue next = new IntQueue();
+        current.add(rank(squares, positions, tiles) * squares + goalPositions[0]);
+        int distance = 0;
+        while (!current.isEmpty()) {
+            while (!current.isEmpty()) {
+                int state = current.poll();
+                if ((visited[state >>> 6] & (1L << state)) != 0) continue;
+                visited[state >>> 6] |= 1L << state;
+                int rank = state / squares;
+                int blank = state % squares;
+                if ((table[rank] & 0xff) == UNKNOWN) {
+                    table[rank] = (byte) distance;
+                }
+                unrank(squares, rank, positions, tiles);
+                for (int move = 0; move < 4; move++) {
+                    int target = neighbor(side, blank, move);
+                    if (target < 0) continue;
+                    int tile = -1;
+                    for (int i = 0; i < tiles; i++) {
+                        if (positions[i] == target) {
+                            tile = i;
+                            break;
+                        }
+                    }
+                    if (tile < 0) {
+                        // The blank swaps with a tile of another pattern
+                        add(current, visited, rank * squares + target);
+                    } else {
+                        positions[tile] = blank;
+                        add(next, visited, rank(squares, positions, tiles) * squares + target);
+                        positions[tile] = target;
+                    }
+                }
+            }
+            IntQueue swap = current;
+            current = next;
+            next = swap;
+            distance++;
+        }
+        return table;
+    }
+
+    private static void add(IntQueue queue, long[] visited, int state) {
+        if ((visited[state >>> 6] & (1L << state)) == 0) {
+            queue.add(state);
+        }
+    }
+
+    /**
+     * @return square next to the given one in the direction of the move (up, down, left, right), or -1
+     */
+    private static int neighbor(int side, int square, int move) {
+        int x = square / side;
+        int y = square % side;
+        switch (move) {
+            case 0: return x > 0 ? square - side : -1;
+            case 1: return x < side - 1 ? square + side : -1;
+            case 2: return y > 0 ? square - 1 : -1;
+            default: return y < side - 1 ? square + 1 : -1;
+        }
+    }
+
+    @Override
+    public Double estimate(Puzzle state) {
+        int[][] board = state.getMatrixBoard();
+        int[] tilePositions = new int[squares];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                tilePositions[board[x][y]] = x * size + y;
+            }
+        }
+        int[] positions = new int[squares];
+        int estimation = 0;
+        for (int i = 0; i < patterns.length; i++) {
+            int[] pattern = patterns[i];
+            for (int j = 0; j < pattern.length; j++) {
+                positions[j] = tilePositions[pattern[j]];
+            }
+            estimation += tables[i].get(rank(squares, positions, pattern.length)) & 0xff;
+        }
+        return (double) estimation;
+    }
+
+    /**
+     * Writes the patterns and their tables to a file.
+     *
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(squares);
+            out.writeInt(patterns.length);
+            for (int[] pattern : patterns) {
+                out.writeInt(pattern.length);
+                for (int tile : pattern) {
+                    out.writeInt(tile);
+                }
+            }
+            for (ByteBuffer table : tables) {
+                ByteBuffer content = table.duplicate();
+                content.clear();
+                byte[] chunk = new byte[1 << 16];
+                while (content.hasRemaining()) {
+                    int length = Math.min(chunk.length, content.remaining());
+                    content.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Loads a pattern database written with {@link #save(File)}. The tables are not read: the file
+     * is mapped in memory and the operating system loads the pages when they are accessed.
+     *
+     * @param file file with the pattern database
+     * @return pattern database backed by the mapped file
+     * @throws IOException if the file cannot be read or it is not a pattern database
+     */
+    public static PatternDatabase load(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a pattern database");
+            }
+            int squares = buffer.getInt();
+            int[][] patterns = new int[buffer.getInt()][];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = new int[buffer.getInt()];
+                for (int j = 0; j < patterns[i].length; j++) {
+                    patterns[i][j] = buffer.getInt();
+                }
+            }
+            ByteBuffer[] tables = new ByteBuffer[patterns.length];
+            for (int i = 0; i < patterns.length; i++) {
+                int entries = tableSize(squares, patterns[i].length);
+                ByteBuffer table = buffer.slice();
+                table.limit(entries);
+                tables[i] = table;
+                buffer.position(buffer.position() + entries);
+            }
+            return new PatternDatabase(squares, patterns, tables);
+        } finally {
+            // The mapping remains valid after closing the file
+            raf.close();
+        }
+    }
+
+    /**
+     * @return groups of tiles of each table
+     */
+    public int[][] getPatterns() {
+        return patterns.clone();
+    }
+}
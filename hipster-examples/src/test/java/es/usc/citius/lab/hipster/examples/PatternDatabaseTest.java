@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2013-2018 Centro de Investigación en Tecnoloxías da Información (CITIUS) (http://citius.usc.es)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.usc.citius.lab.hipster.examples;
+
+import es.usc.citius.hipster.examples.problem.NPuzzle.Puzzle;
+import es.usc.citius.hipster.examples.problem.PatternDatabase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PatternDatabaseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Puzzle GOAL = new Puzzle(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8});
+
+    /**
+     * Optimal number of moves to the goal of every state of the 8-puzzle.
+     */
+    private static Map<Puzzle, Integer> exactDistances() {
+        Map<Puzzle, Integer> distances = new HashMap<Puzzle, Integer>();
+        Queue<int[]> queue = new LinkedList<int[]>();
+        int[] goal = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+        distances.put(new Puzzle(goal), 0);
+        queue.add(goal);
+        while (!queue.isEmpty()) {
+            int[] board = queue.poll();
+            int distance = distances.get(new Puzzle(board));
+            int blank = 0;
+            while (board[blank] != 0) blank++;
+            for (int offset : new int[]{-3, 3, -1, 1}) {
+                int tile = blank + offset;
+                if (tile < 0 || tile >= 9 || (Math.abs(offset) == 1 && tile / 3 != blank / 3)) continue;
+                int[] successor = board.clone();
+                successor[blank] = successor[tile];
+                successor[tile] = 0;
+                Puzzle puzzle = new Puzzle(successor);
+                if (!distances.containsKey(puzzle)) {
+                    distances.put(puzzle, distance + 1);
+                    queue.add(successor);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static int manhattan(Puzzle puzzle) {
+        int[][] board = puzzle.getMatrixBoard();
+        int distance = 0;
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                int tile = board[x][y];
+                if (tile != 0) {
+                    distance += Math.abs(x - tile / 3) + Math.abs(y - tile % 3);
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Test
+    public void admissibleAndMoreInformedThanManhattan() {
+        PatternDatabase pdb = PatternDatabase.build(GOAL, new int[]{1, 2, 3, 4}, new int[]{5, 6, 7, 8});
+        Map<Puzzle, Integer> distances = exactDistances();
+        assertEquals(181440, distances.size());
+        long manhattanSum = 0, pdbSum = 0;
+        for (Map.Entry<Puzzle, Integer> entry : distances.entrySet()) {
+            int estimation = pdb.estimate(entry.getKey()).intValue();
+            int manhattan = manhattan(entry.getKey());
+            assertTrue(estimation <= entry.getValue());
+            assertTrue(estimation >= manhattan);
+            manhattanSum += manhattan;
+            pdbSum += estimation;
+        }
+        assertTrue(pdbSum > manhattanSum);
+        assertEquals(0d, pdb.estimate(GOAL), 0d);
+    }
+
+    @Test
+    public void singlePatternWithAllTilesIsExact() {
+        PatternDatabase pdb = PatternDatabase.build(GOAL, new int[]{1, 2, 3, 4, 5, 6, 7, 8});
+        for (Map.Entry<Puzzle, Integer> entry : exactDistances().entrySet()) {
+            assertEquals(entry.getValue().intValue(), pdb.estimate(entry.getKey()).intValue());
+        }
+    }
+
+    @Test
+    public void saveAndLoadMappedFile() throws Exception {
+        PatternDatabase pdb = PatternDatabase.build(GOAL, new int[]{1, 3, 4}, new int[]{2, 5}, new int[]{6, 7, 8});
+        File file = folder.newFile();
+        pdb.save(file);
+        PatternDatabase loaded = PatternDatabase.load(file);
+        assertArrayEquals(pdb.getPatterns(), loaded.getPatterns());
+        for (Puzzle puzzle : exactDistances().keySet()) {
+            assertEquals(pdb.estimate(puzzle), loaded.estimate(puzzle));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overlappingPatterns() {
+        PatternDatabase.build(GOAL, new int[]{1, 2, 3}, new int[]{3, 4});
+    }
+}